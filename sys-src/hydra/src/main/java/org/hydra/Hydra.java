@@ -104,7 +104,7 @@ public class Hydra {
 	public static String getLongHeader() {
 		return Hydra.NAME + " - " + Hydra.DESCRIPTION + "\nVersion: "
 				+ Hydra.VERSION + " Build: " + Hydra.BUILD_NUMBER
-				+ " Storage: " + DataAccessObject.STORAGE_STRATEGY;
+				+ " Storage: " + DataAccessObject.findStorageStrategy();
 	}
 
 }
@@ -21,8 +21,13 @@
 package org.hydra.core;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
+import org.hydra.persistence.ArtifactDAO;
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.ObjectStore;
+import org.hydra.persistence.WorkspaceIndex;
 
 /**
  * Specialized fingerprinted element that maintains content. Within a a file
@@ -45,6 +50,9 @@ public class Artifact extends FingerprintedElement {
 	 */
 	public static final String TOKEN = "IT";
 
+	/** The persisted previous version, used as base of a delta. */
+	private Hash deltaBase = null;
+
 	/**
 	 * Specialized Constructor, which uses the workspace file as its content.
 	 *
@@ -74,6 +82,18 @@ public class Artifact extends FingerprintedElement {
 		super(workspaceFile, contentHash);
 	}
 
+	/**
+	 * Return the repository file of the artifact's previous persisted version,
+	 * or null if no previous version is known. The repository is only
+	 * consulted here, when a new version is being written.
+	 *
+	 * @return deltaBase - File.
+	 */
+	public File cloneDeltaBase() {
+		return ((this.deltaBase != null) && this.isStored(this.deltaBase)) ? new File(
+				this.config.getFPStore(), this.deltaBase.toString()) : null;
+	}
+
 	/**
 	 * ELEMENT METHODS (OVERRIDDEN) ****************************************.
 	 * 
@@ -98,10 +118,19 @@ public class Artifact extends FingerprintedElement {
 	 */
 	@Override
 	public String getDescriptor() {
-		return new StringBuilder(Artifact.TOKEN)
-				.append(DataAccessObject.SEP_TOKEN).append(this.getName())
-				.append(DataAccessObject.SEP_TOKEN)
-				.append(this.fingerprint.getHash()).toString();
+		return this.appendDescriptor(new StringBuilder()).toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Append this artifact's complete string id, writing its hash directly.
+	 */
+	@Override
+	public StringBuilder appendDescriptor(final StringBuilder sb) {
+		sb.append(Artifact.TOKEN).append(DataAccessObject.SEP_TOKEN)
+				.append(this.getName()).append(DataAccessObject.SEP_TOKEN);
+		return this.fingerprint.appendHash(sb);
 	}
 
 	/**
@@ -134,11 +163,8 @@ public class Artifact extends FingerprintedElement {
 			if (workspace) {
 				sb.append(" ");
 			}
-			if (!this.repositoryFile.exists()) {
-				sb.append("-");
-			} else {
-				sb.append((this.repositoryFile.exists()) ? "v" : "c");
-			}
+			sb.append(ObjectStore.getInstance().contains(this.repositoryFile) ? "v"
+					: "-");
 		}
 		return sb.toString();
 	}
@@ -158,17 +184,60 @@ public class Artifact extends FingerprintedElement {
 	@Override
 	public boolean refreshFingerprint() {
 		if (this.workspaceFile.exists()) {
-			this.fingerprint.setHash(this.fingerprint
-					.calculateHash(this.workspaceFile));
+			this.updateHash(this.fingerprint
+					.calculateHashValue(this.workspaceFile));
 			return true;
 		} else {
 			this.logger.warning("Unable to refresh fingerprint because ["
 					+ this.workspaceFile + "] does not exist.");
-			this.fingerprint.setHash(null);
+			this.fingerprint.setHash((Hash) null);
 			return false;
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Hash and persist the artifact's content with a single read of its
+	 * workspace file where the storage strategy allows, unless the workspace
+	 * index already knows its hash.
+	 */
+	@Override
+	public boolean ingest() {
+		if (!this.workspaceFile.isFile())
+			return this.refreshFingerprint() && this.store();
+		final WorkspaceIndex index = WorkspaceIndex.getInstance();
+		final Hash indexedHash = index.lookup(this.workspaceFile);
+		if (indexedHash != null) {
+			this.updateHash(indexedHash);
+			return this.store();
+		}
+		final Hash previous = this.fingerprint.getHashValue();
+		if (previous != null) {
+			this.deltaBase = previous;
+		}
+		final Hash hash = ((ArtifactDAO) this.dao).ingest();
+		if (hash == null)
+			return this.refreshFingerprint() && this.store();
+		index.update(this.workspaceFile, hash);
+		this.fingerprint.setHash(hash);
+		this.repositoryFile = new File(this.config.getFPStore(),
+				hash.toString());
+		return true;
+	}
+
+	/**
+	 * Open the content of the artifact's designated persisted state, without
+	 * restoring it to the workspace.
+	 *
+	 * @return content - InputStream, to be closed by the caller.
+	 * @throws IOException
+	 *             if the persisted state could not be opened.
+	 */
+	public InputStream openContents() throws IOException {
+		return ((ArtifactDAO) this.dao).openContents();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -179,6 +248,22 @@ public class Artifact extends FingerprintedElement {
 		return this.dao.retrieve();
 	}
 
+	/**
+	 * Return the artifact's designated persisted state to the workspace, unless
+	 * the workspace file already holds it. The workspace index is consulted
+	 * first, so unchanged files are usually neither read nor written.
+	 *
+	 * @return success - boolean.
+	 */
+	public boolean checkout() {
+		final Hash target = this.fingerprint.getHashValue();
+		if ((target != null) && this.workspaceFile.isFile()
+				&& target.equals(new Fingerprint()
+						.calculateHashValue(this.workspaceFile)))
+			return true;
+		return this.retrieve();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -190,4 +275,36 @@ public class Artifact extends FingerprintedElement {
 		return this.dao.store();
 	}
 
+	/**
+	 * ARTIFACT METHODS (PRIVATE) *********************************************.
+	 */
+
+	/**
+	 * Set the artifact's new hash, remembering the previous version as base
+	 * of a delta. Whether the previous version has been persisted is only
+	 * determined once a new version is written.
+	 *
+	 * @param current
+	 *            Hash.
+	 */
+	private void updateHash(final Hash current) {
+		final Hash previous = this.fingerprint.getHashValue();
+		if ((previous != null) && (previous != current)) {
+			this.deltaBase = previous;
+		}
+		this.fingerprint.setHash(current);
+	}
+
+	/**
+	 * Determine if the version with the given hash has been persisted.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return stored - boolean.
+	 */
+	private boolean isStored(final Hash hash) {
+		return ObjectStore.getInstance().contains(
+				new File(this.config.getFPStore(), hash.toString()));
+	}
+
 }
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 
+import org.hydra.persistence.CommitGraph;
 import org.hydra.persistence.DataAccessObject;
 
 /**
@@ -78,6 +79,9 @@ public abstract class CommittableElement extends Element {
 	/** The history crawler. */
 	protected HistoryCrawler historyCrawler;
 
+	/** The commit graph of the element's history. */
+	protected CommitGraph commitGraph;
+
 	/**
 	 * Specialized Creator that loads its referencing representation from the
 	 * designated repository file and initializes a history crawler for
@@ -91,6 +95,7 @@ public abstract class CommittableElement extends Element {
 	public CommittableElement(final File repositoryFile)
 			throws InvalidElementException {
 		super(repositoryFile);
+		this.commitGraph = CommitGraph.getInstance(repositoryFile);
 		this.historyCrawler = new HistoryCrawler(this);
 	}
 
@@ -181,6 +186,33 @@ public abstract class CommittableElement extends Element {
 				: "null";
 	}
 
+	/**
+	 * Compare the contents of the current state with the workspace contents.
+	 *
+	 * @return diff - TreeDiff, or null if the element has not been committed.
+	 */
+	public TreeDiff diffWorkspace() {
+		if (this.current == null)
+			return null;
+		this.contents.refreshFingerprint();
+		try {
+			return new TreeDiff(this.current.cloneContents(), this.contents);
+		} catch (final InvalidElementException e) {
+			this.logger.exception("Unable to Compare the Workspace of ["
+					+ this.getName() + "].", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Retrieve the commit graph of the historied element's history.
+	 *
+	 * @return commitGraph - CommitGraph.
+	 */
+	public CommitGraph getCommitGraph() {
+		return this.commitGraph;
+	}
+
 	/**
 	 * Retrieve the historied element's history crawler.
 	 *
@@ -248,7 +280,7 @@ public abstract class CommittableElement extends Element {
 			if (this instanceof Stage) {
 				target = this.stateToStageState(target);
 			}
-			target.retrieve();
+			target.checkout(this.contents);
 			this.contents = target.cloneContents();
 			this.current = target;
 			return this.recordReferences();
@@ -267,10 +299,7 @@ public abstract class CommittableElement extends Element {
 	 * @return success - boolean.
 	 */
 	public boolean stashContents() {
-		if (this.contents != null) {
-			this.contents.refreshFingerprint();
-		}
-		return (this.contents != null) ? this.contents.store() : false;
+		return (this.contents != null) ? this.contents.ingest() : false;
 	}
 
 	/**
@@ -368,8 +397,9 @@ public abstract class CommittableElement extends Element {
 		else {
 			this.contents.refreshFingerprint();
 			try {
-				if (this.contents.getHash().equals(
-						this.current.cloneContents().getHash()))
+				if (this.contents.getFingerprint().hasHash()
+						&& this.contents.getFingerprint().equals(
+								this.current.cloneContents().getFingerprint()))
 					return false;
 				else
 					return true;
@@ -399,6 +429,7 @@ public abstract class CommittableElement extends Element {
 				this.head = this.resolveNewState(this.head, userId,
 						commitMessage);
 				this.head.store();
+				this.commitGraph.append(this.head);
 				this.current = this.head;
 				this.recordReferences();
 				return this.getHeadHash();
@@ -436,6 +467,7 @@ public abstract class CommittableElement extends Element {
 				}
 				this.head = this.current;
 				this.current.store();
+				this.commitGraph.append(this.current);
 				this.recordReferences();
 				return this.head.getFingerprint().getHash();
 			} catch (final InvalidElementException e) {
@@ -471,13 +503,14 @@ public abstract class CommittableElement extends Element {
 						this.resolveStateFromHash(prevHash), userId, message);
 				this.current.store();
 				State nextState;
-				if (nextHash.equals(this.head.getFingerprint().getHash())) {
+				if (this.head.getFingerprint().matchesHash(nextHash)) {
 					nextState = this.head;
 				} else {
 					nextState = this.resolveStateFromHash(nextHash);
 				}
 				nextState.addPrevious(this.current);
 				nextState.store();
+				this.commitGraph.insert(this.current, nextState);
 				// Reset Head and Current Histories
 				this.head = this.resolveStateFromHash(this.getHeadHash());
 				this.revert(this.getCurrentHash());
@@ -514,6 +547,7 @@ public abstract class CommittableElement extends Element {
 			}
 			this.head = this.current;
 			this.current.store();
+			this.commitGraph.append(this.current);
 			this.recordReferences();
 			return this.head.getFingerprint().getHash();
 		} catch (final InvalidElementException e) {
@@ -545,7 +579,8 @@ public abstract class CommittableElement extends Element {
 			updatedState.setTimestamp(new Date());
 			updatedState.updateContent(this.contents);
 			updatedState.store();
-			if (stateHash.equals(this.head.getFingerprint().getHash())) {
+			this.commitGraph.update(updatedState);
+			if (this.head.getFingerprint().matchesHash(stateHash)) {
 				this.head = updatedState;
 			} else {
 				this.head = this.resolveStateFromHash(this.getHeadHash());
@@ -21,9 +21,15 @@
 package org.hydra.core;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 
+import org.hydra.persistence.ContainerDAO;
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.ObjectCache;
+import org.hydra.persistence.ObjectStore;
+import org.hydra.persistence.RecordReader;
 import org.hydra.utilities.FileUtilities;
 import org.hydra.utilities.FilterInDirectories;
 import org.hydra.utilities.FilterInFiles;
@@ -53,6 +59,9 @@ public class Container extends FingerprintedElement {
 	private final TreeSet<FingerprintedElement> elements = new TreeSet<FingerprintedElement>(
 			new ElementComparator());
 
+	/** Whether the elements have been loaded from the repository. */
+	private boolean loaded = true;
+
 	/**
 	 * Specialized Constructor, which uses the given directory as its base.
 	 *
@@ -64,14 +73,15 @@ public class Container extends FingerprintedElement {
 	public Container(final File directory) throws InvalidElementException {
 		super(directory);
 		this.fingerprint.setHash(this.fingerprint
-				.calculateHash(new StringBuilder(Container.HEADER).append(
+				.calculateHashValue(new StringBuilder(Container.HEADER).append(
 						DataAccessObject.SEP_MEMBER).toString()));
 	}
 
 	/**
 	 * Specialized Constructor, which uses the given directory as its workspace
 	 * base and defines the content according to the content's hash found in the
-	 * fingerprinted store in the repository.
+	 * fingerprinted store in the repository. The subelements are only loaded
+	 * from the repository once they are first accessed.
 	 *
 	 * @param directory
 	 *            File.
@@ -83,7 +93,7 @@ public class Container extends FingerprintedElement {
 	public Container(final File directory, final String contentHash)
 			throws InvalidElementException {
 		super(directory, contentHash);
-		this.dao.load();
+		this.loaded = false;
 	}
 
 	/**
@@ -96,11 +106,19 @@ public class Container extends FingerprintedElement {
 	 */
 	public Container(final Container clonedContainer)
 			throws InvalidElementException {
-		this.fingerprint.setHash(clonedContainer.getFingerprint().getHash());
+		if (clonedContainer.getHashValue() != null) {
+			this.fingerprint.setHash(clonedContainer.getHashValue());
+		} else {
+			this.fingerprint.setHash(clonedContainer.getHash());
+		}
 		this.repositoryFile = new File(this.config.getFPStore(),
 				this.fingerprint.getHash());
 		this.workspaceFile = new File(clonedContainer.cloneWorkspaceFile()
 				.getPath());
+		if (!clonedContainer.loaded) {
+			this.loaded = false;
+			return;
+		}
 		for (final FingerprintedElement e : clonedContainer.listElements()) {
 			if (e instanceof Artifact) {
 				this.elements.add(e);
@@ -156,7 +174,7 @@ public class Container extends FingerprintedElement {
 	 * @return true, if successful
 	 */
 	private boolean addDirectSubElement(final FingerprintedElement element) {
-		if (this.elements.add(element)) {
+		if (this.loadElements().add(element)) {
 			this.fingerprint = new Fingerprint(this.describe());
 			return true;
 		}
@@ -241,7 +259,7 @@ public class Container extends FingerprintedElement {
 	 */
 	public int countElements() {
 		int count = 0;
-		for (final Element e : this.elements) {
+		for (final Element e : this.loadElements()) {
 			count++;
 			if (e instanceof Container) {
 				count += ((Container) e).countElements();
@@ -268,7 +286,7 @@ public class Container extends FingerprintedElement {
 		} else {
 			subElementName = searchPath;
 		}
-		for (final FingerprintedElement e : this.elements) {
+		for (final FingerprintedElement e : this.loadElements()) {
 			// Search For Direct SubElement
 			if (subElementName.equals(e.getName())) {
 				// If Direct SubElement is Target Return
@@ -289,7 +307,9 @@ public class Container extends FingerprintedElement {
 	 * @return elements - FingerprintedElement[].
 	 */
 	public FingerprintedElement[] listElements() {
-		return this.elements.toArray(new FingerprintedElement[this.elements
+		final TreeSet<FingerprintedElement> loadedElements = this
+				.loadElements();
+		return loadedElements.toArray(new FingerprintedElement[loadedElements
 				.size()]);
 	}
 
@@ -315,7 +335,7 @@ public class Container extends FingerprintedElement {
 	 * @return true, if successful
 	 */
 	private boolean removeDirectSubElement(final FingerprintedElement element) {
-		if (this.elements.remove(element)) {
+		if (this.loadElements().remove(element)) {
 			this.fingerprint = new Fingerprint(this.describe());
 			return true;
 		}
@@ -359,8 +379,8 @@ public class Container extends FingerprintedElement {
 	public String describe() {
 		final StringBuilder sb = new StringBuilder(Container.HEADER)
 				.append(DataAccessObject.SEP_MEMBER);
-		for (final FingerprintedElement e : this.elements) {
-			sb.append(e.getDescriptor()).append(DataAccessObject.SEP_MEMBER);
+		for (final FingerprintedElement e : this.loadElements()) {
+			e.appendDescriptor(sb).append(DataAccessObject.SEP_MEMBER);
 		}
 		return sb.toString();
 	}
@@ -372,10 +392,19 @@ public class Container extends FingerprintedElement {
 	 */
 	@Override
 	public String getDescriptor() {
-		return new StringBuilder(Container.TOKEN)
-				.append(DataAccessObject.SEP_TOKEN).append(this.getName())
-				.append(DataAccessObject.SEP_TOKEN)
-				.append(this.fingerprint.getHash()).toString();
+		return this.appendDescriptor(new StringBuilder()).toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Append this container's complete string id, writing its hash directly.
+	 */
+	@Override
+	public StringBuilder appendDescriptor(final StringBuilder sb) {
+		sb.append(Container.TOKEN).append(DataAccessObject.SEP_TOKEN)
+				.append(this.getName()).append(DataAccessObject.SEP_TOKEN);
+		return this.fingerprint.appendHash(sb);
 	}
 
 	/**
@@ -414,11 +443,11 @@ public class Container extends FingerprintedElement {
 			if (workspace) {
 				sb.append(" ");
 			}
-			if (!this.repositoryFile.exists()) {
+			final ObjectStore store = ObjectStore.getInstance();
+			if (!store.contains(this.repositoryFile)) {
 				sb.append("-");
 			} else {
-				sb.append(this.fingerprint
-						.checkFingerprint(this.repositoryFile) ? "v" : "c");
+				sb.append(this.verifyRecord() ? "v" : "c");
 			}
 		}
 		return sb.toString();
@@ -437,21 +466,159 @@ public class Container extends FingerprintedElement {
 	 */
 	@Override
 	public boolean refreshFingerprint() {
+		if (this.countElements() >= FingerprintRefresher.PARALLEL_THRESHOLD) {
+			final FingerprintRefresher refresher = FingerprintRefresher
+					.configured();
+			if (refresher != null)
+				return refresher.refresh(this);
+		}
+		return this.refreshFingerprintSerially();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Hash and persist all changed artifacts with a single read each, then
+	 * persist the container tree. Fails if any artifact could not be hashed
+	 * or persisted, even though the tree itself is still persisted.
+	 */
+	@Override
+	public boolean ingest() {
+		final FingerprintRefresher refresher = (this.countElements() >= FingerprintRefresher.PARALLEL_THRESHOLD) ? FingerprintRefresher
+				.configured() : null;
+		boolean success = true;
+		if (refresher != null) {
+			success = refresher.ingest(this);
+		} else {
+			final List<Artifact> artifacts = new ArrayList<Artifact>();
+			this.collectArtifacts(artifacts);
+			for (final Artifact a : artifacts) {
+				if (!a.ingest()) {
+					success = false;
+				}
+			}
+			if (!this.recombineFingerprint()) {
+				success = false;
+			}
+		}
+		return this.store() && success;
+	}
+
+	/**
+	 * Refresh the fingerprints of this container and its subelements on the
+	 * calling thread.
+	 *
+	 * @return success - boolean.
+	 */
+	private boolean refreshFingerprintSerially() {
 		boolean success = true;
-		for (final FingerprintedElement e : this.elements) {
-			if (!e.refreshFingerprint()) {
+		for (final FingerprintedElement e : this.loadElements()) {
+			final boolean refreshed = (e instanceof Container) ? ((Container) e)
+					.refreshFingerprintSerially() : e.refreshFingerprint();
+			if (!refreshed) {
 				success = false;
 			}
-			if (e.getHash() == null) {
+		}
+		this.removeNullFingerprints();
+		this.fingerprint
+				.setHash(this.fingerprint.calculateHashValue(this.describe()));
+		return success;
+	}
+
+	/**
+	 * Collect all artifacts found within this container and its
+	 * subcontainers.
+	 *
+	 * @param artifacts
+	 *            List of Artifacts.
+	 */
+	void collectArtifacts(final List<Artifact> artifacts) {
+		for (final FingerprintedElement e : this.loadElements()) {
+			if (e instanceof Artifact) {
+				artifacts.add((Artifact) e);
+			} else if (e instanceof Container) {
+				((Container) e).collectArtifacts(artifacts);
+			}
+		}
+	}
+
+	/**
+	 * Recalculate the fingerprints of this container and its subcontainers
+	 * bottom-up from the already refreshed fingerprints of their artifacts.
+	 *
+	 * @return success - boolean.
+	 */
+	boolean recombineFingerprint() {
+		boolean success = true;
+		for (final FingerprintedElement e : this.loadElements()) {
+			if (e instanceof Container) {
+				if (!((Container) e).recombineFingerprint()) {
+					success = false;
+				}
+			} else if (e instanceof Artifact) {
+				if (!e.getFingerprint().hasHash()) {
+					success = false;
+				}
+			} else if (!e.refreshFingerprint()) {
+				success = false;
+			}
+		}
+		this.removeNullFingerprints();
+		this.fingerprint
+				.setHash(this.fingerprint.calculateHashValue(this.describe()));
+		return success;
+	}
+
+	/**
+	 * Determine if the container's persisted record matches its fingerprint,
+	 * which is calculated over the record's text description.
+	 *
+	 * @return matches - boolean.
+	 */
+	private boolean verifyRecord() {
+		try {
+			return this.fingerprint.checkFingerprint(RecordReader
+					.toText(ObjectCache.getInstance().readMembers(
+							this.repositoryFile)));
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Verify Container ["
+					+ this.repositoryFile + "].", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Return the direct subelements, loading them from the repository on first
+	 * access.
+	 *
+	 * @return elements - TreeSet of FingerprintedElements.
+	 */
+	private TreeSet<FingerprintedElement> loadElements() {
+		if (!this.loaded) {
+			this.loaded = true;
+			try {
+				this.dao.load();
+			} catch (final InvalidElementException e) {
+				this.logger.exception("Unable to Load Container [" + this
+						+ "].", e);
+			}
+		}
+		return this.elements;
+	}
+
+	/**
+	 * Remove all direct subelements whose fingerprint could not be
+	 * determined.
+	 */
+	private void removeNullFingerprints() {
+		for (final FingerprintedElement e : this.listElements()) {
+			if (!e.getFingerprint().hasHash()) {
 				this.logger
 						.warning("Null Fingerprint Detected - Removing Element ["
 								+ e + "].");
-				this.removeElement(e);
+				this.loadElements().remove(e);
 			}
 		}
-		this.fingerprint
-				.setHash(this.fingerprint.calculateHash(this.describe()));
-		return success;
 	}
 
 	/**
@@ -465,6 +632,18 @@ public class Container extends FingerprintedElement {
 		return this.dao.retrieve();
 	}
 
+	/**
+	 * Return the persisted container and its content to the workspace, writing
+	 * only the artifacts that differ from the workspace.
+	 *
+	 * @param current
+	 *            Container, the state the workspace was last set to or null.
+	 * @return success - boolean.
+	 */
+	public boolean checkout(final Container current) {
+		return ((ContainerDAO) this.dao).checkout(current);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -24,6 +24,7 @@ import java.io.File;
 import java.util.regex.Pattern;
 
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.ObjectStore;
 import org.hydra.utilities.Logger;
 
 /**
@@ -91,7 +92,7 @@ public abstract class Element {
 		this.dao = DataAccessObject.createDAO(this);
 		this.logger = Logger.getInstance();
 		this.repositoryFile = new File(this.config.getFPStore(), contentHash);
-		if (!this.repositoryFile.exists()) {
+		if (!ObjectStore.getInstance().contains(this.repositoryFile)) {
 			final String message = "Content Hash Not Found. [" + contentHash
 					+ "]";
 			this.logger.exception(message);
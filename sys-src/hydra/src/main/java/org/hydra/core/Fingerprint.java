@@ -20,12 +20,15 @@
  *************************************************************************/
 package org.hydra.core;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
+import org.hydra.persistence.WorkspaceIndex;
 import org.hydra.utilities.Logger;
 
 /**
@@ -39,21 +42,44 @@ import org.hydra.utilities.Logger;
  */
 public class Fingerprint {
 
-	/** The logger. */
-	private Logger logger = null;
+	/** Size of the buffer used to stream file contents into the digest. */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The digesters, shared by all fingerprints of a thread. */
+	private static final ThreadLocal<MessageDigest> DIGESTERS = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA1");
+			} catch (final NoSuchAlgorithmException e) {
+				Logger.getInstance().exception("Unable to get Message Digest.",
+						e);
+				return null;
+			}
+		}
+	};
 
-	/** The md. */
-	private final MessageDigest md;
+	/** The streaming buffers, shared by all fingerprints of a thread. */
+	private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(Fingerprint.BUFFER_SIZE);
+		}
+	};
+
+	/** The logger. */
+	private static final Logger logger = Logger.getInstance();
 
 	/** The fp hash. */
-	private String fpHash;
+	private Hash fpHash;
+
+	/** The fp hash, if it is not a well-formed SHA1 hash. */
+	private String fpRawHash;
 
 	/**
 	 * Default constructor.
 	 */
 	public Fingerprint() {
-		this.logger = Logger.getInstance();
-		this.md = this.getMessageDigest();
 		this.fpHash = null;
 	}
 
@@ -64,9 +90,7 @@ public class Fingerprint {
 	 *            String.
 	 */
 	public Fingerprint(final String contentString) {
-		this.logger = Logger.getInstance();
-		this.md = this.getMessageDigest();
-		this.fpHash = this.calculateHash(contentString);
+		this.fpHash = this.calculateHashValue(contentString);
 	}
 
 	/**
@@ -76,23 +100,19 @@ public class Fingerprint {
 	 *            File.
 	 */
 	public Fingerprint(final File contentFile) {
-		this.logger = Logger.getInstance();
-		this.md = this.getMessageDigest();
-		this.fpHash = this.calculateHash(contentFile);
+		this.fpHash = this.calculateHashValue(contentFile);
 	}
 
 	/**
-	 * Return a SHA1 message digest instance to use for the hash calculations.
+	 * Return the current thread's SHA1 message digest, reset for a new
+	 * calculation.
 	 * 
 	 * @return messageDigest - MessageDigest.
 	 */
 	private MessageDigest getMessageDigest() {
-		try {
-			return MessageDigest.getInstance("SHA1");
-		} catch (final NoSuchAlgorithmException e) {
-			this.logger.exception("Unable to get Message Digest.", e);
-			return null;
-		}
+		final MessageDigest md = Fingerprint.DIGESTERS.get();
+		md.reset();
+		return md;
 	}
 
 	/**
@@ -103,8 +123,7 @@ public class Fingerprint {
 	 * @return hash - String.
 	 */
 	public String calculateHash(final String contentString) {
-		this.md.update(contentString.getBytes());
-		return this.convertBytesToHash(this.md.digest());
+		return Fingerprint.toHex(this.calculateHashValue(contentString));
 	}
 
 	/**
@@ -115,67 +134,129 @@ public class Fingerprint {
 	 * @return hash - String.
 	 */
 	public String calculateHash(final File contentFile) {
+		return Fingerprint.toHex(this.calculateHashValue(contentFile));
+	}
+
+	/**
+	 * Calculate the unique fingerprint hash for the content of the given
+	 * string.
+	 *
+	 * @param contentString
+	 *            String.
+	 * @return hash - Hash.
+	 */
+	public Hash calculateHashValue(final String contentString) {
+		final MessageDigest md = this.getMessageDigest();
+		md.update(contentString.getBytes());
+		return Hash.valueOf(md.digest());
+	}
+
+	/**
+	 * Calculate the unique fingerprint hash for the content of the given file.
+	 *
+	 * @param contentFile
+	 *            File.
+	 * @return hash - Hash.
+	 */
+	public Hash calculateHashValue(final File contentFile) {
 		if (!contentFile.exists()) {
-			this.logger.warning("Cannot calculate hash for non-existent file ["
-					+ contentFile + "].");
+			Fingerprint.logger
+					.warning("Cannot calculate hash for non-existent file ["
+							+ contentFile + "].");
 			return null;
 		} else if (contentFile.isFile()) {
-			this.md.update(this.readContentBytes(contentFile));
-			return this.convertBytesToHash(this.md.digest());
+			final WorkspaceIndex index = WorkspaceIndex.getInstance();
+			final Hash indexedHash = index.lookup(contentFile);
+			if (indexedHash != null)
+				return indexedHash;
+			final MessageDigest md = this.getMessageDigest();
+			if (!this.digestContents(md, contentFile))
+				return null;
+			final Hash hash = Hash.valueOf(md.digest());
+			index.update(contentFile, hash);
+			return hash;
 		} else {
 			final StringBuilder contentString = new StringBuilder(
 					Container.HEADER).append("\n");
-			return this.calculateHash(contentString.toString());
+			return this.calculateHashValue(contentString.toString());
+		}
+	}
+
+	/**
+	 * Calculate the unique fingerprint hash for the content read from the
+	 * given stream. The stream is not closed.
+	 *
+	 * @param contentStream
+	 *            InputStream.
+	 * @return hash - Hash.
+	 */
+	public Hash calculateHashValue(final InputStream contentStream) {
+		final MessageDigest md = this.getMessageDigest();
+		try {
+			final byte[] buffer = new byte[Fingerprint.BUFFER_SIZE];
+			int read;
+			while ((read = contentStream.read(buffer)) >= 0) {
+				md.update(buffer, 0, read);
+			}
+			return Hash.valueOf(md.digest());
+		} catch (final Exception e) {
+			Fingerprint.logger.exception("Unable to Digest Stream.", e);
+			return null;
 		}
 	}
 
 	/**
-	 * Read content bytes.
+	 * Stream the content of the given file into the message digest. The
+	 * content is fed in fixed-size chunks through the thread's reused buffer,
+	 * so the memory used remains constant regardless of the file's size.
 	 * 
+	 * @param md
+	 *            MessageDigest.
 	 * @param contentFile
-	 *            the content file
-	 * @return the byte[]
+	 *            File.
+	 * @return success - boolean.
 	 */
-	private byte[] readContentBytes(final File contentFile) {
-		BufferedInputStream bis = null;
+	private boolean digestContents(final MessageDigest md,
+			final File contentFile) {
+		FileInputStream fis = null;
 		try {
-			bis = new BufferedInputStream(new FileInputStream(contentFile));
-			final byte[] contentBytes = new byte[(int) contentFile.length()];
-			bis.read(contentBytes);
-			return contentBytes;
+			fis = new FileInputStream(contentFile);
+			final FileChannel fc = fis.getChannel();
+			final ByteBuffer buffer = Fingerprint.BUFFERS.get();
+			buffer.clear();
+			while (fc.read(buffer) >= 0) {
+				buffer.flip();
+				md.update(buffer);
+				buffer.clear();
+			}
+			return true;
 		} catch (final Exception e) {
-			this.logger.exception("Unable to Read Contents Bytes ["
+			Fingerprint.logger.exception("Unable to Digest Contents ["
 					+ contentFile + "].", e);
+			md.reset();
+			return false;
 		} finally {
-			try {
-				if (bis != null) {
-					bis.close();
+			if (fis != null) {
+				try {
+					fis.close();
+				} catch (final Exception e) {
+					Fingerprint.logger.exception(
+							"Unable to Close FileInputStream During digestContents.",
+							e);
 				}
-			} catch (final Exception e) {
-				this.logger
-						.exception(
-								"Unable to Close Storage BufferedInputStream During readContentsBytes.",
-								e);
 			}
 		}
-		return new byte[0];
-
 	}
 
 	/**
-	 * Convert the byte array returned by the message digest to a string of
-	 * characters.
+	 * Convert the hash to its hexadecimal string form.
 	 * 
-	 * @param bytes
-	 *            byte[].
+	 * @param hash
+	 *            Hash.
 	 * @return String - hashCode.
 	 */
-	private String convertBytesToHash(final byte[] bytes) {
-		final StringBuffer sb = new StringBuffer("");
-		for (final byte b : bytes) {
-			sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-		}
-		return sb.toString();
+	private static String toHex(final Hash hash) {
+		return (hash == null) ? null : hash.toString();
 	}
 
 	/**
@@ -184,9 +265,55 @@ public class Fingerprint {
 	 * @return hashCode - String.
 	 */
 	public String getHash() {
+		return (this.fpHash != null) ? this.fpHash.toString() : this.fpRawHash;
+	}
+
+	/**
+	 * Return the compact hash that represents the fingerprinted contents, or
+	 * null if the hash is not a well-formed SHA1 hash.
+	 *
+	 * @return hash - Hash.
+	 */
+	public Hash getHashValue() {
 		return this.fpHash;
 	}
 
+	/**
+	 * Append the hash code string that represents the fingerprinted contents
+	 * to the given builder.
+	 *
+	 * @param sb
+	 *            StringBuilder.
+	 * @return sb - StringBuilder.
+	 */
+	public StringBuilder appendHash(final StringBuilder sb) {
+		return (this.fpHash != null) ? this.fpHash.appendTo(sb) : sb
+				.append(this.fpRawHash);
+	}
+
+	/**
+	 * Determine if the fingerprint holds a hash.
+	 *
+	 * @return hasHash - boolean.
+	 */
+	public boolean hasHash() {
+		return (this.fpHash != null) || (this.fpRawHash != null);
+	}
+
+	/**
+	 * Determine if the given hash code string represents the fingerprinted
+	 * contents, comparing interned hashes rather than their strings.
+	 *
+	 * @param contentHash
+	 *            String.
+	 * @return matches - boolean.
+	 */
+	public boolean matchesHash(final String contentHash) {
+		if (this.fpHash != null)
+			return this.fpHash == Hash.valueOf(contentHash);
+		return (contentHash != null) && contentHash.equals(this.fpRawHash);
+	}
+
 	/**
 	 * Set the hash code string that represents the contents.
 	 *
@@ -194,7 +321,19 @@ public class Fingerprint {
 	 *            String.
 	 */
 	public void setHash(final String contentHash) {
+		this.fpHash = Hash.valueOf(contentHash);
+		this.fpRawHash = (this.fpHash == null) ? contentHash : null;
+	}
+
+	/**
+	 * Set the compact hash that represents the contents.
+	 *
+	 * @param contentHash
+	 *            Hash.
+	 */
+	public void setHash(final Hash contentHash) {
 		this.fpHash = contentHash;
+		this.fpRawHash = null;
 	}
 
 	/**
@@ -205,7 +344,7 @@ public class Fingerprint {
 	 * @return matches - boolean.
 	 */
 	public boolean checkFingerprint(final String contentString) {
-		return this.fpHash.equals(this.calculateHash(contentString));
+		return this.matches(this.calculateHashValue(contentString));
 	}
 
 	/**
@@ -216,7 +355,32 @@ public class Fingerprint {
 	 * @return matches - boolean.
 	 */
 	public boolean checkFingerprint(final File contentFile) {
-		return this.fpHash.equals(this.calculateHash(contentFile));
+		return this.matches(this.calculateHashValue(contentFile));
+	}
+
+	/**
+	 * Determine if the content read from the stream matches the fingerprinted
+	 * content.
+	 *
+	 * @param contentStream
+	 *            InputStream.
+	 * @return matches - boolean.
+	 */
+	public boolean checkFingerprint(final InputStream contentStream) {
+		return this.matches(this.calculateHashValue(contentStream));
+	}
+
+	/**
+	 * Determine if the given hash matches the fingerprinted content.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return matches - boolean.
+	 */
+	private boolean matches(final Hash hash) {
+		if (this.fpHash != null)
+			return this.fpHash == hash;
+		return (hash != null) && hash.toString().equals(this.fpRawHash);
 	}
 
 	/**
@@ -235,7 +399,10 @@ public class Fingerprint {
 	 * @return equals - Fingerprint.
 	 */
 	public boolean equals(final Fingerprint fp) {
-		return this.fpHash.equals(fp.getHash());
+		if ((this.fpHash != null) || (fp.fpHash != null))
+			return this.fpHash == fp.fpHash;
+		return (this.fpRawHash == null) ? (fp.fpRawHash == null)
+				: this.fpRawHash.equals(fp.fpRawHash);
 	}
 
 	/**
@@ -245,7 +412,7 @@ public class Fingerprint {
 	 */
 	@Override
 	public String toString() {
-		return "Fingerprint:" + this.fpHash;
+		return "Fingerprint:" + this.getHash();
 	}
 
 }
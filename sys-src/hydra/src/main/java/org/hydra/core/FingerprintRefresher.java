@@ -0,0 +1,186 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hydra.utilities.DaemonThreadFactory;
+import org.hydra.utilities.Logger;
+
+/**
+ * Refreshes the fingerprints of a container tree using several threads. The
+ * artifacts of the tree are hashed concurrently, after which the container
+ * hashes are recombined bottom-up on the calling thread, so the resulting
+ * fingerprint is identical to the one of a serial refresh.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class FingerprintRefresher {
+
+	/** Property enabling or disabling the parallel refresh. */
+	public static final String PROPERTY_PARALLEL = "Core.parallelFingerprint";
+
+	/** Property defining the number of threads used for hashing. */
+	public static final String PROPERTY_THREADS = "Core.fingerprintThreads";
+
+	/** Minimum number of artifacts before the refresh is done in parallel. */
+	public static final int PARALLEL_THRESHOLD = 256;
+
+	/** Number of artifacts hashed by a single task. */
+	public static final int BATCH_SIZE = 64;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The number of threads. */
+	private final int threads;
+
+	/**
+	 * Specialized Constructor, which uses the given number of threads.
+	 *
+	 * @param threads
+	 *            int.
+	 */
+	public FingerprintRefresher(final int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Return a refresher configured according to the system's properties, or
+	 * null if parallel refreshing is disabled.
+	 *
+	 * @return refresher - FingerprintRefresher.
+	 */
+	public static FingerprintRefresher configured() {
+		final Configuration config = Configuration.getInstance();
+		if (config.hasProperty(FingerprintRefresher.PROPERTY_PARALLEL)
+				&& !Boolean.parseBoolean(config
+						.getProperty(FingerprintRefresher.PROPERTY_PARALLEL)))
+			return null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (config.hasProperty(FingerprintRefresher.PROPERTY_THREADS)) {
+			try {
+				threads = Integer.parseInt(config.getProperty(
+						FingerprintRefresher.PROPERTY_THREADS).trim());
+			} catch (final NumberFormatException e) {
+				Logger.getInstance().warning(
+						"Invalid Fingerprint Thread Count ["
+								+ config.getProperty(
+										FingerprintRefresher.PROPERTY_THREADS)
+								+ "].");
+			}
+		}
+		return (threads > 1) ? new FingerprintRefresher(threads) : null;
+	}
+
+	/**
+	 * Refresh the fingerprints of the given container and all its
+	 * subelements.
+	 *
+	 * @param container
+	 *            Container.
+	 * @return success - boolean.
+	 */
+	public boolean refresh(final Container container) {
+		final List<Artifact> artifacts = new ArrayList<Artifact>();
+		container.collectArtifacts(artifacts);
+		boolean success = this.processArtifacts(artifacts, false);
+		if (!container.recombineFingerprint()) {
+			success = false;
+		}
+		return success;
+	}
+
+	/**
+	 * Hash and persist the artifacts of the given container and all its
+	 * subcontainers, then refresh the container fingerprints.
+	 *
+	 * @param container
+	 *            Container.
+	 * @return success - boolean.
+	 */
+	public boolean ingest(final Container container) {
+		final List<Artifact> artifacts = new ArrayList<Artifact>();
+		container.collectArtifacts(artifacts);
+		boolean success = this.processArtifacts(artifacts, true);
+		if (!container.recombineFingerprint()) {
+			success = false;
+		}
+		return success;
+	}
+
+	/**
+	 * Hash, and optionally persist, the given artifacts concurrently, in
+	 * batches.
+	 *
+	 * @param artifacts
+	 *            List of Artifacts.
+	 * @param ingest
+	 *            boolean, whether the artifacts are also persisted.
+	 * @return success - boolean.
+	 */
+	private boolean processArtifacts(final List<Artifact> artifacts,
+			final boolean ingest) {
+		final ExecutorService pool = Executors.newFixedThreadPool(
+				this.threads, new DaemonThreadFactory("hydra-fingerprint"));
+		final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		boolean success = true;
+		try {
+			for (int i = 0; i < artifacts.size(); i += BATCH_SIZE) {
+				final List<Artifact> batch = artifacts.subList(i,
+						Math.min(i + BATCH_SIZE, artifacts.size()));
+				results.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						boolean batchSuccess = true;
+						for (final Artifact a : batch) {
+							if (!(ingest ? a.ingest() : a.refreshFingerprint())) {
+								batchSuccess = false;
+							}
+						}
+						return batchSuccess;
+					}
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				try {
+					if (!result.get().booleanValue()) {
+						success = false;
+					}
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Refresh Fingerprints.", e);
+					success = false;
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		return success;
+	}
+
+}
@@ -169,6 +169,26 @@ public abstract class FingerprintedElement extends Element {
 		return this.fingerprint.getHash();
 	}
 
+	/**
+	 * Convenience Method equal to getFingerprint().getHashValue().
+	 *
+	 * @return fpHash - Hash.
+	 */
+	public Hash getHashValue() {
+		return this.fingerprint.getHashValue();
+	}
+
+	/**
+	 * Append the element's complete string id to the given builder.
+	 *
+	 * @param sb
+	 *            StringBuilder.
+	 * @return sb - StringBuilder.
+	 */
+	public StringBuilder appendDescriptor(final StringBuilder sb) {
+		return sb.append(this.getDescriptor());
+	}
+
 	/**
 	 * Refresh the element's fingerprint to account for any changed content.
 	 *
@@ -176,6 +196,16 @@ public abstract class FingerprintedElement extends Element {
 	 */
 	public abstract boolean refreshFingerprint();
 
+	/**
+	 * Refresh the element's fingerprint and persist its current state.
+	 *
+	 * @return success - boolean, whether the element was persisted.
+	 */
+	public boolean ingest() {
+		this.refreshFingerprint();
+		return this.store();
+	}
+
 	/**
 	 * OVERRIDDEN OBJECT METHODS **********************************************.
 	 * 
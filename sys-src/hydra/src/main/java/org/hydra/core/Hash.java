@@ -0,0 +1,289 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Compact, immutable representation of a SHA1 hash. The 20 bytes of the hash
+ * are packed into primitive fields and all instances are interned, so equal
+ * hashes share a single instance and may be compared by identity. The
+ * hexadecimal form is only produced when the hash is written or displayed.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public final class Hash {
+
+	/** Number of bytes in a hash. */
+	public static final int LENGTH = 20;
+
+	/** Number of characters in the hexadecimal form of a hash. */
+	public static final int HEX_LENGTH = 2 * Hash.LENGTH;
+
+	/** The hexadecimal digits. */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** The interned hashes, released once no longer referenced. */
+	private static final Map<Hash, WeakReference<Hash>> INTERNED = new WeakHashMap<Hash, WeakReference<Hash>>();
+
+	/** Bytes 0-7. */
+	private final long high;
+
+	/** Bytes 8-15. */
+	private final long middle;
+
+	/** Bytes 16-19. */
+	private final int low;
+
+	/**
+	 * Private constructor, retrieve instances using the valueOf methods.
+	 *
+	 * @param high
+	 *            long.
+	 * @param middle
+	 *            long.
+	 * @param low
+	 *            int.
+	 */
+	private Hash(final long high, final long middle, final int low) {
+		this.high = high;
+		this.middle = middle;
+		this.low = low;
+	}
+
+	/**
+	 * Return the interned hash of the given digest bytes.
+	 *
+	 * @param bytes
+	 *            byte[].
+	 * @return hash - Hash.
+	 */
+	public static Hash valueOf(final byte[] bytes) {
+		if ((bytes == null) || (bytes.length != Hash.LENGTH))
+			throw new IllegalArgumentException("Invalid Hash Length.");
+		return Hash.intern(new Hash(Hash.readLong(bytes, 0), Hash.readLong(
+				bytes, 8), (int) Hash.readBits(bytes, 16, 4)));
+	}
+
+	/**
+	 * Return the interned hash of the given hexadecimal string, or null if the
+	 * string is not the lower-case hexadecimal form of a hash.
+	 *
+	 * @param hex
+	 *            String.
+	 * @return hash - Hash.
+	 */
+	public static Hash valueOf(final String hex) {
+		if ((hex == null) || (hex.length() != Hash.HEX_LENGTH))
+			return null;
+		final byte[] bytes = new byte[Hash.LENGTH];
+		for (int i = 0; i < Hash.LENGTH; i++) {
+			final int hi = Hash.hexValue(hex.charAt(2 * i));
+			final int lo = Hash.hexValue(hex.charAt((2 * i) + 1));
+			if ((hi < 0) || (lo < 0))
+				return null;
+			bytes[i] = (byte) ((hi << 4) | lo);
+		}
+		return Hash.valueOf(bytes);
+	}
+
+	/**
+	 * Return the 20 bytes of the hash.
+	 *
+	 * @return bytes - byte[].
+	 */
+	public byte[] toBytes() {
+		final byte[] bytes = new byte[Hash.LENGTH];
+		Hash.writeBits(bytes, 0, 8, this.high);
+		Hash.writeBits(bytes, 8, 8, this.middle);
+		Hash.writeBits(bytes, 16, 4, this.low);
+		return bytes;
+	}
+
+	/**
+	 * Append the lower-case hexadecimal form of the hash to the given builder,
+	 * without creating an intermediate string.
+	 *
+	 * @param sb
+	 *            StringBuilder.
+	 * @return sb - StringBuilder.
+	 */
+	public StringBuilder appendTo(final StringBuilder sb) {
+		Hash.appendHex(sb, this.high, 8);
+		Hash.appendHex(sb, this.middle, 8);
+		Hash.appendHex(sb, this.low, 4);
+		return sb;
+	}
+
+	/**
+	 * HASH METHODS (PRIVATE) *************************************************.
+	 */
+
+	/**
+	 * Append the given number of bytes of the value in hexadecimal,
+	 * big-endian.
+	 *
+	 * @param sb
+	 *            StringBuilder.
+	 * @param value
+	 *            long.
+	 * @param count
+	 *            int.
+	 */
+	private static void appendHex(final StringBuilder sb, final long value,
+			final int count) {
+		for (int shift = (8 * count) - 4; shift >= 0; shift -= 4) {
+			sb.append(Hash.HEX_DIGITS[(int) (value >>> shift) & 0xf]);
+		}
+	}
+
+	/**
+	 * Return the shared instance equal to the given hash.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return interned - Hash.
+	 */
+	private static Hash intern(final Hash hash) {
+		synchronized (Hash.INTERNED) {
+			final WeakReference<Hash> ref = Hash.INTERNED.get(hash);
+			final Hash interned = (ref == null) ? null : ref.get();
+			if (interned != null)
+				return interned;
+			Hash.INTERNED.put(hash, new WeakReference<Hash>(hash));
+			return hash;
+		}
+	}
+
+	/**
+	 * Read eight bytes as a long.
+	 *
+	 * @param bytes
+	 *            byte[].
+	 * @param offset
+	 *            int.
+	 * @return value - long.
+	 */
+	private static long readLong(final byte[] bytes, final int offset) {
+		return Hash.readBits(bytes, offset, 8);
+	}
+
+	/**
+	 * Read the given number of bytes, big-endian.
+	 *
+	 * @param bytes
+	 *            byte[].
+	 * @param offset
+	 *            int.
+	 * @param count
+	 *            int.
+	 * @return value - long.
+	 */
+	private static long readBits(final byte[] bytes, final int offset,
+			final int count) {
+		long value = 0;
+		for (int i = 0; i < count; i++) {
+			value = (value << 8) | (bytes[offset + i] & 0xff);
+		}
+		return value;
+	}
+
+	/**
+	 * Write the given number of bytes of the value, big-endian.
+	 *
+	 * @param bytes
+	 *            byte[].
+	 * @param offset
+	 *            int.
+	 * @param count
+	 *            int.
+	 * @param value
+	 *            long.
+	 */
+	private static void writeBits(final byte[] bytes, final int offset,
+			final int count, final long value) {
+		for (int i = 0; i < count; i++) {
+			bytes[offset + i] = (byte) (value >>> (8 * (count - 1 - i)));
+		}
+	}
+
+	/**
+	 * Return the value of a lower-case hexadecimal digit, or -1.
+	 *
+	 * @param c
+	 *            char.
+	 * @return value - int.
+	 */
+	private static int hexValue(final char c) {
+		if ((c >= '0') && (c <= '9'))
+			return c - '0';
+		if ((c >= 'a') && (c <= 'f'))
+			return (c - 'a') + 10;
+		return -1;
+	}
+
+	/**
+	 * OBJECT METHODS (OVERRIDDEN) ********************************************.
+	 */
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Determine if the given object represents the same hash, i.e. holds the
+	 * same digest bits. Interned hashes of the same digest are the same
+	 * instance, so for them the comparison ends at the identity check.
+	 */
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Hash))
+			return false;
+		final Hash h = (Hash) o;
+		return (this.high == h.high) && (this.middle == h.middle)
+				&& (this.low == h.low);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return the leading bits of the hash, which are already well distributed.
+	 */
+	@Override
+	public int hashCode() {
+		return (int) (this.high >>> 32);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return the lower-case hexadecimal form of the hash.
+	 */
+	@Override
+	public String toString() {
+		return this.appendTo(new StringBuilder(Hash.HEX_LENGTH)).toString();
+	}
+
+}
@@ -21,16 +21,29 @@
 package org.hydra.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import org.hydra.persistence.CommitGraph;
 import org.hydra.utilities.Logger;
 
 /**
  * Searches through a history of states to find specified states or to produce a
  * log of the commits.
  *
+ * Crawlers of a committable element consult the element's {@link CommitGraph}
+ * for the parents of the states, so that only the states returned or logged
+ * are loaded from the repository, and prune searches by the states'
+ * generation numbers. Crawlers of a static head load the states. Searches
+ * visit each state at most once, however many merges lead to it.
+ *
  * @author Scott A. Hady
  * @version 0.2
  * @since 0.2
@@ -104,24 +117,103 @@ public class HistoryCrawler {
 	 * @return elementHistoryLog - String.
 	 */
 	public String getHistoryLog(final boolean systemPath) {
+		return this.getHistoryLog(systemPath, 0, -1, null);
+	}
+
+	/**
+	 * Return a log of a part of this element's history either along the system
+	 * path or along alternate branches created by pull commits.
+	 *
+	 * @param systemPath
+	 *            boolean.
+	 * @param skip
+	 *            int, the number of most recent commits to skip.
+	 * @param limit
+	 *            int, the maximum number of commits logged or negative for all.
+	 * @param since
+	 *            Date, the oldest commit time logged or null for all.
+	 * @return elementHistoryLog - String.
+	 */
+	public String getHistoryLog(final boolean systemPath, final int skip,
+			final int limit, final Date since) {
 		final StringBuilder sb = new StringBuilder("");
-		State ptr = this.getHistoryHead();
-		if (ptr != null) {
-			State[] prevList = ptr.listPrevious();
-			sb.append(ptr.getLogEntry() + "\n");
-			while (prevList.length > 0) {
-				if (systemPath && (prevList.length > 1)) {
-					ptr = prevList[1];
-				} else {
-					ptr = prevList[0];
-				}
-				sb.append("\n" + ptr.getLogEntry() + "\n");
-				prevList = ptr.listPrevious();
-			}
+		final Iterator<State> log = this.iterateHistoryLog(systemPath, skip,
+				limit, since);
+		while (log.hasNext()) {
+			sb.append((sb.length() == 0) ? "" : "\n");
+			sb.append(log.next().getLogEntry() + "\n");
 		}
 		return sb.toString();
 	}
 
+	/**
+	 * Iterate over the states of this element's history either along the
+	 * system path or along alternate branches created by pull commits, from
+	 * the most recent commit backwards. The states are only loaded as they
+	 * are iterated; skipped states and, given a commit graph, the timestamps
+	 * compared with the since date do not require loading. The iteration ends
+	 * at the first commit older than the since date.
+	 *
+	 * @param systemPath
+	 *            boolean.
+	 * @param skip
+	 *            int, the number of most recent commits to skip.
+	 * @param limit
+	 *            int, the maximum number of commits iterated or negative for
+	 *            all.
+	 * @param since
+	 *            Date, the oldest commit time iterated or null for all.
+	 * @return log - Iterator<State>.
+	 */
+	public Iterator<State> iterateHistoryLog(final boolean systemPath,
+			final int skip, final int limit, final Date since) {
+		return new LogIterator(this.getHistoryHead(), systemPath, skip, limit,
+				since);
+	}
+
+	/**
+	 * Compare the contents of the given state with the contents of the
+	 * previous state followed by the history log along the system or valid
+	 * path. The contents of a state without previous states are compared with
+	 * an empty container.
+	 *
+	 * @param state
+	 *            State.
+	 * @param systemPath
+	 *            boolean.
+	 * @return diff - TreeDiff, or null if either state is temporary or the
+	 *         previous state could not be loaded.
+	 */
+	public TreeDiff diffPrevious(final State state, final boolean systemPath) {
+		try {
+			final Container contents = state.cloneContents();
+			if (contents == null)
+				return null;
+			final CommitGraph graph = this.findCommitGraph(state);
+			final String previousHash = HistoryCrawler.choosePrevious(
+					this.listPrevious(graph, state), systemPath);
+			if (previousHash == null)
+				return new TreeDiff(null, contents);
+			String contentsHash = (graph != null) ? graph
+					.getContentsHash(previousHash) : null;
+			if (contentsHash == null) {
+				final State previous = this.loadState(state, previousHash,
+						state.clonePath());
+				if (previous == null)
+					return null;
+				contentsHash = previous.getContentsHash();
+			}
+			if (contentsHash.equals("null"))
+				return null;
+			return new TreeDiff(new Container(Configuration.getInstance()
+					.getWorkspace(), contentsHash), contents);
+		} catch (final InvalidElementException e) {
+			this.logger.exception("Unable to Compare State [" + state
+					+ "] with its Previous.", e);
+			return null;
+		}
+	}
+
 	/**
 	 * Find a given commit by searching from the given state along a path
 	 * described by a single given step while avoiding all commitst whose hash
@@ -137,53 +229,12 @@ public class HistoryCrawler {
 	 */
 	public State findCommitRelative(final State startState,
 			final Step searchStep, final List<String> blackList) {
-		State ptrState;
-		try {
-			if (startState instanceof StageState) {
-				ptrState = new StageState(startState.getHash());
-			} else {
-				ptrState = new State(startState.getHash());
-			}
-			ptrState.updatePath(startState.clonePath());
-		} catch (final Exception e) {
-			return null;
-		}
-		// Check BlackList for Start State
-		if ((blackList != null)
-				&& blackList.contains(ptrState.getFingerprint().getHash()))
-			return null;
-		// No Distance Ptr is State
-		else if (searchStep.getDistance() == 0)
-			return ptrState;
-		// Check For Negative Distance.
-		else if (searchStep.getDistance() < 0) {
-			if (ptrState.movePath(searchStep))
-				return this.findCommitPath(this.getHistoryHead(),
-						ptrState.clonePath(), blackList);
-			else
-				return null;
-		} else if (searchStep.getBranch() > ptrState.listPrevious().length)
-			return null;
-		// Move Stepwise Along Step and Search Any States on the Blacklist
-		int branch = searchStep.getBranch();
-		State[] prevList = ptrState.listPrevious();
-		// Path targetPath = new Path(ptrState.clonePath());
-		final Path targetPath = ptrState.clonePath();
-		for (int i = 0; i < searchStep.getDistance(); i++) {
-			if (prevList.length >= branch) {
-				ptrState = prevList[branch - 1];
-				if ((blackList != null)
-						&& blackList.contains(ptrState.getFingerprint()
-								.getHash()))
-					return null;
-				targetPath.move(new Step(branch, 1));
-				ptrState.updatePath(targetPath);
-				prevList = ptrState.listPrevious();
-				branch = 1;
-			} else
-				return null;
-		}
-		return ptrState;
+		final Commit target = this.resolveRelative(
+				this.findCommitGraph(startState), startState, new Commit(
+						startState.getHash(), startState.clonePath()),
+				searchStep, blackList);
+		return (target == null) ? null : this.loadState(startState,
+				target.hash, target.path);
 	}
 
 	/**
@@ -201,30 +252,12 @@ public class HistoryCrawler {
 	 */
 	public State findCommitPath(final State startState, final Path searchPath,
 			final List<String> blackList) {
-		State ptrState;
-		try {
-			if (startState instanceof StageState) {
-				ptrState = new StageState(startState.getHash());
-			} else {
-				ptrState = new State(startState.getHash());
-			}
-			ptrState.updatePath(startState.clonePath());
-		} catch (final Exception e) {
-			return null;
-		}
-		// Check BlackList for Start State
-		if ((blackList != null)
-				&& blackList.contains(ptrState.getFingerprint().getHash()))
-			return null;
-		// Check for Path Validity
-		if (!searchPath.isValid())
-			return null;
-		// Step Along Path (When Not Empty).
-		while (!searchPath.isEmpty() && (ptrState != null)) {
-			ptrState = this.findCommitRelative(ptrState,
-					searchPath.removeFirstStep(), blackList);
-		}
-		return ptrState;
+		final Commit target = this.resolvePath(
+				this.findCommitGraph(startState), startState, new Commit(
+						startState.getHash(), startState.clonePath()),
+				searchPath, blackList);
+		return (target == null) ? null : this.loadState(startState,
+				target.hash, target.path);
 	}
 
 	/**
@@ -245,44 +278,46 @@ public class HistoryCrawler {
 	public State findCommitHash(final State startState,
 			final String targetHash, final List<String> blackList,
 			final boolean depthFirst) {
-		State ptrState;
-		try {
-			if (startState instanceof StageState) {
-				ptrState = new StageState(startState.getHash());
-			} else {
-				ptrState = new State(startState.getHash());
-			}
-			ptrState.updatePath(startState.clonePath());
-		} catch (final Exception e) {
-			this.logger.exception("Unable to Initialize PtrState.", e);
+		final CommitGraph graph = this.findCommitGraph(startState);
+		// Check if Start State is on Blacklist
+		if ((blackList != null) && blackList.contains(startState.getHash()))
 			return null;
-		}
-		// FIFO is Breadth First and LIFO is Depth First
-		final Deque<State> searchList = new LinkedList<State>();
-		// Check if ptrState is on Blacklist
-		if ((blackList != null)
-				&& blackList.contains(ptrState.getFingerprint().getHash()))
+		// States Outside the Graph are Not Part of the History.
+		if ((graph != null) && !graph.contains(targetHash))
 			return null;
+		final int targetGeneration = (graph != null) ? graph
+				.getGeneration(targetHash) : 0;
+		// FIFO is Breadth First and LIFO is Depth First
+		final Deque<Commit> searchList = new LinkedList<Commit>();
+		// States are Expanded Once, Later Visits Find Nothing New.
+		final Set<String> visited = new HashSet<String>();
+		Commit ptr = new Commit(startState.getHash(), startState.clonePath());
 		// Search for targetHash
-		while ((ptrState != null)
-				&& !ptrState.getFingerprint().getHash().equals(targetHash)) {
-			final State[] prevList = ptrState.listPrevious();
-			for (int i = prevList.length - 1; i >= 0; i--) {
-				if ((blackList == null)
-						|| !blackList.contains(prevList[i].getFingerprint()
-								.getHash())) {
-					prevList[i].updatePath(ptrState.clonePath());
-					prevList[i].movePath(new Step(i + 1, 1));
-					if (depthFirst) {
-						searchList.offerFirst(prevList[i]);
-					} else {
-						searchList.offerLast(prevList[i]);
+		while ((ptr != null) && !ptr.hash.equals(targetHash)) {
+			if (visited.add(ptr.hash)) {
+				final String[] prevList = this.listPrevious(graph, startState,
+						ptr.hash);
+				for (int i = prevList.length - 1; i >= 0; i--) {
+					if (!visited.contains(prevList[i])
+							&& ((blackList == null) || !blackList
+									.contains(prevList[i]))
+							&& ((graph == null) || (graph
+									.getGeneration(prevList[i]) >= targetGeneration))) {
+						final Commit previous = new Commit(prevList[i],
+								ptr.path.clone());
+						previous.path.move(new Step(i + 1, 1));
+						if (depthFirst) {
+							searchList.offerFirst(previous);
+						} else {
+							searchList.offerLast(previous);
+						}
 					}
 				}
 			}
-			ptrState = searchList.poll();
+			ptr = searchList.poll();
 		}
-		return ptrState;
+		return (ptr == null) ? null : this.loadState(startState, ptr.hash,
+				ptr.path);
 	}
 
 	/**
@@ -295,19 +330,49 @@ public class HistoryCrawler {
 	 */
 	public State[] listFollowingCommits(final String commitHash) {
 		final ArrayList<State> following = new ArrayList<State>();
-		final Deque<State> searchList = new LinkedList<State>();
-		State ptrState = this.getHistoryHead();
-		while (ptrState != null) {
-			final State[] prevStates = ptrState.listPrevious();
-			for (int i = 0; i < prevStates.length; i++) {
-				prevStates[i].updatePath(ptrState.clonePath());
-				prevStates[i].movePath(new Step(i + 1, 1));
-				if (commitHash.equals(prevStates[i].getFingerprint().getHash())) {
-					following.add(ptrState);
+		final State head = this.getHistoryHead();
+		if (head == null)
+			return new State[0];
+		final CommitGraph graph = this.findCommitGraph(head);
+		// The Graph's Child Index Names the Following States.
+		final Set<String> children = new HashSet<String>();
+		if (graph != null) {
+			final String[] childHashes = graph.listChildren(commitHash);
+			if (childHashes == null)
+				return new State[0];
+			children.addAll(Arrays.asList(childHashes));
+		}
+		final int commitGeneration = (graph != null) ? graph
+				.getGeneration(commitHash) : 0;
+		final Deque<Commit> searchList = new LinkedList<Commit>();
+		final Set<String> visited = new HashSet<String>();
+		Commit ptr = new Commit(head.getHash(), head.clonePath());
+		// Search Until All Children are Reached Along Their Paths.
+		while ((ptr != null) && ((graph == null) || !children.isEmpty())) {
+			if (visited.add(ptr.hash)) {
+				final String[] prevStates = this.listPrevious(graph, head,
+						ptr.hash);
+				boolean follows = (graph != null) && children.remove(ptr.hash);
+				for (int i = 0; i < prevStates.length; i++) {
+					follows |= (graph == null)
+							&& commitHash.equals(prevStates[i]);
+					// Only States of a Higher Generation may Follow the Commit.
+					if (!visited.contains(prevStates[i])
+							&& ((graph == null) || (graph
+									.getGeneration(prevStates[i]) > commitGeneration))) {
+						final Commit previous = new Commit(prevStates[i],
+								ptr.path.clone());
+						previous.path.move(new Step(i + 1, 1));
+						searchList.offer(previous);
+					}
+				}
+				final State followingState = follows ? this.loadState(head,
+						ptr.hash, ptr.path) : null;
+				if (followingState != null) {
+					following.add(followingState);
 				}
-				searchList.offer(prevStates[i]);
 			}
-			ptrState = searchList.poll();
+			ptr = searchList.poll();
 		}
 		return following.toArray(new State[following.size()]);
 	}
@@ -329,4 +394,403 @@ public class HistoryCrawler {
 			return target.listPrevious();
 	}
 
+	/**
+	 * HISTORYCRAWLER METHODS (PRIVATE) ***************************************.
+	 */
+
+	/**
+	 * Return the commit graph of the crawled element, after ensuring that it
+	 * contains the element's head and therefore all of the head's history. The
+	 * graph only holds the head's history, so that its child index lists the
+	 * following states within that history.
+	 *
+	 * @param startState
+	 *            State.
+	 * @return graph - CommitGraph, or null if the history must be crawled by
+	 *         loading the states.
+	 */
+	private CommitGraph findCommitGraph(final State startState) {
+		if ((this.committableElement == null) || (startState == null))
+			return null;
+		final CommitGraph graph = this.committableElement.getCommitGraph();
+		final State head = this.committableElement.getHead();
+		if ((graph == null) || (head == null) || !graph.append(head))
+			return null;
+		return graph.contains(startState.getHash()) ? graph : null;
+	}
+
+	/**
+	 * Resolve the commit reached by following a path of steps from the given
+	 * commit, while avoiding all commits on the black list. Only the hashes of
+	 * the passed states are determined, the states themselves are not loaded.
+	 *
+	 * @param graph
+	 *            CommitGraph, may be null.
+	 * @param kind
+	 *            State, a state of the same kind as the crawled states.
+	 * @param start
+	 *            Commit.
+	 * @param searchPath
+	 *            Path, whose steps are removed while being followed.
+	 * @param blackList
+	 *            List<String>.
+	 * @return target - Commit, or null if not found.
+	 */
+	private Commit resolvePath(final CommitGraph graph, final State kind,
+			final Commit start, final Path searchPath,
+			final List<String> blackList) {
+		// Check BlackList for Start State
+		if ((blackList != null) && blackList.contains(start.hash))
+			return null;
+		// Check for Path Validity
+		if (!searchPath.isValid())
+			return null;
+		// Step Along Path (When Not Empty).
+		Commit ptr = start;
+		while (!searchPath.isEmpty() && (ptr != null)) {
+			ptr = this.resolveRelative(graph, kind, ptr,
+					searchPath.removeFirstStep(), blackList);
+		}
+		return ptr;
+	}
+
+	/**
+	 * Resolve the commit reached by following a single step from the given
+	 * commit, while avoiding all commits on the black list. Forward steps
+	 * resolved without a black list are remembered in the graph's path index.
+	 *
+	 * @param graph
+	 *            CommitGraph, may be null.
+	 * @param kind
+	 *            State, a state of the same kind as the crawled states.
+	 * @param start
+	 *            Commit.
+	 * @param searchStep
+	 *            Step.
+	 * @param blackList
+	 *            List<String>.
+	 * @return target - Commit, or null if not found.
+	 */
+	private Commit resolveRelative(final CommitGraph graph, final State kind,
+			final Commit start, final Step searchStep,
+			final List<String> blackList) {
+		// Check BlackList for Start State
+		if ((blackList != null) && blackList.contains(start.hash))
+			return null;
+		// No Distance Ptr is State
+		else if (searchStep.getDistance() == 0)
+			return new Commit(start.hash, start.path.clone());
+		// Negative Steps Depend on the Head and are Not Indexed.
+		final boolean indexed = (graph != null)
+				&& (searchStep.getDistance() > 0)
+				&& ((blackList == null) || blackList.isEmpty());
+		final String startPath = start.path.toString();
+		if (indexed) {
+			final String[] target = graph.lookupPath(start.hash, startPath,
+					searchStep.toString());
+			if (target != null)
+				return new Commit(target[0], new Path(target[1]));
+		}
+		Commit target = null;
+		// Check For Negative Distance.
+		if (searchStep.getDistance() < 0) {
+			final Path ptrPath = start.path.clone();
+			final State head = this.getHistoryHead();
+			if (ptrPath.move(searchStep) && (head != null)) {
+				target = this.resolvePath(graph, kind,
+						new Commit(head.getHash(), head.clonePath()), ptrPath,
+						blackList);
+			}
+		} else {
+			target = this.resolveSteps(graph, kind, start, searchStep,
+					blackList);
+		}
+		if (indexed && (target != null)) {
+			graph.recordPath(start.hash, startPath, searchStep.toString(),
+					target.hash, target.path.toString());
+		}
+		return target;
+	}
+
+	/**
+	 * Move stepwise from the given commit along a step of positive distance,
+	 * while avoiding all commits on the black list.
+	 *
+	 * @param graph
+	 *            CommitGraph, may be null.
+	 * @param kind
+	 *            State, a state of the same kind as the crawled states.
+	 * @param start
+	 *            Commit.
+	 * @param searchStep
+	 *            Step.
+	 * @param blackList
+	 *            List<String>.
+	 * @return target - Commit, or null if not found.
+	 */
+	private Commit resolveSteps(final CommitGraph graph, final State kind,
+			final Commit start, final Step searchStep,
+			final List<String> blackList) {
+		String[] prevList = this.listPrevious(graph, kind, start.hash);
+		if (searchStep.getBranch() > prevList.length)
+			return null;
+		// Move Stepwise Along Step and Search Any States on the Blacklist
+		int branch = searchStep.getBranch();
+		String ptrHash = start.hash;
+		final Path targetPath = start.path.clone();
+		for (int i = 0; i < searchStep.getDistance(); i++) {
+			if (prevList.length >= branch) {
+				ptrHash = prevList[branch - 1];
+				if ((blackList != null) && blackList.contains(ptrHash))
+					return null;
+				targetPath.move(new Step(branch, 1));
+				prevList = this.listPrevious(graph, kind, ptrHash);
+				branch = 1;
+			} else
+				return null;
+		}
+		return new Commit(ptrHash, targetPath);
+	}
+
+	/**
+	 * List the hashes of the given loaded state's previous states.
+	 *
+	 * @param graph
+	 *            CommitGraph, may be null.
+	 * @param state
+	 *            State.
+	 * @return previousHashes - String[].
+	 */
+	private String[] listPrevious(final CommitGraph graph, final State state) {
+		final String[] previous = (graph != null) ? graph.listParents(state
+				.getHash()) : null;
+		return (previous != null) ? previous : state.listPreviousHashes();
+	}
+
+	/**
+	 * List the hashes of the previous states of the state with the given hash,
+	 * loading the state only if it is not recorded in the graph.
+	 *
+	 * @param graph
+	 *            CommitGraph, may be null.
+	 * @param kind
+	 *            State, a state of the same kind as the listed state.
+	 * @param stateHash
+	 *            String.
+	 * @return previousHashes - String[].
+	 */
+	private String[] listPrevious(final CommitGraph graph, final State kind,
+			final String stateHash) {
+		final String[] previous = (graph != null) ? graph
+				.listParents(stateHash) : null;
+		if (previous != null)
+			return previous;
+		final State state = this.loadState(kind, stateHash, kind.clonePath());
+		return (state != null) ? state.listPreviousHashes() : new String[0];
+	}
+
+	/**
+	 * Choose the previous state followed along the system or valid path.
+	 *
+	 * @param prevList
+	 *            String[], the previous states' hashes.
+	 * @param systemPath
+	 *            boolean.
+	 * @return previousHash - String, or null if there are none.
+	 */
+	private static String choosePrevious(final String[] prevList,
+			final boolean systemPath) {
+		if (prevList.length == 0)
+			return null;
+		return (systemPath && (prevList.length > 1)) ? prevList[1]
+				: prevList[0];
+	}
+
+	/**
+	 * Load the state with the given hash, of the same kind as the given state,
+	 * and set its path.
+	 *
+	 * @param kind
+	 *            State.
+	 * @param stateHash
+	 *            String.
+	 * @param path
+	 *            Path.
+	 * @return state - State, or null if it could not be loaded.
+	 */
+	private State loadState(final State kind, final String stateHash,
+			final Path path) {
+		try {
+			final State state = (kind instanceof StageState) ? new StageState(
+					stateHash) : new State(stateHash);
+			state.updatePath(path);
+			return state;
+		} catch (final Exception e) {
+			this.logger.warning("Unable to Load State [" + stateHash + "].");
+			return null;
+		}
+	}
+
+	/**
+	 * Lazily iterates the states along a single path of the history.
+	 */
+	private class LogIterator implements Iterator<State> {
+
+		/** The commit graph, may be null. */
+		private final CommitGraph graph;
+
+		/** The head of the logged history, defines the kind of the states. */
+		private final State head;
+
+		/** Whether the system path is followed. */
+		private final boolean systemPath;
+
+		/** The oldest commit time iterated, or null. */
+		private final Date since;
+
+		/** The number of states that may still be iterated, negative if all. */
+		private int remaining;
+
+		/** The hash of the next state, or null when done. */
+		private String nextHash;
+
+		/** The next state, if already loaded. */
+		private State nextState;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param head
+		 *            State, may be null.
+		 * @param systemPath
+		 *            boolean.
+		 * @param skip
+		 *            int.
+		 * @param limit
+		 *            int.
+		 * @param since
+		 *            Date.
+		 */
+		LogIterator(final State head, final boolean systemPath,
+				final int skip, final int limit, final Date since) {
+			this.graph = HistoryCrawler.this.findCommitGraph(head);
+			this.head = head;
+			this.systemPath = systemPath;
+			this.since = since;
+			this.remaining = limit;
+			this.nextHash = (head != null) ? head.getHash() : null;
+			this.nextState = head;
+			for (int i = 0; (i < skip) && (this.nextHash != null); i++) {
+				this.advance();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Determine if the limit is not yet reached and a further state
+		 * committed since the since date exists.
+		 */
+		@Override
+		public boolean hasNext() {
+			if ((this.nextHash == null) || (this.remaining == 0))
+				return false;
+			if (this.since != null) {
+				long timestamp = (this.graph != null) ? this.graph
+						.getTimestamp(this.nextHash) : -1;
+				if (timestamp < 0) {
+					this.loadNext();
+					timestamp = (this.nextState != null) ? this.nextState
+							.getTimestamp().getTime() : Long.MIN_VALUE;
+				}
+				if (timestamp < this.since.getTime()) {
+					this.nextHash = null;
+					this.nextState = null;
+					return false;
+				}
+			}
+			return this.loadNext() != null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Return the next state, loading it if necessary.
+		 */
+		@Override
+		public State next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			final State state = this.nextState;
+			this.remaining--;
+			this.advance();
+			return state;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Unsupported, the history may not be modified while iterating.
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Load the next state, if not yet loaded. Ends the iteration if it
+		 * could not be loaded.
+		 *
+		 * @return nextState - State, or null.
+		 */
+		private State loadNext() {
+			if ((this.nextState == null) && (this.nextHash != null)) {
+				this.nextState = HistoryCrawler.this.loadState(this.head,
+						this.nextHash, this.head.clonePath());
+				if (this.nextState == null) {
+					this.nextHash = null;
+				}
+			}
+			return this.nextState;
+		}
+
+		/**
+		 * Move to the previous state along the followed path.
+		 */
+		private void advance() {
+			final String[] prevList = (this.nextState != null) ? HistoryCrawler.this
+					.listPrevious(this.graph, this.nextState)
+					: HistoryCrawler.this.listPrevious(this.graph, this.head,
+							this.nextHash);
+			this.nextHash = HistoryCrawler.choosePrevious(prevList,
+					this.systemPath);
+			this.nextState = null;
+		}
+	}
+
+	/**
+	 * A state, known by its hash, reached along a path while crawling.
+	 */
+	private static class Commit {
+
+		/** The state's hash. */
+		private final String hash;
+
+		/** The path to the state. */
+		private final Path path;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param hash
+		 *            String.
+		 * @param path
+		 *            Path.
+		 */
+		Commit(final String hash, final Path path) {
+			this.hash = hash;
+			this.path = path;
+		}
+	}
+
 }
@@ -21,6 +21,7 @@
 package org.hydra.core;
 
 import java.io.File;
+import java.util.Date;
 
 /**
  * Facade simplifying the usage of the hydra version control system.
@@ -275,4 +276,28 @@ public class HydraFacade {
 		return sb.toString();
 	}
 
+	/**
+	 * Return a log of the most recent part of the logical unit's commit
+	 * history.
+	 *
+	 * @param luName
+	 *            String.
+	 * @param systemPath
+	 *            boolean.
+	 * @param limit
+	 *            int, the maximum number of commits logged or negative for all.
+	 * @param since
+	 *            Date, the oldest commit time logged or null for all.
+	 * @return log - String.
+	 */
+	public String getHistoryLog(final String luName, final boolean systemPath,
+			final int limit, final Date since) {
+		final StringBuilder sb = new StringBuilder("\t\t" + luName
+				+ " Commit Log\n");
+		sb.append("  --------------------------------------------------\n");
+		sb.append(this.stage.getLogicalUnit(luName).getHistoryCrawler()
+				.getHistoryLog(systemPath, 0, limit, since));
+		return sb.toString();
+	}
+
 }
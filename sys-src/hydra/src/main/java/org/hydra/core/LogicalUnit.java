@@ -23,6 +23,7 @@ package org.hydra.core;
 import java.io.File;
 
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.WorkspaceIndex;
 
 /**
  * Specialized committable element which represents a logically coherent
@@ -163,6 +164,7 @@ public class LogicalUnit extends CommittableElement implements Comparable {
 	@Override
 	public boolean recordReferences() {
 		this.stashContents();
+		WorkspaceIndex.getInstance().flush();
 		return this.dao.record();
 	}
 
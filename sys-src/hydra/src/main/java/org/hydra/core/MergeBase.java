@@ -0,0 +1,271 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.hydra.persistence.CommitGraph;
+import org.hydra.utilities.Logger;
+
+/**
+ * Finds the merge bases, the lowest common ancestors, of states within the
+ * history of a committable element.
+ *
+ * The search walks down from all given states at once, always continuing with
+ * the state of the highest generation number in the element's
+ * {@link CommitGraph}, and marks each reached state with the given states it
+ * is reachable from. A state reachable from all given states is a merge base;
+ * its ancestors are marked as stale, since they are common ancestors as well
+ * but not the lowest. As a state is only ever reached after all states of a
+ * higher generation, the walk ends as soon as only stale states remain and
+ * never visits the history beyond the merge bases.
+ *
+ * Only states within the history of the element's head are accepted, so the
+ * search never records foreign states in the element's graph.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class MergeBase {
+
+	/** The maximum number of states whose merge bases are searched at once. */
+	public static final int MAX_STATES = 30;
+
+	/** The committable element. */
+	private final CommittableElement committableElement;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/**
+	 * Specialized Constructor which specifies the element within whose history
+	 * the merge bases are searched.
+	 *
+	 * @param committableElement
+	 *            CommittableElement.
+	 */
+	public MergeBase(final CommittableElement committableElement) {
+		this.committableElement = committableElement;
+	}
+
+	/**
+	 * MERGEBASE METHODS ******************************************************.
+	 */
+
+	/**
+	 * Find the merge bases of the states with the given hashes, ordered from
+	 * the most recent generation to the oldest.
+	 *
+	 * @param stateHashes
+	 *            String[], at least one hash.
+	 * @return mergeBaseHashes - String[], empty if the states have no common
+	 *         ancestor or null if a state could not be found.
+	 */
+	public String[] findMergeBases(final String... stateHashes) {
+		if ((stateHashes.length == 0)
+				|| (stateHashes.length > MergeBase.MAX_STATES)) {
+			this.logger.warning("Unable to Find Merge Base of ["
+					+ stateHashes.length + "] States.");
+			return null;
+		}
+		final CommitGraph graph = this.findCommitGraph(stateHashes);
+		if (graph == null)
+			return null;
+		final int common = (1 << stateHashes.length) - 1;
+		final int stale = 1 << stateHashes.length;
+		final Map<String, Integer> flags = new HashMap<String, Integer>();
+		final PriorityQueue<QueuedState> queue = new PriorityQueue<QueuedState>();
+		final List<String> mergeBases = new ArrayList<String>();
+		int active = 0;
+		// Mark Starting States.
+		for (int i = 0; i < stateHashes.length; i++) {
+			final Integer mark = flags.get(stateHashes[i]);
+			if (mark == null) {
+				queue.add(new QueuedState(stateHashes[i], graph
+						.getGeneration(stateHashes[i])));
+				active++;
+			}
+			flags.put(stateHashes[i], ((mark == null) ? 0 : mark) | (1 << i));
+		}
+		// Walk Down While Non-Stale States Remain.
+		while (active > 0) {
+			final String hash = queue.poll().hash;
+			int mark = flags.get(hash);
+			if ((mark & stale) == 0) {
+				active--;
+				if ((mark & common) == common) {
+					mergeBases.add(hash);
+					mark |= stale;
+				}
+			}
+			for (final String parentHash : graph.listParents(hash)) {
+				final Integer parentMark = flags.get(parentHash);
+				if (parentMark == null) {
+					flags.put(parentHash, mark);
+					queue.add(new QueuedState(parentHash, graph
+							.getGeneration(parentHash)));
+					if ((mark & stale) == 0) {
+						active++;
+					}
+				} else if ((parentMark | mark) != parentMark) {
+					flags.put(parentHash, parentMark | mark);
+					if (((mark & stale) != 0) && ((parentMark & stale) == 0)) {
+						active--;
+					}
+				}
+			}
+		}
+		return mergeBases.toArray(new String[mergeBases.size()]);
+	}
+
+	/**
+	 * Find the most recent merge base of the states with the given hashes.
+	 *
+	 * @param firstHash
+	 *            String.
+	 * @param secondHash
+	 *            String.
+	 * @return mergeBaseHash - String, or null if none.
+	 */
+	public String findMergeBase(final String firstHash, final String secondHash) {
+		final String[] mergeBases = this.findMergeBases(firstHash, secondHash);
+		return ((mergeBases != null) && (mergeBases.length > 0)) ? mergeBases[0]
+				: null;
+	}
+
+	/**
+	 * Determine if the state with the first hash is an ancestor of, or equal
+	 * to, the state with the second hash. Only states of a higher generation
+	 * than the presumed ancestor are visited.
+	 *
+	 * @param ancestorHash
+	 *            String.
+	 * @param descendantHash
+	 *            String.
+	 * @return isAncestor - boolean.
+	 */
+	public boolean isAncestor(final String ancestorHash,
+			final String descendantHash) {
+		final CommitGraph graph = this.findCommitGraph(ancestorHash,
+				descendantHash);
+		if (graph == null)
+			return false;
+		final int generation = graph.getGeneration(ancestorHash);
+		final Set<String> visited = new HashSet<String>();
+		final LinkedList<String> pending = new LinkedList<String>();
+		pending.add(descendantHash);
+		while (!pending.isEmpty()) {
+			final String hash = pending.poll();
+			if (hash.equals(ancestorHash))
+				return true;
+			if (!visited.add(hash) || (graph.getGeneration(hash) <= generation)) {
+				continue;
+			}
+			for (final String parentHash : graph.listParents(hash)) {
+				pending.add(parentHash);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * MERGEBASE METHODS (PRIVATE) ********************************************.
+	 */
+
+	/**
+	 * Retrieve the element's commit graph, after ensuring that it contains the
+	 * element's head and the states with the given hashes. States outside the
+	 * head's history are rejected rather than recorded in the graph.
+	 *
+	 * @param stateHashes
+	 *            String[].
+	 * @return graph - CommitGraph, or null if a state is not part of the
+	 *         element's history.
+	 */
+	private CommitGraph findCommitGraph(final String... stateHashes) {
+		final CommitGraph graph = this.committableElement.getCommitGraph();
+		if (graph == null)
+			return null;
+		// Appending the Head Also Refreshes the Graph.
+		final State head = this.committableElement.getHead();
+		if (head == null) {
+			graph.refresh();
+		} else if (!graph.append(head)) {
+			return null;
+		}
+		for (final String stateHash : stateHashes) {
+			if (!graph.contains(stateHash)) {
+				this.logger.warning("Unable to Find State [" + stateHash
+						+ "] in [" + this.committableElement.getName() + "].");
+				return null;
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * A state queued by the search, ordered from the highest generation to the
+	 * lowest and within the same generation by its hash. The generation is
+	 * looked up once when the state is queued.
+	 */
+	private static class QueuedState implements Comparable<QueuedState> {
+
+		/** The state's hash. */
+		private final String hash;
+
+		/** The state's generation. */
+		private final int generation;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param hash
+		 *            String.
+		 * @param generation
+		 *            int.
+		 */
+		QueuedState(final String hash, final int generation) {
+			this.hash = hash;
+			this.generation = generation;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Compare the generations of the queued states.
+		 */
+		@Override
+		public int compareTo(final QueuedState other) {
+			if (this.generation != other.generation)
+				return (this.generation > other.generation) ? -1 : 1;
+			return this.hash.compareTo(other.hash);
+		}
+	}
+
+}
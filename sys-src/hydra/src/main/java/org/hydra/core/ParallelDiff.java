@@ -0,0 +1,339 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hydra.utilities.DaemonThreadFactory;
+import org.hydra.utilities.Logger;
+import org.hydra.utilities.diff.myers.MyersDiff;
+
+/**
+ * Calculates the line diffs of all artifacts changed between a committed
+ * snapshot and the workspace using several threads. The changed artifacts are
+ * found by a {@link TreeDiff} and ordered by their path; their diffs are
+ * calculated concurrently but returned in that order, so the result is
+ * identical to the one of a serial calculation. Only a limited number of diffs
+ * are calculated ahead of the one being returned, which bounds the memory
+ * used by large change sets.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class ParallelDiff {
+
+	/** Property defining the number of threads used for diffing. */
+	public static final String PROPERTY_THREADS = "Core.diffThreads";
+
+	/** Number of diffs calculated ahead per thread. */
+	public static final int TASKS_PER_THREAD = 4;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The number of threads. */
+	private final int threads;
+
+	/**
+	 * Specialized Constructor, which uses the given number of threads.
+	 *
+	 * @param threads
+	 *            int.
+	 */
+	public ParallelDiff(final int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Return a differ configured according to the system's properties, using
+	 * one thread per processor unless configured otherwise.
+	 *
+	 * @return differ - ParallelDiff.
+	 */
+	public static ParallelDiff configured() {
+		final Configuration config = Configuration.getInstance();
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (config.hasProperty(ParallelDiff.PROPERTY_THREADS)) {
+			try {
+				threads = Integer.parseInt(config.getProperty(
+						ParallelDiff.PROPERTY_THREADS).trim());
+			} catch (final NumberFormatException e) {
+				Logger.getInstance().warning(
+						"Invalid Diff Thread Count ["
+								+ config.getProperty(ParallelDiff.PROPERTY_THREADS)
+								+ "].");
+			}
+		}
+		return new ParallelDiff(threads);
+	}
+
+	/**
+	 * Iterate over the diffs of the artifacts changed by the given tree diff,
+	 * ordered by their path. The old content of an artifact is read from the
+	 * repository and the new content from the workspace.
+	 *
+	 * @param treeDiff
+	 *            TreeDiff, from a committed snapshot to the workspace.
+	 * @param workspaceRoot
+	 *            File, the workspace file of the compared container.
+	 * @return diffs - Iterator of ArtifactDiffs.
+	 */
+	public Iterator<ArtifactDiff> iterateDiffs(final TreeDiff treeDiff,
+			final File workspaceRoot) {
+		final List<TreeChange> changes = new ArrayList<TreeChange>(
+				treeDiff.listChanges());
+		Collections.sort(changes, new PathComparator());
+		return new DiffIterator(changes, workspaceRoot);
+	}
+
+	/**
+	 * The diff of a single changed artifact.
+	 */
+	public static class ArtifactDiff {
+
+		/** The change. */
+		private final TreeChange change;
+
+		/** The line diff, null if not calculated. */
+		private final MyersDiff diff;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param change
+		 *            TreeChange.
+		 * @param diff
+		 *            MyersDiff, may be null.
+		 */
+		ArtifactDiff(final TreeChange change, final MyersDiff diff) {
+			this.change = change;
+			this.diff = diff;
+		}
+
+		/**
+		 * Retrieve the change of the artifact.
+		 *
+		 * @return change - TreeChange.
+		 */
+		public TreeChange getChange() {
+			return this.change;
+		}
+
+		/**
+		 * Retrieve the line diff of the artifact.
+		 *
+		 * @return diff - MyersDiff, or null if the artifact was moved without
+		 *         changes or its diff could not be calculated.
+		 */
+		public MyersDiff getDiff() {
+			return this.diff;
+		}
+	}
+
+	/**
+	 * Submits the diffs of the changes to a worker pool, keeping a limited
+	 * number ahead of the diff being returned. The pool is shut down once all
+	 * diffs have been returned.
+	 */
+	private class DiffIterator implements Iterator<ArtifactDiff> {
+
+		/** The changes not yet submitted. */
+		private final Iterator<TreeChange> changes;
+
+		/** The workspace file of the compared container. */
+		private final File workspaceRoot;
+
+		/** The submitted changes, in order. */
+		private final LinkedList<TreeChange> pendingChanges = new LinkedList<TreeChange>();
+
+		/** The diffs of the submitted changes, null for moved artifacts. */
+		private final LinkedList<Future<MyersDiff>> pendingDiffs = new LinkedList<Future<MyersDiff>>();
+
+		/** The worker pool, null once shut down. */
+		private ExecutorService pool;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param changes
+		 *            List of TreeChanges, in the order to return.
+		 * @param workspaceRoot
+		 *            File.
+		 */
+		DiffIterator(final List<TreeChange> changes, final File workspaceRoot) {
+			this.changes = changes.iterator();
+			this.workspaceRoot = workspaceRoot;
+			this.pool = Executors.newFixedThreadPool(ParallelDiff.this.threads,
+					new DaemonThreadFactory("hydra-diff"));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Determine if diffs remain, shutting down the pool if not.
+		 */
+		@Override
+		public boolean hasNext() {
+			this.submit();
+			if (this.pendingChanges.isEmpty() && (this.pool != null)) {
+				this.pool.shutdownNow();
+				this.pool = null;
+			}
+			return !this.pendingChanges.isEmpty();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Wait for the next diff in order.
+		 */
+		@Override
+		public ArtifactDiff next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			final TreeChange change = this.pendingChanges.poll();
+			final Future<MyersDiff> diff = this.pendingDiffs.poll();
+			this.submit();
+			if (diff == null)
+				return new ArtifactDiff(change, null);
+			try {
+				return new ArtifactDiff(change, diff.get());
+			} catch (final Exception e) {
+				ParallelDiff.this.logger.exception("Unable to Diff Artifact ["
+						+ change.getPath() + "].", e);
+				return new ArtifactDiff(change, null);
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Not supported.
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Submit changes until the configured number of diffs is pending.
+		 */
+		private void submit() {
+			while ((this.pool != null)
+					&& this.changes.hasNext()
+					&& (this.pendingChanges.size() < (ParallelDiff.this.threads * ParallelDiff.TASKS_PER_THREAD))) {
+				final TreeChange change = this.changes.next();
+				this.pendingChanges.add(change);
+				this.pendingDiffs
+						.add((change.getType() == TreeChange.Type.MOVED) ? null
+								: this.pool.submit(new DiffTask(change,
+										this.workspaceRoot)));
+			}
+		}
+	}
+
+	/**
+	 * Calculates the line diff of a single changed artifact. A missing old or
+	 * new version is treated as empty content.
+	 */
+	private static class DiffTask implements Callable<MyersDiff> {
+
+		/** The change. */
+		private final TreeChange change;
+
+		/** The workspace file of the compared container. */
+		private final File workspaceRoot;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param change
+		 *            TreeChange.
+		 * @param workspaceRoot
+		 *            File.
+		 */
+		DiffTask(final TreeChange change, final File workspaceRoot) {
+			this.change = change;
+			this.workspaceRoot = workspaceRoot;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Diff the committed content against the workspace file.
+		 */
+		@Override
+		public MyersDiff call() throws Exception {
+			InputStream from = null;
+			InputStream to = null;
+			try {
+				from = (this.change.getOldHash() == null) ? new ByteArrayInputStream(
+						new byte[0]) : new Artifact(new File(
+						this.workspaceRoot, this.change.getOldPath()),
+						this.change.getOldHash()).openContents();
+				to = (this.change.getNewHash() == null) ? new ByteArrayInputStream(
+						new byte[0]) : new FileInputStream(new File(
+						this.workspaceRoot, this.change.getNewPath()));
+				return new MyersDiff(from, to, this.change.getOldHash(),
+						this.change.getNewHash());
+			} finally {
+				if (from != null) {
+					from.close();
+				}
+				if (to != null) {
+					to.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Orders changes by their path.
+	 */
+	private static class PathComparator implements Comparator<TreeChange> {
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Compare the paths of the given changes.
+		 */
+		@Override
+		public int compare(final TreeChange first, final TreeChange second) {
+			return first.getPath().compareTo(second.getPath());
+		}
+	}
+
+}
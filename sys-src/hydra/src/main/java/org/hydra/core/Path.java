@@ -236,11 +236,18 @@ public class Path {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Return a Clone of the given path.
+	 * Return a Clone of the given path, copying its steps directly rather
+	 * than parsing the path's string.
 	 */
 	@Override
 	public Path clone() {
-		return new Path(this.toString());
+		final Path clone = new Path();
+		clone.steps.clear();
+		for (final Step step : this.steps) {
+			clone.steps.add(step.clone());
+		}
+		clone.valid = this.valid;
+		return clone;
 	}
 
 	/**
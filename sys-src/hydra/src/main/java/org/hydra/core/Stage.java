@@ -24,7 +24,9 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 
+import org.hydra.persistence.CommitGraph;
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.WorkspaceIndex;
 import org.hydra.utilities.FilterInFiles;
 import org.hydra.utilities.FilterOutHidden;
 
@@ -191,6 +193,7 @@ public class Stage extends CommittableElement {
 	public boolean deleteLogicalUnit(final String name) {
 		this.logicalUnits.remove(name);
 		this.recordReferences();
+		CommitGraph.getInstance(new File("luStore/" + name)).invalidate();
 		return new File(this.config.getLUStore(), name).delete();
 	}
 
@@ -588,6 +591,7 @@ public class Stage extends CommittableElement {
 	@Override
 	public boolean recordReferences() {
 		this.stashContents();
+		WorkspaceIndex.getInstance().flush();
 		return this.dao.record();
 	}
 
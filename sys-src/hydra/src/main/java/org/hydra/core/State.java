@@ -21,13 +21,14 @@
 package org.hydra.core;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Scanner;
 import java.util.UUID;
 
 import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.ObjectCache;
+import org.hydra.persistence.RecordReader;
+import org.hydra.persistence.StateDAO;
 
 /**
  * Specialized fingerprinted element which maintains or records a state of all
@@ -56,9 +57,15 @@ public class State extends FingerprintedElement {
 	/** The previous list. */
 	private final ArrayList<State> previousList = new ArrayList<State>();
 
+	/** The hashes of the previous states not yet loaded. */
+	private final ArrayList<String> previousHashes = new ArrayList<String>();
+
 	/** The valid previous. */
 	private State validPrevious = null;
 
+	/** The hash of the valid previous, if not yet loaded. */
+	private String validPreviousHash = null;
+
 	/** The contents hash. */
 	private String contentsHash = "null";
 
@@ -167,8 +174,7 @@ public class State extends FingerprintedElement {
 		if (contents == null) {
 			this.contentsHash = "null";
 		} else {
-			contents.refreshFingerprint();
-			contents.store();
+			contents.ingest();
 			this.contentsHash = contents.getHash();
 		}
 		this.userId = userId;
@@ -213,9 +219,21 @@ public class State extends FingerprintedElement {
 	 * @return success - boolean.
 	 */
 	public boolean addPrevious(final State previousState) {
+		this.resolvePrevious();
 		return this.previousList.add(previousState);
 	}
 
+	/**
+	 * Add the state with the given hash as a previous state. The state is only
+	 * loaded from the repository once the previous states are listed.
+	 *
+	 * @param previousHash
+	 *            String.
+	 */
+	public void addPreviousHash(final String previousHash) {
+		this.previousHashes.add(previousHash);
+	}
+
 	/**
 	 * Return a clone of the state's contents.
 	 *
@@ -237,7 +255,16 @@ public class State extends FingerprintedElement {
 	 * @return path - Path.
 	 */
 	public Path clonePath() {
-		return new Path(this.path.toString());
+		return this.path.clone();
+	}
+
+	/**
+	 * Return the hash of the state's contents without loading them.
+	 *
+	 * @return contentsHash - String, "null" if the state is temporary.
+	 */
+	public String getContentsHash() {
+		return this.contentsHash;
 	}
 
 	/**
@@ -251,9 +278,10 @@ public class State extends FingerprintedElement {
 				.append(this.timestamp).append("\n\tCommit Hash: ")
 				.append(this.getHash()).append("\n\tContent Hash: ")
 				.append(this.contentsHash);
-		for (int i = 0; i < this.previousList.size(); i++) {
+		final String[] previousHashList = this.listPreviousHashes();
+		for (int i = 0; i < previousHashList.length; i++) {
 			sb.append("\n\tPrev[").append(i).append("]: ")
-					.append(this.previousList.get(i).getHash());
+					.append(previousHashList[i]);
 		}
 		return sb.toString();
 	}
@@ -300,6 +328,10 @@ public class State extends FingerprintedElement {
 	 * @return validPrevious - State.
 	 */
 	public State getValidPathPrevious() {
+		if (this.validPreviousHash != null) {
+			this.validPrevious = this.loadState(this.validPreviousHash);
+			this.validPreviousHash = null;
+		}
 		return this.validPrevious;
 	}
 
@@ -327,9 +359,28 @@ public class State extends FingerprintedElement {
 	 * @return previousStates - State[].
 	 */
 	public State[] listPrevious() {
+		this.resolvePrevious();
 		return this.previousList.toArray(new State[this.previousList.size()]);
 	}
 
+	/**
+	 * List the hashes of the previous states without loading them.
+	 *
+	 * @return previousHashes - String[].
+	 */
+	public String[] listPreviousHashes() {
+		final String[] hashes = new String[this.previousList.size()
+				+ this.previousHashes.size()];
+		int i = 0;
+		for (final State p : this.previousList) {
+			hashes[i++] = p.getHash();
+		}
+		for (final String previousHash : this.previousHashes) {
+			hashes[i++] = previousHash;
+		}
+		return hashes;
+	}
+
 	/**
 	 * Adjust the state's dynamic path by one step.
 	 *
@@ -349,6 +400,7 @@ public class State extends FingerprintedElement {
 	 * @return success - boolean.
 	 */
 	public boolean removePrevious(final State previousState) {
+		this.resolvePrevious();
 		return this.previousList.remove(previousState);
 	}
 
@@ -420,6 +472,19 @@ public class State extends FingerprintedElement {
 	 */
 	public void setValidPathPrevious(final State validPrevious) {
 		this.validPrevious = validPrevious;
+		this.validPreviousHash = null;
+	}
+
+	/**
+	 * Set the hash of the state's previous valid path state. The state is only
+	 * loaded from the repository once it is requested.
+	 *
+	 * @param validPreviousHash
+	 *            String.
+	 */
+	public void setValidPathPreviousHash(final String validPreviousHash) {
+		this.validPrevious = null;
+		this.validPreviousHash = validPreviousHash;
 	}
 
 	/**
@@ -430,8 +495,7 @@ public class State extends FingerprintedElement {
 	 */
 	public void updateContent(final Container updatedContent) {
 		try {
-			updatedContent.refreshFingerprint();
-			updatedContent.store();
+			updatedContent.ingest();
 			this.contentsHash = updatedContent.getHash();
 			this.store();
 		} catch (final Exception e) {
@@ -450,6 +514,56 @@ public class State extends FingerprintedElement {
 		this.path = currentPath.clone();
 	}
 
+	/**
+	 * STATE METHODS (PRIVATE) **********************************************.
+	 */
+
+	/**
+	 * Return the hash of the valid previous state, without loading it.
+	 *
+	 * @return validPreviousHash - String.
+	 */
+	private String findValidPreviousHash() {
+		if (this.validPreviousHash != null)
+			return this.validPreviousHash;
+		return (this.validPrevious == null) ? "null" : this.validPrevious
+				.getHash();
+	}
+
+	/**
+	 * Load the state of the same kind as this state with the given hash from
+	 * the repository.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return state - State, or null if it could not be loaded.
+	 */
+	private State loadState(final String stateHash) {
+		try {
+			if (this instanceof StageState)
+				return new StageState(stateHash);
+			else
+				return new State(stateHash);
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Load Previous State [" + stateHash
+					+ "].", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Load the previous states only known by their hashes.
+	 */
+	private void resolvePrevious() {
+		for (final String previousHash : this.previousHashes) {
+			final State previous = this.loadState(previousHash);
+			if (previous != null) {
+				this.previousList.add(previous);
+			}
+		}
+		this.previousHashes.clear();
+	}
+
 	/**
 	 * ELEMENT METHODS (OVERRIDDEN) ****************************************.
 	 * 
@@ -477,13 +591,12 @@ public class State extends FingerprintedElement {
 		// VALID PREVIOUS
 		sb.append(State.TOKEN_VALIDPREVIOUS)
 				.append(DataAccessObject.SEP_TOKEN)
-				.append((this.validPrevious == null) ? "null"
-						: this.validPrevious.getHash())
+				.append(this.findValidPreviousHash())
 				.append(DataAccessObject.SEP_MEMBER);
 		// PREVIOUS LIST
-		for (final State p : this.previousList) {
+		for (final String previousHash : this.listPreviousHashes()) {
 			sb.append(State.TOKEN_PREVIOUS).append(DataAccessObject.SEP_TOKEN)
-					.append(p.getHash()).append(DataAccessObject.SEP_MEMBER);
+					.append(previousHash).append(DataAccessObject.SEP_MEMBER);
 		}
 		// TEMPLATE EXTENSION (i.e. Stage's Logical Units)
 		sb.append(this.describeExtension());
@@ -558,16 +671,12 @@ public class State extends FingerprintedElement {
 			if (!this.repositoryFile.exists()) {
 				sb.append("-");
 			} else {
-				Scanner scanner = null;
 				try {
-					scanner = new Scanner(new FileInputStream(
-							this.repositoryFile), "UTF-8");
-					final StringBuffer stateSB = new StringBuffer("");
-					for (int i = 0; i < 2; i++) {
-						stateSB.append(scanner.nextLine()
-								+ DataAccessObject.SEP_MEMBER);
-					}
-					if (this.fingerprint.checkFingerprint(stateSB.toString())
+					final String[][] members = ObjectCache.getInstance()
+							.readMembers(this.repositoryFile);
+					final String stateHeader = RecordReader
+							.toText(new String[][] { members[0], members[1] });
+					if (this.fingerprint.checkFingerprint(stateHeader)
 							&& (new Container(this.config.getWorkspace(),
 									this.contentsHash)).getStatus(false, true)
 									.equals("v")) {
@@ -624,4 +733,16 @@ public class State extends FingerprintedElement {
 		return this.dao.retrieve();
 	}
 
+	/**
+	 * Return the logical unit workspace to the persisted state, writing only
+	 * the artifacts that differ from the workspace.
+	 *
+	 * @param current
+	 *            Container, the contents the workspace was last set to or null.
+	 * @return success - boolean.
+	 */
+	public boolean checkout(final Container current) {
+		return ((StateDAO) this.dao).checkout(current);
+	}
+
 }
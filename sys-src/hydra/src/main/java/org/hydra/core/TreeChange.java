@@ -0,0 +1,179 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+/**
+ * Describes the change of a single artifact between two snapshots of a
+ * container, as reported by a {@link TreeDiff}. Paths are relative to the
+ * compared containers and always separated by '/'.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class TreeChange {
+
+	/**
+	 * The kinds of changes.
+	 */
+	public enum Type {
+
+		/** An artifact only found in the new snapshot. */
+		ADDED("A"),
+
+		/** An artifact only found in the old snapshot. */
+		REMOVED("D"),
+
+		/** An artifact found in both snapshots with different content. */
+		MODIFIED("M"),
+
+		/** An artifact found with the same content at a different path. */
+		MOVED("R");
+
+		/** The symbol. */
+		private final String symbol;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param symbol
+		 *            String.
+		 */
+		Type(final String symbol) {
+			this.symbol = symbol;
+		}
+
+		/**
+		 * Return the single letter symbol of the change type.
+		 *
+		 * @return symbol - String.
+		 */
+		public String getSymbol() {
+			return this.symbol;
+		}
+	}
+
+	/** The type. */
+	private final Type type;
+
+	/** The path in the old snapshot, or null if added. */
+	private final String oldPath;
+
+	/** The path in the new snapshot, or null if removed. */
+	private final String newPath;
+
+	/** The hash of the old content, or null if added. */
+	private final String oldHash;
+
+	/** The hash of the new content, or null if removed. */
+	private final String newHash;
+
+	/**
+	 * Specialized Constructor.
+	 *
+	 * @param type
+	 *            Type.
+	 * @param oldPath
+	 *            String, or null if added.
+	 * @param newPath
+	 *            String, or null if removed.
+	 * @param oldHash
+	 *            String, or null if added.
+	 * @param newHash
+	 *            String, or null if removed.
+	 */
+	public TreeChange(final Type type, final String oldPath,
+			final String newPath, final String oldHash, final String newHash) {
+		this.type = type;
+		this.oldPath = oldPath;
+		this.newPath = newPath;
+		this.oldHash = oldHash;
+		this.newHash = newHash;
+	}
+
+	/**
+	 * Return the type of the change.
+	 *
+	 * @return type - Type.
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * Return the path of the artifact in the old snapshot.
+	 *
+	 * @return oldPath - String, or null if added.
+	 */
+	public String getOldPath() {
+		return this.oldPath;
+	}
+
+	/**
+	 * Return the path of the artifact in the new snapshot.
+	 *
+	 * @return newPath - String, or null if removed.
+	 */
+	public String getNewPath() {
+		return this.newPath;
+	}
+
+	/**
+	 * Return the path of the artifact, in the new snapshot unless removed.
+	 *
+	 * @return path - String.
+	 */
+	public String getPath() {
+		return (this.newPath != null) ? this.newPath : this.oldPath;
+	}
+
+	/**
+	 * Return the hash of the artifact's old content.
+	 *
+	 * @return oldHash - String, or null if added.
+	 */
+	public String getOldHash() {
+		return this.oldHash;
+	}
+
+	/**
+	 * Return the hash of the artifact's new content.
+	 *
+	 * @return newHash - String, or null if removed.
+	 */
+	public String getNewHash() {
+		return this.newHash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return the change's symbol followed by its path, or both paths if moved.
+	 */
+	@Override
+	public String toString() {
+		return this.type.getSymbol()
+				+ "  "
+				+ ((this.type == Type.MOVED) ? this.oldPath + " -> "
+						+ this.newPath : this.getPath());
+	}
+
+}
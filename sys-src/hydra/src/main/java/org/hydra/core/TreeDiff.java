@@ -0,0 +1,335 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares two snapshots of a container and reports the artifacts added,
+ * removed, modified and moved between them.
+ *
+ * Since a container's hash is calculated from the hashes of its elements, the
+ * comparison skips every pair of subcontainers with equal hashes without
+ * loading their elements. The changes are produced lazily while iterating:
+ * modified artifacts as they are found, followed, once both snapshots have
+ * been compared, by the moved, added and removed artifacts. An added artifact
+ * with the content of a removed artifact is reported as moved.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class TreeDiff implements Iterable<TreeChange> {
+
+	/** The old snapshot, may be null. */
+	private final Container oldTree;
+
+	/** The new snapshot, may be null. */
+	private final Container newTree;
+
+	/**
+	 * Specialized Constructor which specifies the snapshots to compare. A null
+	 * snapshot is treated as an empty container.
+	 *
+	 * @param oldTree
+	 *            Container, may be null.
+	 * @param newTree
+	 *            Container, may be null.
+	 */
+	public TreeDiff(final Container oldTree, final Container newTree) {
+		this.oldTree = oldTree;
+		this.newTree = newTree;
+	}
+
+	/**
+	 * TREEDIFF METHODS *******************************************************.
+	 */
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return an iterator producing the changes between the snapshots.
+	 */
+	@Override
+	public Iterator<TreeChange> iterator() {
+		return new ChangeIterator(this.oldTree, this.newTree);
+	}
+
+	/**
+	 * Return the changes between the snapshots.
+	 *
+	 * @return changes - List<TreeChange>.
+	 */
+	public List<TreeChange> listChanges() {
+		final List<TreeChange> changes = new ArrayList<TreeChange>();
+		for (final TreeChange change : this) {
+			changes.add(change);
+		}
+		return changes;
+	}
+
+	/**
+	 * Lazily compares the snapshots, one pair of containers at a time.
+	 */
+	private static class ChangeIterator implements Iterator<TreeChange> {
+
+		/** The pairs of containers still to be compared, with their paths. */
+		private final LinkedList<Object[]> pending = new LinkedList<Object[]>();
+
+		/** The changes found but not yet returned. */
+		private final LinkedList<TreeChange> found = new LinkedList<TreeChange>();
+
+		/** The added artifacts' hashes, keyed by path. */
+		private final Map<String, String> added = new LinkedHashMap<String, String>();
+
+		/** The removed artifacts' hashes, keyed by path. */
+		private final Map<String, String> removed = new LinkedHashMap<String, String>();
+
+		/** Whether the added and removed artifacts have been reported. */
+		private boolean finished = false;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param oldTree
+		 *            Container, may be null.
+		 * @param newTree
+		 *            Container, may be null.
+		 */
+		ChangeIterator(final Container oldTree, final Container newTree) {
+			this.pending.add(new Object[] { oldTree, newTree, "" });
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Compare containers until a change is found or all are compared.
+		 */
+		@Override
+		public boolean hasNext() {
+			while (this.found.isEmpty() && !this.finished) {
+				if (this.pending.isEmpty()) {
+					this.finish();
+				} else {
+					final Object[] pair = this.pending.removeFirst();
+					this.compare((Container) pair[0], (Container) pair[1],
+							(String) pair[2]);
+				}
+			}
+			return !this.found.isEmpty();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Return the next change.
+		 */
+		@Override
+		public TreeChange next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			return this.found.removeFirst();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Unsupported, the changes are derived from the snapshots.
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Compare the direct elements of two containers, queueing the pairs of
+		 * differing subcontainers to be compared before the remaining pairs.
+		 *
+		 * @param oldContainer
+		 *            Container, may be null.
+		 * @param newContainer
+		 *            Container, may be null.
+		 * @param path
+		 *            String, the containers' path.
+		 */
+		private void compare(final Container oldContainer,
+				final Container newContainer, final String path) {
+			if ((oldContainer != null) && (newContainer != null)
+					&& TreeDiff.sameHash(oldContainer, newContainer))
+				return;
+			final Map<String, FingerprintedElement> oldElements = TreeDiff
+					.mapElements(oldContainer);
+			final Map<String, FingerprintedElement> newElements = TreeDiff
+					.mapElements(newContainer);
+			final LinkedList<Object[]> subContainers = new LinkedList<Object[]>();
+			for (final Map.Entry<String, FingerprintedElement> entry : oldElements
+					.entrySet()) {
+				final FingerprintedElement oldElement = entry.getValue();
+				final FingerprintedElement newElement = newElements
+						.remove(entry.getKey());
+				final String elementPath = path + oldElement.getName();
+				if ((newElement != null)
+						&& (oldElement instanceof Artifact)
+						&& (newElement instanceof Artifact)) {
+					if (!TreeDiff.sameHash(oldElement, newElement)) {
+						this.found.add(new TreeChange(
+								TreeChange.Type.MODIFIED, elementPath,
+								elementPath, oldElement.getHash(), newElement
+										.getHash()));
+					}
+				} else if ((newElement != null)
+						&& (oldElement instanceof Container)
+						&& (newElement instanceof Container)) {
+					subContainers.add(new Object[] { oldElement, newElement,
+							elementPath + "/" });
+				} else {
+					this.removeElement(oldElement, elementPath, subContainers);
+					if (newElement != null) {
+						this.addElement(newElement, elementPath, subContainers);
+					}
+				}
+			}
+			for (final FingerprintedElement newElement : newElements.values()) {
+				this.addElement(newElement, path + newElement.getName(),
+						subContainers);
+			}
+			this.pending.addAll(0, subContainers);
+		}
+
+		/**
+		 * Record an element only found in the old snapshot.
+		 *
+		 * @param element
+		 *            FingerprintedElement.
+		 * @param path
+		 *            String.
+		 * @param subContainers
+		 *            List of pairs of containers to compare.
+		 */
+		private void removeElement(final FingerprintedElement element,
+				final String path, final List<Object[]> subContainers) {
+			if (element instanceof Container) {
+				subContainers.add(new Object[] { element, null, path + "/" });
+			} else {
+				this.removed.put(path, element.getHash());
+			}
+		}
+
+		/**
+		 * Record an element only found in the new snapshot.
+		 *
+		 * @param element
+		 *            FingerprintedElement.
+		 * @param path
+		 *            String.
+		 * @param subContainers
+		 *            List of pairs of containers to compare.
+		 */
+		private void addElement(final FingerprintedElement element,
+				final String path, final List<Object[]> subContainers) {
+			if (element instanceof Container) {
+				subContainers.add(new Object[] { null, element, path + "/" });
+			} else {
+				this.added.put(path, element.getHash());
+			}
+		}
+
+		/**
+		 * Report the moved, added and removed artifacts, pairing each added
+		 * artifact with a removed artifact of the same content.
+		 */
+		private void finish() {
+			this.finished = true;
+			final Map<String, LinkedList<String>> removedByHash = new HashMap<String, LinkedList<String>>();
+			for (final Map.Entry<String, String> entry : this.removed
+					.entrySet()) {
+				LinkedList<String> paths = removedByHash.get(entry.getValue());
+				if (paths == null) {
+					paths = new LinkedList<String>();
+					removedByHash.put(entry.getValue(), paths);
+				}
+				paths.add(entry.getKey());
+			}
+			for (final Map.Entry<String, String> entry : this.added.entrySet()) {
+				final LinkedList<String> paths = removedByHash.get(entry
+						.getValue());
+				if ((paths != null) && !paths.isEmpty()) {
+					final String oldPath = paths.removeFirst();
+					this.removed.remove(oldPath);
+					this.found.add(new TreeChange(TreeChange.Type.MOVED,
+							oldPath, entry.getKey(), entry.getValue(), entry
+									.getValue()));
+				} else {
+					this.found.add(new TreeChange(TreeChange.Type.ADDED, null,
+							entry.getKey(), null, entry.getValue()));
+				}
+			}
+			for (final Map.Entry<String, String> entry : this.removed
+					.entrySet()) {
+				this.found.add(new TreeChange(TreeChange.Type.REMOVED, entry
+						.getKey(), null, entry.getValue(), null));
+			}
+		}
+	}
+
+	/**
+	 * Determine if both elements have the same, known hash. The interned
+	 * hashes are compared, without converting them to strings.
+	 *
+	 * @param first
+	 *            FingerprintedElement.
+	 * @param second
+	 *            FingerprintedElement.
+	 * @return sameHash - boolean.
+	 */
+	private static boolean sameHash(final FingerprintedElement first,
+			final FingerprintedElement second) {
+		return first.getFingerprint().hasHash()
+				&& first.getFingerprint().equals(second.getFingerprint());
+	}
+
+	/**
+	 * Map the direct elements of the given container by their names, keeping
+	 * the container's order.
+	 *
+	 * @param container
+	 *            Container, may be null.
+	 * @return elements - Map of FingerprintedElements.
+	 */
+	private static Map<String, FingerprintedElement> mapElements(
+			final Container container) {
+		final Map<String, FingerprintedElement> elements = new LinkedHashMap<String, FingerprintedElement>();
+		if (container != null) {
+			for (final FingerprintedElement element : container.listElements()) {
+				elements.put(element.getName(), element);
+			}
+		}
+		return elements;
+	}
+
+}
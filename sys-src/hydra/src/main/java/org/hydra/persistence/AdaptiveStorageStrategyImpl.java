@@ -0,0 +1,487 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Hash;
+import org.hydra.utilities.FileUtilities;
+import org.hydra.utilities.Logger;
+
+/**
+ * Implements the DAOs storage functionality by choosing the encoding of each
+ * artifact from a sample of its content. Content that looks incompressible,
+ * such as archives or images, is stored raw using NIO transfers; all other
+ * content is stored using the ZIP compression format with the configured
+ * compression level.
+ *
+ * Every encoding is recognizable from the first bytes of the stored object,
+ * so objects written by any of the storage strategies can be read back.
+ * Hydra's own tags are recognized first; an untagged object is only taken to
+ * be ZIP or GZIP compressed if no tag matches, and is otherwise read as raw
+ * content written by an earlier version.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class AdaptiveStorageStrategyImpl implements IngestingStorageStrategy {
+
+	/** The Constant COMPRESSION_TYPE. */
+	public static final String COMPRESSION_TYPE = "AdaptiveCompression";
+
+	/** Property defining the compression level, from 0 to 9. */
+	public static final String PROPERTY_LEVEL = "Persistence.compressionLevel";
+
+	/** Magic bytes starting an object stored raw. */
+	public static final byte[] RAW_MAGIC = { 'H', 'Y', 'R', 'W' };
+
+	/** Number of bytes sampled to estimate the entropy of the content. */
+	public static final int SAMPLE_SIZE = 64 * 1024;
+
+	/** Entropy (bits per byte) from which content is stored raw. */
+	public static final double ENTROPY_THRESHOLD = 7.5;
+
+	/** Magic bytes starting a ZIP file. */
+	private static final byte[] ZIP_MAGIC = { 'P', 'K', 3, 4 };
+
+	/** Magic bytes starting a GZIP file. */
+	private static final byte[] GZIP_MAGIC = { 0x1f, (byte) 0x8b };
+
+	/** The logger. */
+	private final Logger logger;
+
+	/** The strategy used for compressible content. */
+	private final ZipStorageStrategyImpl zipStorage;
+
+	/**
+	 * Default Constructor with no parameters, which uses the compression level
+	 * configured in the system's properties.
+	 */
+	public AdaptiveStorageStrategyImpl() {
+		this.logger = Logger.getInstance();
+		this.zipStorage = new ZipStorageStrategyImpl(this.findLevel());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the workspace to the repository,
+	 * compressed unless the content appears to be incompressible.
+	 */
+	@Override
+	public boolean transferToRepository(final File workspaceFile,
+			final File repositoryFile) {
+		final double entropy = this.sampleEntropy(workspaceFile);
+		if (entropy < 0)
+			return false;
+		if (entropy >= AdaptiveStorageStrategyImpl.ENTROPY_THRESHOLD)
+			return new NIOStorageStrategyImpl().transferToRepository(
+					workspaceFile, repositoryFile);
+		return this.zipStorage.compressContents(workspaceFile, repositoryFile);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the repository to the workspace,
+	 * decoding it according to the encoding recorded in the object.
+	 */
+	@Override
+	public boolean transferFromRepository(final File workspaceFile,
+			final File repositoryFile) {
+		final byte[] start = this.readStart(repositoryFile);
+		if (start == null)
+			return false;
+		// Hydra's Own Encodings, Recognized by Their Tags.
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.RAW_MAGIC))
+			return this.retrieveRaw(repositoryFile, workspaceFile);
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				DeltaStorageStrategyImpl.MAGIC))
+			return new DeltaStorageStrategyImpl().transferFromRepository(
+					workspaceFile, repositoryFile);
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				ChunkedStorageStrategyImpl.MANIFEST_MAGIC))
+			return new ChunkedStorageStrategyImpl(this).transferFromRepository(
+					workspaceFile, repositoryFile);
+		// Untagged Objects, Compressed or Written Raw by Earlier Versions.
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.ZIP_MAGIC))
+			return this.zipStorage.uncompressContents(repositoryFile,
+					workspaceFile);
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.GZIP_MAGIC))
+			return new GZipStorageStrategyImpl().uncompressContents(
+					repositoryFile, workspaceFile);
+		return new NIOStorageStrategyImpl().transferContents(repositoryFile,
+				workspaceFile);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the contents of a file in the repository, decoding it according to
+	 * the encoding recorded in the object.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		final byte[] start = this.readStart(repositoryFile);
+		if (start == null)
+			throw new IOException("Unable to Read Object [" + repositoryFile
+					+ "].");
+		// Hydra's Own Encodings, Recognized by Their Tags.
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.RAW_MAGIC)) {
+			final InputStream is = ObjectStore.getInstance().open(
+					repositoryFile);
+			try {
+				new DataInputStream(is).readFully(
+						new byte[AdaptiveStorageStrategyImpl.RAW_MAGIC.length]);
+				return is;
+			} catch (final IOException e) {
+				is.close();
+				throw e;
+			}
+		}
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				DeltaStorageStrategyImpl.MAGIC))
+			return new DeltaStorageStrategyImpl()
+					.openFromRepository(repositoryFile);
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				ChunkedStorageStrategyImpl.MANIFEST_MAGIC))
+			return new ChunkedStorageStrategyImpl(this)
+					.openFromRepository(repositoryFile);
+		// Untagged Objects, Compressed or Written Raw by Earlier Versions.
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.ZIP_MAGIC))
+			return this.zipStorage.openFromRepository(repositoryFile);
+		if (AdaptiveStorageStrategyImpl.startsWith(start,
+				AdaptiveStorageStrategyImpl.GZIP_MAGIC))
+			return new GZipStorageStrategyImpl()
+					.openFromRepository(repositoryFile);
+		return ObjectStore.getInstance().open(repositoryFile);
+	}
+
+	/**
+	 * Estimate the entropy of the given file's content from its first bytes.
+	 *
+	 * @param file
+	 *            File.
+	 * @return entropy - double, in bits per byte or -1 on failure.
+	 */
+	public double sampleEntropy(final File file) {
+		InputStream is = null;
+		try {
+			is = new FileInputStream(file);
+			final byte[] sample = new byte[AdaptiveStorageStrategyImpl.SAMPLE_SIZE];
+			final int length = AdaptiveStorageStrategyImpl.readSample(is, sample);
+			return AdaptiveStorageStrategyImpl.calculateEntropy(sample, length);
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Sample Artifact [" + file + "].",
+					e);
+			return -1;
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Sample Stream.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Hash and store the contents of a file in the workspace in a single read,
+	 * choosing the encoding from the first bytes read.
+	 */
+	@Override
+	public Hash ingestToRepository(final File workspaceFile) {
+		final ObjectStore store = ObjectStore.getInstance();
+		DigestInputStream dis = null;
+		File tempObject = null;
+		try {
+			dis = new DigestInputStream(new FileInputStream(workspaceFile),
+					MessageDigest.getInstance("SHA1"));
+			tempObject = store.createTempObject();
+			final boolean stored = this.storeContents(dis, tempObject);
+			final Hash hash = Hash.valueOf(dis.getMessageDigest().digest());
+			if (stored && store.install(tempObject, hash)) {
+				tempObject = null;
+				return hash;
+			}
+			return null;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Ingest Artifact [" + workspaceFile
+					+ "].", e);
+			return null;
+		} finally {
+			FileUtilities.close(dis);
+			if ((tempObject != null) && tempObject.exists()
+					&& !tempObject.delete()) {
+				this.logger.warning("Unable to Delete Temporary Object ["
+						+ tempObject + "].");
+			}
+		}
+	}
+
+	/**
+	 * Store the remaining content of the given stream, choosing the encoding
+	 * from its first bytes. The stream is not closed.
+	 *
+	 * @param source
+	 *            InputStream.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	public boolean storeContents(final InputStream source,
+			final File destination) {
+		try {
+			final byte[] sample = new byte[AdaptiveStorageStrategyImpl.SAMPLE_SIZE];
+			final int length = AdaptiveStorageStrategyImpl.readSample(source,
+					sample);
+			final InputStream contents = new SequenceInputStream(
+					new ByteArrayInputStream(sample, 0, length), source);
+			if (AdaptiveStorageStrategyImpl.calculateEntropy(sample, length) >= AdaptiveStorageStrategyImpl.ENTROPY_THRESHOLD)
+				return this.storeRaw(contents, destination);
+			return this.zipStorage.compressContents(contents, destination);
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Store Content [" + destination
+					+ "].", e);
+			return false;
+		}
+	}
+
+	/**
+	 * ADAPTIVE METHODS (PRIVATE) *********************************************.
+	 */
+
+	/**
+	 * Store the remaining content of the given stream uncompressed, preceded
+	 * by the raw magic bytes. The stream is not closed.
+	 *
+	 * @param source
+	 *            InputStream.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	private boolean storeRaw(final InputStream source, final File destination) {
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(destination);
+			os.write(AdaptiveStorageStrategyImpl.RAW_MAGIC);
+			final byte[] buffer = new byte[AdaptiveStorageStrategyImpl.SAMPLE_SIZE];
+			int read;
+			while ((read = source.read(buffer)) >= 0) {
+				os.write(buffer, 0, read);
+			}
+			os.close();
+			os = null;
+			return true;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Store Content [" + destination
+					+ "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(os);
+		}
+	}
+
+	/**
+	 * Restore the given raw object, skipping its magic bytes.
+	 *
+	 * @param source
+	 *            File.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	private boolean retrieveRaw(final File source, final File destination) {
+		InputStream is = null;
+		FileChannel fcDestination = null;
+		try {
+			is = ObjectStore.getInstance().open(source);
+			new DataInputStream(is).readFully(
+					new byte[AdaptiveStorageStrategyImpl.RAW_MAGIC.length]);
+			fcDestination = new FileOutputStream(destination).getChannel();
+			if (is instanceof FileInputStream) {
+				final FileChannel fc = ((FileInputStream) is).getChannel();
+				final long size = fc.size();
+				long position = AdaptiveStorageStrategyImpl.RAW_MAGIC.length;
+				while (position < size) {
+					position += fc.transferTo(position, size - position,
+							fcDestination);
+				}
+			} else {
+				fcDestination.transferFrom(Channels.newChannel(is), 0,
+						Long.MAX_VALUE);
+			}
+			return true;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Retrieve Artifact [" + source
+					+ "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(is);
+			FileUtilities.close(fcDestination);
+		}
+	}
+
+	/**
+	 * Read the first bytes of the given object, fewer if the object is
+	 * shorter.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return start - byte[], or null on failure.
+	 */
+	private byte[] readStart(final File repositoryFile) {
+		InputStream is = null;
+		try {
+			is = ObjectStore.getInstance().open(repositoryFile);
+			final byte[] start = new byte[4];
+			int length = 0;
+			int read;
+			while ((length < start.length)
+					&& ((read = is.read(start, length, start.length - length)) >= 0)) {
+				length += read;
+			}
+			return Arrays.copyOf(start, length);
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Read Object [" + repositoryFile
+					+ "].", e);
+			return null;
+		} finally {
+			FileUtilities.close(is);
+		}
+	}
+
+	/**
+	 * Return the configured compression level, or the default level.
+	 *
+	 * @return level - int.
+	 */
+	private int findLevel() {
+		final Configuration config = Configuration.getInstance();
+		if (config.hasProperty(AdaptiveStorageStrategyImpl.PROPERTY_LEVEL)) {
+			try {
+				final int level = Integer.parseInt(config.getProperty(
+						AdaptiveStorageStrategyImpl.PROPERTY_LEVEL).trim());
+				if ((level >= 0) && (level <= 9))
+					return level;
+			} catch (final NumberFormatException e) {
+				// Reported Below.
+			}
+			this.logger.warning("Invalid Compression Level ["
+					+ config.getProperty(AdaptiveStorageStrategyImpl.PROPERTY_LEVEL)
+					+ "].");
+		}
+		return Deflater.DEFAULT_COMPRESSION;
+	}
+
+	/**
+	 * Fill the given sample with the first bytes of the stream.
+	 *
+	 * @param is
+	 *            InputStream.
+	 * @param sample
+	 *            byte[].
+	 * @return length - int, the number of bytes read.
+	 * @throws IOException
+	 *             if the stream could not be read.
+	 */
+	private static int readSample(final InputStream is, final byte[] sample)
+			throws IOException {
+		int length = 0;
+		int read;
+		while ((length < sample.length)
+				&& ((read = is.read(sample, length, sample.length - length)) >= 0)) {
+			length += read;
+		}
+		return length;
+	}
+
+	/**
+	 * Calculate the entropy of the given sample.
+	 *
+	 * @param sample
+	 *            byte[].
+	 * @param length
+	 *            int.
+	 * @return entropy - double, in bits per byte.
+	 */
+	private static double calculateEntropy(final byte[] sample,
+			final int length) {
+		final int[] counts = new int[256];
+		for (int i = 0; i < length; i++) {
+			counts[sample[i] & 0xff]++;
+		}
+		double entropy = 0;
+		for (final int count : counts) {
+			if (count > 0) {
+				final double p = (double) count / length;
+				entropy -= p * Math.log(p);
+			}
+		}
+		return entropy / Math.log(2);
+	}
+
+	/**
+	 * Determine if the given bytes start with the given magic bytes.
+	 *
+	 * @param start
+	 *            byte[].
+	 * @param magic
+	 *            byte[].
+	 * @return startsWith - boolean.
+	 */
+	private static boolean startsWith(final byte[] start, final byte[] magic) {
+		if (start.length < magic.length)
+			return false;
+		for (int i = 0; i < magic.length; i++) {
+			if (start[i] != magic[i])
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -20,7 +20,12 @@
  *************************************************************************/
 package org.hydra.persistence;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.hydra.core.Artifact;
+import org.hydra.core.Hash;
 
 /**
  * DAO implementation for the versioning core's artifact.
@@ -34,27 +39,78 @@ public class ArtifactDAO extends DataAccessObject {
 	/** The artifact. */
 	private final Artifact artifact;
 
-	/** The storage strategy. */
-	private StorageStrategy storageStrategy;
+	/** The storage strategy, used to write new versions. */
+	private final StorageStrategy storageStrategy;
+
+	/**
+	 * The strategy used to read versions, which recognizes the encoding of
+	 * each object regardless of the configured strategy.
+	 */
+	private final StorageStrategy readStrategy;
 
 	/**
 	 * Specialized Constructor that accepts the artifact on which it should
-	 * operate.
+	 * operate. New versions are written using the configured storage strategy,
+	 * large ones in chunks if delta or adaptive compression is configured,
+	 * while persisted versions are always decoded according to the encoding
+	 * recorded in each object, so that repositories holding objects written by
+	 * different strategies remain readable.
 	 *
 	 * @param artifact
 	 *            Artifact.
 	 */
 	public ArtifactDAO(final Artifact artifact) {
 		this.artifact = artifact;
-		if (DataAccessObject.STORAGE_STRATEGY
+		final String compressionType = DataAccessObject.findStorageStrategy();
+		if (compressionType.equals(DeltaStorageStrategyImpl.COMPRESSION_TYPE)) {
+			this.storageStrategy = new ChunkedStorageStrategyImpl(
+					new DeltaStorageStrategyImpl(artifact));
+		} else if (compressionType
+				.equals(AdaptiveStorageStrategyImpl.COMPRESSION_TYPE)) {
+			this.storageStrategy = new ChunkedStorageStrategyImpl(
+					new AdaptiveStorageStrategyImpl());
+		} else if (compressionType
 				.equals(ZipStorageStrategyImpl.COMPRESSION_TYPE)) {
 			this.storageStrategy = new ZipStorageStrategyImpl();
-		} else if (DataAccessObject.STORAGE_STRATEGY
+		} else if (compressionType
 				.equals(GZipStorageStrategyImpl.COMPRESSION_TYPE)) {
 			this.storageStrategy = new GZipStorageStrategyImpl();
-		} else {
+		} else if (compressionType
+				.equals(NIOStorageStrategyImpl.COMPRESSION_TYPE)) {
 			this.storageStrategy = new NIOStorageStrategyImpl();
+		} else {
+			this.logger.warning("Unknown Storage Strategy [" + compressionType
+					+ "], Using [" + DataAccessObject.STORAGE_STRATEGY + "].");
+			this.storageStrategy = new ZipStorageStrategyImpl();
 		}
+		this.readStrategy = new ChunkedStorageStrategyImpl(
+				new AdaptiveStorageStrategyImpl());
+	}
+
+	/**
+	 * Hash and persist the current content of the artifact's workspace file,
+	 * reading the file only once if the configured strategy is able to ingest.
+	 *
+	 * @return hash - Hash, or null on failure or if the artifact must be
+	 *         hashed and stored separately.
+	 */
+	public Hash ingest() {
+		if (!(this.storageStrategy instanceof IngestingStorageStrategy))
+			return null;
+		return ((IngestingStorageStrategy) this.storageStrategy)
+				.ingestToRepository(this.artifact.cloneWorkspaceFile());
+	}
+
+	/**
+	 * Open the decoded content of the artifact's persisted version.
+	 *
+	 * @return content - InputStream, to be closed by the caller.
+	 * @throws IOException
+	 *             if the version could not be opened.
+	 */
+	public InputStream openContents() throws IOException {
+		return this.readStrategy.openFromRepository(this.artifact
+				.cloneRepositoryFile());
 	}
 
 	/**
@@ -87,12 +143,16 @@ public class ArtifactDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean retrieve() {
-		if (this.artifact.cloneRepositoryFile().exists())
-			return this.storageStrategy.transferFromRepository(
-					this.artifact.cloneWorkspaceFile(),
-					this.artifact.cloneRepositoryFile());
-		else
+		if (!ObjectStore.getInstance().contains(
+				this.artifact.cloneRepositoryFile()))
+			return false;
+		final File workspaceFile = this.artifact.cloneWorkspaceFile();
+		if (!this.readStrategy.transferFromRepository(workspaceFile,
+				this.artifact.cloneRepositoryFile()))
 			return false;
+		WorkspaceIndex.getInstance().update(workspaceFile,
+				this.artifact.getFingerprint().getHashValue());
+		return true;
 	}
 
 	/**
@@ -102,7 +162,8 @@ public class ArtifactDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean store() {
-		if (this.artifact.cloneRepositoryFile().exists())
+		if (ObjectStore.getInstance().contains(
+				this.artifact.cloneRepositoryFile()))
 			return true;
 		else
 			return this.storageStrategy.transferToRepository(
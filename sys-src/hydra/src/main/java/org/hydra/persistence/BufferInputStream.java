@@ -0,0 +1,85 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reading the remaining bytes of a buffer, such as a mapped
+ * object.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+class BufferInputStream extends InputStream {
+
+	/** The buffer. */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Specialized Constructor.
+	 *
+	 * @param buffer
+	 *            ByteBuffer.
+	 */
+	BufferInputStream(final ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Read a single byte.
+	 */
+	@Override
+	public int read() {
+		return this.buffer.hasRemaining() ? (this.buffer.get() & 0xff) : -1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Read up to the given number of bytes.
+	 */
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) {
+		if (length == 0)
+			return 0;
+		if (!this.buffer.hasRemaining())
+			return -1;
+		final int read = Math.min(length, this.buffer.remaining());
+		this.buffer.get(bytes, offset, read);
+		return read;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return the number of unread bytes.
+	 */
+	@Override
+	public int available() {
+		return this.buffer.remaining();
+	}
+
+}
@@ -0,0 +1,589 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Fingerprint;
+import org.hydra.core.Hash;
+import org.hydra.utilities.FileUtilities;
+import org.hydra.utilities.Logger;
+
+/**
+ * Implements the DAOs storage functionality for large artifacts by splitting
+ * their content into chunks at content-defined boundaries. Each chunk is
+ * stored once as its own deflated, content-addressed object and the artifact
+ * itself is stored as a small manifest listing its chunks. Since boundaries
+ * depend only on the surrounding bytes, a local change to a large artifact
+ * only produces new chunks around the change.
+ *
+ * Artifacts smaller than {@link #CHUNK_THRESHOLD} are handed to the wrapped
+ * strategy, which is also used to read any object that is not a manifest.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class ChunkedStorageStrategyImpl implements IngestingStorageStrategy {
+
+	/** Magic bytes starting a manifest. */
+	public static final byte[] MANIFEST_MAGIC = { 'H', 'Y', 'C', 'M' };
+
+	/** Magic bytes starting a chunk. */
+	public static final byte[] CHUNK_MAGIC = { 'H', 'Y', 'C', 'K' };
+
+	/** Version of the manifest format. */
+	public static final int VERSION = 1;
+
+	/** Minimum size of an artifact stored in chunks. */
+	public static final long CHUNK_THRESHOLD = 4L * 1024 * 1024;
+
+	/** Minimum size of a chunk. */
+	public static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+	/** Maximum size of a chunk. */
+	public static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+	/** Mask of the boundary condition, giving chunks of 256KB on average. */
+	private static final int BOUNDARY_MASK = (1 << 18) - 1;
+
+	/** Random values per byte, used by the rolling gear hash. */
+	private static final int[] GEAR = new int[256];
+
+	/** Size of the buffers used for copying. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	static {
+		final Random random = new Random(0x48796472L);
+		for (int i = 0; i < ChunkedStorageStrategyImpl.GEAR.length; i++) {
+			ChunkedStorageStrategyImpl.GEAR[i] = random.nextInt();
+		}
+	}
+
+	/** The logger. */
+	private final Logger logger;
+
+	/** The strategy used for small artifacts. */
+	private final StorageStrategy strategy;
+
+	/**
+	 * Specialized Constructor, which stores small artifacts using the given
+	 * strategy.
+	 *
+	 * @param strategy
+	 *            StorageStrategy.
+	 */
+	public ChunkedStorageStrategyImpl(final StorageStrategy strategy) {
+		this.logger = Logger.getInstance();
+		this.strategy = strategy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the workspace to the repository, in
+	 * chunks if the file is large. The manifest is written to a temporary
+	 * object, which is only installed under the repository file's hash once
+	 * it is complete.
+	 */
+	@Override
+	public boolean transferToRepository(final File workspaceFile,
+			final File repositoryFile) {
+		if (workspaceFile.length() < ChunkedStorageStrategyImpl.CHUNK_THRESHOLD)
+			return this.strategy.transferToRepository(workspaceFile,
+					repositoryFile);
+		final ObjectStore store = ObjectStore.getInstance();
+		final Hash hash = Hash.valueOf(repositoryFile.getName());
+		if (hash == null) {
+			this.logger.exception("Invalid Repository File [" + repositoryFile
+					+ "].");
+			return false;
+		}
+		File tempObject = null;
+		try {
+			tempObject = store.createTempObject();
+			if (!this.storeChunks(workspaceFile, tempObject, null)
+					|| !store.install(tempObject, hash))
+				return false;
+			tempObject = null;
+			return true;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Chunk Artifact [" + workspaceFile
+					+ "].", e);
+			return false;
+		} finally {
+			if ((tempObject != null) && tempObject.exists()
+					&& !tempObject.delete()) {
+				this.logger.warning("Unable to Delete Temporary Object ["
+						+ tempObject + "].");
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Hash and store the contents of a file in the workspace in a single read,
+	 * in chunks if the file is large. Falls back to hashing and storing
+	 * separately if the wrapped strategy cannot ingest.
+	 */
+	@Override
+	public Hash ingestToRepository(final File workspaceFile) {
+		final ObjectStore store = ObjectStore.getInstance();
+		if (workspaceFile.length() < ChunkedStorageStrategyImpl.CHUNK_THRESHOLD) {
+			if (this.strategy instanceof IngestingStorageStrategy)
+				return ((IngestingStorageStrategy) this.strategy)
+						.ingestToRepository(workspaceFile);
+			final Hash hash = new Fingerprint()
+					.calculateHashValue(workspaceFile);
+			if ((hash == null)
+					|| store.contains(this.findObject(hash))
+					|| this.strategy.transferToRepository(workspaceFile,
+							this.findObject(hash)))
+				return hash;
+			return null;
+		}
+		File tempObject = null;
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA1");
+			tempObject = store.createTempObject();
+			if (!this.storeChunks(workspaceFile, tempObject, md))
+				return null;
+			final Hash hash = Hash.valueOf(md.digest());
+			if (!store.install(tempObject, hash))
+				return null;
+			tempObject = null;
+			return hash;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Ingest Artifact [" + workspaceFile
+					+ "].", e);
+			return null;
+		} finally {
+			if ((tempObject != null) && tempObject.exists()
+					&& !tempObject.delete()) {
+				this.logger.warning("Unable to Delete Temporary Object ["
+						+ tempObject + "].");
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the repository to the workspace,
+	 * reassembling it from its chunks if necessary.
+	 */
+	@Override
+	public boolean transferFromRepository(final File workspaceFile,
+			final File repositoryFile) {
+		final List<Chunk> chunks = this.readManifest(repositoryFile);
+		if (chunks == null)
+			return this.strategy.transferFromRepository(workspaceFile,
+					repositoryFile);
+		return this.retrieveChunks(chunks, repositoryFile, workspaceFile);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the contents of a file in the repository. The chunks of a manifest
+	 * are opened one after the other while the contents are read.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		final List<Chunk> chunks = this.readManifest(repositoryFile);
+		if (chunks == null)
+			return this.strategy.openFromRepository(repositoryFile);
+		return new SequenceInputStream(new ChunkEnumeration(chunks));
+	}
+
+	/**
+	 * Determine if the given repository file holds a manifest.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return chunked - boolean.
+	 */
+	public boolean isChunked(final File repositoryFile) {
+		return this.readManifest(repositoryFile) != null;
+	}
+
+	/**
+	 * CHUNK METHODS (PRIVATE) ************************************************.
+	 */
+
+	/**
+	 * Split the given file into chunks, store all chunks not yet in the
+	 * repository and then the manifest.
+	 *
+	 * @param source
+	 *            File.
+	 * @param destination
+	 *            File.
+	 * @param contentDigest
+	 *            MessageDigest, updated with the whole content if not null.
+	 * @return success - boolean.
+	 */
+	private boolean storeChunks(final File source, final File destination,
+			final MessageDigest contentDigest) {
+		final List<Chunk> chunks = new ArrayList<Chunk>();
+		InputStream is = null;
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA1");
+			is = new FileInputStream(source);
+			final byte[] buffer = new byte[ChunkedStorageStrategyImpl.BUFFER_SIZE];
+			final byte[] chunk = new byte[ChunkedStorageStrategyImpl.MAX_CHUNK_SIZE];
+			int length = 0;
+			int gear = 0;
+			int read;
+			while ((read = is.read(buffer)) >= 0) {
+				if (contentDigest != null) {
+					contentDigest.update(buffer, 0, read);
+				}
+				for (int i = 0; i < read; i++) {
+					final byte b = buffer[i];
+					chunk[length++] = b;
+					gear = (gear << 1)
+							+ ChunkedStorageStrategyImpl.GEAR[b & 0xff];
+					if ((length >= ChunkedStorageStrategyImpl.MIN_CHUNK_SIZE)
+							&& (((gear & ChunkedStorageStrategyImpl.BOUNDARY_MASK) == 0) || (length == chunk.length))) {
+						chunks.add(this.storeChunk(md, chunk, length));
+						length = 0;
+						gear = 0;
+					}
+				}
+			}
+			if (length > 0) {
+				chunks.add(this.storeChunk(md, chunk, length));
+			}
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Chunk Artifact [" + source + "].",
+					e);
+			return false;
+		} finally {
+			FileUtilities.close(is);
+		}
+		return this.writeManifest(chunks, destination);
+	}
+
+	/**
+	 * Store a single chunk, unless it is already in the repository. Chunks are
+	 * named by the hash of their magic bytes and content, so they never
+	 * collide with an artifact of the same content.
+	 *
+	 * @param md
+	 *            MessageDigest.
+	 * @param chunk
+	 *            byte[].
+	 * @param length
+	 *            int.
+	 * @return chunk - Chunk.
+	 * @throws IOException
+	 *             if the chunk could not be written.
+	 */
+	private Chunk storeChunk(final MessageDigest md, final byte[] chunk,
+			final int length) throws IOException {
+		md.reset();
+		md.update(ChunkedStorageStrategyImpl.CHUNK_MAGIC);
+		md.update(chunk, 0, length);
+		final Hash hash = Hash.valueOf(md.digest());
+		final File chunkFile = this.findObject(hash);
+		if (!ObjectStore.getInstance().contains(chunkFile)) {
+			final File tempFile = new File(chunkFile.getPath() + ".tmp");
+			final OutputStream os = new FileOutputStream(tempFile);
+			try {
+				os.write(ChunkedStorageStrategyImpl.CHUNK_MAGIC);
+				final DeflaterOutputStream dos = new DeflaterOutputStream(os);
+				dos.write(chunk, 0, length);
+				dos.close();
+			} finally {
+				os.close();
+			}
+			if (!tempFile.renameTo(chunkFile)) {
+				tempFile.delete();
+				throw new IOException("Unable to Install Chunk [" + chunkFile
+						+ "].");
+			}
+		}
+		return new Chunk(hash, length);
+	}
+
+	/**
+	 * Write the manifest listing the given chunks.
+	 *
+	 * @param chunks
+	 *            List of Chunks.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	private boolean writeManifest(final List<Chunk> chunks,
+			final File destination) {
+		long total = 0;
+		for (final Chunk chunk : chunks) {
+			total += chunk.length;
+		}
+		DataOutputStream dos = null;
+		try {
+			dos = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(destination)));
+			dos.write(ChunkedStorageStrategyImpl.MANIFEST_MAGIC);
+			dos.writeInt(ChunkedStorageStrategyImpl.VERSION);
+			dos.writeLong(total);
+			dos.writeInt(chunks.size());
+			for (final Chunk chunk : chunks) {
+				dos.write(chunk.hash.toBytes());
+				dos.writeInt(chunk.length);
+			}
+			dos.close();
+			dos = null;
+			return true;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Write Manifest [" + destination
+					+ "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(dos);
+		}
+	}
+
+	/**
+	 * Read the chunks listed by the given repository file, or return null if
+	 * it does not hold a manifest.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return chunks - List of Chunks.
+	 */
+	private List<Chunk> readManifest(final File repositoryFile) {
+		InputStream is = null;
+		try {
+			is = ObjectStore.getInstance().open(repositoryFile);
+			final DataInputStream dis = new DataInputStream(is);
+			final byte[] magic = new byte[ChunkedStorageStrategyImpl.MANIFEST_MAGIC.length];
+			dis.readFully(magic);
+			if (!Arrays.equals(ChunkedStorageStrategyImpl.MANIFEST_MAGIC, magic)
+					|| (dis.readInt() != ChunkedStorageStrategyImpl.VERSION))
+				return null;
+			final long total = dis.readLong();
+			final int count = dis.readInt();
+			final List<Chunk> chunks = new ArrayList<Chunk>(count);
+			long length = 0;
+			final byte[] hash = new byte[Hash.LENGTH];
+			for (int i = 0; i < count; i++) {
+				dis.readFully(hash);
+				final Chunk chunk = new Chunk(Hash.valueOf(hash), dis.readInt());
+				chunks.add(chunk);
+				length += chunk.length;
+			}
+			if (length != total)
+				throw new IOException("Invalid Manifest Length [" + length
+						+ "].");
+			return chunks;
+		} catch (final EOFException e) {
+			return null;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Read Object [" + repositoryFile
+					+ "].", e);
+			return null;
+		} finally {
+			FileUtilities.close(is);
+		}
+	}
+
+	/**
+	 * Reassemble the given chunks into the destination.
+	 *
+	 * @param chunks
+	 *            List of Chunks.
+	 * @param source
+	 *            File, the manifest.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	private boolean retrieveChunks(final List<Chunk> chunks,
+			final File source, final File destination) {
+		OutputStream os = null;
+		try {
+			os = new BufferedOutputStream(new FileOutputStream(destination),
+					ChunkedStorageStrategyImpl.BUFFER_SIZE);
+			final byte[] buffer = new byte[ChunkedStorageStrategyImpl.BUFFER_SIZE];
+			for (final Chunk chunk : chunks) {
+				final InputStream is = this.openChunk(chunk);
+				try {
+					long written = 0;
+					int read;
+					while ((read = is.read(buffer)) >= 0) {
+						os.write(buffer, 0, read);
+						written += read;
+					}
+					if (written != chunk.length)
+						throw new IOException("Invalid Chunk Length ["
+								+ chunk.hash + "].");
+				} finally {
+					is.close();
+				}
+			}
+			return true;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Reassemble Artifact [" + source
+					+ "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(os);
+		}
+	}
+
+	/**
+	 * Open the inflated content of the given chunk.
+	 *
+	 * @param chunk
+	 *            Chunk.
+	 * @return content - InputStream.
+	 * @throws IOException
+	 *             if the chunk could not be opened.
+	 */
+	private InputStream openChunk(final Chunk chunk) throws IOException {
+		final InputStream is = ObjectStore.getInstance().open(
+				this.findObject(chunk.hash));
+		try {
+			final byte[] magic = new byte[ChunkedStorageStrategyImpl.CHUNK_MAGIC.length];
+			new DataInputStream(is).readFully(magic);
+			if (!Arrays.equals(ChunkedStorageStrategyImpl.CHUNK_MAGIC, magic))
+				throw new IOException("Invalid Chunk [" + chunk.hash + "].");
+			return new InflaterInputStream(is);
+		} catch (final IOException e) {
+			is.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Return the repository file of the given object.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return repositoryFile - File.
+	 */
+	private File findObject(final Hash hash) {
+		return new File(Configuration.getInstance().getFPStore(),
+				hash.toString());
+	}
+
+	/**
+	 * Opens the chunks of a manifest in order, as they are reached by a
+	 * {@link SequenceInputStream}. A chunk that cannot be opened is replaced by
+	 * a stream failing on read, so the failure reaches the reader.
+	 */
+	private class ChunkEnumeration implements Enumeration<InputStream> {
+
+		/** The remaining chunks. */
+		private final Iterator<Chunk> chunks;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param chunks
+		 *            List of Chunks.
+		 */
+		ChunkEnumeration(final List<Chunk> chunks) {
+			this.chunks = chunks.iterator();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Determine if chunks remain.
+		 */
+		@Override
+		public boolean hasMoreElements() {
+			return this.chunks.hasNext();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Open the next chunk.
+		 */
+		@Override
+		public InputStream nextElement() {
+			final Chunk chunk = this.chunks.next();
+			try {
+				return ChunkedStorageStrategyImpl.this.openChunk(chunk);
+			} catch (final IOException e) {
+				return new InputStream() {
+					@Override
+					public int read() throws IOException {
+						throw e;
+					}
+				};
+			}
+		}
+	}
+
+	/**
+	 * Entry of a manifest.
+	 */
+	private static class Chunk {
+
+		/** The hash naming the chunk. */
+		private final Hash hash;
+
+		/** The length of the chunk's content. */
+		private final int length;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param hash
+		 *            Hash.
+		 * @param length
+		 *            int.
+		 */
+		Chunk(final Hash hash, final int length) {
+			this.hash = hash;
+			this.length = length;
+		}
+	}
+
+}
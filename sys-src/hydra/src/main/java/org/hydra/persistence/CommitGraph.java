@@ -0,0 +1,744 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Hash;
+import org.hydra.core.State;
+import org.hydra.utilities.Logger;
+
+/**
+ * Memory-mapped commit-graph of a single committable element, which records
+ * for each committed state its parents, generation number, timestamp and
+ * content hash so that its history may be traversed without opening the
+ * states' repository files.
+ *
+ * The graph file starts with the magic bytes and version and is followed by
+ * one record per state: the state's hash, its contents' hash (zeros when
+ * temporary), its timestamp, its generation number and the indices of its
+ * parents. Records are only appended after the records of all their parents,
+ * so every state in the graph has its complete history in the graph as well.
+ * The generation number of a root state is one, of all other states one more
+ * than the highest generation of their parents, hence a state can only be an
+ * ancestor of states with a higher generation.
+ *
+ * Committed states may still be modified: an updated state's contents hash
+ * and timestamp are rewritten in place, and a state gaining a previous state
+ * by an insertion is recorded again at the end of the graph file. The later
+ * record supersedes the earlier one but keeps its record number, while the
+ * generations of the state's descendants are rewritten in place. Fields are
+ * only rewritten through the graph file's writable mapping, from which they
+ * are read as well.
+ *
+ * While indexing the records the graph also builds the reverse edges, so that
+ * the states following a state are listed without searching the history. A
+ * path index remembers the states that steps along a path lead to; since the
+ * recorded history only grows, its entries remain valid until the graph is
+ * discarded.
+ *
+ * The graph file is only checked for changes by {@link #append} and
+ * {@link #refresh}, which are called once at the start of a traversal; the
+ * queries answer from the mapping made then, so walking the graph does not
+ * touch the file system.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class CommitGraph {
+
+	/** Name of the directory within the repository holding the graphs. */
+	public static final String GRAPH_STORE = "graphStore";
+
+	/** Magic bytes starting a graph file. */
+	public static final byte[] MAGIC = { 'H', 'Y', 'C', 'G' };
+
+	/** Version of the graph format. */
+	public static final int VERSION = 2;
+
+	/** Length of the graph file's header: magic, version and reserved bytes. */
+	private static final int HEADER_LENGTH = 8;
+
+	/** Maximum number of resolved paths kept in the path index. */
+	public static final int PATH_INDEX_SIZE = 1024;
+
+	/** Length of a record without its parent indices. */
+	private static final int RECORD_LENGTH = (2 * Hash.LENGTH) + 8 + 4 + 4;
+
+	/** The graphs, keyed by graph file. */
+	private static final Map<File, CommitGraph> graphs = new HashMap<File, CommitGraph>();
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The graph file. */
+	private final File graphFile;
+
+	/** The mapped graph file. */
+	private MappedByteBuffer buffer = null;
+
+	/** The length of the graph file when mapped. */
+	private long mappedLength = 0;
+
+	/** The modification time of the graph file when mapped. */
+	private long mappedModified = 0;
+
+	/** Whether the graph file was discarded but could not be deleted yet. */
+	private boolean discarded = false;
+
+	/** The record numbers, keyed by state hash. */
+	private final Map<Hash, Integer> index = new HashMap<Hash, Integer>();
+
+	/** The offsets of the records, by record number. */
+	private final List<Integer> offsets = new ArrayList<Integer>();
+
+	/** The record numbers of the children of each record, by record number. */
+	private final List<List<Integer>> children = new ArrayList<List<Integer>>();
+
+	/** The resolved paths, keyed by start state, start path and step. */
+	private final LinkedHashMap<String, String[]> paths = new LinkedHashMap<String, String[]>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				final Map.Entry<String, String[]> eldest) {
+			return this.size() > CommitGraph.PATH_INDEX_SIZE;
+		}
+	};
+
+	/**
+	 * Specialized Constructor, retrieve instances using the
+	 * {@link #getInstance} method.
+	 *
+	 * @param graphFile
+	 *            File.
+	 */
+	protected CommitGraph(final File graphFile) {
+		this.graphFile = graphFile;
+	}
+
+	/**
+	 * Retrieve the commit-graph of the committable element stored at the given
+	 * location, relative to the repository.
+	 *
+	 * @param repositoryLocation
+	 *            File.
+	 * @return graph - CommitGraph.
+	 */
+	public static CommitGraph getInstance(final File repositoryLocation) {
+		final File graphFile = new File(new File(Configuration.getInstance()
+				.getRepository(), CommitGraph.GRAPH_STORE),
+				repositoryLocation.getPath()).getAbsoluteFile();
+		synchronized (CommitGraph.graphs) {
+			CommitGraph graph = CommitGraph.graphs.get(graphFile);
+			if (graph == null) {
+				graph = new CommitGraph(graphFile);
+				CommitGraph.graphs.put(graphFile, graph);
+			}
+			return graph;
+		}
+	}
+
+	/**
+	 * COMMITGRAPH METHODS ****************************************************.
+	 */
+
+	/**
+	 * Append the given state and all of its ancestors not yet recorded in the
+	 * graph. Missing ancestors are loaded from the repository, so a graph is
+	 * built on first use for histories committed without one.
+	 *
+	 * @param state
+	 *            State.
+	 * @return success - boolean.
+	 */
+	public synchronized boolean append(final State state) {
+		this.refresh();
+		if (this.discarded)
+			return false;
+		if (this.contains(state.getHash()))
+			return true;
+		// Order Missing States so Parents Precede their Children.
+		final Map<Hash, Integer> appended = new HashMap<Hash, Integer>();
+		final Map<Hash, Integer> generations = new HashMap<Hash, Integer>();
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final DataOutputStream records = new DataOutputStream(bos);
+		final LinkedList<State> pending = new LinkedList<State>();
+		pending.push(state);
+		try {
+			while (!pending.isEmpty()) {
+				final State next = pending.peek();
+				final Hash hash = Hash.valueOf(next.getHash());
+				if (hash == null)
+					return false;
+				if (appended.containsKey(hash)) {
+					pending.pop();
+					continue;
+				}
+				boolean complete = true;
+				for (final State previous : next.listPrevious()) {
+					final Hash previousHash = Hash.valueOf(previous.getHash());
+					if ((previousHash == null)
+							|| (!this.index.containsKey(previousHash) && !appended
+									.containsKey(previousHash))) {
+						pending.push(previous);
+						complete = false;
+					}
+				}
+				if (complete) {
+					pending.pop();
+					appended.put(hash, this.offsets.size() + appended.size());
+					this.writeRecord(records, next, hash, appended, generations);
+				}
+			}
+			records.close();
+			this.writeRecords(bos.toByteArray());
+			this.refresh();
+			return this.contains(state.getHash());
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Append to Commit Graph ["
+					+ this.graphFile + "].", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Record the given state, inserted before the given following state which
+	 * lists it as an additional previous state. The inserted state is appended
+	 * and the following state recorded again with all of its parents; only the
+	 * generations of its descendants are rewritten. Nothing is recorded if the
+	 * following state is not yet part of the graph.
+	 *
+	 * @param state
+	 *            State.
+	 * @param nextState
+	 *            State.
+	 * @return success - boolean.
+	 */
+	public synchronized boolean insert(final State state,
+			final State nextState) {
+		this.refresh();
+		final int next = this.findRecord(nextState.getHash());
+		if (next < 0)
+			return true;
+		if (!this.append(state)) {
+			this.invalidate();
+			return false;
+		}
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final DataOutputStream records = new DataOutputStream(bos);
+		try {
+			this.writeRecord(records, nextState,
+					Hash.valueOf(nextState.getHash()),
+					new HashMap<Hash, Integer>(), new HashMap<Hash, Integer>());
+			records.close();
+			this.writeRecords(bos.toByteArray());
+			this.refresh();
+			this.updateGenerations(next);
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Insert into Commit Graph ["
+					+ this.graphFile + "].", e);
+			this.invalidate();
+			return false;
+		}
+	}
+
+	/**
+	 * Rewrite the contents hash and timestamp of the given state in place,
+	 * after the committed state was updated. Nothing is recorded if the state
+	 * is not yet part of the graph.
+	 *
+	 * @param state
+	 *            State.
+	 * @return success - boolean.
+	 */
+	public synchronized boolean update(final State state) {
+		this.refresh();
+		final int record = this.findRecord(state.getHash());
+		if (record < 0)
+			return true;
+		try {
+			final int offset = this.offsets.get(record);
+			final Hash contents = Hash.valueOf(state.getContentsHash());
+			final byte[] bytes = (contents == null) ? new byte[Hash.LENGTH]
+					: contents.toBytes();
+			for (int i = 0; i < Hash.LENGTH; i++) {
+				this.buffer.put(offset + Hash.LENGTH + i, bytes[i]);
+			}
+			this.buffer.putLong(offset + (2 * Hash.LENGTH), state
+					.getTimestamp().getTime());
+			this.buffer.force();
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Update Commit Graph ["
+					+ this.graphFile + "].", e);
+			this.invalidate();
+			return false;
+		}
+	}
+
+	/**
+	 * Determine if the state with the given hash is recorded in the graph.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return contained - boolean.
+	 */
+	public synchronized boolean contains(final String stateHash) {
+		return this.findRecord(stateHash) >= 0;
+	}
+
+	/**
+	 * Return the generation number of the state with the given hash.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return generation - int, or 0 if the state is not recorded.
+	 */
+	public synchronized int getGeneration(final String stateHash) {
+		final int record = this.findRecord(stateHash);
+		return (record < 0) ? 0 : this.buffer.getInt(this.offsets.get(record)
+				+ (2 * Hash.LENGTH) + 8);
+	}
+
+	/**
+	 * Return the timestamp of the state with the given hash.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return timestamp - long, or -1 if the state is not recorded.
+	 */
+	public synchronized long getTimestamp(final String stateHash) {
+		final int record = this.findRecord(stateHash);
+		return (record < 0) ? -1 : this.buffer.getLong(this.offsets
+				.get(record) + (2 * Hash.LENGTH));
+	}
+
+	/**
+	 * Return the hash of the contents of the state with the given hash.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return contentsHash - String, "null" if the state is temporary or null
+	 *         if it is not recorded.
+	 */
+	public synchronized String getContentsHash(final String stateHash) {
+		final int record = this.findRecord(stateHash);
+		if (record < 0)
+			return null;
+		final Hash contents = this.readHash(this.offsets.get(record)
+				+ Hash.LENGTH);
+		return (contents == null) ? "null" : contents.toString();
+	}
+
+	/**
+	 * List the hashes of the parents of the state with the given hash, in the
+	 * order of the state's previous list.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return parentHashes - String[], or null if the state is not recorded.
+	 */
+	public synchronized String[] listParents(final String stateHash) {
+		final int record = this.findRecord(stateHash);
+		if (record < 0)
+			return null;
+		final int offset = this.offsets.get(record);
+		final String[] parents = new String[this.buffer.getInt(offset
+				+ CommitGraph.RECORD_LENGTH - 4)];
+		for (int i = 0; i < parents.length; i++) {
+			final int parent = this.buffer.getInt(offset
+					+ CommitGraph.RECORD_LENGTH + (4 * i));
+			parents[i] = this.readHash(this.offsets.get(parent)).toString();
+		}
+		return parents;
+	}
+
+	/**
+	 * List the hashes of the children of the state with the given hash, i.e.
+	 * the recorded states listing it as a previous state, in the order they
+	 * were recorded.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return childHashes - String[], or null if the state is not recorded.
+	 */
+	public synchronized String[] listChildren(final String stateHash) {
+		final int record = this.findRecord(stateHash);
+		if (record < 0)
+			return null;
+		final List<Integer> childRecords = this.children.get(record);
+		final String[] childHashes = new String[childRecords.size()];
+		for (int i = 0; i < childHashes.length; i++) {
+			childHashes[i] = this.readHash(
+					this.offsets.get(childRecords.get(i))).toString();
+		}
+		return childHashes;
+	}
+
+	/**
+	 * Look up the state reached by following the given step from the given
+	 * state and path.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @param path
+	 *            String, the path of the start state.
+	 * @param step
+	 *            String.
+	 * @return target - String[], the reached state's hash and path, or null
+	 *         if the step was not yet resolved.
+	 */
+	public synchronized String[] lookupPath(final String stateHash,
+			final String path, final String step) {
+		return this.paths.get(stateHash + path + step);
+	}
+
+	/**
+	 * Record the state reached by following the given step from the given
+	 * state and path.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @param path
+	 *            String, the path of the start state.
+	 * @param step
+	 *            String.
+	 * @param targetHash
+	 *            String.
+	 * @param targetPath
+	 *            String.
+	 */
+	public synchronized void recordPath(final String stateHash,
+			final String path, final String step, final String targetHash,
+			final String targetPath) {
+		if (this.contains(stateHash) && this.contains(targetHash)) {
+			this.paths.put(stateHash + path + step, new String[] { targetHash,
+					targetPath });
+		}
+	}
+
+	/**
+	 * Discard the graph, e.g. after previously committed states were modified.
+	 * The graph is rebuilt on its next use. If the graph file cannot be
+	 * deleted, e.g. while it is still mapped, the graph remains empty and
+	 * refuses new states until the file is deleted by a later refresh.
+	 */
+	public synchronized void invalidate() {
+		this.reset();
+		if (this.graphFile.exists() && !this.graphFile.delete()) {
+			this.logger.warning("Unable to Delete Commit Graph ["
+					+ this.graphFile + "], Ignoring it Until Deleted.");
+			this.discarded = true;
+		}
+	}
+
+	/**
+	 * Map the graph file again if it changed since it was last mapped,
+	 * indexing only the appended records when possible. Called once before
+	 * traversing the graph, since the queries do not check the graph file.
+	 */
+	public synchronized void refresh() {
+		if (this.discarded) {
+			if (this.graphFile.exists() && !this.graphFile.delete())
+				return;
+			this.discarded = false;
+		}
+		final long length = this.graphFile.length();
+		final long modified = this.graphFile.lastModified();
+		if ((length == this.mappedLength) && (modified == this.mappedModified))
+			return;
+		if (length < this.mappedLength) {
+			this.reset();
+		}
+		if (length == 0)
+			return;
+		try {
+			final RandomAccessFile raf = new RandomAccessFile(this.graphFile,
+					"rw");
+			try {
+				this.buffer = raf.getChannel().map(
+						FileChannel.MapMode.READ_WRITE, 0, length);
+			} finally {
+				raf.close();
+			}
+			// Reindex Completely if the File was Replaced.
+			if (!this.offsets.isEmpty()) {
+				final int last = this.offsets.size() - 1;
+				final Integer record = this.index.get(this.readHash(this.offsets
+						.get(last)));
+				if ((record == null) || (record.intValue() != last)) {
+					this.index.clear();
+					this.offsets.clear();
+					this.children.clear();
+					this.paths.clear();
+					this.mappedLength = 0;
+				}
+			}
+			this.indexRecords((int) length);
+			this.mappedLength = length;
+			this.mappedModified = modified;
+		} catch (final Exception e) {
+			this.logger.warning("Discarding Invalid Commit Graph ["
+					+ this.graphFile + "]: " + e.getMessage());
+			this.invalidate();
+		}
+	}
+
+	/**
+	 * Return the number of states recorded in the graph.
+	 *
+	 * @return size - int.
+	 */
+	public synchronized int size() {
+		this.refresh();
+		return this.offsets.size();
+	}
+
+	/**
+	 * COMMITGRAPH METHODS (PRIVATE) ******************************************.
+	 */
+
+	/**
+	 * Return the number of the record of the state with the given hash.
+	 *
+	 * @param stateHash
+	 *            String.
+	 * @return record - int, or -1 if the state is not recorded.
+	 */
+	private int findRecord(final String stateHash) {
+		final Hash hash = Hash.valueOf(stateHash);
+		final Integer record = (hash == null) ? null : this.index.get(hash);
+		return (record == null) ? -1 : record.intValue();
+	}
+
+	/**
+	 * Read the hash stored at the given offset of the mapped graph file.
+	 *
+	 * @param offset
+	 *            int.
+	 * @return hash - Hash, or null if zeroed.
+	 */
+	private Hash readHash(final int offset) {
+		final byte[] bytes = new byte[Hash.LENGTH];
+		boolean zero = true;
+		for (int i = 0; i < Hash.LENGTH; i++) {
+			bytes[i] = this.buffer.get(offset + i);
+			zero &= (bytes[i] == 0);
+		}
+		return zero ? null : Hash.valueOf(bytes);
+	}
+
+	/**
+	 * Rewrite the generations of the descendants of the given record in place,
+	 * wherever the record's new generation raised them.
+	 *
+	 * @param record
+	 *            int.
+	 */
+	private void updateGenerations(final int record) {
+		final LinkedList<Integer> pending = new LinkedList<Integer>(
+				this.children.get(record));
+		while (!pending.isEmpty()) {
+			final int child = pending.poll();
+			final int offset = this.offsets.get(child);
+			final int parents = this.buffer.getInt(offset
+					+ CommitGraph.RECORD_LENGTH - 4);
+			int generation = 1;
+			for (int i = 0; i < parents; i++) {
+				final int parent = this.buffer.getInt(offset
+						+ CommitGraph.RECORD_LENGTH + (4 * i));
+				generation = Math.max(generation, this.buffer
+						.getInt(this.offsets.get(parent) + (2 * Hash.LENGTH)
+								+ 8) + 1);
+			}
+			if (generation > this.buffer.getInt(offset + (2 * Hash.LENGTH) + 8)) {
+				this.buffer.putInt(offset + (2 * Hash.LENGTH) + 8, generation);
+				pending.addAll(this.children.get(child));
+			}
+		}
+		this.buffer.force();
+	}
+
+	/**
+	 * Write the record of the given state, whose parents are either recorded
+	 * in the graph or among the given appended states.
+	 *
+	 * @param records
+	 *            DataOutputStream.
+	 * @param state
+	 *            State.
+	 * @param hash
+	 *            Hash.
+	 * @param appended
+	 *            Map<Hash, Integer>, record numbers of the appended states.
+	 * @param generations
+	 *            Map<Hash, Integer>, generations of the appended states.
+	 * @throws IOException
+	 *             if the record could not be written.
+	 */
+	private void writeRecord(final DataOutputStream records,
+			final State state, final Hash hash,
+			final Map<Hash, Integer> appended,
+			final Map<Hash, Integer> generations) throws IOException {
+		final String[] previousHashes = state.listPreviousHashes();
+		final int[] parents = new int[previousHashes.length];
+		int generation = 1;
+		for (int i = 0; i < previousHashes.length; i++) {
+			final Hash previous = Hash.valueOf(previousHashes[i]);
+			Integer parent = this.index.get(previous);
+			final int parentGeneration;
+			if (parent != null) {
+				parentGeneration = this.buffer.getInt(this.offsets.get(parent)
+						+ (2 * Hash.LENGTH) + 8);
+			} else {
+				parent = appended.get(previous);
+				parentGeneration = generations.get(previous);
+			}
+			parents[i] = parent;
+			generation = Math.max(generation, parentGeneration + 1);
+		}
+		generations.put(hash, generation);
+		records.write(hash.toBytes());
+		final Hash contents = Hash.valueOf(state.getContentsHash());
+		records.write((contents == null) ? new byte[Hash.LENGTH] : contents
+				.toBytes());
+		records.writeLong(state.getTimestamp().getTime());
+		records.writeInt(generation);
+		records.writeInt(parents.length);
+		for (final int parent : parents) {
+			records.writeInt(parent);
+		}
+	}
+
+	/**
+	 * Append the given records to the graph file, creating it if necessary.
+	 *
+	 * @param records
+	 *            byte[].
+	 * @throws IOException
+	 *             if the records could not be written.
+	 */
+	private void writeRecords(final byte[] records) throws IOException {
+		final boolean created = !this.graphFile.exists();
+		if (created) {
+			this.graphFile.getParentFile().mkdirs();
+		}
+		final FileOutputStream fos = new FileOutputStream(this.graphFile,
+				true);
+		try {
+			if (created) {
+				final byte[] header = new byte[CommitGraph.HEADER_LENGTH];
+				System.arraycopy(CommitGraph.MAGIC, 0, header, 0,
+						CommitGraph.MAGIC.length);
+				header[CommitGraph.MAGIC.length] = CommitGraph.VERSION;
+				fos.write(header);
+			}
+			fos.write(records);
+		} finally {
+			fos.close();
+		}
+	}
+
+	/**
+	 * Index the records appended since the graph file was last mapped. A
+	 * record of an already indexed state supersedes its earlier record.
+	 *
+	 * @param length
+	 *            int, the length of the mapped graph file.
+	 * @throws IOException
+	 *             if the graph file is malformed.
+	 */
+	private void indexRecords(final int length) throws IOException {
+		int offset = (int) this.mappedLength;
+		if (offset == 0) {
+			for (int i = 0; i < CommitGraph.MAGIC.length; i++) {
+				if (this.buffer.get(i) != CommitGraph.MAGIC[i])
+					throw new IOException("Invalid Magic.");
+			}
+			if (this.buffer.get(CommitGraph.MAGIC.length) != CommitGraph.VERSION)
+				throw new IOException("Unsupported Version.");
+			offset = CommitGraph.HEADER_LENGTH;
+		}
+		while (offset < length) {
+			if ((length - offset) < CommitGraph.RECORD_LENGTH)
+				throw new IOException("Truncated Record.");
+			final Hash hash = this.readHash(offset);
+			final Integer recorded = this.index.get(hash);
+			final int record = (recorded == null) ? this.offsets.size()
+					: recorded.intValue();
+			final int parents = this.buffer.getInt(offset
+					+ CommitGraph.RECORD_LENGTH - 4);
+			if ((parents < 0)
+					|| (parents > ((length - offset - CommitGraph.RECORD_LENGTH) / 4)))
+				throw new IOException("Malformed Record.");
+			for (int i = 0; i < parents; i++) {
+				final int parent = this.buffer.getInt(offset
+						+ CommitGraph.RECORD_LENGTH + (4 * i));
+				if ((parent < 0) || (parent >= this.offsets.size())
+						|| (parent == record))
+					throw new IOException("Malformed Parent.");
+				if (!this.children.get(parent).contains(record)) {
+					this.children.get(parent).add(record);
+				}
+			}
+			if (recorded == null) {
+				this.index.put(hash, record);
+				this.offsets.add(offset);
+				this.children.add(new ArrayList<Integer>(1));
+			} else {
+				this.offsets.set(record, offset);
+			}
+			offset += CommitGraph.RECORD_LENGTH + (4 * parents);
+		}
+	}
+
+	/**
+	 * Discard the mapped graph file and its indices.
+	 */
+	private void reset() {
+		this.buffer = null;
+		this.mappedLength = 0;
+		this.mappedModified = 0;
+		this.index.clear();
+		this.offsets.clear();
+		this.children.clear();
+		this.paths.clear();
+	}
+
+}
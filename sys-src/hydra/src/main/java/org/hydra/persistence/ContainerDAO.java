@@ -21,8 +21,8 @@
 package org.hydra.persistence;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.Scanner;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.hydra.core.Artifact;
 import org.hydra.core.Container;
@@ -59,13 +59,10 @@ public class ContainerDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean load() throws InvalidElementException {
-		Scanner scanner = null;
 		final File target = this.container.cloneRepositoryFile();
 		try {
-			scanner = new Scanner(new FileInputStream(target), "UTF-8");
-			while (scanner.hasNextLine()) {
-				final String[] splitLine = scanner.nextLine().split(
-						DataAccessObject.SEP_TOKEN);
+			for (final String[] splitLine : ObjectCache.getInstance()
+					.readMembers(target)) {
 				if (splitLine[0].equals(Container.TOKEN)) {
 					this.container.addElement(new Container(new File(
 							this.container.cloneWorkspaceFile(), splitLine[1]),
@@ -81,14 +78,6 @@ public class ContainerDAO extends DataAccessObject {
 			this.logger.exception("Unable to Load Container [" + target + "].",
 					e);
 			return false;
-		} finally {
-			if (scanner != null) {
-				try {
-					scanner.close();
-				} catch (final Exception e) {
-					this.logger.exception("Unable to Close Scanner.", e);
-				}
-			}
 		}
 	}
 
@@ -99,10 +88,33 @@ public class ContainerDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean record() {
-		return this.storeContents(this.container.describe(),
+		return this.storeRecord(this.container.describe(),
 				this.container.cloneRepositoryFile());
 	}
 
+	/**
+	 * Determine if the workspace files of all artifacts within the given
+	 * subtree are indexed with the artifacts' hashes and unmodified since,
+	 * which only requires their stat data.
+	 *
+	 * @param tree
+	 *            Container.
+	 * @return clean - boolean.
+	 */
+	private static boolean isClean(final Container tree) {
+		final WorkspaceIndex index = WorkspaceIndex.getInstance();
+		for (final FingerprintedElement e : tree.listElements()) {
+			if (e instanceof Container) {
+				if (!ContainerDAO.isClean((Container) e))
+					return false;
+			} else if (!(e instanceof Artifact) || (e.getHashValue() == null)
+					|| (index.lookup(e.cloneWorkspaceFile()) != e
+							.getHashValue()))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -122,6 +134,52 @@ public class ContainerDAO extends DataAccessObject {
 		return success;
 	}
 
+	/**
+	 * Restore the container's persisted state to the workspace, writing only
+	 * the artifacts whose workspace files differ from it. The given current
+	 * container describes the state the workspace was last set to; subtrees
+	 * whose hash is unchanged are skipped entirely if the workspace index
+	 * reports all their files unmodified, checked against the already loaded
+	 * current subtree, while all other artifacts are verified one by one.
+	 *
+	 * @param current
+	 *            Container, may be null if unknown.
+	 * @return success - boolean.
+	 */
+	public boolean checkout(final Container current) {
+		boolean success = true;
+		this.container.cloneWorkspaceFile().mkdir();
+		final Map<String, FingerprintedElement> currentElements = new HashMap<String, FingerprintedElement>();
+		if (current != null) {
+			for (final FingerprintedElement e : current.listElements()) {
+				currentElements.put(e.getName(), e);
+			}
+		}
+		for (final FingerprintedElement e : this.container.listElements()) {
+			final boolean checkedOut;
+			if (e instanceof Container) {
+				final FingerprintedElement c = currentElements.get(e.getName());
+				final Container previous = (c instanceof Container) ? (Container) c
+						: null;
+				if ((previous != null)
+						&& previous.getFingerprint().equals(e.getFingerprint())
+						&& ContainerDAO.isClean(previous)) {
+					checkedOut = true;
+				} else {
+					checkedOut = ((Container) e).checkout(previous);
+				}
+			} else if (e instanceof Artifact) {
+				checkedOut = ((Artifact) e).checkout();
+			} else {
+				checkedOut = e.retrieve();
+			}
+			if (!checkedOut) {
+				success = false;
+			}
+		}
+		return success;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -129,7 +187,8 @@ public class ContainerDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean store() {
-		if (this.container.cloneRepositoryFile().exists())
+		if (ObjectStore.getInstance().contains(
+				this.container.cloneRepositoryFile()))
 			return true;
 		else {
 			boolean success = true;
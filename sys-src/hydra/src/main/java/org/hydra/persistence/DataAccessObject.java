@@ -23,10 +23,13 @@ package org.hydra.persistence;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 import org.hydra.core.Artifact;
+import org.hydra.core.Configuration;
 import org.hydra.core.Container;
 import org.hydra.core.Element;
 import org.hydra.core.InvalidElementException;
@@ -52,9 +55,12 @@ public abstract class DataAccessObject {
 	/** The Constant SEP_TOKEN. */
 	public static final String SEP_TOKEN = "::>>";
 
-	/** The Constant STORAGE_STRATEGY. */
+	/** The Constant STORAGE_STRATEGY, used unless another is configured. */
 	public static final String STORAGE_STRATEGY = ZipStorageStrategyImpl.COMPRESSION_TYPE;
 
+	/** Property selecting the storage strategy by its compression type. */
+	public static final String PROPERTY_STORAGE_STRATEGY = "Persistence.storageStrategy";
+
 	/** The logger. */
 	protected Logger logger = Logger.getInstance();
 
@@ -83,6 +89,20 @@ public abstract class DataAccessObject {
 			return null;
 	}
 
+	/**
+	 * Retrieve the compression type of the configured storage strategy, or
+	 * the default {@link #STORAGE_STRATEGY} if none is configured.
+	 *
+	 * @return compressionType - String.
+	 */
+	public static String findStorageStrategy() {
+		final Configuration config = Configuration.getInstance();
+		if (config.hasProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY))
+			return config.getProperty(
+					DataAccessObject.PROPERTY_STORAGE_STRATEGY).trim();
+		return DataAccessObject.STORAGE_STRATEGY;
+	}
+
 	/**
 	 * Load a persisted reference from the repository into the versioning
 	 * element.
@@ -138,6 +158,7 @@ public abstract class DataAccessObject {
 	 */
 	protected boolean storeContents(final String contents,
 			final File destination) {
+		ObjectCache.getInstance().invalidate(destination);
 		FileChannel fcDestination = null;
 		try {
 			final ByteBuffer bb = ByteBuffer
@@ -164,6 +185,74 @@ public abstract class DataAccessObject {
 
 	}
 
+	/**
+	 * Store the designated text description to the designated file as a
+	 * binary record.
+	 *
+	 * @param description
+	 *            String.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	protected boolean storeRecord(final String description,
+			final File destination) {
+		return this.storeRecord(RecordReader.parseText(description),
+				destination);
+	}
+
+	/**
+	 * Store the designated members to the designated file as a binary record.
+	 *
+	 * @param members
+	 *            String[][].
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	protected boolean storeRecord(final String[][] members,
+			final File destination) {
+		ObjectCache.getInstance().invalidate(destination);
+		FileOutputStream fos = null;
+		try {
+			fos = new FileOutputStream(destination);
+			fos.write(RecordWriter.encode(members));
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Store Record [" + destination
+					+ "]", e);
+			return false;
+		} finally {
+			if (fos != null) {
+				try {
+					fos.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Record ["
+							+ destination + "]", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Load the members of the record stored in the designated file, in either
+	 * the binary or the text format.
+	 *
+	 * @param source
+	 *            File.
+	 * @return members - String[][].
+	 * @throws IOException
+	 *             if the record could not be read.
+	 */
+	protected String[][] loadRecord(final File source) throws IOException {
+		final InputStream is = new FileInputStream(source);
+		try {
+			return RecordReader.read(is);
+		} finally {
+			is.close();
+		}
+	}
+
 	/**
 	 * Transfer the content of one file to another file.
 	 *
@@ -0,0 +1,876 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.hydra.core.Artifact;
+import org.hydra.core.Configuration;
+import org.hydra.core.Hash;
+import org.hydra.utilities.FileUtilities;
+import org.hydra.utilities.Logger;
+
+/**
+ * Implements the DAOs storage functionality by storing a new version of an
+ * artifact as a delta against the previous version of the same artifact. The
+ * delta consists of copy operations, referencing ranges of the base version,
+ * and insert operations, holding the new bytes, and is deflated.
+ *
+ * Versions without a base, versions whose delta chain would exceed
+ * {@link #MAX_CHAIN_DEPTH} and versions that differ too much from their base
+ * are stored as full copies using the {@link AdaptiveStorageStrategyImpl}, which
+ * is also used to read every object that is not a delta. Deltas only apply
+ * below the {@link ChunkedStorageStrategyImpl#CHUNK_THRESHOLD}, since larger
+ * artifacts are stored as chunks, which are deduplicated instead.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class DeltaStorageStrategyImpl implements IngestingStorageStrategy {
+
+	/** The Constant COMPRESSION_TYPE. */
+	public static final String COMPRESSION_TYPE = "DeltaCompression";
+
+	/** Magic bytes starting a delta. */
+	public static final byte[] MAGIC = { 'H', 'Y', 'D', 'L' };
+
+	/** Version of the delta format. */
+	public static final int VERSION = 1;
+
+	/** Maximum number of deltas that must be applied to rebuild a version. */
+	public static final int MAX_CHAIN_DEPTH = 8;
+
+	/** Size of the blocks of the base that are matched. */
+	public static final int BLOCK_SIZE = 32;
+
+	/** Size from which versions and bases are not delta encoded. */
+	public static final long MAX_DELTA_SIZE = ChunkedStorageStrategyImpl.CHUNK_THRESHOLD;
+
+	/** Size of the delta header: magic, version, depth, base and length. */
+	private static final int HEADER_SIZE = DeltaStorageStrategyImpl.MAGIC.length
+			+ 2 + Hash.LENGTH + 8;
+
+	/** Operation ending the delta. */
+	private static final int OP_END = 0;
+
+	/** Operation copying a range of the base. */
+	private static final int OP_COPY = 1;
+
+	/** Operation inserting new bytes. */
+	private static final int OP_INSERT = 2;
+
+	/** Multiplier of the rolling block hash. */
+	private static final int PRIME = 31;
+
+	/** Size of the buffers used for copying. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The logger. */
+	private final Logger logger;
+
+	/** The strategy used to store full copies. */
+	private final AdaptiveStorageStrategyImpl fullStorage;
+
+	/** The artifact whose versions are stored, may be null. */
+	private final Artifact artifact;
+
+	/**
+	 * Default Constructor with no parameters, which stores all versions as
+	 * full copies but is able to read deltas.
+	 */
+	public DeltaStorageStrategyImpl() {
+		this(null);
+	}
+
+	/**
+	 * Specialized Constructor, which delta encodes new versions of the given
+	 * artifact against its previous version.
+	 *
+	 * @param artifact
+	 *            Artifact.
+	 */
+	public DeltaStorageStrategyImpl(final Artifact artifact) {
+		this.logger = Logger.getInstance();
+		this.fullStorage = new AdaptiveStorageStrategyImpl();
+		this.artifact = artifact;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the workspace to the repository, as a
+	 * delta if possible and as a full copy otherwise.
+	 */
+	@Override
+	public boolean transferToRepository(final File workspaceFile,
+			final File repositoryFile) {
+		final File baseFile = this.findDeltaBase(workspaceFile);
+		if (baseFile != null) {
+			try {
+				if (this.compressDelta(
+						DeltaStorageStrategyImpl.read(workspaceFile),
+						repositoryFile, baseFile))
+					return true;
+			} catch (final IOException e) {
+				this.logger.exception("Unable to Read Artifact ["
+						+ workspaceFile + "].", e);
+			}
+		}
+		return this.fullStorage.transferToRepository(workspaceFile,
+				repositoryFile);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Hash and store the contents of a file in the workspace in a single read.
+	 * The file is read into memory once; both the hash and the delta, or the
+	 * full copy if the delta is not worthwhile, are produced from its content.
+	 */
+	@Override
+	public Hash ingestToRepository(final File workspaceFile) {
+		final File baseFile = this.findDeltaBase(workspaceFile);
+		if (baseFile == null)
+			return this.fullStorage.ingestToRepository(workspaceFile);
+		final ObjectStore store = ObjectStore.getInstance();
+		File tempObject = null;
+		try {
+			final ByteBuffer target = DeltaStorageStrategyImpl
+					.read(workspaceFile);
+			final MessageDigest md = MessageDigest.getInstance("SHA1");
+			md.update(target.duplicate());
+			final Hash hash = Hash.valueOf(md.digest());
+			if (store.contains(this.findObject(hash)))
+				return hash;
+			tempObject = store.createTempObject();
+			tempObject.delete();
+			if (!this.compressDelta(target, tempObject, baseFile)
+					&& !this.fullStorage.storeContents(new BufferInputStream(
+							target.duplicate()), tempObject))
+				return null;
+			if (!store.install(tempObject, hash))
+				return null;
+			tempObject = null;
+			return hash;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Ingest Artifact [" + workspaceFile
+					+ "].", e);
+			return null;
+		} finally {
+			if ((tempObject != null) && tempObject.exists()
+					&& !tempObject.delete()) {
+				this.logger.warning("Unable to Delete Temporary Object ["
+						+ tempObject + "].");
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Transfer the contents of a file in the repository to the workspace,
+	 * rebuilding it from its delta chain if necessary.
+	 */
+	@Override
+	public boolean transferFromRepository(final File workspaceFile,
+			final File repositoryFile) {
+		return this.uncompressContents(repositoryFile, workspaceFile, 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the contents of a file in the repository. The operations of a delta
+	 * are applied while the contents are read; only its base is rebuilt into a
+	 * temporary file, since the copy operations need random access to it.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		final DeltaHeader header = this.readHeader(repositoryFile);
+		if (header == null)
+			return this.fullStorage.openFromRepository(repositoryFile);
+		return new DeltaInputStream(repositoryFile, header);
+	}
+
+	/**
+	 * Determine if the given repository file holds a delta.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return delta - boolean.
+	 */
+	public boolean isDelta(final File repositoryFile) {
+		return this.readHeader(repositoryFile) != null;
+	}
+
+	/**
+	 * DELTA METHODS (PRIVATE) ************************************************.
+	 */
+
+	/**
+	 * Rebuild the contents of the given repository file into the destination.
+	 * Each base of the chain is rebuilt into a temporary file, from which the
+	 * copy operations are then streamed.
+	 *
+	 * @param source
+	 *            File.
+	 * @param destination
+	 *            File.
+	 * @param depth
+	 *            int, the number of deltas already being rebuilt.
+	 * @return success - boolean.
+	 */
+	private boolean uncompressContents(final File source,
+			final File destination, final int depth) {
+		final DeltaHeader header = this.readHeader(source);
+		if (header == null)
+			return this.fullStorage.transferFromRepository(destination, source);
+		if (depth >= DeltaStorageStrategyImpl.MAX_CHAIN_DEPTH) {
+			this.logger.exception("Delta Chain Too Deep [" + source + "].");
+			return false;
+		}
+		File baseContents = null;
+		InputStream is = null;
+		RandomAccessFile base = null;
+		OutputStream os = null;
+		try {
+			baseContents = File.createTempFile("hydra", ".base");
+			if (!this.uncompressContents(this.findObject(header.base),
+					baseContents, depth + 1))
+				return false;
+			is = ObjectStore.getInstance().open(source);
+			final DataInputStream dis = new DataInputStream(
+					new BufferedInputStream(new InflaterInputStream(
+							DeltaStorageStrategyImpl.skipHeader(is)),
+							DeltaStorageStrategyImpl.BUFFER_SIZE));
+			base = new RandomAccessFile(baseContents, "r");
+			os = new BufferedOutputStream(new FileOutputStream(destination),
+					DeltaStorageStrategyImpl.BUFFER_SIZE);
+			final byte[] buffer = new byte[DeltaStorageStrategyImpl.BUFFER_SIZE];
+			long written = 0;
+			int op;
+			while ((op = dis.readUnsignedByte()) != DeltaStorageStrategyImpl.OP_END) {
+				if (op == DeltaStorageStrategyImpl.OP_COPY) {
+					base.seek(dis.readInt());
+					written += DeltaStorageStrategyImpl.transfer(base, os,
+							dis.readInt(), buffer);
+				} else if (op == DeltaStorageStrategyImpl.OP_INSERT) {
+					written += DeltaStorageStrategyImpl.transfer(dis, os,
+							dis.readInt(), buffer);
+				} else
+					throw new IOException("Invalid Delta Operation [" + op
+							+ "].");
+			}
+			if (written != header.length)
+				throw new IOException("Invalid Delta Length [" + written
+						+ "].");
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Rebuild Artifact [" + source
+					+ "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(is);
+			FileUtilities.close(base);
+			FileUtilities.close(os);
+			if ((baseContents != null) && !baseContents.delete()) {
+				this.logger.warning("Unable to Delete Temporary File ["
+						+ baseContents + "].");
+			}
+		}
+	}
+
+	/**
+	 * Return the base object the given workspace file should be delta encoded
+	 * against, or null if it should be stored as a full copy.
+	 *
+	 * @param workspaceFile
+	 *            File.
+	 * @return baseFile - File.
+	 */
+	private File findDeltaBase(final File workspaceFile) {
+		if ((this.artifact == null)
+				|| (workspaceFile.length() < DeltaStorageStrategyImpl.BLOCK_SIZE)
+				|| (workspaceFile.length() >= DeltaStorageStrategyImpl.MAX_DELTA_SIZE))
+			return null;
+		return this.artifact.cloneDeltaBase();
+	}
+
+	/**
+	 * Store the given content as a delta against the given base object. Fails
+	 * without writing anything if the delta chain would become too deep or the
+	 * delta would not be considerably smaller than the content itself.
+	 *
+	 * @param target
+	 *            ByteBuffer, the content.
+	 * @param destination
+	 *            File.
+	 * @param baseFile
+	 *            File.
+	 * @return success - boolean.
+	 */
+	private boolean compressDelta(final ByteBuffer target,
+			final File destination, final File baseFile) {
+		final DeltaHeader baseHeader = this.readHeader(baseFile);
+		final int depth = (baseHeader != null) ? baseHeader.depth + 1 : 1;
+		if ((depth > DeltaStorageStrategyImpl.MAX_CHAIN_DEPTH)
+				|| ((baseHeader == null) && new ChunkedStorageStrategyImpl(
+						this.fullStorage).isChunked(baseFile)))
+			return false;
+		final Hash baseHash = Hash.valueOf(baseFile.getName());
+		final File tempFile = new File(destination.getPath() + ".tmp");
+		File baseContents = null;
+		FileOutputStream fos = null;
+		DataOutputStream dos = null;
+		boolean success = false;
+		try {
+			baseContents = File.createTempFile("hydra", ".base");
+			if ((baseHash == null)
+					|| !this.uncompressContents(baseFile, baseContents, 0)
+					|| (baseContents.length() >= DeltaStorageStrategyImpl.MAX_DELTA_SIZE))
+				return false;
+			final ByteBuffer base = DeltaStorageStrategyImpl
+					.read(baseContents);
+			fos = new FileOutputStream(tempFile);
+			final DataOutputStream hos = new DataOutputStream(fos);
+			hos.write(DeltaStorageStrategyImpl.MAGIC);
+			hos.writeByte(DeltaStorageStrategyImpl.VERSION);
+			hos.writeByte(depth);
+			hos.write(baseHash.toBytes());
+			hos.writeLong(target.capacity());
+			dos = new DataOutputStream(new BufferedOutputStream(
+					new DeflaterOutputStream(fos),
+					DeltaStorageStrategyImpl.BUFFER_SIZE));
+			final long inserted = DeltaStorageStrategyImpl.encode(base, target,
+					dos);
+			dos.close();
+			dos = null;
+			fos = null;
+			if ((inserted * 2) > target.capacity())
+				return false;
+			success = tempFile.renameTo(destination);
+			return success;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Delta Compress Artifact ["
+					+ destination + "].", e);
+			return false;
+		} finally {
+			FileUtilities.close(dos);
+			FileUtilities.close(fos);
+			if (!success && tempFile.exists() && !tempFile.delete()) {
+				this.logger.warning("Unable to Delete Temporary File ["
+						+ tempFile + "].");
+			}
+			if ((baseContents != null) && !baseContents.delete()) {
+				this.logger.warning("Unable to Delete Temporary File ["
+						+ baseContents + "].");
+			}
+		}
+	}
+
+	/**
+	 * Write the operations rebuilding the target from the base. Every aligned
+	 * block of the base is indexed by its hash; the target is scanned with a
+	 * rolling hash and each matching block is extended as far as possible in
+	 * both directions.
+	 *
+	 * @param base
+	 *            ByteBuffer.
+	 * @param target
+	 *            ByteBuffer.
+	 * @param dos
+	 *            DataOutputStream.
+	 * @return inserted - long, the number of bytes not copied from the base.
+	 * @throws IOException
+	 *             if the operations could not be written.
+	 */
+	private static long encode(final ByteBuffer base, final ByteBuffer target,
+			final DataOutputStream dos) throws IOException {
+		final int blockSize = DeltaStorageStrategyImpl.BLOCK_SIZE;
+		final int baseLength = base.capacity();
+		final int targetLength = target.capacity();
+		// Index Blocks of the Base
+		final int blocks = baseLength / blockSize;
+		final int slots = Integer.highestOneBit(Math.max(16, blocks * 2)) * 2;
+		final int[] keys = new int[slots];
+		final int[] offsets = new int[slots];
+		Arrays.fill(offsets, -1);
+		for (int offset = 0; (offset + blockSize) <= baseLength; offset += blockSize) {
+			final int hash = DeltaStorageStrategyImpl.hashBlock(base, offset);
+			int slot = hash & (slots - 1);
+			while ((offsets[slot] >= 0) && (keys[slot] != hash)) {
+				slot = (slot + 1) & (slots - 1);
+			}
+			if (offsets[slot] < 0) {
+				keys[slot] = hash;
+				offsets[slot] = offset;
+			}
+		}
+		// Scan Target
+		int power = 1;
+		for (int i = 1; i < blockSize; i++) {
+			power *= DeltaStorageStrategyImpl.PRIME;
+		}
+		long inserted = 0;
+		int literalStart = 0;
+		int position = 0;
+		int hash = (targetLength >= blockSize) ? DeltaStorageStrategyImpl
+				.hashBlock(target, 0) : 0;
+		while ((position + blockSize) <= targetLength) {
+			int match = -1;
+			int slot = hash & (slots - 1);
+			while (offsets[slot] >= 0) {
+				if (keys[slot] == hash) {
+					match = offsets[slot];
+					break;
+				}
+				slot = (slot + 1) & (slots - 1);
+			}
+			if ((match >= 0)
+					&& DeltaStorageStrategyImpl.matches(base, match, target,
+							position, blockSize)) {
+				int start = position;
+				int baseStart = match;
+				int length = blockSize;
+				while (((start + length) < targetLength)
+						&& ((baseStart + length) < baseLength)
+						&& (target.get(start + length) == base.get(baseStart
+								+ length))) {
+					length++;
+				}
+				while ((start > literalStart) && (baseStart > 0)
+						&& (target.get(start - 1) == base.get(baseStart - 1))) {
+					start--;
+					baseStart--;
+					length++;
+				}
+				inserted += DeltaStorageStrategyImpl.writeInsert(target,
+						literalStart, start, dos);
+				dos.writeByte(DeltaStorageStrategyImpl.OP_COPY);
+				dos.writeInt(baseStart);
+				dos.writeInt(length);
+				position = start + length;
+				literalStart = position;
+				if ((position + blockSize) <= targetLength) {
+					hash = DeltaStorageStrategyImpl.hashBlock(target, position);
+				}
+			} else {
+				if ((position + blockSize) < targetLength) {
+					hash = ((hash - ((target.get(position) & 0xff) * power)) * DeltaStorageStrategyImpl.PRIME)
+							+ (target.get(position + blockSize) & 0xff);
+				}
+				position++;
+			}
+		}
+		inserted += DeltaStorageStrategyImpl.writeInsert(target, literalStart,
+				targetLength, dos);
+		dos.writeByte(DeltaStorageStrategyImpl.OP_END);
+		return inserted;
+	}
+
+	/**
+	 * Write an insert operation holding the given range of the target.
+	 *
+	 * @param target
+	 *            ByteBuffer.
+	 * @param start
+	 *            int.
+	 * @param end
+	 *            int.
+	 * @param dos
+	 *            DataOutputStream.
+	 * @return inserted - int, the number of bytes inserted.
+	 * @throws IOException
+	 *             if the operation could not be written.
+	 */
+	private static int writeInsert(final ByteBuffer target, final int start,
+			final int end, final DataOutputStream dos) throws IOException {
+		if (end <= start)
+			return 0;
+		dos.writeByte(DeltaStorageStrategyImpl.OP_INSERT);
+		dos.writeInt(end - start);
+		final byte[] buffer = new byte[Math.min(end - start,
+				DeltaStorageStrategyImpl.BUFFER_SIZE)];
+		final ByteBuffer range = target.duplicate();
+		range.position(start);
+		range.limit(end);
+		while (range.hasRemaining()) {
+			final int count = Math.min(buffer.length, range.remaining());
+			range.get(buffer, 0, count);
+			dos.write(buffer, 0, count);
+		}
+		return end - start;
+	}
+
+	/**
+	 * Return the polynomial hash of the block at the given offset.
+	 *
+	 * @param buffer
+	 *            ByteBuffer.
+	 * @param offset
+	 *            int.
+	 * @return hash - int.
+	 */
+	private static int hashBlock(final ByteBuffer buffer, final int offset) {
+		int hash = 0;
+		for (int i = 0; i < DeltaStorageStrategyImpl.BLOCK_SIZE; i++) {
+			hash = (hash * DeltaStorageStrategyImpl.PRIME)
+					+ (buffer.get(offset + i) & 0xff);
+		}
+		return hash;
+	}
+
+	/**
+	 * Determine if the given ranges of the base and target are equal.
+	 *
+	 * @param base
+	 *            ByteBuffer.
+	 * @param baseOffset
+	 *            int.
+	 * @param target
+	 *            ByteBuffer.
+	 * @param targetOffset
+	 *            int.
+	 * @param length
+	 *            int.
+	 * @return matches - boolean.
+	 */
+	private static boolean matches(final ByteBuffer base, final int baseOffset,
+			final ByteBuffer target, final int targetOffset, final int length) {
+		for (int i = 0; i < length; i++) {
+			if (base.get(baseOffset + i) != target.get(targetOffset + i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the delta header of the given repository file, or return null if it
+	 * does not hold a delta.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return header - DeltaHeader.
+	 */
+	private DeltaHeader readHeader(final File repositoryFile) {
+		InputStream is = null;
+		try {
+			is = ObjectStore.getInstance().open(repositoryFile);
+			final DataInputStream dis = new DataInputStream(is);
+			final byte[] magic = new byte[DeltaStorageStrategyImpl.MAGIC.length];
+			dis.readFully(magic);
+			if (!Arrays.equals(DeltaStorageStrategyImpl.MAGIC, magic)
+					|| (dis.readUnsignedByte() != DeltaStorageStrategyImpl.VERSION))
+				return null;
+			final int depth = dis.readUnsignedByte();
+			final byte[] base = new byte[Hash.LENGTH];
+			dis.readFully(base);
+			return new DeltaHeader(depth, Hash.valueOf(base), dis.readLong());
+		} catch (final EOFException e) {
+			return null;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Read Object [" + repositoryFile
+					+ "].", e);
+			return null;
+		} finally {
+			FileUtilities.close(is);
+		}
+	}
+
+	/**
+	 * Return the repository file of the given object.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return repositoryFile - File.
+	 */
+	private File findObject(final Hash hash) {
+		return new File(Configuration.getInstance().getFPStore(),
+				hash.toString());
+	}
+
+	/**
+	 * Skip the delta header of the given stream.
+	 *
+	 * @param is
+	 *            InputStream.
+	 * @return is - InputStream, positioned after the header.
+	 * @throws IOException
+	 *             if the header could not be skipped.
+	 */
+	private static InputStream skipHeader(final InputStream is)
+			throws IOException {
+		new DataInputStream(is).readFully(
+				new byte[DeltaStorageStrategyImpl.HEADER_SIZE]);
+		return is;
+	}
+
+	/**
+	 * Copy the given number of bytes from the input to the output.
+	 *
+	 * @param input
+	 *            DataInput.
+	 * @param output
+	 *            OutputStream.
+	 * @param length
+	 *            int.
+	 * @param buffer
+	 *            byte[].
+	 * @return length - int.
+	 * @throws IOException
+	 *             if the input ends prematurely.
+	 */
+	private static int transfer(final DataInput input,
+			final OutputStream output, final int length, final byte[] buffer)
+			throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			final int count = Math.min(remaining, buffer.length);
+			input.readFully(buffer, 0, count);
+			output.write(buffer, 0, count);
+			remaining -= count;
+		}
+		return length;
+	}
+
+	/**
+	 * Read the given file into memory. Only files below the maximum delta size
+	 * are read, so their content always fits into a heap buffer.
+	 *
+	 * @param file
+	 *            File.
+	 * @return content - ByteBuffer.
+	 * @throws IOException
+	 *             if the file could not be read.
+	 */
+	private static ByteBuffer read(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final byte[] content = new byte[(int) raf.length()];
+			raf.readFully(content);
+			return ByteBuffer.wrap(content);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Stream of the contents of a delta, applying its operations as they are
+	 * read. The temporary file holding the rebuilt base is deleted on close.
+	 */
+	private class DeltaInputStream extends InputStream {
+
+		/** The delta. */
+		private final File source;
+
+		/** The length of the rebuilt version. */
+		private final long length;
+
+		/** The temporary file holding the rebuilt base. */
+		private File baseContents = null;
+
+		/** The rebuilt base. */
+		private RandomAccessFile base = null;
+
+		/** The stream of the delta. */
+		private InputStream is = null;
+
+		/** The inflated operations of the delta. */
+		private DataInputStream operations = null;
+
+		/** The current operation. */
+		private int operation = DeltaStorageStrategyImpl.OP_END;
+
+		/** The number of bytes remaining of the current operation. */
+		private int remaining = 0;
+
+		/** The number of bytes read. */
+		private long read = 0;
+
+		/** Whether the end operation was reached. */
+		private boolean ended = false;
+
+		/**
+		 * Specialized Constructor, which rebuilds the base and opens the
+		 * operations of the given delta.
+		 *
+		 * @param source
+		 *            File.
+		 * @param header
+		 *            DeltaHeader.
+		 * @throws IOException
+		 *             if the delta could not be opened.
+		 */
+		DeltaInputStream(final File source, final DeltaHeader header)
+				throws IOException {
+			this.source = source;
+			this.length = header.length;
+			boolean success = false;
+			try {
+				this.baseContents = File.createTempFile("hydra", ".base");
+				if (!DeltaStorageStrategyImpl.this.uncompressContents(
+						DeltaStorageStrategyImpl.this.findObject(header.base),
+						this.baseContents, 1))
+					throw new IOException("Unable to Rebuild Base ["
+							+ header.base + "].");
+				this.base = new RandomAccessFile(this.baseContents, "r");
+				this.is = ObjectStore.getInstance().open(source);
+				this.operations = new DataInputStream(new BufferedInputStream(
+						new InflaterInputStream(
+								DeltaStorageStrategyImpl.skipHeader(this.is)),
+						DeltaStorageStrategyImpl.BUFFER_SIZE));
+				success = true;
+			} finally {
+				if (!success) {
+					this.close();
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Read a single byte.
+		 */
+		@Override
+		public int read() throws IOException {
+			final byte[] single = new byte[1];
+			return (this.read(single, 0, 1) < 0) ? -1 : (single[0] & 0xff);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Read from the base or the delta, depending on the current operation.
+		 */
+		@Override
+		public int read(final byte[] buffer, final int offset, final int count)
+				throws IOException {
+			if (count == 0)
+				return 0;
+			while (this.remaining == 0) {
+				if (this.ended)
+					return -1;
+				this.nextOperation();
+			}
+			final int requested = Math.min(count, this.remaining);
+			final int n = (this.operation == DeltaStorageStrategyImpl.OP_COPY) ? this.base
+					.read(buffer, offset, requested) : this.operations.read(
+					buffer, offset, requested);
+			if (n < 0)
+				throw new EOFException("Truncated Delta [" + this.source + "].");
+			this.remaining -= n;
+			this.read += n;
+			return n;
+		}
+
+		/**
+		 * Read the next operation of the delta.
+		 *
+		 * @throws IOException
+		 *             if the operation is invalid.
+		 */
+		private void nextOperation() throws IOException {
+			this.operation = this.operations.readUnsignedByte();
+			if (this.operation == DeltaStorageStrategyImpl.OP_END) {
+				this.ended = true;
+				if (this.read != this.length)
+					throw new IOException("Invalid Delta Length [" + this.read
+							+ "].");
+			} else if (this.operation == DeltaStorageStrategyImpl.OP_COPY) {
+				this.base.seek(this.operations.readInt());
+				this.remaining = this.operations.readInt();
+			} else if (this.operation == DeltaStorageStrategyImpl.OP_INSERT) {
+				this.remaining = this.operations.readInt();
+			} else
+				throw new IOException("Invalid Delta Operation ["
+						+ this.operation + "].");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Close the delta and the base, deleting the rebuilt base.
+		 */
+		@Override
+		public void close() {
+			FileUtilities.close(this.operations);
+			FileUtilities.close(this.is);
+			FileUtilities.close(this.base);
+			if ((this.baseContents != null) && !this.baseContents.delete()) {
+				DeltaStorageStrategyImpl.this.logger
+						.warning("Unable to Delete Temporary File ["
+								+ this.baseContents + "].");
+			}
+			this.baseContents = null;
+		}
+	}
+
+	/**
+	 * Header of a delta.
+	 */
+	private static class DeltaHeader {
+
+		/** The number of deltas in the chain, including this one. */
+		private final int depth;
+
+		/** The base object. */
+		private final Hash base;
+
+		/** The length of the rebuilt version. */
+		private final long length;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param depth
+		 *            int.
+		 * @param base
+		 *            Hash.
+		 * @param length
+		 *            long.
+		 */
+		DeltaHeader(final int depth, final Hash base, final long length) {
+			this.depth = depth;
+			this.base = base;
+			this.length = length;
+		}
+	}
+
+}
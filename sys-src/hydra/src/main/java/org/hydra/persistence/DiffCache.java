@@ -0,0 +1,524 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Hash;
+import org.hydra.utilities.FileUtilities;
+import org.hydra.utilities.Logger;
+import org.hydra.utilities.diff.Change;
+import org.hydra.utilities.diff.ChangeAdd;
+import org.hydra.utilities.diff.ChangeDelete;
+import org.hydra.utilities.diff.ChangeReplace;
+import org.hydra.utilities.diff.ChangeSet;
+
+/**
+ * Repository-wide cache of the change sets calculated between two versions of
+ * content, keyed by the hashes of both versions. Since content is addressed by
+ * its hash, the change set between two hashes never changes and may be
+ * reused by every later diff of the same versions.
+ *
+ * The change sets are held in memory, evicting the least recently used first
+ * once the number of cached lines exceeds the configured size, and are
+ * persisted as binary records in the repository's {@link #CACHE_DIR}, evicting
+ * the least recently used files once their total size exceeds the configured
+ * disk size.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class DiffCache {
+
+	/** Unique Diff Cache Header. */
+	public static final String HEADER = "HH::>>DiffCache";
+
+	/** Name of the cache directory within the repository. */
+	public static final String CACHE_DIR = "diffCache";
+
+	/** Property defining the maximum number of lines cached in memory. */
+	public static final String PROPERTY_SIZE = "Persistence.diffCacheSize";
+
+	/** Property defining the maximum size (bytes) of the cache directory. */
+	public static final String PROPERTY_DISK_SIZE = "Persistence.diffCacheDiskSize";
+
+	/** Default maximum number of lines cached in memory. */
+	public static final int DEFAULT_SIZE = 64 * 1024;
+
+	/** Default maximum size (bytes) of the cache directory. */
+	public static final long DEFAULT_DISK_SIZE = 16L * 1024 * 1024;
+
+	/** Token of a cached addition. */
+	private static final String TOKEN_ADD = "a";
+
+	/** Token of a cached deletion. */
+	private static final String TOKEN_DELETE = "d";
+
+	/** Token of a cached replacement. */
+	private static final String TOKEN_REPLACE = "c";
+
+	/** The singleton cache. */
+	private static DiffCache cache = null;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The change sets, keyed by both hashes, in access order. */
+	private final LinkedHashMap<String, ChangeSet> entries = new LinkedHashMap<String, ChangeSet>(
+			16, 0.75f, true);
+
+	/** The maximum number of lines cached in memory. */
+	private int capacity = DiffCache.DEFAULT_SIZE;
+
+	/** The maximum size of the cache directory. */
+	private long diskCapacity = DiffCache.DEFAULT_DISK_SIZE;
+
+	/** The number of lines cached in memory. */
+	private long lines = 0;
+
+	/** The size of the cache directory, or -1 if not yet determined. */
+	private long diskSize = -1;
+
+	/** The cache directory the disk size belongs to. */
+	private File diskDirectory = null;
+
+	/** The number of lookups answered from the cache. */
+	private long hits = 0;
+
+	/** The number of lookups not answered from the cache. */
+	private long misses = 0;
+
+	/**
+	 * Protected default constructor, retrieve singleton instance using the
+	 * {@link #getInstance} method.
+	 */
+	protected DiffCache() {
+		final Configuration config = Configuration.getInstance();
+		if (config.hasProperty(DiffCache.PROPERTY_SIZE)) {
+			try {
+				this.capacity = Integer.parseInt(config.getProperty(
+						DiffCache.PROPERTY_SIZE).trim());
+			} catch (final NumberFormatException e) {
+				this.logger.warning("Invalid Diff Cache Size ["
+						+ config.getProperty(DiffCache.PROPERTY_SIZE) + "].");
+			}
+		}
+		if (config.hasProperty(DiffCache.PROPERTY_DISK_SIZE)) {
+			try {
+				this.diskCapacity = Long.parseLong(config.getProperty(
+						DiffCache.PROPERTY_DISK_SIZE).trim());
+			} catch (final NumberFormatException e) {
+				this.logger.warning("Invalid Diff Cache Disk Size ["
+						+ config.getProperty(DiffCache.PROPERTY_DISK_SIZE)
+						+ "].");
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the singleton instance of the diff cache.
+	 *
+	 * @return cache - DiffCache.
+	 */
+	public static synchronized DiffCache getInstance() {
+		if (DiffCache.cache == null) {
+			DiffCache.cache = new DiffCache();
+		}
+		return DiffCache.cache;
+	}
+
+	/**
+	 * DIFFCACHE METHODS ******************************************************.
+	 */
+
+	/**
+	 * Return the cached change set between the given versions, either from
+	 * memory or from the cache directory.
+	 *
+	 * @param fromHash
+	 *            String.
+	 * @param toHash
+	 *            String.
+	 * @return changes - ChangeSet, or null if not cached.
+	 */
+	public synchronized ChangeSet lookup(final String fromHash,
+			final String toHash) {
+		final String key = DiffCache.findKey(fromHash, toHash);
+		if (key == null)
+			return null;
+		ChangeSet changes = this.entries.get(key);
+		if (changes == null) {
+			changes = this.readEntry(key);
+			if (changes == null) {
+				this.misses++;
+				return null;
+			}
+			this.putEntry(key, changes);
+		}
+		this.hits++;
+		return changes;
+	}
+
+	/**
+	 * Cache the change set calculated between the given versions.
+	 *
+	 * @param fromHash
+	 *            String.
+	 * @param toHash
+	 *            String.
+	 * @param changes
+	 *            ChangeSet.
+	 */
+	public synchronized void store(final String fromHash, final String toHash,
+			final ChangeSet changes) {
+		final String key = DiffCache.findKey(fromHash, toHash);
+		if (key == null)
+			return;
+		this.putEntry(key, changes);
+		this.writeEntry(key, changes);
+	}
+
+	/**
+	 * Discard all change sets cached in memory and reset the statistics. The
+	 * cache directory is kept.
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+		this.lines = 0;
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	/**
+	 * Return the number of lookups answered from the cache.
+	 *
+	 * @return hits - long.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Return the number of lookups not answered from the cache.
+	 *
+	 * @return misses - long.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Return the number of change sets cached in memory.
+	 *
+	 * @return size - int.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return a string describing the cache's statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		return "DiffCache:" + this.entries.size() + "[lines=" + this.lines
+				+ "/" + this.capacity + ", hits=" + this.hits + ", misses="
+				+ this.misses + "]";
+	}
+
+	/**
+	 * DIFFCACHE METHODS (PRIVATE) ********************************************.
+	 */
+
+	/**
+	 * Cache the change set in memory, evicting the least recently used change
+	 * sets until the cached lines fit the capacity.
+	 *
+	 * @param key
+	 *            String.
+	 * @param changes
+	 *            ChangeSet.
+	 */
+	private void putEntry(final String key, final ChangeSet changes) {
+		final ChangeSet previous = this.entries.put(key, changes);
+		if (previous != null) {
+			this.lines -= DiffCache.countLines(previous);
+		}
+		this.lines += DiffCache.countLines(changes);
+		final Iterator<ChangeSet> eldest = this.entries.values().iterator();
+		while ((this.lines > this.capacity) && eldest.hasNext()) {
+			this.lines -= DiffCache.countLines(eldest.next());
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Read the change set persisted under the given key, marking it as
+	 * recently used.
+	 *
+	 * @param key
+	 *            String.
+	 * @return changes - ChangeSet, or null if not persisted.
+	 */
+	private ChangeSet readEntry(final String key) {
+		final File entryFile = new File(this.findDirectory(), key);
+		if (!entryFile.isFile())
+			return null;
+		InputStream is = null;
+		try {
+			is = new FileInputStream(entryFile);
+			final ChangeSet changes = DiffCache.parseMembers(RecordReader
+					.read(is));
+			entryFile.setLastModified(System.currentTimeMillis());
+			return changes;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Read Cached Diff [" + entryFile
+					+ "].", e);
+			return null;
+		} finally {
+			FileUtilities.close(is);
+		}
+	}
+
+	/**
+	 * Persist the change set under the given key, evicting the least recently
+	 * used files if the cache directory grows beyond its capacity.
+	 *
+	 * @param key
+	 *            String.
+	 * @param changes
+	 *            ChangeSet.
+	 */
+	private void writeEntry(final String key, final ChangeSet changes) {
+		final File directory = this.findDirectory();
+		if ((directory == null)
+				|| (!directory.isDirectory() && !directory.mkdirs()))
+			return;
+		final File entryFile = new File(directory, key);
+		final File tempFile = new File(directory, key + ".tmp");
+		final byte[] record = RecordWriter.encode(DiffCache.describeMembers(
+				key, changes));
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(tempFile);
+			os.write(record);
+			os.close();
+			os = null;
+			final long replaced = entryFile.length();
+			if ((entryFile.exists() && !entryFile.delete())
+					|| !tempFile.renameTo(entryFile))
+				throw new IOException("Unable to Install Cached Diff ["
+						+ entryFile + "].");
+			this.diskSize += record.length - replaced;
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Write Cached Diff [" + entryFile
+					+ "].", e);
+			tempFile.delete();
+			return;
+		} finally {
+			FileUtilities.close(os);
+		}
+		if (this.diskSize > this.diskCapacity) {
+			this.evictFiles(directory);
+		}
+	}
+
+	/**
+	 * Delete the least recently used files of the cache directory until it is
+	 * reduced to three quarters of its capacity.
+	 *
+	 * @param directory
+	 *            File.
+	 */
+	private void evictFiles(final File directory) {
+		final File[] files = directory.listFiles();
+		if (files == null)
+			return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(final File first, final File second) {
+				final long firstModified = first.lastModified();
+				final long secondModified = second.lastModified();
+				return (firstModified < secondModified) ? -1
+						: ((firstModified == secondModified) ? 0 : 1);
+			}
+		});
+		long size = 0;
+		for (final File file : files) {
+			size += file.length();
+		}
+		final long target = (this.diskCapacity / 4) * 3;
+		for (int i = 0; (i < files.length) && (size > target); i++) {
+			final long length = files[i].length();
+			if (files[i].delete()) {
+				size -= length;
+			}
+		}
+		this.diskSize = size;
+	}
+
+	/**
+	 * Return the cache directory of the current repository, determining its
+	 * size if the repository changed.
+	 *
+	 * @return directory - File, or null if no repository is configured.
+	 */
+	private File findDirectory() {
+		final File repository = Configuration.getInstance().getRepository();
+		if (repository == null)
+			return null;
+		final File directory = new File(repository, DiffCache.CACHE_DIR);
+		if (!directory.equals(this.diskDirectory) || (this.diskSize < 0)) {
+			this.diskDirectory = directory;
+			this.diskSize = 0;
+			final File[] files = directory.listFiles();
+			if (files != null) {
+				for (final File file : files) {
+					this.diskSize += file.length();
+				}
+			}
+		}
+		return directory;
+	}
+
+	/**
+	 * Return the key of the given versions, or null if either is not a valid
+	 * hash.
+	 *
+	 * @param fromHash
+	 *            String.
+	 * @param toHash
+	 *            String.
+	 * @return key - String.
+	 */
+	private static String findKey(final String fromHash, final String toHash) {
+		if ((Hash.valueOf(fromHash) == null) || (Hash.valueOf(toHash) == null))
+			return null;
+		return fromHash + "-" + toHash;
+	}
+
+	/**
+	 * Return the number of lines held by the change set, counting each change
+	 * as a line as well.
+	 *
+	 * @param changes
+	 *            ChangeSet.
+	 * @return lines - int.
+	 */
+	private static int countLines(final ChangeSet changes) {
+		int count = 1;
+		for (final Change change : changes.listChanges()) {
+			count += change.getChangedLines().length + 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Describe the change set as the members of a record: a header followed by
+	 * one member per change holding its type, line number, number of deleted
+	 * lines and changed lines.
+	 *
+	 * @param key
+	 *            String.
+	 * @param changes
+	 *            ChangeSet.
+	 * @return members - String[][].
+	 */
+	private static String[][] describeMembers(final String key,
+			final ChangeSet changes) {
+		final Change[] changeArray = changes.listChanges();
+		final String[][] members = new String[changeArray.length + 1][];
+		members[0] = new String[] { DiffCache.HEADER, key };
+		for (int i = 0; i < changeArray.length; i++) {
+			final Change change = changeArray[i];
+			final String[] changedLines = change.getChangedLines();
+			final String[] member = new String[changedLines.length + 3];
+			if (change instanceof ChangeAdd) {
+				member[0] = DiffCache.TOKEN_ADD;
+			} else if (change instanceof ChangeDelete) {
+				member[0] = DiffCache.TOKEN_DELETE;
+			} else {
+				member[0] = DiffCache.TOKEN_REPLACE;
+			}
+			member[1] = Integer.toString(change.getLineNumber());
+			member[2] = Integer.toString(change.countDeleted());
+			System.arraycopy(changedLines, 0, member, 3, changedLines.length);
+			members[i + 1] = member;
+		}
+		return members;
+	}
+
+	/**
+	 * Parse the members of a record into the change set they describe.
+	 *
+	 * @param members
+	 *            String[][].
+	 * @return changes - ChangeSet.
+	 * @throws IOException
+	 *             if the members do not describe a change set.
+	 */
+	private static ChangeSet parseMembers(final String[][] members)
+			throws IOException {
+		if ((members.length == 0) || (members[0].length == 0)
+				|| !DiffCache.HEADER.equals(members[0][0]))
+			throw new IOException("Invalid Cached Diff Header.");
+		final List<Change> changeList = new ArrayList<Change>();
+		for (int i = 1; i < members.length; i++) {
+			final String[] member = members[i];
+			if (member.length < 3)
+				throw new IOException("Invalid Cached Change.");
+			final int lineNumber = Integer.parseInt(member[1]);
+			final String[] changedLines = Arrays.copyOfRange(member, 3,
+					member.length);
+			if (DiffCache.TOKEN_ADD.equals(member[0])) {
+				changeList.add(new ChangeAdd(lineNumber, changedLines));
+			} else if (DiffCache.TOKEN_DELETE.equals(member[0])) {
+				changeList.add(new ChangeDelete(lineNumber, changedLines));
+			} else if (DiffCache.TOKEN_REPLACE.equals(member[0])) {
+				changeList.add(new ChangeReplace(lineNumber, changedLines,
+						Integer.parseInt(member[2])));
+			} else
+				throw new IOException("Invalid Cached Change [" + member[0]
+						+ "].");
+		}
+		final ChangeSet changes = new ChangeSet();
+		for (final Change change : changeList) {
+			changes.add(change);
+		}
+		return changes;
+	}
+
+}
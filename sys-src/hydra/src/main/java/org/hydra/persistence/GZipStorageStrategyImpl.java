@@ -25,6 +25,8 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -77,6 +79,23 @@ public class GZipStorageStrategyImpl implements StorageStrategy {
 		return this.uncompressContents(repositoryFile, workspaceFile);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the uncompressed contents of a file in the repository.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		final InputStream is = ObjectStore.getInstance().open(repositoryFile);
+		try {
+			return new GZIPInputStream(is);
+		} catch (final IOException e) {
+			is.close();
+			throw e;
+		}
+	}
+
 	/**
 	 * Generalized means to compress a file with the GZIP format.
 	 *
@@ -136,7 +155,7 @@ public class GZipStorageStrategyImpl implements StorageStrategy {
 		GZIPInputStream zis = null;
 		BufferedOutputStream bos = null;
 		try {
-			zis = new GZIPInputStream(new FileInputStream(source));
+			zis = new GZIPInputStream(ObjectStore.getInstance().open(source));
 			bos = new BufferedOutputStream(new FileOutputStream(destination));
 			final byte[] buffer = new byte[1024];
 			int count;
@@ -21,8 +21,6 @@
 package org.hydra.persistence;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.Scanner;
 
 import org.hydra.core.CommittableElement;
 import org.hydra.core.InvalidElementException;
@@ -57,42 +55,30 @@ public class LogicalUnitDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean load() throws InvalidElementException {
-		Scanner scanner = null;
 		final File target = this.logicalUnit.cloneRepositoryFile();
 		try {
-			scanner = new Scanner(new FileInputStream(target), "UTF-8");
-			while (scanner.hasNextLine()) {
-				this.parseMember(scanner.nextLine());
+			for (final String[] member : this.loadRecord(target)) {
+				this.parseMember(member);
 			}
 			return true;
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Parse Logical Unit File ["
 					+ target + "].", e);
 			return false;
-		} finally {
-			if (scanner != null) {
-				try {
-					scanner.close();
-				} catch (final Exception e) {
-					this.logger.exception("Unable to Close Scanner.", e);
-				}
-			}
 		}
 	}
 
 	/**
 	 * Parses the member.
 	 * 
-	 * @param memberStr
-	 *            the member str
+	 * @param splitStr
+	 *            the member's fields
 	 * @throws InvalidElementException
 	 *             the invalid element exception
 	 */
-	private void parseMember(final String memberStr)
+	private void parseMember(final String[] splitStr)
 			throws InvalidElementException {
 		try {
-			final String[] splitStr = memberStr
-					.split(DataAccessObject.SEP_TOKEN);
 			if (splitStr[0].equals(CommittableElement.TOKEN_HEAD)) {
 				this.logicalUnit.setHead(splitStr[1]);
 			} else if (splitStr[0].equals(CommittableElement.TOKEN_CURRENT)) {
@@ -101,7 +87,8 @@ public class LogicalUnitDAO extends DataAccessObject {
 				this.logicalUnit.setContents(splitStr[1]);
 			}
 		} catch (final Exception e) {
-			this.logger.exception("Logical Unit Parsing Failure [" + memberStr
+			this.logger.exception("Logical Unit Parsing Failure ["
+					+ RecordReader.toText(new String[][] { splitStr }).trim()
 					+ "].", e);
 		}
 	}
@@ -113,7 +100,7 @@ public class LogicalUnitDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean record() {
-		return this.storeContents(this.logicalUnit.describe(),
+		return this.storeRecord(this.logicalUnit.describe(),
 				this.logicalUnit.cloneRepositoryFile());
 	}
 
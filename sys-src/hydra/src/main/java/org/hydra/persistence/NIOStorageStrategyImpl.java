@@ -23,8 +23,13 @@ package org.hydra.persistence;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
+import org.hydra.utilities.FileUtilities;
 import org.hydra.utilities.Logger;
 
 /**
@@ -32,6 +37,12 @@ import org.hydra.utilities.Logger;
  * the response time and data transfer rate at the cost of the size of the
  * repository.
  *
+ * Objects are stored uncompressed, preceded by the
+ * {@link AdaptiveStorageStrategyImpl#RAW_MAGIC}, so that raw content that
+ * happens to start like a compressed object is never mistaken for one. Objects
+ * are read through the {@link AdaptiveStorageStrategyImpl}, which also reads
+ * untagged objects written by earlier versions.
+ *
  * @author Scott A. Hady
  * @version 0.2
  * @since 0.2
@@ -60,23 +71,58 @@ public class NIOStorageStrategyImpl implements StorageStrategy {
 	@Override
 	public boolean transferToRepository(final File workspaceFile,
 			final File repositoryFile) {
-		return this.transferContents(workspaceFile, repositoryFile);
+		FileChannel fcSource = null;
+		FileChannel fcDestination = null;
+		try {
+			fcSource = new FileInputStream(workspaceFile).getChannel();
+			final FileOutputStream fos = new FileOutputStream(repositoryFile);
+			fcDestination = fos.getChannel();
+			fos.write(AdaptiveStorageStrategyImpl.RAW_MAGIC);
+			final long size = fcSource.size();
+			long position = 0;
+			while (position < size) {
+				position += fcSource.transferTo(position, size - position,
+						fcDestination);
+			}
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Transfer Content from ["
+					+ workspaceFile + "] to [" + repositoryFile + "]", e);
+			return false;
+		} finally {
+			FileUtilities.close(fcSource);
+			FileUtilities.close(fcDestination);
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
 	 *
 	 * Transfer the content of a file in the repository to a file in the
-	 * workspace.
+	 * workspace, decoding it according to the encoding recorded in the object.
 	 */
 	@Override
 	public boolean transferFromRepository(final File workspaceFile,
 			final File repositoryFile) {
-		return this.transferContents(repositoryFile, workspaceFile);
+		return new AdaptiveStorageStrategyImpl().transferFromRepository(
+				workspaceFile, repositoryFile);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the content of a file in the repository, decoding it according to
+	 * the encoding recorded in the object.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		return new AdaptiveStorageStrategyImpl()
+				.openFromRepository(repositoryFile);
 	}
 
 	/**
-	 * Transfer the content of one file to another file.
+	 * Transfer the content of one file to another file, as is.
 	 *
 	 * @param source
 	 *            File.
@@ -85,35 +131,27 @@ public class NIOStorageStrategyImpl implements StorageStrategy {
 	 * @return success - boolean.
 	 */
 	public boolean transferContents(final File source, final File destination) {
-		FileChannel fcSource = null;
+		ReadableByteChannel fcSource = null;
 		FileChannel fcDestination = null;
 		try {
-			fcSource = new FileInputStream(source).getChannel();
+			final InputStream is = ObjectStore.getInstance().open(source);
+			fcSource = (is instanceof FileInputStream) ? ((FileInputStream) is)
+					.getChannel() : Channels.newChannel(is);
 			fcDestination = new FileOutputStream(destination).getChannel();
-			fcSource.transferTo(0, fcSource.size(), fcDestination);
+			if (fcSource instanceof FileChannel) {
+				final FileChannel fc = (FileChannel) fcSource;
+				fc.transferTo(0, fc.size(), fcDestination);
+			} else {
+				fcDestination.transferFrom(fcSource, 0, Long.MAX_VALUE);
+			}
 			return true;
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Transfer Content from [" + source
 					+ "] to [" + destination + "]", e);
 			return false;
 		} finally {
-			if (fcSource != null) {
-				try {
-					fcSource.close();
-				} catch (final Exception e) {
-					this.logger.exception(
-							"Unable to Close Source FileChannel.", e);
-				}
-			}
-			if (fcDestination != null) {
-				try {
-					fcDestination.close();
-				} catch (final Exception e) {
-					this.logger.exception(
-							"Unable to Close Destination FileChannel.", e);
-				}
-			}
-
+			FileUtilities.close(fcSource);
+			FileUtilities.close(fcDestination);
 		}
 	}
 }
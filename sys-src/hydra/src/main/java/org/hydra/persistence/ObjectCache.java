@@ -0,0 +1,257 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hydra.core.Configuration;
+import org.hydra.utilities.Logger;
+
+/**
+ * Repository-wide, size-bounded cache of the parsed members of the states
+ * and containers read from the repository, evicting the least
+ * recently used entries first.
+ *
+ * The cache holds the parsed members rather than the elements themselves,
+ * since states and containers are modified by their users. Entries are
+ * invalidated whenever a DAO rewrites an object, as happens to states whose
+ * hash only depends on their UUID, and are verified against the size and
+ * modification time of loose objects before being used.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class ObjectCache {
+
+	/** Property defining the maximum number of cached objects. */
+	public static final String PROPERTY_SIZE = "Persistence.objectCacheSize";
+
+	/** Default maximum number of cached objects. */
+	public static final int DEFAULT_SIZE = 4096;
+
+	/** The singleton cache. */
+	private static ObjectCache cache = null;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The entries, keyed by repository file, in access order. */
+	private final LinkedHashMap<File, CachedObject> entries = new LinkedHashMap<File, CachedObject>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				final Map.Entry<File, CachedObject> eldest) {
+			return this.size() > ObjectCache.this.capacity;
+		}
+	};
+
+	/** The maximum number of cached objects. */
+	private int capacity = ObjectCache.DEFAULT_SIZE;
+
+	/** The number of reads answered from the cache. */
+	private long hits = 0;
+
+	/** The number of reads that had to access the repository. */
+	private long misses = 0;
+
+	/**
+	 * Protected default constructor, retrieve singleton instance using the
+	 * {@link #getInstance} method.
+	 */
+	protected ObjectCache() {
+		final Configuration config = Configuration.getInstance();
+		if (config.hasProperty(ObjectCache.PROPERTY_SIZE)) {
+			try {
+				this.capacity = Integer.parseInt(config.getProperty(
+						ObjectCache.PROPERTY_SIZE).trim());
+			} catch (final NumberFormatException e) {
+				this.logger.warning("Invalid Object Cache Size ["
+						+ config.getProperty(ObjectCache.PROPERTY_SIZE) + "].");
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the singleton instance of the object cache.
+	 *
+	 * @return cache - ObjectCache.
+	 */
+	public static synchronized ObjectCache getInstance() {
+		if (ObjectCache.cache == null) {
+			ObjectCache.cache = new ObjectCache();
+		}
+		return ObjectCache.cache;
+	}
+
+	/**
+	 * OBJECTCACHE METHODS ****************************************************.
+	 */
+
+	/**
+	 * Return the members of the given repository file, each split into its
+	 * fields, either from the cache or by reading the record from the
+	 * {@link ObjectStore}.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return members - String[][].
+	 * @throws IOException
+	 *             if the object could not be read.
+	 */
+	public String[][] readMembers(final File repositoryFile) throws IOException {
+		final long length = repositoryFile.length();
+		final long modified = repositoryFile.lastModified();
+		synchronized (this) {
+			final CachedObject entry = this.entries.get(repositoryFile);
+			if ((entry != null) && (entry.length == length)
+					&& (entry.modified == modified)) {
+				this.hits++;
+				return entry.members;
+			}
+			this.misses++;
+		}
+		final String[][] parsed;
+		final InputStream is = ObjectStore.getInstance().open(repositoryFile);
+		try {
+			parsed = RecordReader.read(is);
+		} finally {
+			is.close();
+		}
+		synchronized (this) {
+			if (this.capacity > 0) {
+				this.entries.put(repositoryFile, new CachedObject(length,
+						modified, parsed));
+			}
+		}
+		return parsed;
+	}
+
+	/**
+	 * Discard the cached members of the given repository file.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 */
+	public synchronized void invalidate(final File repositoryFile) {
+		this.entries.remove(repositoryFile);
+	}
+
+	/**
+	 * Discard all cached members and reset the statistics.
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	/**
+	 * Return the number of reads answered from the cache.
+	 *
+	 * @return hits - long.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Return the number of reads that had to access the repository.
+	 *
+	 * @return misses - long.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Return the number of cached objects.
+	 *
+	 * @return size - int.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Set the maximum number of cached objects, evicting the least recently
+	 * used objects if necessary.
+	 *
+	 * @param capacity
+	 *            int.
+	 */
+	public synchronized void setCapacity(final int capacity) {
+		this.capacity = capacity;
+		while (this.entries.size() > Math.max(capacity, 0)) {
+			this.entries.remove(this.entries.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return a string describing the cache's statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		return "ObjectCache:" + this.entries.size() + "/" + this.capacity
+				+ "[hits=" + this.hits + ", misses=" + this.misses + "]";
+	}
+
+	/**
+	 * Parsed members of a single cached object.
+	 */
+	private static class CachedObject {
+
+		/** The size of the object when read. */
+		private final long length;
+
+		/** The modification time of the object when read. */
+		private final long modified;
+
+		/** The members. */
+		private final String[][] members;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param length
+		 *            long.
+		 * @param modified
+		 *            long.
+		 * @param members
+		 *            String[][].
+		 */
+		CachedObject(final long length, final long modified,
+				final String[][] members) {
+			this.length = length;
+			this.modified = modified;
+			this.members = members;
+		}
+	}
+
+}
@@ -0,0 +1,433 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Fingerprint;
+import org.hydra.core.Hash;
+import org.hydra.core.State;
+import org.hydra.utilities.Logger;
+
+/**
+ * Provides access to the fingerprinted objects of the repository, whether they
+ * are stored as loose files in the fpStore or have been moved into packs by
+ * {@link #repack()}. Loose objects always take precedence over packed ones.
+ *
+ * States are rewritten in place whenever they are updated and are therefore
+ * never packed.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class ObjectStore {
+
+	/** Name of the directory holding the packs within the repository. */
+	public static final String PACK_DIRECTORY = "packs";
+
+	/** Maximum number of bytes written to a single pack. */
+	public static final long MAX_PACK_SIZE = 256L * 1024 * 1024;
+
+	/** Number of bytes read to determine the type of a loose object. */
+	private static final int HEADER_PREFIX = 64;
+
+	/** The singleton store. */
+	private static ObjectStore store = null;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The config. */
+	private final Configuration config = Configuration.getInstance();
+
+	/** The loaded packs, replaced as a whole whenever they are reloaded. */
+	private volatile List<PackFile> packs = new ArrayList<PackFile>();
+
+	/** The pack directory the packs were loaded from. */
+	private File packDirectory = null;
+
+	/** The modification time of the pack directory when loaded. */
+	private long packDirectoryModified = -1;
+
+	/**
+	 * Protected default constructor, retrieve singleton instance using the
+	 * {@link #getInstance} method.
+	 */
+	protected ObjectStore() {
+	}
+
+	/**
+	 * Retrieve the singleton instance of the object store.
+	 *
+	 * @return store - ObjectStore.
+	 */
+	public static synchronized ObjectStore getInstance() {
+		if (ObjectStore.store == null) {
+			ObjectStore.store = new ObjectStore();
+		}
+		return ObjectStore.store;
+	}
+
+	/**
+	 * OBJECTSTORE METHODS ****************************************************.
+	 */
+
+	/**
+	 * Determine if the given repository file exists, either loose or packed.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return exists - boolean.
+	 */
+	public boolean contains(final File repositoryFile) {
+		if (repositoryFile.exists())
+			return true;
+		final Hash hash = this.findPackedHash(repositoryFile);
+		return (hash != null) && this.isPacked(hash);
+	}
+
+	/**
+	 * Open a stream of the given repository file's raw contents, either loose
+	 * or packed.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return contents - InputStream.
+	 * @throws FileNotFoundException
+	 *             if the repository file does not exist.
+	 */
+	public InputStream open(final File repositoryFile)
+			throws FileNotFoundException {
+		if (repositoryFile.exists())
+			return new FileInputStream(repositoryFile);
+		final Hash hash = this.findPackedHash(repositoryFile);
+		if (hash != null) {
+			for (final PackFile pack : this.listPacks()) {
+				final InputStream is = pack.open(hash);
+				if (is != null)
+					return is;
+			}
+		}
+		throw new FileNotFoundException("Object Not Found [" + repositoryFile
+				+ "].");
+	}
+
+	/**
+	 * Determine if the content of the given repository file matches the given
+	 * fingerprint.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @param fingerprint
+	 *            Fingerprint.
+	 * @return matches - boolean.
+	 */
+	public boolean verify(final File repositoryFile,
+			final Fingerprint fingerprint) {
+		if (repositoryFile.exists())
+			return fingerprint.checkFingerprint(repositoryFile);
+		InputStream is = null;
+		try {
+			is = this.open(repositoryFile);
+			return fingerprint.checkFingerprint(is);
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Verify Object [" + repositoryFile
+					+ "].", e);
+			return false;
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Object Stream.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Create a new, empty temporary object in the fpStore, to be installed
+	 * under its hash once its content is complete.
+	 *
+	 * @return tempObject - File.
+	 * @throws IOException
+	 *             if the temporary object could not be created.
+	 */
+	public File createTempObject() throws IOException {
+		return File.createTempFile("ingest", ".tmp", this.config.getFPStore());
+	}
+
+	/**
+	 * Install the given temporary object under the given hash. The temporary
+	 * object is discarded if the object is already stored.
+	 *
+	 * @param tempObject
+	 *            File.
+	 * @param hash
+	 *            Hash.
+	 * @return success - boolean.
+	 */
+	public boolean install(final File tempObject, final Hash hash) {
+		final File object = new File(this.config.getFPStore(), hash.toString());
+		if (this.contains(object)) {
+			if (!tempObject.delete()) {
+				this.logger.warning("Unable to Delete Temporary Object ["
+						+ tempObject + "].");
+			}
+			return true;
+		}
+		if (tempObject.renameTo(object))
+			return true;
+		this.logger.exception("Unable to Install Object [" + object + "].");
+		tempObject.delete();
+		return false;
+	}
+
+	/**
+	 * Move all immutable loose objects of the fpStore into new packs. Loose
+	 * objects are only deleted once the packs containing them are complete
+	 * and readable. Objects larger than {@link #MAX_PACK_SIZE} are left loose,
+	 * since a pack holding them could not be mapped.
+	 *
+	 * @return packed - int, the number of objects packed or -1 on failure.
+	 */
+	public synchronized int repack() {
+		final File fpStore = this.config.getFPStore();
+		final File directory = new File(this.config.getRepository(),
+				ObjectStore.PACK_DIRECTORY);
+		if (!directory.exists() && !directory.mkdir()) {
+			this.logger.exception("Unable to Create Pack Directory ["
+					+ directory + "].");
+			return -1;
+		}
+		final File[] candidates = fpStore.listFiles();
+		if (candidates == null)
+			return -1;
+		Arrays.sort(candidates);
+		final List<File> batch = new ArrayList<File>();
+		final StringBuilder batchNames = new StringBuilder();
+		long batchSize = 0;
+		int packed = 0;
+		for (final File object : candidates) {
+			if ((object.length() > ObjectStore.MAX_PACK_SIZE)
+					|| !this.isPackable(object)) {
+				continue;
+			}
+			if (this.isPacked(Hash.valueOf(object.getName()))) {
+				object.delete();
+				continue;
+			}
+			if (!batch.isEmpty()
+					&& ((batchSize + object.length()) > ObjectStore.MAX_PACK_SIZE)) {
+				if (!this.writePack(directory, batch, batchNames.toString()))
+					return -1;
+				packed += batch.size();
+				batch.clear();
+				batchNames.setLength(0);
+				batchSize = 0;
+			}
+			batch.add(object);
+			batchNames.append(object.getName()).append(
+					DataAccessObject.SEP_MEMBER);
+			batchSize += object.length();
+		}
+		if (!batch.isEmpty()) {
+			if (!this.writePack(directory, batch, batchNames.toString()))
+				return -1;
+			packed += batch.size();
+		}
+		return packed;
+	}
+
+	/**
+	 * OBJECTSTORE METHODS (PRIVATE) ******************************************.
+	 */
+
+	/**
+	 * Return the hash of the given repository file if it could be packed, that
+	 * is if it is located in the fpStore, otherwise null.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return hash - Hash.
+	 */
+	private Hash findPackedHash(final File repositoryFile) {
+		final File fpStore = this.config.getFPStore();
+		if ((fpStore == null)
+				|| !fpStore.equals(repositoryFile.getParentFile()))
+			return null;
+		return Hash.valueOf(repositoryFile.getName());
+	}
+
+	/**
+	 * Determine if any of the packs contains the given object.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return packed - boolean.
+	 */
+	private boolean isPacked(final Hash hash) {
+		for (final PackFile pack : this.listPacks()) {
+			if (pack.contains(hash))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Determine if the given loose object may be packed. States are mutable
+	 * and stay loose; their type is determined from the first bytes of the
+	 * object alone, without reading the complete record.
+	 *
+	 * @param object
+	 *            File.
+	 * @return packable - boolean.
+	 */
+	private boolean isPackable(final File object) {
+		if (!object.isFile() || (Hash.valueOf(object.getName()) == null))
+			return false;
+		final byte[] header = State.HEADER.getBytes();
+		final byte[] start = new byte[ObjectStore.HEADER_PREFIX];
+		InputStream is = null;
+		try {
+			is = new FileInputStream(object);
+			int read = 0;
+			int count;
+			while ((read < start.length)
+					&& ((count = is.read(start, read, start.length - read)) > 0)) {
+				read += count;
+			}
+			final byte[] prefix = Arrays.copyOf(start, read);
+			if (RecordReader.isBinary(prefix)) {
+				final String[] member = RecordReader.decodeHeader(prefix);
+				return (member == null)
+						|| !State.HEADER.equals(RecordReader.toText(
+								new String[][] { member }).trim());
+			}
+			return (read < header.length)
+					|| !Arrays.equals(header, Arrays.copyOf(prefix,
+							header.length));
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Inspect Object [" + object
+					+ "].", e);
+			return false;
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Object Stream.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the given loose objects into a new pack named after their hashes,
+	 * then delete the loose objects once the new pack has been read back and
+	 * found to contain all of them.
+	 *
+	 * @param directory
+	 *            File.
+	 * @param objects
+	 *            List of Files.
+	 * @param names
+	 *            String.
+	 * @return success - boolean.
+	 */
+	private boolean writePack(final File directory, final List<File> objects,
+			final String names) {
+		final File packFile = new File(directory, "pack-"
+				+ new Fingerprint(names).getHash() + PackFile.PACK_EXTENSION);
+		try {
+			PackFile.write(packFile, objects);
+			final PackFile pack = new PackFile(packFile);
+			for (final File object : objects) {
+				if (!pack.contains(Hash.valueOf(object.getName())))
+					throw new IOException("Object [" + object.getName()
+							+ "] Missing from Pack [" + packFile + "].");
+			}
+		} catch (final IOException e) {
+			this.logger.exception("Unable to Write Pack [" + packFile + "].",
+					e);
+			packFile.delete();
+			PackFile.findIndexFile(packFile).delete();
+			this.packDirectoryModified = -1;
+			return false;
+		}
+		this.packDirectoryModified = -1;
+		for (final File object : objects) {
+			if (!object.delete()) {
+				this.logger.warning("Unable to Delete Packed Object ["
+						+ object + "].");
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return the packs of the current repository, reloading them whenever the
+	 * repository or its pack directory changed.
+	 *
+	 * @return packs - List of PackFiles.
+	 */
+	private synchronized List<PackFile> listPacks() {
+		final File repository = this.config.getRepository();
+		if (repository == null)
+			return this.packs;
+		final File directory = new File(repository,
+				ObjectStore.PACK_DIRECTORY);
+		final long modified = directory.lastModified();
+		if (directory.equals(this.packDirectory)
+				&& (modified == this.packDirectoryModified))
+			return this.packs;
+		final List<PackFile> loaded = new ArrayList<PackFile>();
+		final File[] files = directory.listFiles();
+		if (files != null) {
+			Arrays.sort(files);
+			for (final File file : files) {
+				if (file.getName().endsWith(PackFile.PACK_EXTENSION)
+						&& PackFile.findIndexFile(file).exists()) {
+					try {
+						loaded.add(new PackFile(file));
+					} catch (final IOException e) {
+						this.logger.exception("Unable to Open Pack [" + file
+								+ "].", e);
+					}
+				}
+			}
+		}
+		this.packs = loaded;
+		this.packDirectory = directory;
+		this.packDirectoryModified = modified;
+		return loaded;
+	}
+
+}
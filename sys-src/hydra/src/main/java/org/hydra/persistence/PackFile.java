@@ -0,0 +1,355 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hydra.core.Hash;
+
+/**
+ * Read-only pack of fingerprinted objects. A pack consists of two files: the
+ * pack itself, holding the concatenated raw contents of its objects, and an
+ * index holding one fixed-size entry (hash, offset, length) per object, sorted
+ * by hash. Both are memory-mapped, so locating an object is a binary search
+ * over the mapped index and reading it requires no further file access.
+ *
+ * Packs are written once and never modified; new objects are added by writing
+ * a new pack.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class PackFile {
+
+	/** File extension of a pack. */
+	public static final String PACK_EXTENSION = ".pack";
+
+	/** File extension of a pack's index. */
+	public static final String INDEX_EXTENSION = ".idx";
+
+	/** Magic bytes starting a pack. */
+	public static final byte[] PACK_MAGIC = { 'H', 'Y', 'P', 'K' };
+
+	/** Magic bytes starting a pack's index. */
+	public static final byte[] INDEX_MAGIC = { 'H', 'Y', 'I', 'X' };
+
+	/** Version of the pack format. */
+	public static final int VERSION = 1;
+
+	/** Size of the header of both the pack and the index. */
+	private static final int HEADER_SIZE = 8;
+
+	/** Size of a single index entry: hash, offset and length. */
+	private static final int ENTRY_SIZE = Hash.LENGTH + 8 + 8;
+
+	/** The pack file. */
+	private final File packFile;
+
+	/** The mapped pack. */
+	private final MappedByteBuffer pack;
+
+	/** The mapped index. */
+	private final MappedByteBuffer index;
+
+	/** The number of objects in the pack. */
+	private final int count;
+
+	/**
+	 * Specialized Constructor, which maps the given pack and its index.
+	 *
+	 * @param packFile
+	 *            File.
+	 * @throws IOException
+	 *             if the pack or index are missing or malformed.
+	 */
+	public PackFile(final File packFile) throws IOException {
+		this.packFile = packFile;
+		this.pack = PackFile.map(packFile, PackFile.PACK_MAGIC);
+		this.index = PackFile.map(PackFile.findIndexFile(packFile),
+				PackFile.INDEX_MAGIC);
+		final int entries = this.index.capacity() - PackFile.HEADER_SIZE;
+		if ((entries % PackFile.ENTRY_SIZE) != 0)
+			throw new IOException("Malformed Pack Index [" + packFile + "].");
+		this.count = entries / PackFile.ENTRY_SIZE;
+	}
+
+	/**
+	 * Return the index file belonging to the given pack file.
+	 *
+	 * @param packFile
+	 *            File.
+	 * @return indexFile - File.
+	 */
+	public static File findIndexFile(final File packFile) {
+		final String name = packFile.getName();
+		return new File(packFile.getParentFile(), name.substring(0,
+				name.length() - PackFile.PACK_EXTENSION.length())
+				+ PackFile.INDEX_EXTENSION);
+	}
+
+	/**
+	 * Write a new pack, and its index, containing the given loose objects. The
+	 * pack is only complete once its index exists, so the index is written
+	 * last.
+	 *
+	 * @param packFile
+	 *            File.
+	 * @param objects
+	 *            List of loose object Files, named by their hash.
+	 * @throws IOException
+	 *             if the pack could not be written.
+	 */
+	public static void write(final File packFile, final List<File> objects)
+			throws IOException {
+		final byte[][] hashes = new byte[objects.size()][];
+		final long[] offsets = new long[objects.size()];
+		final long[] lengths = new long[objects.size()];
+		final Integer[] order = new Integer[objects.size()];
+		// Write Pack
+		final File tempPack = new File(packFile.getPath() + ".tmp");
+		final DataOutputStream pos = new DataOutputStream(
+				new FileOutputStream(tempPack));
+		try {
+			pos.write(PackFile.PACK_MAGIC);
+			pos.writeInt(PackFile.VERSION);
+			long offset = PackFile.HEADER_SIZE;
+			final byte[] buffer = new byte[64 * 1024];
+			for (int i = 0; i < objects.size(); i++) {
+				final File object = objects.get(i);
+				hashes[i] = Hash.valueOf(object.getName()).toBytes();
+				offsets[i] = offset;
+				order[i] = Integer.valueOf(i);
+				final InputStream is = new FileInputStream(object);
+				try {
+					int read;
+					while ((read = is.read(buffer)) >= 0) {
+						pos.write(buffer, 0, read);
+						offset += read;
+					}
+				} finally {
+					is.close();
+				}
+				lengths[i] = offset - offsets[i];
+			}
+		} finally {
+			pos.close();
+		}
+		// Write Index, Sorted by Hash
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				return PackFile.compareHashes(hashes[a.intValue()],
+						hashes[b.intValue()]);
+			}
+		});
+		final File indexFile = PackFile.findIndexFile(packFile);
+		final File tempIndex = new File(indexFile.getPath() + ".tmp");
+		final DataOutputStream ios = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(
+						tempIndex)));
+		try {
+			ios.write(PackFile.INDEX_MAGIC);
+			ios.writeInt(PackFile.VERSION);
+			for (final Integer i : order) {
+				ios.write(hashes[i.intValue()]);
+				ios.writeLong(offsets[i.intValue()]);
+				ios.writeLong(lengths[i.intValue()]);
+			}
+		} finally {
+			ios.close();
+		}
+		if (!tempPack.renameTo(packFile) || !tempIndex.renameTo(indexFile))
+			throw new IOException("Unable to Install Pack [" + packFile + "].");
+	}
+
+	/**
+	 * PACK METHODS ***********************************************************.
+	 */
+
+	/**
+	 * Determine if the pack contains the given object.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return contains - boolean.
+	 */
+	public boolean contains(final Hash hash) {
+		return this.find(hash.toBytes()) >= 0;
+	}
+
+	/**
+	 * Return the number of objects in the pack.
+	 *
+	 * @return count - int.
+	 */
+	public int countObjects() {
+		return this.count;
+	}
+
+	/**
+	 * Return a stream of the given object's raw contents, or null if the pack
+	 * does not contain the object.
+	 *
+	 * @param hash
+	 *            Hash.
+	 * @return contents - InputStream.
+	 */
+	public InputStream open(final Hash hash) {
+		final int entry = this.find(hash.toBytes());
+		if (entry < 0)
+			return null;
+		final int position = PackFile.HEADER_SIZE
+				+ (entry * PackFile.ENTRY_SIZE) + Hash.LENGTH;
+		final long offset = this.index.getLong(position);
+		final long length = this.index.getLong(position + 8);
+		final ByteBuffer contents = this.pack.duplicate();
+		contents.position((int) offset);
+		contents.limit((int) (offset + length));
+		return new BufferInputStream(contents.slice());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return a string representation of the pack.
+	 */
+	@Override
+	public String toString() {
+		return "PackFile:" + this.count + "[" + this.packFile + "]";
+	}
+
+	/**
+	 * PACK METHODS (PRIVATE) *************************************************.
+	 */
+
+	/**
+	 * Binary search the index for the given hash.
+	 *
+	 * @param hash
+	 *            byte[].
+	 * @return entry - int, or -1 if not found.
+	 */
+	private int find(final byte[] hash) {
+		int low = 0;
+		int high = this.count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int cmp = this.compareEntry(mid, hash);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compare the hash of the given index entry with the given hash.
+	 *
+	 * @param entry
+	 *            int.
+	 * @param hash
+	 *            byte[].
+	 * @return comparison - int.
+	 */
+	private int compareEntry(final int entry, final byte[] hash) {
+		final int position = PackFile.HEADER_SIZE
+				+ (entry * PackFile.ENTRY_SIZE);
+		for (int i = 0; i < Hash.LENGTH; i++) {
+			final int a = this.index.get(position + i) & 0xff;
+			final int b = hash[i] & 0xff;
+			if (a != b)
+				return (a < b) ? -1 : 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Compare two hashes as unsigned bytes.
+	 *
+	 * @param a
+	 *            byte[].
+	 * @param b
+	 *            byte[].
+	 * @return comparison - int.
+	 */
+	private static int compareHashes(final byte[] a, final byte[] b) {
+		for (int i = 0; i < Hash.LENGTH; i++) {
+			final int x = a[i] & 0xff;
+			final int y = b[i] & 0xff;
+			if (x != y)
+				return (x < y) ? -1 : 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Map the given file read-only and verify its header.
+	 *
+	 * @param file
+	 *            File.
+	 * @param magic
+	 *            byte[].
+	 * @return mapped - MappedByteBuffer.
+	 * @throws IOException
+	 *             if the file could not be mapped or has an invalid header.
+	 */
+	private static MappedByteBuffer map(final File file, final byte[] magic)
+			throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel fc = raf.getChannel();
+			if (fc.size() > Integer.MAX_VALUE)
+				throw new IOException("Pack Too Large [" + file + "].");
+			final MappedByteBuffer mapped = fc.map(
+					FileChannel.MapMode.READ_ONLY, 0, fc.size());
+			for (int i = 0; i < magic.length; i++) {
+				if ((mapped.capacity() < PackFile.HEADER_SIZE)
+						|| (mapped.get(i) != magic[i]))
+					throw new IOException("Invalid Pack Header [" + file
+							+ "].");
+			}
+			if (mapped.getInt(magic.length) != PackFile.VERSION)
+				throw new IOException("Unsupported Pack Version [" + file
+						+ "].");
+			return mapped;
+		} finally {
+			raf.close();
+		}
+	}
+
+}
@@ -0,0 +1,344 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hydra.core.Hash;
+
+/**
+ * Reads the metadata records (states, containers, logical units and the
+ * stage) written by the {@link RecordWriter}. A record is a list of members,
+ * each split into its fields, e.g. the text member
+ * <code>IT::>>c1File.txt::>>hash</code> consists of the fields
+ * <code>IT</code>, <code>c1File.txt</code> and <code>hash</code>.
+ *
+ * Records written in the original text format, one member per line with
+ * fields separated by {@link DataAccessObject#SEP_TOKEN}, are read as well.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public final class RecordReader {
+
+	/** Magic bytes starting a binary record. */
+	public static final byte[] MAGIC = { 'H', 'Y', 'R', 'C' };
+
+	/** Version of the binary record format. */
+	public static final int VERSION = 1;
+
+	/** Field tag of a UTF-8 string. */
+	static final int TAG_STRING = 0;
+
+	/** Field tag of a hash, stored as its raw bytes. */
+	static final int TAG_HASH = 1;
+
+	/** Field tag of a non-negative decimal number, stored as a varint. */
+	static final int TAG_NUMBER = 2;
+
+	/** The buffer holding the binary record. */
+	private final byte[] buffer;
+
+	/** The read position within the buffer. */
+	private int position;
+
+	/**
+	 * Specialized Constructor, which reads from the given binary record.
+	 *
+	 * @param buffer
+	 *            byte[].
+	 */
+	private RecordReader(final byte[] buffer) {
+		this.buffer = buffer;
+		this.position = RecordReader.MAGIC.length;
+	}
+
+	/**
+	 * Read the complete record from the given stream, in either format. The
+	 * stream is not closed.
+	 *
+	 * @param is
+	 *            InputStream.
+	 * @return members - String[][].
+	 * @throws IOException
+	 *             if the record could not be read or is malformed.
+	 */
+	public static String[][] read(final InputStream is) throws IOException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final byte[] chunk = new byte[8 * 1024];
+		int read;
+		while ((read = is.read(chunk)) >= 0) {
+			bos.write(chunk, 0, read);
+		}
+		return RecordReader.decode(bos.toByteArray());
+	}
+
+	/**
+	 * Decode the given record, in either format.
+	 *
+	 * @param record
+	 *            byte[].
+	 * @return members - String[][].
+	 * @throws IOException
+	 *             if the record is malformed.
+	 */
+	public static String[][] decode(final byte[] record) throws IOException {
+		if (RecordReader.isBinary(record))
+			return new RecordReader(record).readMembers();
+		return RecordReader.parseText(new String(record, "UTF-8"));
+	}
+
+	/**
+	 * Decode only the first member of a binary record, its header, from the
+	 * given prefix of the record, without reading the remaining members.
+	 *
+	 * @param prefix
+	 *            byte[], the first bytes of the record.
+	 * @return header - String[], or null if the prefix does not start a binary
+	 *         record or is too short to hold its header.
+	 */
+	public static String[] decodeHeader(final byte[] prefix) {
+		if (!RecordReader.isBinary(prefix))
+			return null;
+		final RecordReader reader = new RecordReader(prefix);
+		try {
+			if ((reader.readByte() != RecordReader.VERSION)
+					|| (reader.readVarLong() == 0))
+				return null;
+			final String[] header = new String[reader.readCount()];
+			for (int f = 0; f < header.length; f++) {
+				header[f] = reader.readField();
+			}
+			return header;
+		} catch (final IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determine if the given bytes start a binary record.
+	 *
+	 * @param prefix
+	 *            byte[].
+	 * @return binary - boolean.
+	 */
+	public static boolean isBinary(final byte[] prefix) {
+		if (prefix.length < RecordReader.MAGIC.length)
+			return false;
+		for (int i = 0; i < RecordReader.MAGIC.length; i++) {
+			if (prefix[i] != RecordReader.MAGIC[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parse the given text description into its members.
+	 *
+	 * @param description
+	 *            String.
+	 * @return members - String[][].
+	 */
+	public static String[][] parseText(final String description) {
+		final List<String[]> members = new ArrayList<String[]>();
+		int start = 0;
+		while (start < description.length()) {
+			int end = description.indexOf(DataAccessObject.SEP_MEMBER, start);
+			if (end < 0) {
+				end = description.length();
+			}
+			String member = description.substring(start, end);
+			if (member.endsWith("\r")) {
+				member = member.substring(0, member.length() - 1);
+			}
+			members.add(RecordReader.split(member));
+			start = end + DataAccessObject.SEP_MEMBER.length();
+		}
+		return members.toArray(new String[members.size()][]);
+	}
+
+	/**
+	 * Split a text member into its fields. Equivalent to splitting by
+	 * {@link DataAccessObject#SEP_TOKEN}, including the removal of trailing
+	 * empty fields, without the use of a regular expression.
+	 *
+	 * @param member
+	 *            String.
+	 * @return fields - String[].
+	 */
+	public static String[] split(final String member) {
+		final List<String> fields = new ArrayList<String>(4);
+		final String separator = DataAccessObject.SEP_TOKEN;
+		int start = 0;
+		int end;
+		while ((end = member.indexOf(separator, start)) >= 0) {
+			fields.add(member.substring(start, end));
+			start = end + separator.length();
+		}
+		fields.add(member.substring(start));
+		int size = fields.size();
+		while ((size > 1) && (fields.get(size - 1).length() == 0)) {
+			size--;
+		}
+		return fields.subList(0, size).toArray(new String[size]);
+	}
+
+	/**
+	 * Join the given members into the text description they were parsed
+	 * from, e.g. to verify a record's fingerprint.
+	 *
+	 * @param members
+	 *            String[][].
+	 * @return description - String.
+	 */
+	public static String toText(final String[][] members) {
+		final StringBuilder sb = new StringBuilder();
+		for (final String[] member : members) {
+			for (int i = 0; i < member.length; i++) {
+				if (i > 0) {
+					sb.append(DataAccessObject.SEP_TOKEN);
+				}
+				sb.append(member[i]);
+			}
+			sb.append(DataAccessObject.SEP_MEMBER);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * RECORDREADER METHODS (PRIVATE) *****************************************.
+	 */
+
+	/**
+	 * Read the members of the binary record.
+	 *
+	 * @return members - String[][].
+	 * @throws IOException
+	 *             if the record is malformed.
+	 */
+	private String[][] readMembers() throws IOException {
+		final int version = this.readByte();
+		if (version != RecordReader.VERSION)
+			throw new IOException("Unsupported Record Version [" + version
+					+ "].");
+		final String[][] members = new String[this.readCount()][];
+		for (int m = 0; m < members.length; m++) {
+			members[m] = new String[this.readCount()];
+			for (int f = 0; f < members[m].length; f++) {
+				members[m][f] = this.readField();
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Read a single tagged field.
+	 *
+	 * @return field - String.
+	 * @throws IOException
+	 *             if the record is malformed.
+	 */
+	private String readField() throws IOException {
+		final int tag = this.readByte();
+		switch (tag) {
+		case TAG_STRING:
+			final int length = this.readCount();
+			this.require(length);
+			final String value = new String(this.buffer, this.position, length,
+					"UTF-8");
+			this.position += length;
+			return value;
+		case TAG_HASH:
+			this.require(Hash.LENGTH);
+			final byte[] hash = new byte[Hash.LENGTH];
+			System.arraycopy(this.buffer, this.position, hash, 0, Hash.LENGTH);
+			this.position += Hash.LENGTH;
+			return Hash.valueOf(hash).toString();
+		case TAG_NUMBER:
+			return Long.toString(this.readVarLong());
+		default:
+			throw new IOException("Unknown Record Field [" + tag + "].");
+		}
+	}
+
+	/**
+	 * Read a varint count.
+	 *
+	 * @return count - int.
+	 * @throws IOException
+	 *             if the record is malformed.
+	 */
+	private int readCount() throws IOException {
+		final long count = this.readVarLong();
+		if (count > (this.buffer.length - this.position))
+			throw new IOException("Malformed Record Count [" + count + "].");
+		return (int) count;
+	}
+
+	/**
+	 * Read an unsigned varint.
+	 *
+	 * @return value - long.
+	 * @throws IOException
+	 *             if the record is malformed.
+	 */
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = this.readByte();
+			value |= (long) (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed Record Varint.");
+	}
+
+	/**
+	 * Read a single unsigned byte.
+	 *
+	 * @return value - int.
+	 * @throws IOException
+	 *             if the record is truncated.
+	 */
+	private int readByte() throws IOException {
+		this.require(1);
+		return this.buffer[this.position++] & 0xff;
+	}
+
+	/**
+	 * Ensure that the given number of bytes remain in the record.
+	 *
+	 * @param length
+	 *            int.
+	 * @throws IOException
+	 *             if the record is truncated.
+	 */
+	private void require(final int length) throws IOException {
+		if ((length < 0) || (length > (this.buffer.length - this.position)))
+			throw new IOException("Truncated Record.");
+	}
+
+}
@@ -0,0 +1,154 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+
+import org.hydra.core.Hash;
+
+/**
+ * Writes metadata records in the versioned binary format read by the
+ * {@link RecordReader}: the magic bytes and version, a varint count of
+ * members and for each member a varint count of fields. Each field is tagged;
+ * hashes are stored as their raw bytes, decimal numbers (e.g. epoch-millis
+ * timestamps) as varints and all other fields as length-prefixed UTF-8.
+ *
+ * Fields are typed by their content, so every record decodes to exactly the
+ * fields it was written from.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public final class RecordWriter {
+
+	/** Maximum number of digits of a field stored as a number. */
+	private static final int MAX_NUMBER_DIGITS = 18;
+
+	/** The encoded record. */
+	private final ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+
+	/**
+	 * Private constructor, records are encoded using {@link #encode}.
+	 */
+	private RecordWriter() {
+		this.bos.write(RecordReader.MAGIC, 0, RecordReader.MAGIC.length);
+		this.bos.write(RecordReader.VERSION);
+	}
+
+	/**
+	 * Encode the given members as a binary record.
+	 *
+	 * @param members
+	 *            String[][].
+	 * @return record - byte[].
+	 */
+	public static byte[] encode(final String[][] members) {
+		final RecordWriter writer = new RecordWriter();
+		writer.writeVarLong(members.length);
+		for (final String[] member : members) {
+			writer.writeVarLong(member.length);
+			for (final String field : member) {
+				writer.writeField(field);
+			}
+		}
+		return writer.bos.toByteArray();
+	}
+
+	/**
+	 * Encode the given text description as a binary record.
+	 *
+	 * @param description
+	 *            String.
+	 * @return record - byte[].
+	 */
+	public static byte[] encode(final String description) {
+		return RecordWriter.encode(RecordReader.parseText(description));
+	}
+
+	/**
+	 * RECORDWRITER METHODS (PRIVATE) *****************************************.
+	 */
+
+	/**
+	 * Write a single field, tagged by its type.
+	 *
+	 * @param field
+	 *            String.
+	 */
+	private void writeField(final String field) {
+		final Hash hash = Hash.valueOf(field);
+		if (hash != null) {
+			this.bos.write(RecordReader.TAG_HASH);
+			final byte[] bytes = hash.toBytes();
+			this.bos.write(bytes, 0, bytes.length);
+		} else if (RecordWriter.isNumber(field)) {
+			this.bos.write(RecordReader.TAG_NUMBER);
+			this.writeVarLong(Long.parseLong(field));
+		} else {
+			this.bos.write(RecordReader.TAG_STRING);
+			try {
+				final byte[] bytes = field.getBytes("UTF-8");
+				this.writeVarLong(bytes.length);
+				this.bos.write(bytes, 0, bytes.length);
+			} catch (final UnsupportedEncodingException e) {
+				throw new IllegalStateException("UTF-8 Not Supported.", e);
+			}
+		}
+	}
+
+	/**
+	 * Write an unsigned varint.
+	 *
+	 * @param value
+	 *            long.
+	 */
+	private void writeVarLong(long value) {
+		while ((value & ~0x7fL) != 0) {
+			this.bos.write((int) ((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		this.bos.write((int) value);
+	}
+
+	/**
+	 * Determine if the given field is a decimal number in canonical form, so
+	 * that it is restored unchanged.
+	 *
+	 * @param field
+	 *            String.
+	 * @return number - boolean.
+	 */
+	private static boolean isNumber(final String field) {
+		final int length = field.length();
+		if ((length == 0) || (length > RecordWriter.MAX_NUMBER_DIGITS)
+				|| ((length > 1) && (field.charAt(0) == '0')))
+			return false;
+		for (int i = 0; i < length; i++) {
+			final char c = field.charAt(i);
+			if ((c < '0') || (c > '9'))
+				return false;
+		}
+		return true;
+	}
+
+}
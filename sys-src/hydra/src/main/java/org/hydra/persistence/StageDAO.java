@@ -21,8 +21,6 @@
 package org.hydra.persistence;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.Scanner;
 
 import org.hydra.core.CommittableElement;
 import org.hydra.core.InvalidElementException;
@@ -58,42 +56,30 @@ public class StageDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean load() throws InvalidElementException {
-		Scanner scanner = null;
 		final File target = this.stage.cloneRepositoryFile();
 		try {
-			scanner = new Scanner(new FileInputStream(target), "UTF-8");
-			while (scanner.hasNextLine()) {
-				this.parseMember(scanner.nextLine());
+			for (final String[] member : this.loadRecord(target)) {
+				this.parseMember(member);
 			}
 			return true;
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Parse Stage File [" + target
 					+ "].", e);
 			return false;
-		} finally {
-			if (scanner != null) {
-				try {
-					scanner.close();
-				} catch (final Exception e) {
-					this.logger.exception("Unable to Close Scanner.", e);
-				}
-			}
 		}
 	}
 
 	/**
 	 * Parses the member.
 	 * 
-	 * @param memberStr
-	 *            the member str
+	 * @param splitStr
+	 *            the member's fields
 	 * @throws InvalidElementException
 	 *             the invalid element exception
 	 */
-	private void parseMember(final String memberStr)
+	private void parseMember(final String[] splitStr)
 			throws InvalidElementException {
 		try {
-			final String[] splitStr = memberStr
-					.split(DataAccessObject.SEP_TOKEN);
 			if (splitStr[0].equals(CommittableElement.TOKEN_HEAD)) {
 				this.stage.setHead(splitStr[1]);
 			} else if (splitStr[0].equals(CommittableElement.TOKEN_CURRENT)) {
@@ -108,7 +94,8 @@ public class StageDAO extends DataAccessObject {
 				}
 			}
 		} catch (final Exception e) {
-			this.logger.exception("Stage File Parsing Failure [" + memberStr
+			this.logger.exception("Stage File Parsing Failure ["
+					+ RecordReader.toText(new String[][] { splitStr }).trim()
 					+ "].", e);
 		}
 	}
@@ -120,7 +107,7 @@ public class StageDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean record() {
-		return this.storeContents(this.stage.describe(),
+		return this.storeRecord(this.stage.describe(),
 				this.stage.cloneRepositoryFile());
 	}
 
@@ -54,13 +54,12 @@ public class StageStateDAO extends StateDAO {
 	 * are only relevant for the stage states.
 	 */
 	@Override
-	protected void parseMemberExtension(final String memberString) {
-		final String[] splitStr = memberString
-				.split(DataAccessObject.SEP_TOKEN);
+	protected void parseMemberExtension(final String[] splitStr) {
 		if (splitStr[0].equals(LogicalUnit.TOKEN)) {
 			this.stageState.loadLogicalUnitReference(splitStr[1], splitStr[2]);
 		} else {
-			this.logger.warning("Unrecognized Parsing Member [" + memberString
+			this.logger.warning("Unrecognized Parsing Member ["
+					+ RecordReader.toText(new String[][] { splitStr }).trim()
 					+ "].");
 		}
 	}
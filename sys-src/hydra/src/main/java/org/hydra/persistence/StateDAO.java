@@ -21,17 +21,16 @@
 package org.hydra.persistence;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.text.DateFormat;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
-import java.util.Scanner;
 
 import org.hydra.core.Container;
 import org.hydra.core.Element;
 import org.hydra.core.InvalidElementException;
-import org.hydra.core.StageState;
 import org.hydra.core.State;
 
 /**
@@ -46,6 +45,10 @@ public class StateDAO extends DataAccessObject {
 	/** The state. */
 	private final State state;
 
+	/** The fields of the state's header. */
+	private static final String[] HEADER_FIELDS = RecordReader
+			.split(State.HEADER);
+
 	/** The date format. */
 	private final DateFormat dateFormat = new SimpleDateFormat(
 			"E MMM dd HH:mm:ss z yyyy", new Locale("en", "US"));
@@ -69,7 +72,7 @@ public class StateDAO extends DataAccessObject {
 	@Override
 	public boolean load() {
 		try {
-			return this.loadScanner();
+			return this.loadMembers();
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Load State [" + this.state + "].",
 					e);
@@ -78,49 +81,38 @@ public class StateDAO extends DataAccessObject {
 	}
 
 	/**
-	 * Load scanner.
+	 * Load and parse the members of the state's repository file.
 	 * 
 	 * @return true, if successful
 	 * @throws InvalidElementException
 	 *             the invalid element exception
 	 */
-	private boolean loadScanner() throws InvalidElementException {
-		Scanner scanner = null;
+	private boolean loadMembers() throws InvalidElementException {
 		final File target = this.state.cloneRepositoryFile();
 		try {
-			scanner = new Scanner(new FileInputStream(target), "UTF-8");
-			while (scanner.hasNextLine()) {
-				this.parseMember(scanner.nextLine());
+			for (final String[] member : ObjectCache.getInstance()
+					.readMembers(target)) {
+				this.parseMember(member);
 			}
 			return true;
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Parse State File [" + target
 					+ "].", e);
 			return false;
-		} finally {
-			if (scanner != null) {
-				try {
-					scanner.close();
-				} catch (final Exception e) {
-					this.logger.exception("Unable to Close Scanner.", e);
-				}
-			}
 		}
 	}
 
 	/**
 	 * Parse the separate members of the states repository location.
 	 *
-	 * @param memberString
-	 *            String.
+	 * @param splitStr
+	 *            String[], the member's fields.
 	 * @throws org.hydra.core.InvalidElementException
 	 *             the invalid element exception
 	 */
-	protected void parseMember(final String memberString)
+	protected void parseMember(final String[] splitStr)
 			throws InvalidElementException {
-		final String[] splitStr = memberString
-				.split(DataAccessObject.SEP_TOKEN);
-		if (memberString.equals(State.HEADER)) { // HEADER
+		if (Arrays.equals(splitStr, StateDAO.HEADER_FIELDS)) { // HEADER
 			// Do Nothing (Ignore)
 		} else if (splitStr[0].equals(State.TOKEN)) { // UUID
 			this.state.setUUID(splitStr[1]);
@@ -128,7 +120,7 @@ public class StateDAO extends DataAccessObject {
 			this.state.setContentsHash(splitStr[1]);
 		} else if (splitStr[0].equals(Element.TOKEN_METADATA)) { // METADATA
 			try {
-				this.state.setTimestamp(this.dateFormat.parse(splitStr[1]));
+				this.state.setTimestamp(this.parseTimestamp(splitStr[1]));
 			} catch (final Exception exception) {
 				this.logger.exception("Unable to Parse State Timestamp ["
 						+ splitStr[1] + "].", exception);
@@ -138,38 +130,52 @@ public class StateDAO extends DataAccessObject {
 			this.state.setValidity(Boolean.parseBoolean(splitStr[3]));
 			this.state.setMessage(splitStr[4]);
 		} else if (splitStr[0].equals(State.TOKEN_PREVIOUS)) { // PREVIOUS LIST
-			if (this.state instanceof StageState) {
-				this.state.addPrevious(new StageState(splitStr[1]));
-			} else {
-				this.state.addPrevious(new State(splitStr[1]));
-			}
+			this.state.addPreviousHash(splitStr[1]);
 		} else if (splitStr[0].equals(State.TOKEN_VALIDPREVIOUS)) { // VALID_PREVIOUS
 			if (splitStr[1].equals("null")) {
 				this.state.setValidPathPrevious(null);
 			} else {
-				if (this.state instanceof StageState) {
-					this.state
-							.setValidPathPrevious(new StageState(splitStr[1]));
-				} else {
-					this.state.setValidPathPrevious(new State(splitStr[1]));
-				}
+				this.state.setValidPathPreviousHash(splitStr[1]);
 			}
 		} else {
-			this.parseMemberExtension(memberString);
+			this.parseMemberExtension(splitStr);
+		}
+	}
+
+	/**
+	 * Parse a state's timestamp, either stored as epoch milliseconds or, by
+	 * states written in the text format, as a formatted date.
+	 *
+	 * @param timestamp
+	 *            String.
+	 * @return timestamp - Date.
+	 * @throws ParseException
+	 *             if the timestamp could not be parsed.
+	 */
+	private Date parseTimestamp(final String timestamp) throws ParseException {
+		if ((timestamp.length() > 0)
+				&& Character.isDigit(timestamp.charAt(0))) {
+			try {
+				return new Date(Long.parseLong(timestamp));
+			} catch (final NumberFormatException e) {
+				// Continue - Formatted Date.
+			}
 		}
+		return this.dateFormat.parse(timestamp);
 	}
 
 	/**
 	 * Template Method - Null implementation to be extended for the specialized
 	 * StageState.
 	 *
-	 * @param memberString
-	 *            String.
+	 * @param splitStr
+	 *            String[], the member's fields.
 	 */
-	protected void parseMemberExtension(final String memberString) {
+	protected void parseMemberExtension(final String[] splitStr) {
 		this.logger
 				.warning("Found Unexcepted Member While Parsing State File ["
-						+ memberString + "].");
+						+ RecordReader.toText(new String[][] { splitStr })
+								.trim() + "].");
 	}
 
 	/**
@@ -180,8 +186,15 @@ public class StateDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean record() {
-		return this.storeContents(this.state.describe(),
-				this.state.cloneRepositoryFile());
+		final String[][] members = RecordReader.parseText(this.state
+				.describe());
+		for (final String[] member : members) {
+			if (member[0].equals(Element.TOKEN_METADATA)
+					&& (member.length > 1)) {
+				member[1] = Long.toString(this.state.getTimestamp().getTime());
+			}
+		}
+		return this.storeRecord(members, this.state.cloneRepositoryFile());
 	}
 
 	/**
@@ -191,9 +204,21 @@ public class StateDAO extends DataAccessObject {
 	 */
 	@Override
 	public boolean retrieve() {
+		return this.checkout(null);
+	}
+
+	/**
+	 * Restore the state's content to the workspace, writing only the artifacts
+	 * that differ from the workspace.
+	 *
+	 * @param current
+	 *            Container, the contents the workspace was last set to or null.
+	 * @return success - boolean.
+	 */
+	public boolean checkout(final Container current) {
 		try {
 			return (this.state.isTemporary() ? true : this.state
-					.cloneContents().retrieve());
+					.cloneContents().checkout(current));
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Retrieve State [" + this.state
 					+ "]", e);
@@ -21,6 +21,8 @@
 package org.hydra.persistence;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Interface defining the storage functionality needed to support the DAOs.
@@ -54,4 +56,17 @@ public interface StorageStrategy {
 	public boolean transferFromRepository(File workspaceFile,
 			File repositoryFile);
 
+	/**
+	 * Open a stream on the decoded contents of a file in the repository, so
+	 * the contents may be read without restoring them to a file.
+	 *
+	 * @param repositoryFile
+	 *            File.
+	 * @return contents - InputStream, to be closed by the caller.
+	 * @throws IOException
+	 *             if the file could not be opened.
+	 */
+	public InputStream openFromRepository(File repositoryFile)
+			throws IOException;
+
 }
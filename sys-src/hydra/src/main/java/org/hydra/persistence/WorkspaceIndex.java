@@ -0,0 +1,352 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hydra.core.Configuration;
+import org.hydra.core.Hash;
+import org.hydra.utilities.Logger;
+
+/**
+ * Persistent cache of the last known hashes of the workspace's files, similar
+ * to git's index. Each entry records the size, modification time and hash of a
+ * file; as long as the size and modification time are unchanged the cached
+ * hash is trusted and the file is not read again.
+ *
+ * Files modified within {@link #RACY_WINDOW} of being hashed are not cached,
+ * since a later change within the file system's timestamp granularity could
+ * otherwise go unnoticed.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class WorkspaceIndex {
+
+	/** Unique Index Header. */
+	public static final String HEADER = "HH::>>Index";
+
+	/** Name of the index file within the repository. */
+	public static final String INDEX_FILE = "index";
+
+	/** Period (ms) in which a modified file is considered racily clean. */
+	public static final long RACY_WINDOW = 2000L;
+
+	/** The singleton index. */
+	private static WorkspaceIndex index = null;
+
+	/** The logger. */
+	private final Logger logger = Logger.getInstance();
+
+	/** The config. */
+	private final Configuration config = Configuration.getInstance();
+
+	/** The entries, keyed by path relative to the workspace. */
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/** The repository the entries belong to. */
+	private File repository = null;
+
+	/** Whether the entries differ from the persisted index. */
+	private boolean dirty = false;
+
+	/** The number of lookups answered from the index. */
+	private long hits = 0;
+
+	/** The number of lookups not answered from the index. */
+	private long misses = 0;
+
+	/**
+	 * Protected default constructor, retrieve singleton instance using the
+	 * {@link #getInstance} method.
+	 */
+	protected WorkspaceIndex() {
+	}
+
+	/**
+	 * Retrieve the singleton instance of the workspace index. The index is
+	 * flushed when the system shuts down.
+	 *
+	 * @return index - WorkspaceIndex.
+	 */
+	public static synchronized WorkspaceIndex getInstance() {
+		if (WorkspaceIndex.index == null) {
+			WorkspaceIndex.index = new WorkspaceIndex();
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					WorkspaceIndex.index.flush();
+				}
+			});
+		}
+		return WorkspaceIndex.index;
+	}
+
+	/**
+	 * INDEX METHODS **********************************************************.
+	 */
+
+	/**
+	 * Return the cached hash of the given file, or null if the file is not
+	 * indexed or its size or modification time changed.
+	 *
+	 * @param file
+	 *            File.
+	 * @return hash - Hash.
+	 */
+	public synchronized Hash lookup(final File file) {
+		final String key = this.findKey(file);
+		if (key == null)
+			return null;
+		final Entry entry = this.entries.get(key);
+		if (entry == null) {
+			this.misses++;
+			return null;
+		}
+		if ((entry.size == file.length())
+				&& (entry.modified == file.lastModified())) {
+			this.hits++;
+			return entry.hash;
+		}
+		this.entries.remove(key);
+		this.dirty = true;
+		this.misses++;
+		return null;
+	}
+
+	/**
+	 * Record the freshly calculated hash of the given file.
+	 *
+	 * @param file
+	 *            File.
+	 * @param hash
+	 *            Hash.
+	 */
+	public synchronized void update(final File file, final Hash hash) {
+		final String key = this.findKey(file);
+		if (key == null)
+			return;
+		final long modified = file.lastModified();
+		final boolean racy = (System.currentTimeMillis() - modified) < 
+				WorkspaceIndex.RACY_WINDOW;
+		if ((hash == null) || racy) {
+			if (this.entries.remove(key) != null) {
+				this.dirty = true;
+			}
+			return;
+		}
+		this.entries.put(key, new Entry(file.length(), modified, hash));
+		this.dirty = true;
+	}
+
+	/**
+	 * Return the number of lookups answered from the index.
+	 *
+	 * @return hits - long.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Return the number of lookups not answered from the index.
+	 *
+	 * @return misses - long.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Persist the index to the repository if it has changed.
+	 *
+	 * @return success - boolean.
+	 */
+	public synchronized boolean flush() {
+		if (!this.dirty || (this.repository == null)
+				|| !this.repository.exists())
+			return true;
+		final File indexFile = new File(this.repository,
+				WorkspaceIndex.INDEX_FILE);
+		final File tempFile = new File(this.repository,
+				WorkspaceIndex.INDEX_FILE + ".tmp");
+		BufferedWriter writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(tempFile), "UTF-8"));
+			writer.write(WorkspaceIndex.HEADER);
+			writer.write(DataAccessObject.SEP_MEMBER);
+			for (final Map.Entry<String, Entry> e : this.entries.entrySet()) {
+				final Entry entry = e.getValue();
+				writer.write(new StringBuilder().append(entry.size)
+						.append(DataAccessObject.SEP_TOKEN)
+						.append(entry.modified)
+						.append(DataAccessObject.SEP_TOKEN).append(entry.hash)
+						.append(DataAccessObject.SEP_TOKEN).append(e.getKey())
+						.append(DataAccessObject.SEP_MEMBER).toString());
+			}
+			writer.close();
+			writer = null;
+			if ((indexFile.exists() && !indexFile.delete())
+					|| !tempFile.renameTo(indexFile)) {
+				this.logger.exception("Unable to Replace Index [" + indexFile
+						+ "].");
+				return false;
+			}
+			this.dirty = false;
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Write Index [" + indexFile + "].",
+					e);
+			return false;
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Index Writer.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * INDEX METHODS (PRIVATE) ************************************************.
+	 */
+
+	/**
+	 * Return the key of the given file, or null if the file is not located in
+	 * the workspace or belongs to the repository. Switches to the index of the
+	 * current repository whenever the system has been reinitialized.
+	 *
+	 * @param file
+	 *            File.
+	 * @return key - String.
+	 */
+	private String findKey(final File file) {
+		final File currentRepository = this.config.getRepository();
+		if (currentRepository == null)
+			return null;
+		if (!currentRepository.equals(this.repository)) {
+			this.flush();
+			this.load(currentRepository);
+		}
+		final String path = file.getAbsolutePath();
+		final String workspacePath = this.config.getWorkspace()
+				.getAbsolutePath() + File.separator;
+		if (!path.startsWith(workspacePath)
+				|| path.startsWith(this.repository.getAbsolutePath()
+						+ File.separator))
+			return null;
+		return path.substring(workspacePath.length());
+	}
+
+	/**
+	 * Load the persisted index of the given repository.
+	 *
+	 * @param repositoryDirectory
+	 *            File.
+	 */
+	private void load(final File repositoryDirectory) {
+		this.repository = repositoryDirectory;
+		this.entries.clear();
+		this.dirty = false;
+		final File indexFile = new File(repositoryDirectory,
+				WorkspaceIndex.INDEX_FILE);
+		if (!indexFile.exists())
+			return;
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(
+					new FileInputStream(indexFile), "UTF-8"));
+			if (!WorkspaceIndex.HEADER.equals(reader.readLine())) {
+				this.logger.warning("Ignoring Invalid Index [" + indexFile
+						+ "].");
+				return;
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] tokens = line.split(DataAccessObject.SEP_TOKEN,
+						4);
+				final Hash hash = (tokens.length == 4) ? Hash
+						.valueOf(tokens[2]) : null;
+				if (hash != null) {
+					this.entries.put(tokens[3],
+							new Entry(Long.parseLong(tokens[0]), Long
+									.parseLong(tokens[1]), hash));
+				}
+			}
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Read Index [" + indexFile + "].",
+					e);
+			this.entries.clear();
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close Index Reader.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stat data and hash of a single indexed file.
+	 */
+	private static class Entry {
+
+		/** The size. */
+		private final long size;
+
+		/** The modification time. */
+		private final long modified;
+
+		/** The hash. */
+		private final Hash hash;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param size
+		 *            long.
+		 * @param modified
+		 *            long.
+		 * @param hash
+		 *            Hash.
+		 */
+		Entry(final long size, final long modified, final Hash hash) {
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+		}
+	}
+
+}
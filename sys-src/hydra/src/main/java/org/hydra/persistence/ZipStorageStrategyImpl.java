@@ -25,6 +25,9 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -44,14 +47,32 @@ public class ZipStorageStrategyImpl implements StorageStrategy {
 	/** The Constant COMPRESSION_TYPE. */
 	public static final String COMPRESSION_TYPE = "ZipCompression";
 
+	/** Size of the buffers used for compressing and uncompressing. */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
 	/** The logger. */
 	private final Logger logger;
 
+	/** The compression level. */
+	private final int level;
+
 	/**
-	 * Default Constructor with no parameters.
+	 * Default Constructor with no parameters, which uses the default
+	 * compression level.
 	 */
 	public ZipStorageStrategyImpl() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Specialized Constructor, which uses the given compression level.
+	 *
+	 * @param level
+	 *            int, from 0 (none) to 9 (best) or -1 (default).
+	 */
+	public ZipStorageStrategyImpl(final int level) {
 		this.logger = Logger.getInstance();
+		this.level = level;
 	}
 
 	/**
@@ -78,6 +99,28 @@ public class ZipStorageStrategyImpl implements StorageStrategy {
 		return this.uncompressContents(repositoryFile, workspaceFile);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Open the uncompressed contents of a file in the repository.
+	 */
+	@Override
+	public InputStream openFromRepository(final File repositoryFile)
+			throws IOException {
+		final ZipInputStream zis = new ZipInputStream(new BufferedInputStream(
+				ObjectStore.getInstance().open(repositoryFile),
+				ZipStorageStrategyImpl.BUFFER_SIZE));
+		try {
+			if (zis.getNextEntry() == null)
+				throw new IOException("Missing Zip Entry [" + repositoryFile
+						+ "].");
+			return zis;
+		} catch (final IOException e) {
+			zis.close();
+			throw e;
+		}
+	}
+
 	/**
 	 * Generalized means to compress a file with the ZIP format.
 	 *
@@ -88,18 +131,11 @@ public class ZipStorageStrategyImpl implements StorageStrategy {
 	 * @return success - boolean.
 	 */
 	public boolean compressContents(final File source, final File destination) {
-		ZipOutputStream zos = null;
 		BufferedInputStream bis = null;
 		try {
-			bis = new BufferedInputStream(new FileInputStream(source));
-			zos = new ZipOutputStream(new FileOutputStream(destination));
-			final byte[] buffer = new byte[1024];
-			int count;
-			zos.putNextEntry(new ZipEntry(destination.getName()));
-			while ((count = bis.read(buffer)) >= 0) {
-				zos.write(buffer, 0, count);
-			}
-			return true;
+			bis = new BufferedInputStream(new FileInputStream(source),
+					ZipStorageStrategyImpl.BUFFER_SIZE);
+			return this.compressContents(bis, destination);
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Compress Artifact [" + source
 					+ "].", e);
@@ -114,6 +150,41 @@ public class ZipStorageStrategyImpl implements StorageStrategy {
 									+ bis + "]", e);
 				}
 			}
+		}
+	}
+
+	/**
+	 * Generalized means to compress the remaining content of a stream with the
+	 * ZIP format. The stream is not closed.
+	 *
+	 * @param source
+	 *            InputStream.
+	 * @param destination
+	 *            File.
+	 * @return success - boolean.
+	 */
+	public boolean compressContents(final InputStream source,
+			final File destination) {
+		ZipOutputStream zos = null;
+		try {
+			zos = new ZipOutputStream(new BufferedOutputStream(
+					new FileOutputStream(destination),
+					ZipStorageStrategyImpl.BUFFER_SIZE));
+			zos.setLevel(this.level);
+			final byte[] buffer = new byte[ZipStorageStrategyImpl.BUFFER_SIZE];
+			int count;
+			zos.putNextEntry(new ZipEntry(destination.getName()));
+			while ((count = source.read(buffer)) >= 0) {
+				zos.write(buffer, 0, count);
+			}
+			zos.close();
+			zos = null;
+			return true;
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Compress Content [" + destination
+					+ "].", e);
+			return false;
+		} finally {
 			if (zos != null) {
 				try {
 					zos.close();
@@ -139,9 +210,11 @@ public class ZipStorageStrategyImpl implements StorageStrategy {
 		BufferedOutputStream bos = null;
 		try {
 			this.logger.info("Uncompress" + source + " " + destination);
-			zis = new ZipInputStream(new FileInputStream(source));
-			bos = new BufferedOutputStream(new FileOutputStream(destination));
-			final byte[] buffer = new byte[1024];
+			zis = new ZipInputStream(new BufferedInputStream(ObjectStore
+					.getInstance().open(source), ZipStorageStrategyImpl.BUFFER_SIZE));
+			bos = new BufferedOutputStream(new FileOutputStream(destination),
+					ZipStorageStrategyImpl.BUFFER_SIZE);
+			final byte[] buffer = new byte[ZipStorageStrategyImpl.BUFFER_SIZE];
 			int count;
 			zis.getNextEntry();
 			while ((count = zis.read(buffer)) >= 0) {
@@ -26,6 +26,7 @@ import org.hydra.ui.commands.CmdExit;
 import org.hydra.ui.commands.CmdHelp;
 import org.hydra.ui.commands.CmdList;
 import org.hydra.ui.commands.CmdLog;
+import org.hydra.ui.commands.CmdRepack;
 import org.hydra.ui.commands.CmdSetUser;
 import org.hydra.ui.commands.CmdStatus;
 import org.hydra.ui.commands.CmdVerbose;
@@ -35,6 +36,7 @@ import org.hydra.ui.commands.LUCmdDiff;
 import org.hydra.ui.commands.LUCmdElementAdd;
 import org.hydra.ui.commands.LUCmdElementRemove;
 import org.hydra.ui.commands.LUCmdLog;
+import org.hydra.ui.commands.LUCmdMergeBase;
 import org.hydra.ui.commands.LUCmdReset;
 import org.hydra.ui.commands.LUCmdRevert;
 import org.hydra.ui.commands.LUCmdStash;
@@ -170,6 +172,7 @@ public abstract class UI {
 		this.commands.add(new CmdStatus(this));
 		this.commands.add(new CmdLog());
 		this.commands.add(new CmdList());
+		this.commands.add(new CmdRepack());
 		this.commands.add(new CmdExit());
 		// Stage Commands
 		this.commands.add(new SCmdStatus(this.stage));
@@ -192,6 +195,7 @@ public abstract class UI {
 		this.commands.add(new LUCmdRevert(this.stage));
 		this.commands.add(new LUCmdReset(this.stage));
 		this.commands.add(new LUCmdLog(this.stage));
+		this.commands.add(new LUCmdMergeBase(this.stage));
 		this.commands.add(new LUCmdElementAdd(this.stage));
 		this.commands.add(new LUCmdElementRemove(this.stage));
 		this.commands.add(new LUCmdStash(this.stage));
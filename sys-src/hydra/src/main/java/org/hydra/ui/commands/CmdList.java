@@ -22,11 +22,14 @@ package org.hydra.ui.commands;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Scanner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hydra.core.Configuration;
+import org.hydra.persistence.RecordReader;
 import org.hydra.utilities.FilterInDirectories;
 import org.hydra.utilities.FilterInFiles;
 
@@ -249,6 +252,15 @@ public class CmdList extends CommandSystem {
 		Scanner scanner = null;
 		final StringBuilder sb = new StringBuilder("");
 		try {
+			if (this.isRecord(targetFile)) {
+				final InputStream is = new FileInputStream(targetFile);
+				try {
+					sb.append(RecordReader.toText(RecordReader.read(is)));
+				} finally {
+					is.close();
+				}
+				return sb.append("\n").toString();
+			}
 			scanner = new Scanner(new FileInputStream(targetFile));
 			while (scanner.hasNext()) {
 				sb.append(scanner.nextLine() + "\n");
@@ -264,4 +276,29 @@ public class CmdList extends CommandSystem {
 		return sb.toString();
 	}
 
+	/**
+	 * Determine if the given file holds a binary metadata record.
+	 *
+	 * @param targetFile
+	 *            File.
+	 * @return record - boolean.
+	 * @throws IOException
+	 *             if the file could not be read.
+	 */
+	private boolean isRecord(final File targetFile) throws IOException {
+		final byte[] prefix = new byte[RecordReader.MAGIC.length];
+		final InputStream is = new FileInputStream(targetFile);
+		try {
+			int read = 0;
+			int count;
+			while ((read < prefix.length)
+					&& ((count = is.read(prefix, read, prefix.length - read)) > 0)) {
+				read += count;
+			}
+			return (read == prefix.length) && RecordReader.isBinary(prefix);
+		} finally {
+			is.close();
+		}
+	}
+
 }
@@ -0,0 +1,117 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.ui.commands;
+
+import java.util.regex.Pattern;
+
+import org.hydra.persistence.ObjectStore;
+
+/**
+ * Moves the loose objects of the repository's fingerprinted store into packs.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+public class CmdRepack extends CommandSystem {
+
+	/** The Constant serialVersionUID. */
+	public static final long serialVersionUID = 02L;
+
+	/** The Constant DEFAULT_NAME. */
+	public static final String DEFAULT_NAME = "Repack";
+
+	/** The Constant DEFAULT_ID. */
+	public static final String DEFAULT_ID = "CmdRepack";
+
+	// Regular Expressions
+	/** The cmd reg ex. */
+	private final String cmdRegEx = "^\\s*(?i:repack)\\b\\s*";
+
+	/** The cmd pattern. */
+	private final Pattern cmdPattern = Pattern.compile(this.cmdRegEx);
+
+	/** The complete pattern. */
+	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
+			+ "$");
+
+	/**
+	 * Default Constructor.
+	 */
+	public CmdRepack() {
+		super(CmdRepack.DEFAULT_NAME, CmdRepack.DEFAULT_ID);
+	}
+
+	/**
+	 * COMMAND METHODS (OVERRIDDEN) *******************************************.
+	 * 
+	 * @return the command pattern
+	 */
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Pattern accepts 'repack' as the command.
+	 */
+	@Override
+	public Pattern getCommandPattern() {
+		return this.cmdPattern;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Complete Pattern accepts 'repack'.
+	 */
+	@Override
+	public Pattern getCompletePattern() {
+		return this.completePattern;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Pack the loose objects of the repository.
+	 */
+	@Override
+	public boolean execute() {
+		final int packed = ObjectStore.getInstance().repack();
+		if (packed < 0) {
+			this.writer.println("FAILURE: Unable to Repack the Repository.\n",
+					this.cmdVerbosity);
+			return false;
+		}
+		this.writer.println("Packed [" + packed + "] Objects.\n",
+				this.cmdVerbosity);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return a string describing the commands usage.
+	 */
+	@Override
+	public String getUsage() {
+		return "repack\t\t\t\t\tMoves Loose Repository Objects into Packs.";
+	}
+
+}
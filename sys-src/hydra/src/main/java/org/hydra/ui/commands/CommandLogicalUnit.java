@@ -20,6 +20,10 @@
  *************************************************************************/
 package org.hydra.ui.commands;
 
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
 import org.hydra.core.Stage;
 
 /**
@@ -41,6 +45,10 @@ public class CommandLogicalUnit extends CommandRegex {
 	/** The lu name. */
 	protected String luName;
 
+	/** The accepted date patterns, most specific first. */
+	private static final String[] DATE_PATTERNS = { "yyyy-MM-dd'T'HH:mm:ss",
+			"yyyy-MM-dd" };
+
 	/**
 	 * Specialized Constructor which specifies which stage to manipulate.
 	 *
@@ -106,4 +114,24 @@ public class CommandLogicalUnit extends CommandRegex {
 		}
 	}
 
+	/**
+	 * Parse a date given on the command line either as 'yyyy-MM-dd' or as
+	 * 'yyyy-MM-dd'T'HH:mm:ss'.
+	 *
+	 * @param dateStr
+	 *            String.
+	 * @return date - Date, or null if not a valid date.
+	 */
+	protected Date parseDate(final String dateStr) {
+		for (final String pattern : CommandLogicalUnit.DATE_PATTERNS) {
+			final SimpleDateFormat format = new SimpleDateFormat(pattern);
+			format.setLenient(false);
+			final ParsePosition position = new ParsePosition(0);
+			final Date date = format.parse(dateStr, position);
+			if ((date != null) && (position.getIndex() == dateStr.length()))
+				return date;
+		}
+		return null;
+	}
+
 }
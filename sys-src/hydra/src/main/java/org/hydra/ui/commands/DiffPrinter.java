@@ -0,0 +1,182 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.ui.commands;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.hydra.core.Artifact;
+import org.hydra.core.FingerprintedElement;
+import org.hydra.core.ParallelDiff;
+import org.hydra.core.TreeChange;
+import org.hydra.core.TreeDiff;
+import org.hydra.ui.UIWriter;
+import org.hydra.utilities.diff.myers.MyersDiff;
+
+/**
+ * Helper of the diff and log commands, which calculates the differentials of
+ * artifacts and prints tree and artifact diffs with the verbosity of the
+ * command using it.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+class DiffPrinter {
+
+	/** The writer. */
+	private final UIWriter writer;
+
+	/** The verbosity of the printing command. */
+	private final int verbosity;
+
+	/**
+	 * Specialized Constructor.
+	 *
+	 * @param writer
+	 *            UIWriter.
+	 * @param verbosity
+	 *            int, the verbosity of the printing command.
+	 */
+	DiffPrinter(final UIWriter writer, final int verbosity) {
+		this.writer = writer;
+		this.verbosity = verbosity;
+	}
+
+	/**
+	 * Print the changes of the given tree diff as they are found, followed by
+	 * the number of changes of each type.
+	 *
+	 * @param diff
+	 *            TreeDiff.
+	 * @return numChanges - int.
+	 */
+	public int printTreeDiff(final TreeDiff diff) {
+		final int[] counts = new int[TreeChange.Type.values().length];
+		int total = 0;
+		for (final TreeChange change : diff) {
+			this.writer.println("\t" + change, this.verbosity);
+			counts[change.getType().ordinal()]++;
+			total++;
+		}
+		this.printChangeSummary(counts, total);
+		return total;
+	}
+
+	/**
+	 * Print the line diffs of all artifacts changed by the tree diff, in the
+	 * order of their paths, followed by a summary. The diffs are calculated
+	 * concurrently and printed as soon as they are available in order.
+	 *
+	 * @param diff
+	 *            TreeDiff, from a committed snapshot to the workspace.
+	 * @param workspaceRoot
+	 *            File, the workspace file of the compared container.
+	 * @return success - boolean, false if a diff could not be calculated.
+	 */
+	public boolean printArtifactDiffs(final TreeDiff diff,
+			final File workspaceRoot) {
+		final int[] counts = new int[TreeChange.Type.values().length];
+		int total = 0;
+		boolean success = true;
+		final Iterator<ParallelDiff.ArtifactDiff> diffs = ParallelDiff
+				.configured().iterateDiffs(diff, workspaceRoot);
+		while (diffs.hasNext()) {
+			final ParallelDiff.ArtifactDiff artifactDiff = diffs.next();
+			final TreeChange change = artifactDiff.getChange();
+			this.writer.println("\t" + change, this.verbosity);
+			if (artifactDiff.getDiff() != null) {
+				this.writer.println(artifactDiff.getDiff()
+						.describeTransformation(), this.verbosity);
+			} else if (change.getType() != TreeChange.Type.MOVED) {
+				this.writer.println("\tUnable to Calculate the Differential.\n",
+						this.verbosity);
+				success = false;
+			}
+			counts[change.getType().ordinal()]++;
+			total++;
+		}
+		this.printChangeSummary(counts, total);
+		return success;
+	}
+
+	/**
+	 * Print the summary of the changes listed.
+	 *
+	 * @param counts
+	 *            int[], the number of changes of each type.
+	 * @param total
+	 *            int.
+	 */
+	private void printChangeSummary(final int[] counts, final int total) {
+		this.writer.println("\t" + total + " Changed: "
+				+ counts[TreeChange.Type.ADDED.ordinal()] + " Added, "
+				+ counts[TreeChange.Type.REMOVED.ordinal()] + " Removed, "
+				+ counts[TreeChange.Type.MODIFIED.ordinal()] + " Modified, "
+				+ counts[TreeChange.Type.MOVED.ordinal()] + " Moved.",
+				this.verbosity);
+	}
+
+	/**
+	 * Calculate the differential between the committed content of an artifact
+	 * and its workspace file. The committed content is read decoded from the
+	 * repository, without restoring it to a file, and the differential is
+	 * cached by the hashes of both contents.
+	 *
+	 * @param committedElement
+	 *            FingerprintedElement.
+	 * @param activeElement
+	 *            FingerprintedElement.
+	 * @return diff - MyersDiff, or null if the element is not an artifact.
+	 * @throws IOException
+	 *             if the committed content could not be read.
+	 */
+	public MyersDiff diffArtifact(
+			final FingerprintedElement committedElement,
+			final FingerprintedElement activeElement) throws IOException {
+		if (!(committedElement instanceof Artifact)) {
+			this.writer.println("Unable to Diff Element ["
+					+ committedElement.getName() + "], Not an Artifact.\n");
+			return null;
+		}
+		InputStream committed = null;
+		InputStream active = null;
+		try {
+			committed = ((Artifact) committedElement).openContents();
+			active = new FileInputStream(activeElement.cloneWorkspaceFile());
+			final String activeHash = ((activeElement instanceof Artifact) && activeElement
+					.refreshFingerprint()) ? activeElement.getHash() : null;
+			return new MyersDiff(committed, active, committedElement.getHash(),
+					activeHash);
+		} finally {
+			if (committed != null) {
+				committed.close();
+			}
+			if (active != null) {
+				active.close();
+			}
+		}
+	}
+
+}
@@ -27,7 +27,8 @@ import org.hydra.core.FingerprintedElement;
 import org.hydra.core.LogicalUnit;
 import org.hydra.core.Stage;
 import org.hydra.core.State;
-import org.hydra.utilities.diff.hmdiff.HMDiff;
+import org.hydra.core.TreeDiff;
+import org.hydra.utilities.diff.myers.MyersDiff;
 
 /**
  * Calculates the differential of element's of the designated logical unit.
@@ -49,6 +50,12 @@ public class LUCmdDiff extends CommandLogicalUnit {
 
 	/** The e name. */
 	private String eName;
+
+	/** Whether the changed artifacts of the whole logical unit are listed. */
+	private boolean stat = false;
+
+	/** Whether the line diffs of the changed artifacts are listed as well. */
+	private boolean all = false;
 	// Regular Expressions
 	/** The cmd reg ex. */
 	private final String cmdRegEx = "^\\s*(?i:ludiff)\\b";
@@ -59,12 +66,15 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	/** The el reg ex. */
 	private final String elRegEx = "\\s+(\\S+.*)(\\\\|\\/)?\\s*$";
 
+	/** The stat reg ex. */
+	private final String stRegEx = "(\\s+(\\S+.*?))??\\s+--(stat|all)\\s*$";
+
 	/** The cmd pattern. */
 	private final Pattern cmdPattern = Pattern.compile(this.cmdRegEx);
 
 	/** The complete pattern. */
 	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
-			+ this.luRegEx + this.elRegEx);
+			+ "(?:" + this.luRegEx + this.elRegEx + "|" + this.stRegEx + ")");
 
 	/** The GROU p_ logicalunit. */
 	private final int GROUP_LOGICALUNIT = 3;
@@ -72,6 +82,12 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	/** The GROU p_ element. */
 	private final int GROUP_ELEMENT = 4;
 
+	/** The GROU p_ stat logicalunit. */
+	private final int GROUP_STAT_LOGICALUNIT = 7;
+
+	/** The GROU p_ mode. */
+	private final int GROUP_MODE = 8;
+
 	/**
 	 * Specialized Constuctor which designates the stage to use to find the
 	 * logical unit to calculate differential's.
@@ -99,6 +115,20 @@ public class LUCmdDiff extends CommandLogicalUnit {
 		this.eName = eName;
 	}
 
+	/**
+	 * Specialized Constructor which specifies the stage and the logical unit
+	 * whose changed artifacts are listed.
+	 *
+	 * @param stage
+	 *            Stage.
+	 * @param luName
+	 *            String.
+	 */
+	public LUCmdDiff(final Stage stage, final String luName) {
+		super(LUCmdDiff.DEFAULT_NAME, LUCmdDiff.DEFAULT_ID, stage, luName);
+		this.stat = true;
+	}
+
 	/**
 	 * COMMAND METHODS OVERRIDDEN *********************************************.
 	 * 
@@ -118,7 +148,8 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Factory Method - Complete Pattern accepts 'ludiff {[luname]} -e [ename]'.
+	 * Factory Method - Complete Pattern accepts 'ludiff {[luname]} -e [ename]',
+	 * 'ludiff {[luname]} --stat' or 'ludiff {[luname]} --all'.
 	 */
 	@Override
 	public Pattern getCompletePattern() {
@@ -133,6 +164,11 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	 */
 	@Override
 	public boolean processMatcher(final Matcher matcher) {
+		this.stat = (matcher.group(this.GROUP_ELEMENT) == null);
+		this.all = this.stat && "all".equals(matcher.group(this.GROUP_MODE));
+		if (this.stat)
+			return this.processLogicalUnitName(matcher
+					.group(this.GROUP_STAT_LOGICALUNIT));
 		this.eName = matcher.group(this.GROUP_ELEMENT).trim();
 		return this.processLogicalUnitName(matcher
 				.group(this.GROUP_LOGICALUNIT));
@@ -145,6 +181,8 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	 */
 	@Override
 	public boolean execute() {
+		if (this.stat)
+			return this.executeStat();
 		boolean success = true;
 		try {
 			final String fullName = this.findElementName(this.eName);
@@ -171,9 +209,11 @@ public class LUCmdDiff extends CommandLogicalUnit {
 				return false;
 			}
 
-			final HMDiff diff = new HMDiff(
-					committedElement.cloneRepositoryFile(),
-					activeElement.cloneWorkspaceFile());
+			final MyersDiff diff = new DiffPrinter(this.writer,
+					this.cmdVerbosity).diffArtifact(committedElement,
+					activeElement);
+			if (diff == null)
+				return false;
 			this.writer.println(diff.describeTransformation(),
 					this.cmdVerbosity);
 		} catch (final Exception e) {
@@ -184,6 +224,46 @@ public class LUCmdDiff extends CommandLogicalUnit {
 		return success;
 	}
 
+	/**
+	 * List the artifacts of the logical unit changed since its current commit,
+	 * with their line diffs if all differentials are requested.
+	 *
+	 * @return success - boolean.
+	 */
+	private boolean executeStat() {
+		try {
+			final LogicalUnit lu = this.stage.getLogicalUnit(this.luName);
+			final TreeDiff diff = lu.diffWorkspace();
+			if (diff == null) {
+				this.writer.println("Unable to Compare Logical Unit ["
+						+ this.luName + "].", this.cmdVerbosity);
+				this.writer.println("\tLogical Unit Has Not Been Committed.\n",
+						this.cmdVerbosity);
+				return false;
+			}
+			this.writer.println("Logical Unit Diff: [" + this.luName
+					+ "]  -  Current to Workspace", this.cmdVerbosity);
+			this.writer.println(
+					"--------------------------------------------------",
+					this.cmdVerbosity);
+			final DiffPrinter printer = new DiffPrinter(this.writer,
+					this.cmdVerbosity);
+			boolean success = true;
+			if (this.all) {
+				success = printer.printArtifactDiffs(diff, lu.getContents()
+						.cloneWorkspaceFile());
+			} else {
+				printer.printTreeDiff(diff);
+			}
+			this.writer.println("", this.cmdVerbosity);
+			return success;
+		} catch (final Exception e) {
+			this.logger.exception(
+					"(CMD) Unable to Calculate the Differential.", e);
+			return false;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -191,7 +271,11 @@ public class LUCmdDiff extends CommandLogicalUnit {
 	 */
 	@Override
 	public String getUsage() {
-		return "luDiff {<luName>} -e <eName>\t\tProvides a Differential of an Logical Unit's Element.";
+		final StringBuilder sb = new StringBuilder("");
+		sb.append("luDiff {<luName>} -e <eName>\t\tProvides a Differential of an Logical Unit's Element.\n");
+		sb.append("\tluDiff {<luName>} --stat\t\tLists the Logical Unit's Artifacts Changed Since CURRENT.\n");
+		sb.append("\tluDiff {<luName>} --all\t\tProvides the Differentials of All Artifacts Changed Since CURRENT.");
+		return sb.toString();
 	}
 
 }
@@ -20,11 +20,16 @@
  *************************************************************************/
 package org.hydra.ui.commands;
 
+import java.util.Date;
+import java.util.Iterator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.hydra.core.HistoryCrawler;
 import org.hydra.core.LogicalUnit;
 import org.hydra.core.Stage;
+import org.hydra.core.State;
+import org.hydra.core.TreeDiff;
 
 /**
  * Displays a log of a logical unit's history.
@@ -46,12 +51,24 @@ public class LUCmdLog extends CommandLogicalUnit {
 
 	/** The system path. */
 	private boolean systemPath = true;
+
+	/** The maximum number of logged commits, negative for all. */
+	private int limit = -1;
+
+	/** The oldest logged commit time, or null for all. */
+	private Date since = null;
+
+	/** Whether the artifacts changed by each commit are listed. */
+	private boolean stat = false;
 	// Regular Expressions
 	/** The cmd reg ex. */
 	private final String cmdRegEx = "^\\s*(?i:lulog)\\b";
 
 	/** The lu reg ex. */
-	private final String luRegEx = "(\\s+(\\S+.*(?<!\\s-[vVsS]))\\b)?";
+	private final String luRegEx = "(\\s+(\\S+.*?))??";
+
+	/** The options reg ex. */
+	private final String opRegEx = "(?:\\s+-n\\s+(\\d+)|\\s+--since\\s+(\\S+)|\\s+(--stat))*";
 
 	/** The pa reg ex. */
 	private final String paRegEx = "(\\s+-([vVsS]))?\\s*$";
@@ -61,7 +78,7 @@ public class LUCmdLog extends CommandLogicalUnit {
 
 	/** The complete pattern. */
 	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
-			+ this.luRegEx + this.paRegEx);
+			+ this.luRegEx + this.opRegEx + this.paRegEx);
 
 	/**
 	 * Specialized Constructor which specifies which stage to use.
@@ -109,7 +126,8 @@ public class LUCmdLog extends CommandLogicalUnit {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Factory Method - Complete Pattern accepts 'lulog {[luname]} {-s|v}'.
+	 * Factory Method - Complete Pattern accepts 'lulog {[luname]} {-n
+	 * <count>} {--since <date>} {--stat} {-s|v}'.
 	 */
 	@Override
 	public Pattern getCompletePattern() {
@@ -119,13 +137,39 @@ public class LUCmdLog extends CommandLogicalUnit {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Template Method - Process the matcher to extract the logical unit, path
-	 * flag.
+	 * Template Method - Process the matcher to extract the logical unit, log
+	 * options and path flag.
 	 */
 	@Override
 	public boolean processMatcher(final Matcher matcher) {
 		this.setSystemPath(matcher);
-		return this.processLogicalUnitName(matcher.group(2));
+		return this.setOptions(matcher)
+				&& this.processLogicalUnitName(matcher.group(2));
+	}
+
+	/**
+	 * Sets the limit, since and stat options.
+	 *
+	 * @param matcher
+	 *            Matcher.
+	 * @return success - boolean, false if an option is invalid.
+	 */
+	private boolean setOptions(final Matcher matcher) {
+		this.limit = -1;
+		this.since = null;
+		this.stat = (matcher.group(5) != null);
+		if (matcher.group(3) != null) {
+			try {
+				this.limit = Integer.parseInt(matcher.group(3));
+			} catch (final NumberFormatException e) {
+				return false;
+			}
+		}
+		if (matcher.group(4) != null) {
+			this.since = this.parseDate(matcher.group(4));
+			return (this.since != null);
+		}
+		return true;
 	}
 
 	/**
@@ -135,10 +179,10 @@ public class LUCmdLog extends CommandLogicalUnit {
 	 *            the new system path
 	 */
 	private void setSystemPath(final Matcher matcher) {
-		if (matcher.group(4) == null) {
+		if (matcher.group(7) == null) {
 			this.systemPath = true;
 		} else {
-			this.systemPath = matcher.group(4).toLowerCase().equals("s");
+			this.systemPath = matcher.group(7).toLowerCase().equals("s");
 		}
 	}
 
@@ -150,21 +194,36 @@ public class LUCmdLog extends CommandLogicalUnit {
 	@Override
 	public boolean execute() {
 		boolean success = true;
-		final StringBuilder sb = new StringBuilder("");
+		this.writer.print("Logical Unit Log: [" + this.luName + "]  -  Following: "
+				+ ((this.systemPath) ? "[System Path]" : "[Valid Path]") + "\n"
+				+ "--------------------------------------------------\n",
+				this.cmdVerbosity);
 		try {
 			final LogicalUnit lu = this.stage.getLogicalUnit(this.luName);
-			sb.append("Logical Unit Log: [" + this.luName + "]  -  ");
-			sb.append("Following: "
-					+ ((this.systemPath) ? "[System Path]" : "[Valid Path]")
-					+ "\n");
-			sb.append("--------------------------------------------------\n");
-			sb.append(lu.getHistoryCrawler().getHistoryLog(this.systemPath));
+			final HistoryCrawler crawler = lu.getHistoryCrawler();
+			final Iterator<State> log = crawler.iterateHistoryLog(
+					this.systemPath, 0, this.limit, this.since);
+			boolean first = true;
+			while (log.hasNext()) {
+				final State state = log.next();
+				this.writer.print(((first) ? "" : "\n") + state.getLogEntry()
+						+ "\n", this.cmdVerbosity);
+				if (this.stat) {
+					final TreeDiff diff = crawler.diffPrevious(state,
+							this.systemPath);
+					if (diff != null) {
+						new DiffPrinter(this.writer, this.cmdVerbosity)
+								.printTreeDiff(diff);
+					}
+				}
+				first = false;
+			}
+			this.writer.println("", this.cmdVerbosity);
 		} catch (final Exception e) {
-			sb.append("FAILURE: No Log for Logical Unit [" + this.luName
-					+ "]\n");
+			this.writer.println("FAILURE: No Log for Logical Unit ["
+					+ this.luName + "]\n", this.cmdVerbosity);
 			success = false;
 		}
-		this.writer.println(sb.toString(), this.cmdVerbosity);
 		return success;
 	}
 
@@ -175,7 +234,7 @@ public class LUCmdLog extends CommandLogicalUnit {
 	 */
 	@Override
 	public String getUsage() {
-		return "luLog {<luName>} {-S|-V}\t\tPrints Log of Commits along SYSTEM (default) or VALID Path.";
+		return "luLog {<luName>} {-n <count>} {--since <yyyy-MM-dd>} {--stat} {-S|-V}\tPrints Log of Commits along SYSTEM (default) or VALID Path.";
 	}
 
 }
@@ -0,0 +1,190 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.ui.commands;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hydra.core.LogicalUnit;
+import org.hydra.core.MergeBase;
+import org.hydra.core.Stage;
+
+/**
+ * Displays the merge bases, the most recent common ancestors, of commits of a
+ * logical unit.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+public class LUCmdMergeBase extends CommandLogicalUnit {
+
+	/** The Constant serialVersionUID. */
+	public static final long serialVersionUID = 02L;
+
+	/** The Constant DEFAULT_NAME. */
+	public static final String DEFAULT_NAME = "LogicalUnit Merge Base";
+
+	/** The Constant DEFAULT_ID. */
+	public static final String DEFAULT_ID = "LUCmdMergeBase";
+
+	/** The hashes of the commits. */
+	private String[] targetHashes;
+	// Regular Expressions
+	/** The cmd reg ex. */
+	private final String cmdRegEx = "^\\s*(?i:lumergebase)\\b";
+
+	/** The lu reg ex. */
+	private final String luRegEx = "(\\s+(\\S+.*?))??";
+
+	/** The hash reg ex. */
+	private final String hashRegEx = "((?:\\s+\\w{40})+)\\s*$";
+
+	/** The cmd pattern. */
+	private final Pattern cmdPattern = Pattern.compile(this.cmdRegEx);
+
+	/** The complete pattern. */
+	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
+			+ this.luRegEx + this.hashRegEx);
+
+	/** The GROU p_ hashes. */
+	private final int GROUP_HASHES = 3;
+
+	/**
+	 * Specialized Constructor which specifies which stage to use.
+	 *
+	 * @param stage
+	 *            Stage.
+	 */
+	public LUCmdMergeBase(final Stage stage) {
+		super(LUCmdMergeBase.DEFAULT_NAME, LUCmdMergeBase.DEFAULT_ID, stage);
+	}
+
+	/**
+	 * Specialized constructor that specifies the logical unit and the hashes
+	 * of the commits whose merge bases are displayed. A single hash is
+	 * compared with the logical unit's current commit.
+	 *
+	 * @param stage
+	 *            Stage.
+	 * @param luName
+	 *            String.
+	 * @param targetHashes
+	 *            String[].
+	 */
+	public LUCmdMergeBase(final Stage stage, final String luName,
+			final String... targetHashes) {
+		super(LUCmdMergeBase.DEFAULT_NAME, LUCmdMergeBase.DEFAULT_ID, stage,
+				luName);
+		this.targetHashes = targetHashes;
+	}
+
+	/**
+	 * COMMAND METHODS OVERRIDDEN *********************************************.
+	 * 
+	 * @return the command pattern
+	 */
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Factory Method - Command Pattern accepts 'lumergebase' as the command.
+	 */
+	@Override
+	public Pattern getCommandPattern() {
+		return this.cmdPattern;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Factory Method - Complete Pattern accepts 'lumergebase {[luname]} <hash>
+	 * {<hash>...}'.
+	 */
+	@Override
+	public Pattern getCompletePattern() {
+		return this.completePattern;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Template Method - Process the matcher to extract the logical unit and
+	 * the commit hashes.
+	 */
+	@Override
+	public boolean processMatcher(final Matcher matcher) {
+		this.targetHashes = matcher.group(this.GROUP_HASHES).trim()
+				.split("\\s+");
+		return this.processLogicalUnitName(matcher.group(2));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Displays the merge bases of the designated commits.
+	 */
+	@Override
+	public boolean execute() {
+		String[] mergeBases = null;
+		try {
+			final LogicalUnit lu = this.stage.getLogicalUnit(this.luName);
+			final String[] hashes;
+			if (this.targetHashes.length == 1) {
+				hashes = new String[] { lu.getCurrentHash(),
+						this.targetHashes[0] };
+			} else {
+				hashes = this.targetHashes;
+			}
+			mergeBases = new MergeBase(lu).findMergeBases(hashes);
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Find Merge Base.", e);
+			// Do Nothing - Merge Bases Start As Null.
+		}
+		if (mergeBases == null) {
+			this.writer.println("FAILURE: No Merge Base for Logical Unit ["
+					+ this.luName + "]\n", this.cmdVerbosity);
+			return false;
+		}
+		final StringBuilder sb = new StringBuilder("Logical Unit Merge Base: ["
+				+ this.luName + "]\n");
+		sb.append("--------------------------------------------------\n");
+		if (mergeBases.length == 0) {
+			sb.append("\tNo Common Ancestor.\n");
+		}
+		for (final String mergeBase : mergeBases) {
+			sb.append("\t" + mergeBase + "\n");
+		}
+		this.writer.println(sb.toString(), this.cmdVerbosity);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Return a string describing the commands usage.
+	 */
+	@Override
+	public String getUsage() {
+		return "luMergeBase {<luName>} <hash> {<hash>}\tPrints Most Recent Common Ancestors of CURRENT or Given Commits.";
+	}
+
+}
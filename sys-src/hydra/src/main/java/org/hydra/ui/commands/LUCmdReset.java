@@ -23,6 +23,7 @@ package org.hydra.ui.commands;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.hydra.core.Container;
 import org.hydra.core.LogicalUnit;
 import org.hydra.core.Stage;
 
@@ -162,13 +163,13 @@ public class LUCmdReset extends CommandLogicalUnit {
 		boolean success = false;
 		try {
 			final LogicalUnit lu = this.stage.getLogicalUnit(this.luName);
+			final Container previous = lu.getContents();
 			if (this.isHead(this.target)) {
 				lu.setContents(lu.getHead().cloneContents());
-				success = lu.getHead().retrieve();
+				success = lu.getHead().checkout(previous);
 			} else if (this.isCurrent(this.target)) {
 				lu.setContents(lu.getCurrent().cloneContents());
-				success = this.stage.getLogicalUnit(this.luName).getCurrent()
-						.retrieve();
+				success = lu.getCurrent().checkout(previous);
 			}
 		} catch (final Exception e) {
 			this.logger.exception(
@@ -26,7 +26,8 @@ import java.util.regex.Pattern;
 import org.hydra.core.FingerprintedElement;
 import org.hydra.core.Stage;
 import org.hydra.core.State;
-import org.hydra.utilities.diff.hmdiff.HMDiff;
+import org.hydra.core.TreeDiff;
+import org.hydra.utilities.diff.myers.MyersDiff;
 
 /**
  * Calculates the differential of element's of the designated logical unit.
@@ -48,6 +49,12 @@ public class SCmdDiff extends CommandStage {
 
 	/** The e name. */
 	private String eName;
+
+	/** Whether the changed artifacts of the whole stage are listed. */
+	private boolean stat = false;
+
+	/** Whether the line diffs of the changed artifacts are listed as well. */
+	private boolean all = false;
 	// Regular Expressions
 	/** The cmd reg ex. */
 	private final String cmdRegEx = "^\\s*(?i:sdiff)\\b";
@@ -55,16 +62,22 @@ public class SCmdDiff extends CommandStage {
 	/** The el reg ex. */
 	private final String elRegEx = "\\s+-e\\s+(\\S+.*)(\\\\|\\/)?\\s*$";
 
+	/** The stat reg ex. */
+	private final String stRegEx = "\\s+--(stat|all)\\s*$";
+
 	/** The cmd pattern. */
 	private final Pattern cmdPattern = Pattern.compile(this.cmdRegEx);
 
 	/** The complete pattern. */
 	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
-			+ this.elRegEx);
+			+ "(?:" + this.elRegEx + "|" + this.stRegEx + ")");
 
 	/** The GROU p_ element. */
 	private final int GROUP_ELEMENT = 1;
 
+	/** The GROU p_ mode. */
+	private final int GROUP_MODE = 3;
+
 	/**
 	 * Specialized Constuctor which designates the stage to use to find the
 	 * element to calculate differential's.
@@ -108,7 +121,8 @@ public class SCmdDiff extends CommandStage {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Factory Method - Complete Pattern accepts 'sdiff -e [ename]'.
+	 * Factory Method - Complete Pattern accepts 'sdiff -e [ename]', 'sdiff
+	 * --stat' or 'sdiff --all'.
 	 */
 	@Override
 	public Pattern getCompletePattern() {
@@ -123,7 +137,11 @@ public class SCmdDiff extends CommandStage {
 	 */
 	@Override
 	public boolean processMatcher(final Matcher matcher) {
-		this.eName = matcher.group(this.GROUP_ELEMENT).trim();
+		this.stat = (matcher.group(this.GROUP_ELEMENT) == null);
+		this.all = this.stat && "all".equals(matcher.group(this.GROUP_MODE));
+		if (!this.stat) {
+			this.eName = matcher.group(this.GROUP_ELEMENT).trim();
+		}
 		return true;
 	}
 
@@ -134,6 +152,8 @@ public class SCmdDiff extends CommandStage {
 	 */
 	@Override
 	public boolean execute() {
+		if (this.stat)
+			return this.executeStat();
 		boolean success = true;
 		try {
 			final String fullName = this.findElementName(this.eName);
@@ -159,9 +179,11 @@ public class SCmdDiff extends CommandStage {
 				return false;
 			}
 
-			final HMDiff diff = new HMDiff(
-					committedElement.cloneRepositoryFile(),
-					activeElement.cloneWorkspaceFile());
+			final MyersDiff diff = new DiffPrinter(this.writer,
+					this.cmdVerbosity).diffArtifact(committedElement,
+					activeElement);
+			if (diff == null)
+				return false;
 			this.writer.println(diff.describeTransformation(),
 					this.cmdVerbosity);
 		} catch (final Exception e) {
@@ -174,6 +196,45 @@ public class SCmdDiff extends CommandStage {
 		return success;
 	}
 
+	/**
+	 * List the artifacts of the stage changed since its current commit, with
+	 * their line diffs if all differentials are requested.
+	 *
+	 * @return success - boolean.
+	 */
+	private boolean executeStat() {
+		try {
+			final TreeDiff diff = this.stage.diffWorkspace();
+			if (diff == null) {
+				this.writer.println("Unable to Compare Stage.",
+						this.cmdVerbosity);
+				this.writer.println("\tStage Has Not Been Committed.\n",
+						this.cmdVerbosity);
+				return false;
+			}
+			this.writer.println("Stage Diff  -  Current to Workspace",
+					this.cmdVerbosity);
+			this.writer.println(
+					"--------------------------------------------------",
+					this.cmdVerbosity);
+			final DiffPrinter printer = new DiffPrinter(this.writer,
+					this.cmdVerbosity);
+			boolean success = true;
+			if (this.all) {
+				success = printer.printArtifactDiffs(diff, this.stage
+						.getContents().cloneWorkspaceFile());
+			} else {
+				printer.printTreeDiff(diff);
+			}
+			this.writer.println("", this.cmdVerbosity);
+			return success;
+		} catch (final Exception e) {
+			this.logger.exception(
+					"(CMD) Unable to Calculate the Differential of Stage.", e);
+			return false;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -181,7 +242,11 @@ public class SCmdDiff extends CommandStage {
 	 */
 	@Override
 	public String getUsage() {
-		return "sDiff -e <eName>\t\t\tProvides a Differential of the Stage's Element.";
+		final StringBuilder sb = new StringBuilder("");
+		sb.append("sDiff -e <eName>\t\t\tProvides a Differential of the Stage's Element.\n");
+		sb.append("\tsDiff --stat\t\t\t\tLists the Stage's Artifacts Changed Since CURRENT.\n");
+		sb.append("\tsDiff --all\t\t\t\tProvides the Differentials of All Artifacts Changed Since CURRENT.");
+		return sb.toString();
 	}
 
 }
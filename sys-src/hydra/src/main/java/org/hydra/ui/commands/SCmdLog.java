@@ -20,10 +20,15 @@
  *************************************************************************/
 package org.hydra.ui.commands;
 
+import java.util.Date;
+import java.util.Iterator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.hydra.core.HistoryCrawler;
 import org.hydra.core.Stage;
+import org.hydra.core.State;
+import org.hydra.core.TreeDiff;
 
 /**
  * Displays a log of the stage's history.
@@ -45,10 +50,22 @@ public class SCmdLog extends CommandLogicalUnit {
 
 	/** The system path. */
 	private boolean systemPath = true;
+
+	/** The maximum number of logged commits, negative for all. */
+	private int limit = -1;
+
+	/** The oldest logged commit time, or null for all. */
+	private Date since = null;
+
+	/** Whether the artifacts changed by each commit are listed. */
+	private boolean stat = false;
 	// Regular Expressions
 	/** The cmd reg ex. */
 	private final String cmdRegEx = "^\\s*(?i:slog)\\b";
 
+	/** The options reg ex. */
+	private final String opRegEx = "(?:\\s+-n\\s+(\\d+)|\\s+--since\\s+(\\S+)|\\s+(--stat))*";
+
 	/** The pa reg ex. */
 	private final String paRegEx = "(\\s+-([vVsS]))?\\s*$";
 
@@ -57,10 +74,19 @@ public class SCmdLog extends CommandLogicalUnit {
 
 	/** The complete pattern. */
 	private final Pattern completePattern = Pattern.compile(this.cmdRegEx
-			+ this.paRegEx);
+			+ this.opRegEx + this.paRegEx);
+
+	/** The GROU p_ limit. */
+	private final int GROUP_LIMIT = 1;
+
+	/** The GROU p_ since. */
+	private final int GROUP_SINCE = 2;
+
+	/** The GROU p_ stat. */
+	private final int GROUP_STAT = 3;
 
 	/** The GROU p_ target. */
-	private final int GROUP_TARGET = 2;
+	private final int GROUP_TARGET = 5;
 
 	/**
 	 * Specialized Constructor which specifies which stage to use.
@@ -105,7 +131,8 @@ public class SCmdLog extends CommandLogicalUnit {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Factory Method - Complete Pattern accepts 'slog {-s|v}'.
+	 * Factory Method - Complete Pattern accepts 'slog {-n <count>} {--since
+	 * <date>} {--stat} {-s|v}'.
 	 */
 	@Override
 	public Pattern getCompletePattern() {
@@ -115,12 +142,37 @@ public class SCmdLog extends CommandLogicalUnit {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Template Method - Process the matcher to extract the logical unit, path
-	 * flag.
+	 * Template Method - Process the matcher to extract the log options and
+	 * path flag.
 	 */
 	@Override
 	public boolean processMatcher(final Matcher matcher) {
 		this.setSystemPath(matcher);
+		return this.setOptions(matcher);
+	}
+
+	/**
+	 * Sets the limit, since and stat options.
+	 *
+	 * @param matcher
+	 *            Matcher.
+	 * @return success - boolean, false if an option is invalid.
+	 */
+	private boolean setOptions(final Matcher matcher) {
+		this.limit = -1;
+		this.since = null;
+		this.stat = (matcher.group(this.GROUP_STAT) != null);
+		if (matcher.group(this.GROUP_LIMIT) != null) {
+			try {
+				this.limit = Integer.parseInt(matcher.group(this.GROUP_LIMIT));
+			} catch (final NumberFormatException e) {
+				return false;
+			}
+		}
+		if (matcher.group(this.GROUP_SINCE) != null) {
+			this.since = this.parseDate(matcher.group(this.GROUP_SINCE));
+			return (this.since != null);
+		}
 		return true;
 	}
 
@@ -147,20 +199,34 @@ public class SCmdLog extends CommandLogicalUnit {
 	@Override
 	public boolean execute() {
 		boolean success = false;
-		final StringBuilder sb = new StringBuilder("");
+		this.writer.print("Stage Log  -  Following: "
+				+ ((this.systemPath) ? "[System Path]" : "[Valid Path]") + "\n"
+				+ "--------------------------------------------------\n",
+				this.cmdVerbosity);
 		try {
-			sb.append("Stage Log  -  ");
-			sb.append("Following: "
-					+ ((this.systemPath) ? "[System Path]" : "[Valid Path]")
-					+ "\n");
-			sb.append("--------------------------------------------------\n");
-			sb.append(this.stage.getHistoryCrawler().getHistoryLog(
-					this.systemPath));
+			final HistoryCrawler crawler = this.stage.getHistoryCrawler();
+			final Iterator<State> log = crawler.iterateHistoryLog(
+					this.systemPath, 0, this.limit, this.since);
+			boolean first = true;
+			while (log.hasNext()) {
+				final State state = log.next();
+				this.writer.print(((first) ? "" : "\n") + state.getLogEntry()
+						+ "\n", this.cmdVerbosity);
+				if (this.stat) {
+					final TreeDiff diff = crawler.diffPrevious(state,
+							this.systemPath);
+					if (diff != null) {
+						new DiffPrinter(this.writer, this.cmdVerbosity)
+								.printTreeDiff(diff);
+					}
+				}
+				first = false;
+			}
+			this.writer.println("", this.cmdVerbosity);
 			success = true;
 		} catch (final Exception e) {
-			sb.append("\tNo Log for Stage.\n");
+			this.writer.println("\tNo Log for Stage.\n", this.cmdVerbosity);
 		}
-		this.writer.println(sb.toString(), this.cmdVerbosity);
 		return success;
 	}
 
@@ -171,7 +237,7 @@ public class SCmdLog extends CommandLogicalUnit {
 	 */
 	@Override
 	public String getUsage() {
-		return "sLog {-S|-V}\t\t\t\tPrints Log of Commits along SYSTEM (default) or VALID Path.";
+		return "sLog {-n <count>} {--since <yyyy-MM-dd>} {--stat} {-S|-V}\t\tPrints Log of Commits along SYSTEM (default) or VALID Path.";
 	}
 
 }
@@ -23,6 +23,7 @@ package org.hydra.ui.commands;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.hydra.core.Container;
 import org.hydra.core.Stage;
 
 /**
@@ -153,12 +154,13 @@ public class SCmdReset extends CommandStage {
 	public boolean execute() {
 		boolean success = false;
 		try {
+			final Container previous = this.stage.getContents();
 			if (this.isHead(this.target)) {
 				this.stage.setContents(this.stage.getHead().cloneContents());
-				success = this.stage.getHead().retrieve();
+				success = this.stage.getHead().checkout(previous);
 			} else if (this.isCurrent(this.target)) {
 				this.stage.setContents(this.stage.getCurrent().cloneContents());
-				success = this.stage.getCurrent().retrieve();
+				success = this.stage.getCurrent().checkout(previous);
 			}
 		} catch (final Exception e) {
 			this.logger.exception("Unable to Reset Stage's Workspace.", e);
@@ -0,0 +1,60 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.utilities;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the daemon worker threads of hydra's thread pools, so that an
+ * abandoned or interrupted task never keeps the system alive.
+ *
+ * @author Scott A. Hady
+ * @version 0.2
+ * @since 0.2
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+	/** The name of the created threads. */
+	private final String name;
+
+	/**
+	 * Specialized Constructor.
+	 *
+	 * @param name
+	 *            String, the name of the created threads.
+	 */
+	public DaemonThreadFactory(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Create a new daemon thread.
+	 */
+	@Override
+	public Thread newThread(final Runnable runnable) {
+		final Thread t = new Thread(runnable, this.name);
+		t.setDaemon(true);
+		return t;
+	}
+
+}
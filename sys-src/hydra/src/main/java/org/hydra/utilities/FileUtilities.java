@@ -20,6 +20,7 @@
  *************************************************************************/
 package org.hydra.utilities;
 
+import java.io.Closeable;
 import java.io.File;
 
 /**
@@ -31,6 +32,23 @@ import java.io.File;
  */
 public class FileUtilities {
 
+	/**
+	 * Close the given stream, channel or file, logging any failure.
+	 *
+	 * @param closeable
+	 *            Closeable, may be null.
+	 */
+	public static void close(final Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (final Exception e) {
+				Logger.getInstance().exception(
+						"Unable to Close [" + closeable + "].", e);
+			}
+		}
+	}
+
 	/**
 	 * Find a canonical path for a given location.
 	 *
@@ -224,7 +224,8 @@ public class Logger implements Observer {
 	 *            LoggerLevel.
 	 * @return logEntry - String.
 	 */
-	public String log(final String logMessage, final LoggerLevel logLevel) {
+	public synchronized String log(final String logMessage,
+			final LoggerLevel logLevel) {
 		if (!this.systemLevel.greaterThan(logLevel)) {
 			if (this.checkForSysOutOverSLF4J() || !this.hasLogFile()) {
 				System.out.println(logMessage);
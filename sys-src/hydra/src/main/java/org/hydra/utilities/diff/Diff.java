@@ -0,0 +1,311 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.utilities.diff;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hydra.utilities.Logger;
+
+/**
+ * Abstract base class of the differential algorithms, which calculate the diff
+ * between two files or two string arrays and provide the resulting change set
+ * which may be applied to the original file or array in order to produce the
+ * resulting file or array. Specialized diffs calculate the change set by
+ * implementing {@link #calculateDiff}, which their constructors must call.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+public abstract class Diff {
+
+	/** The from array. */
+	protected final String[] fromArray;
+
+	/** The to array. */
+	protected final String[] toArray;
+
+	/** The change set. */
+	protected final ChangeSet changeSet = new ChangeSet();
+
+	/** The logger. */
+	protected final Logger logger;
+
+	/**
+	 * Specialized Constructor which manipulates arrays of strings.
+	 *
+	 * @param originalArray
+	 *            String[].
+	 * @param transformedArray
+	 *            String[].
+	 */
+	protected Diff(final String[] originalArray, final String[] transformedArray) {
+		this.logger = Logger.getInstance();
+		this.fromArray = originalArray;
+		this.toArray = transformedArray;
+	}
+
+	/**
+	 * Specialized Constructor which recieves the original and the resulting
+	 * file from which to determine the necessary differential describing the
+	 * transformation.
+	 *
+	 * @param fromFile
+	 *            File.
+	 * @param toFile
+	 *            File.
+	 */
+	protected Diff(final File fromFile, final File toFile) {
+		this.logger = Logger.getInstance();
+		final Map<String, String> lines = new HashMap<String, String>();
+		this.fromArray = this.loadFileToArray(fromFile, lines);
+		this.toArray = this.loadFileToArray(toFile, lines);
+	}
+
+	/**
+	 * Specialized Constructor which reads the original and the resulting
+	 * content line by line from the given streams, such as the decoded content
+	 * of a persisted artifact. The streams are not closed.
+	 *
+	 * @param fromStream
+	 *            InputStream.
+	 * @param toStream
+	 *            InputStream.
+	 */
+	protected Diff(final InputStream fromStream, final InputStream toStream) {
+		this.logger = Logger.getInstance();
+		final Map<String, String> lines = new HashMap<String, String>();
+		this.fromArray = this.loadStreamToArray(fromStream, lines);
+		this.toArray = this.loadStreamToArray(toStream, lines);
+	}
+
+	/**
+	 * Returns the contents of the given file as an array of strings.
+	 * 
+	 * @param targetFile
+	 *            File.
+	 * @param lines
+	 *            Map of the lines read so far.
+	 * @return content - String[].
+	 */
+	private String[] loadFileToArray(final File targetFile,
+			final Map<String, String> lines) {
+		InputStream is = null;
+		try {
+			is = new FileInputStream(targetFile);
+			return this.loadStreamToArray(is, lines);
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Load File [" + targetFile
+					+ "] to Array.", e);
+			return new String[0];
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (final Exception e) {
+					this.logger.exception("Unable to Close File ["
+							+ targetFile + "].", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the lines read from the given stream as an array of strings.
+	 * Equal lines share a single string with those already read, so repeated
+	 * lines are only held once.
+	 * 
+	 * @param source
+	 *            InputStream.
+	 * @param lines
+	 *            Map of the lines read so far.
+	 * @return content - String[].
+	 */
+	private String[] loadStreamToArray(final InputStream source,
+			final Map<String, String> lines) {
+		final ArrayList<String> contentList = new ArrayList<String>();
+		try {
+			final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(source));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String known = lines.get(line);
+				if (known == null) {
+					lines.put(line, line);
+					contentList.add(line);
+				} else {
+					contentList.add(known);
+				}
+			}
+		} catch (final Exception e) {
+			this.logger.exception("Unable to Load Stream to Array.", e);
+		}
+		return contentList.toArray(new String[contentList.size()]);
+	}
+
+	/**
+	 * Return the set of changed which describe a possible transformation from
+	 * the original file into the resulting file.
+	 *
+	 * @return changes - ChangeSet.
+	 */
+	public ChangeSet getChangeSet() {
+		return this.changeSet;
+	}
+
+	/**
+	 * DESCRIBE METHODS
+	 * ********************************************************.
+	 * 
+	 * @return the string
+	 */
+
+	/**
+	 * Return a string describing the tranformation between the orignal and
+	 * resulting file/array.
+	 *
+	 * @return transformationDescription - String.
+	 */
+	public String describeTransformation() {
+		final StringBuilder sb = new StringBuilder("l  t   content\n");
+		final Change[] changes = this.changeSet.listChanges();
+		int changeIndex = 0;
+		int diffIndex = 0;
+		for (int fromLine = 0; fromLine < this.fromArray.length; fromLine++) {
+			if ((changes.length > changeIndex)
+					&& ((changes[changeIndex].getLineNumber() - 1) == fromLine)) {
+				final Change change = changes[changeIndex];
+				final String[] changedLines = changes[changeIndex]
+						.getChangedLines();
+				if (change instanceof ChangeAdd) {
+					for (int i = 0; i < changedLines.length; i++) {
+						sb.append(this.formatLine(
+								(fromLine + diffIndex + i + 1), ">",
+								changedLines[i])
+								+ "\n");
+					}
+					diffIndex += changedLines.length;
+				} else if (change instanceof ChangeDelete) {
+					for (final String changedLine : changedLines) {
+						sb.append(this.formatLine("", "<", changedLine) + "\n");
+						fromLine++;
+					}
+					diffIndex -= changedLines.length;
+				} else {
+					for (int i = 0; i < changedLines.length; i++) {
+						if (i < change.countDeleted()) {
+							sb.append(this
+									.formatLine("", "<<", changedLines[i])
+									+ "\n");
+							fromLine++;
+							diffIndex--;
+						} else {
+							sb.append(this.formatLine(
+									(fromLine + diffIndex + 1), ">>",
+									changedLines[i])
+									+ "\n");
+							diffIndex++;
+						}
+					}
+				}
+				changeIndex++;
+			}
+			if ((fromLine < this.fromArray.length)) {
+				sb.append(this.formatLine((fromLine + diffIndex + 1), " ",
+						this.fromArray[fromLine]) + "\n");
+			}
+		}
+		// Make Up Any Left Over Changes.
+		for (int i = changeIndex; i < changes.length; i++) {
+			final String[] changedLines = changes[changeIndex]
+					.getChangedLines();
+			for (int j = 0; j < changedLines.length; j++) {
+				sb.append(this.formatLine((this.fromArray.length + diffIndex
+						+ j + 1), ">", changedLines[j])
+						+ "\n");
+			}
+			diffIndex += changedLines.length;
+			changeIndex++;
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Return a formatted string describing a lines transformation.
+	 * 
+	 * @param lineNumber
+	 *            int.
+	 * @param transformation
+	 *            String.
+	 * @param content
+	 *            String.
+	 * @return formattedTransformationLine - String.
+	 */
+	private String formatLine(final int lineNumber,
+			final String transformation, final String content) {
+		return this.formatLine(Integer.toString(lineNumber), transformation,
+				content);
+	}
+
+	/**
+	 * Return a formatted string describing a lines transformation.
+	 * 
+	 * @param lineNumber
+	 *            int.
+	 * @param transformation
+	 *            String.
+	 * @param content
+	 *            String.
+	 * @return formattedTransformationLine - String.
+	 */
+	private String formatLine(final String lineNumber,
+			final String transformation, final String content) {
+		final int lnTab = 2;
+		final int trTab = 7;
+		final StringBuilder sb = new StringBuilder(lineNumber);
+		while (sb.length() < lnTab) {
+			sb.append(" ");
+		}
+		sb.append(" " + transformation);
+		while (sb.length() < trTab) {
+			sb.append(" ");
+		}
+		sb.append(content);
+		return sb.toString();
+	}
+
+	/**
+	 * DIFF ALGORITHM
+	 * **********************************************************.
+	 */
+	/**
+	 * Calculate the change set transforming the from array into the to array.
+	 */
+	protected abstract void calculateDiff();
+
+}
@@ -21,18 +21,14 @@
 package org.hydra.utilities.diff.hmdiff;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Scanner;
 import java.util.TreeSet;
 
-import org.hydra.utilities.Logger;
-import org.hydra.utilities.diff.Change;
 import org.hydra.utilities.diff.ChangeAdd;
 import org.hydra.utilities.diff.ChangeDelete;
 import org.hydra.utilities.diff.ChangeReplace;
-import org.hydra.utilities.diff.ChangeSet;
+import org.hydra.utilities.diff.Diff;
 
 /**
  * Calculates the diff between two files or two string arrays and provides the
@@ -46,13 +42,7 @@ import org.hydra.utilities.diff.ChangeSet;
  * @version 0.2
  * @author Scott A. Hady
  */
-public class HMDiff {
-
-	/** The from array. */
-	private final String[] fromArray;
-
-	/** The to array. */
-	private final String[] toArray;
+public class HMDiff extends Diff {
 
 	/** The matches. */
 	private final HashMap<String, ArrayList<Integer>> matches = new HashMap<String, ArrayList<Integer>>();
@@ -60,12 +50,6 @@ public class HMDiff {
 	/** The traces. */
 	private final TreeSet<HMTrace> traces = new TreeSet<HMTrace>();
 
-	/** The change set. */
-	private final ChangeSet changeSet = new ChangeSet();
-
-	/** The logger. */
-	private final Logger logger;
-
 	/**
 	 * Specialized Constructor which manipulates arrays of strings.
 	 *
@@ -75,9 +59,7 @@ public class HMDiff {
 	 *            String[].
 	 */
 	public HMDiff(final String[] originalArray, final String[] transformedArray) {
-		this.logger = Logger.getInstance();
-		this.fromArray = originalArray;
-		this.toArray = transformedArray;
+		super(originalArray, transformedArray);
 		this.calculateDiff();
 	}
 
@@ -92,38 +74,10 @@ public class HMDiff {
 	 *            File.
 	 */
 	public HMDiff(final File fromFile, final File toFile) {
-		this.logger = Logger.getInstance();
-		this.fromArray = this.loadFileToArray(fromFile);
-		this.toArray = this.loadFileToArray(toFile);
+		super(fromFile, toFile);
 		this.calculateDiff();
 	}
 
-	/**
-	 * Returns the contents of the given file as an array of strings.
-	 * 
-	 * @param targetFile
-	 *            File.
-	 * @return content - String[].
-	 */
-	private String[] loadFileToArray(final File targetFile) {
-		final ArrayList<String> contentList = new ArrayList<String>();
-		Scanner scanner = null;
-		try {
-			scanner = new Scanner(new FileInputStream(targetFile));
-			while (scanner.hasNext()) {
-				contentList.add(scanner.nextLine());
-			}
-		} catch (final Exception e) {
-			this.logger.exception("Unable to Load File [" + targetFile
-					+ "] to Array.", e);
-		} finally {
-			if (scanner != null) {
-				scanner.close();
-			}
-		}
-		return contentList.toArray(new String[contentList.size()]);
-	}
-
 	/**
 	 * Return the trace of the longest common sequence found in the diff
 	 * calculations.
@@ -140,16 +94,6 @@ public class HMDiff {
 		return longest;
 	}
 
-	/**
-	 * Return the set of changed which describe a possible transformation from
-	 * the original file into the resulting file.
-	 *
-	 * @return changes - ChangeSet.
-	 */
-	public ChangeSet getChangeSet() {
-		return this.changeSet;
-	}
-
 	/**
 	 * DESCRIBE METHODS
 	 * ********************************************************.
@@ -157,120 +101,6 @@ public class HMDiff {
 	 * @return the string
 	 */
 
-	/**
-	 * Return a string describing the tranformation between the orignal and
-	 * resulting file/array.
-	 *
-	 * @return transformationDescription - String.
-	 */
-	public String describeTransformation() {
-		final StringBuilder sb = new StringBuilder("l  t   content\n");
-		final Change[] changes = this.changeSet.listChanges();
-		int changeIndex = 0;
-		int diffIndex = 0;
-		for (int fromLine = 0; fromLine < this.fromArray.length; fromLine++) {
-			if ((changes.length > changeIndex)
-					&& ((changes[changeIndex].getLineNumber() - 1) == fromLine)) {
-				final Change change = changes[changeIndex];
-				final String[] changedLines = changes[changeIndex]
-						.getChangedLines();
-				if (change instanceof ChangeAdd) {
-					for (int i = 0; i < changedLines.length; i++) {
-						sb.append(this.formatLine(
-								(fromLine + diffIndex + i + 1), ">",
-								changedLines[i])
-								+ "\n");
-					}
-					diffIndex += changedLines.length;
-				} else if (change instanceof ChangeDelete) {
-					for (final String changedLine : changedLines) {
-						sb.append(this.formatLine("", "<", changedLine) + "\n");
-						fromLine++;
-					}
-					diffIndex -= changedLines.length;
-				} else {
-					for (int i = 0; i < changedLines.length; i++) {
-						if (i < change.countDeleted()) {
-							sb.append(this
-									.formatLine("", "<<", changedLines[i])
-									+ "\n");
-							fromLine++;
-							diffIndex--;
-						} else {
-							sb.append(this.formatLine(
-									(fromLine + diffIndex + 1), ">>",
-									changedLines[i])
-									+ "\n");
-							diffIndex++;
-						}
-					}
-				}
-				changeIndex++;
-			}
-			if ((fromLine < this.fromArray.length)) {
-				sb.append(this.formatLine((fromLine + diffIndex + 1), " ",
-						this.fromArray[fromLine]) + "\n");
-			}
-		}
-		// Make Up Any Left Over Changes.
-		for (int i = changeIndex; i < changes.length; i++) {
-			final String[] changedLines = changes[changeIndex]
-					.getChangedLines();
-			for (int j = 0; j < changedLines.length; j++) {
-				sb.append(this.formatLine((this.fromArray.length + diffIndex
-						+ j + 1), ">", changedLines[j])
-						+ "\n");
-			}
-			diffIndex += changedLines.length;
-			changeIndex++;
-		}
-		return sb.toString();
-	}
-
-	/**
-	 * Return a formatted string describing a lines transformation.
-	 * 
-	 * @param lineNumber
-	 *            int.
-	 * @param transformation
-	 *            String.
-	 * @param content
-	 *            String.
-	 * @return formattedTransformationLine - String.
-	 */
-	private String formatLine(final int lineNumber,
-			final String transformation, final String content) {
-		return this.formatLine(Integer.toString(lineNumber), transformation,
-				content);
-	}
-
-	/**
-	 * Return a formatted string describing a lines transformation.
-	 * 
-	 * @param lineNumber
-	 *            int.
-	 * @param transformation
-	 *            String.
-	 * @param content
-	 *            String.
-	 * @return formattedTransformationLine - String.
-	 */
-	private String formatLine(final String lineNumber,
-			final String transformation, final String content) {
-		final int lnTab = 2;
-		final int trTab = 7;
-		final StringBuilder sb = new StringBuilder(lineNumber);
-		while (sb.length() < lnTab) {
-			sb.append(" ");
-		}
-		sb.append(" " + transformation);
-		while (sb.length() < trTab) {
-			sb.append(" ");
-		}
-		sb.append(content);
-		return sb.toString();
-	}
-
 	/**
 	 * Return a string describing the set of matching lines found in the
 	 * original and resulting file/array.
@@ -309,9 +139,12 @@ public class HMDiff {
 	 * **********************************************************.
 	 */
 	/**
+	 * {@inheritDoc}
+	 *
 	 * Basic steps of the Diff Algorithm.
 	 */
-	private void calculateDiff() {
+	@Override
+	protected void calculateDiff() {
 		this.calculateMatches();
 		this.calculateTraces();
 		this.calculateChangeSet();
@@ -0,0 +1,521 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.utilities.diff.myers;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hydra.persistence.DiffCache;
+import org.hydra.utilities.diff.Change;
+import org.hydra.utilities.diff.ChangeAdd;
+import org.hydra.utilities.diff.ChangeDelete;
+import org.hydra.utilities.diff.ChangeReplace;
+import org.hydra.utilities.diff.ChangeSet;
+import org.hydra.utilities.diff.Diff;
+
+/**
+ * Calculates the diff between two files or two string arrays and provides the
+ * resulting change set which may be applied to the original file or array in
+ * order to produce the resulting file or array. The diff algorithm is based on
+ * the paper An O(ND) Difference Algorithm and Its Variations by EW Myers, using
+ * its linear space refinement which bisects the edit script at the middle
+ * snake.
+ *
+ * Lines are interned to integers, so that lines are only compared by their
+ * hashes once. The common prefix and suffix are trimmed before searching, and
+ * lines only found in one of the arrays are marked as changed without being
+ * searched, since they can not be part of a common sequence.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+public class MyersDiff extends Diff {
+
+	/** The interned lines of the from array. */
+	private int[] fromIds;
+
+	/** The interned lines of the to array. */
+	private int[] toIds;
+
+	/** Whether each line of the from array is deleted. */
+	private boolean[] deleted;
+
+	/** Whether each line of the to array is inserted. */
+	private boolean[] inserted;
+
+	/**
+	 * Specialized Constructor which manipulates arrays of strings.
+	 *
+	 * @param originalArray
+	 *            String[].
+	 * @param transformedArray
+	 *            String[].
+	 */
+	public MyersDiff(final String[] originalArray,
+			final String[] transformedArray) {
+		super(originalArray, transformedArray);
+		this.calculateDiff();
+	}
+
+	/**
+	 * Specialized Constructor which recieves the original and the resulting
+	 * file from which to determine the necessary differential describing the
+	 * transformation.
+	 *
+	 * @param fromFile
+	 *            File.
+	 * @param toFile
+	 *            File.
+	 */
+	public MyersDiff(final File fromFile, final File toFile) {
+		super(fromFile, toFile);
+		this.calculateDiff();
+	}
+
+	/**
+	 * Specialized Constructor which reads the original and the resulting
+	 * content from the given streams. The streams are not closed.
+	 *
+	 * @param fromStream
+	 *            InputStream.
+	 * @param toStream
+	 *            InputStream.
+	 */
+	public MyersDiff(final InputStream fromStream, final InputStream toStream) {
+		super(fromStream, toStream);
+		this.calculateDiff();
+	}
+
+	/**
+	 * Specialized Constructor which reads the original and the resulting
+	 * content from the given streams, identified by the given hashes. The
+	 * change set is taken from the {@link DiffCache} if it was calculated
+	 * before, otherwise it is calculated and cached. The streams are not
+	 * closed.
+	 *
+	 * @param fromStream
+	 *            InputStream.
+	 * @param toStream
+	 *            InputStream.
+	 * @param fromHash
+	 *            String, the hash of the original content, may be null.
+	 * @param toHash
+	 *            String, the hash of the resulting content, may be null.
+	 */
+	public MyersDiff(final InputStream fromStream, final InputStream toStream,
+			final String fromHash, final String toHash) {
+		super(fromStream, toStream);
+		final DiffCache cache = DiffCache.getInstance();
+		final ChangeSet cached = cache.lookup(fromHash, toHash);
+		if (cached != null) {
+			for (final Change change : cached.listChanges()) {
+				this.changeSet.add(change);
+			}
+		} else {
+			this.calculateDiff();
+			cache.store(fromHash, toHash, this.changeSet);
+		}
+	}
+
+	/**
+	 * DIFF ALGORITHM
+	 * **********************************************************.
+	 */
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Basic steps of the Diff Algorithm.
+	 */
+	@Override
+	protected void calculateDiff() {
+		this.internLines();
+		this.deleted = new boolean[this.fromArray.length];
+		this.inserted = new boolean[this.toArray.length];
+		this.compareUniqueLines();
+		this.calculateChangeSet();
+	}
+
+	/**
+	 * Intern the lines of both arrays, equal lines receiving equal ids.
+	 */
+	private void internLines() {
+		final Map<String, Integer> ids = new HashMap<String, Integer>();
+		this.fromIds = MyersDiff.intern(this.fromArray, ids);
+		this.toIds = MyersDiff.intern(this.toArray, ids);
+	}
+
+	/**
+	 * Intern the given lines.
+	 *
+	 * @param lines
+	 *            String[].
+	 * @param ids
+	 *            Map of the ids of the lines interned so far.
+	 * @return lineIds - int[].
+	 */
+	private static int[] intern(final String[] lines,
+			final Map<String, Integer> ids) {
+		final int[] lineIds = new int[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			Integer id = ids.get(lines[i]);
+			if (id == null) {
+				id = ids.size();
+				ids.put(lines[i], id);
+			}
+			lineIds[i] = id;
+		}
+		return lineIds;
+	}
+
+	/**
+	 * Trim the common prefix and suffix, mark the lines only found in one of
+	 * the arrays as changed and compare the remaining lines.
+	 */
+	private void compareUniqueLines() {
+		int start = 0;
+		int fromEnd = this.fromIds.length;
+		int toEnd = this.toIds.length;
+		while ((start < fromEnd) && (start < toEnd)
+				&& (this.fromIds[start] == this.toIds[start])) {
+			start++;
+		}
+		while ((fromEnd > start) && (toEnd > start)
+				&& (this.fromIds[fromEnd - 1] == this.toIds[toEnd - 1])) {
+			fromEnd--;
+			toEnd--;
+		}
+		// Count the Occurrences of Each Line in Both Arrays.
+		final int numIds = Math.max(MyersDiff.max(this.fromIds),
+				MyersDiff.max(this.toIds)) + 1;
+		final boolean[] inFrom = new boolean[numIds];
+		final boolean[] inTo = new boolean[numIds];
+		for (int i = start; i < fromEnd; i++) {
+			inFrom[this.fromIds[i]] = true;
+		}
+		for (int i = start; i < toEnd; i++) {
+			inTo[this.toIds[i]] = true;
+		}
+		final int[] fromIndex = MyersDiff.filter(this.fromIds, start, fromEnd,
+				inTo, this.deleted);
+		final int[] toIndex = MyersDiff.filter(this.toIds, start, toEnd,
+				inFrom, this.inserted);
+		new Bisection(this.project(this.fromIds, fromIndex), fromIndex,
+				this.deleted, this.project(this.toIds, toIndex), toIndex,
+				this.inserted).compare(0, fromIndex.length, 0, toIndex.length);
+	}
+
+	/**
+	 * Return the indices of the lines within the given range which are also
+	 * found in the other array, marking all other lines as changed.
+	 *
+	 * @param ids
+	 *            int[].
+	 * @param start
+	 *            int.
+	 * @param end
+	 *            int.
+	 * @param inOther
+	 *            boolean[], whether a line is found in the other array.
+	 * @param changed
+	 *            boolean[].
+	 * @return indices - int[].
+	 */
+	private static int[] filter(final int[] ids, final int start,
+			final int end, final boolean[] inOther, final boolean[] changed) {
+		final int[] indices = new int[end - start];
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (inOther[ids[i]]) {
+				indices[count++] = i;
+			} else {
+				changed[i] = true;
+			}
+		}
+		return Arrays.copyOf(indices, count);
+	}
+
+	/**
+	 * Return the ids of the lines at the given indices.
+	 *
+	 * @param ids
+	 *            int[].
+	 * @param indices
+	 *            int[].
+	 * @return projectedIds - int[].
+	 */
+	private int[] project(final int[] ids, final int[] indices) {
+		final int[] projected = new int[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			projected[i] = ids[indices[i]];
+		}
+		return projected;
+	}
+
+	/**
+	 * Return the largest of the given ids.
+	 *
+	 * @param ids
+	 *            int[].
+	 * @return max - int, or -1 if empty.
+	 */
+	private static int max(final int[] ids) {
+		int max = -1;
+		for (final int id : ids) {
+			max = Math.max(max, id);
+		}
+		return max;
+	}
+
+	/**
+	 * Derive the set of changes from the changed lines. Consecutive deleted and
+	 * inserted lines are replaced, deleted lines only are deleted and inserted
+	 * lines only are added before the following unchanged line.
+	 */
+	private void calculateChangeSet() {
+		int fromLine = 0;
+		int toLine = 0;
+		while ((fromLine < this.fromArray.length)
+				|| (toLine < this.toArray.length)) {
+			int fromEnd = fromLine;
+			while ((fromEnd < this.fromArray.length) && this.deleted[fromEnd]) {
+				fromEnd++;
+			}
+			int toEnd = toLine;
+			while ((toEnd < this.toArray.length) && this.inserted[toEnd]) {
+				toEnd++;
+			}
+			final int numDeleted = fromEnd - fromLine;
+			final int numInserted = toEnd - toLine;
+			if ((numDeleted > 0) && (numInserted > 0)) {
+				final String[] changedLines = new String[numDeleted
+						+ numInserted];
+				System.arraycopy(this.fromArray, fromLine, changedLines, 0,
+						numDeleted);
+				System.arraycopy(this.toArray, toLine, changedLines,
+						numDeleted, numInserted);
+				this.changeSet.add(new ChangeReplace(fromLine + 1,
+						changedLines, numDeleted));
+			} else if (numDeleted > 0) {
+				this.changeSet.add(new ChangeDelete(fromLine + 1, Arrays
+						.copyOfRange(this.fromArray, fromLine, fromEnd)));
+			} else if (numInserted > 0) {
+				this.changeSet.add(new ChangeAdd(fromLine + 1, Arrays
+						.copyOfRange(this.toArray, toLine, toEnd)));
+			}
+			// Skip the Following Unchanged Line.
+			fromLine = fromEnd + 1;
+			toLine = toEnd + 1;
+		}
+	}
+
+	/**
+	 * Marks the changed lines of two sequences of interned lines by
+	 * recursively bisecting them at the middle snake of their edit graph.
+	 */
+	private static class Bisection {
+
+		/** The from sequence. */
+		private final int[] a;
+
+		/** The indices of the from sequence within the from array. */
+		private final int[] aIndex;
+
+		/** The deleted lines of the from array. */
+		private final boolean[] deleted;
+
+		/** The to sequence. */
+		private final int[] b;
+
+		/** The indices of the to sequence within the to array. */
+		private final int[] bIndex;
+
+		/** The inserted lines of the to array. */
+		private final boolean[] inserted;
+
+		/**
+		 * Specialized Constructor.
+		 *
+		 * @param a
+		 *            int[].
+		 * @param aIndex
+		 *            int[].
+		 * @param deleted
+		 *            boolean[].
+		 * @param b
+		 *            int[].
+		 * @param bIndex
+		 *            int[].
+		 * @param inserted
+		 *            boolean[].
+		 */
+		Bisection(final int[] a, final int[] aIndex, final boolean[] deleted,
+				final int[] b, final int[] bIndex, final boolean[] inserted) {
+			this.a = a;
+			this.aIndex = aIndex;
+			this.deleted = deleted;
+			this.b = b;
+			this.bIndex = bIndex;
+			this.inserted = inserted;
+		}
+
+		/**
+		 * Mark the changed lines between the given ranges of the sequences.
+		 *
+		 * @param aStart
+		 *            int.
+		 * @param aEnd
+		 *            int, exclusive.
+		 * @param bStart
+		 *            int.
+		 * @param bEnd
+		 *            int, exclusive.
+		 */
+		void compare(int aStart, int aEnd, int bStart, int bEnd) {
+			// Trim Common Prefix and Suffix.
+			while ((aStart < aEnd) && (bStart < bEnd)
+					&& (this.a[aStart] == this.b[bStart])) {
+				aStart++;
+				bStart++;
+			}
+			while ((aStart < aEnd) && (bStart < bEnd)
+					&& (this.a[aEnd - 1] == this.b[bEnd - 1])) {
+				aEnd--;
+				bEnd--;
+			}
+			if ((aStart == aEnd) || (bStart == bEnd)) {
+				for (int i = aStart; i < aEnd; i++) {
+					this.deleted[this.aIndex[i]] = true;
+				}
+				for (int i = bStart; i < bEnd; i++) {
+					this.inserted[this.bIndex[i]] = true;
+				}
+				return;
+			}
+			final int[] split = this.findMiddleSnake(aStart, aEnd, bStart,
+					bEnd);
+			if (split == null) {
+				this.compare(aStart, aEnd, bEnd, bEnd);
+				this.compare(aEnd, aEnd, bStart, bEnd);
+			} else {
+				this.compare(aStart, split[0], bStart, split[1]);
+				this.compare(split[0], aEnd, split[1], bEnd);
+			}
+		}
+
+		/**
+		 * Find the point at which the shortest edit script between the given
+		 * ranges crosses its middle, searching forwards from their start and
+		 * backwards from their end at once.
+		 *
+		 * @param aStart
+		 *            int.
+		 * @param aEnd
+		 *            int, exclusive.
+		 * @param bStart
+		 *            int.
+		 * @param bEnd
+		 *            int, exclusive.
+		 * @return split - int[], the positions in both sequences, or null if
+		 *         the ranges have no common line.
+		 */
+		private int[] findMiddleSnake(final int aStart, final int aEnd,
+				final int bStart, final int bEnd) {
+			final int n = aEnd - aStart;
+			final int m = bEnd - bStart;
+			final int maxD = (n + m + 1) / 2;
+			final int offset = maxD;
+			final int[] forward = new int[(2 * maxD) + 2];
+			final int[] backward = new int[(2 * maxD) + 2];
+			Arrays.fill(forward, -1);
+			Arrays.fill(backward, -1);
+			forward[offset + 1] = 0;
+			backward[offset + 1] = 0;
+			final int delta = n - m;
+			final boolean odd = (delta % 2) != 0;
+			int forwardStart = 0;
+			int forwardEnd = 0;
+			int backwardStart = 0;
+			int backwardEnd = 0;
+			for (int d = 0; d < maxD; d++) {
+				// Extend the Forward Paths.
+				for (int k = -d + forwardStart; k <= (d - forwardEnd); k += 2) {
+					int x = ((k == -d) || ((k != d) && (forward[(offset + k) - 1] < forward[offset
+							+ k + 1]))) ? forward[offset + k + 1]
+							: forward[(offset + k) - 1] + 1;
+					int y = x - k;
+					while ((x < n)
+							&& (y < m)
+							&& (this.a[aStart + x] == this.b[bStart + y])) {
+						x++;
+						y++;
+					}
+					forward[offset + k] = x;
+					if (x > n) {
+						forwardEnd += 2;
+					} else if (y > m) {
+						forwardStart += 2;
+					} else if (odd) {
+						final int reverse = (offset + delta) - k;
+						if ((reverse >= 0) && (reverse < backward.length)
+								&& (backward[reverse] != -1)
+								&& (x >= (n - backward[reverse])))
+							return new int[] { aStart + x, bStart + y };
+					}
+				}
+				// Extend the Backward Paths.
+				for (int k = -d + backwardStart; k <= (d - backwardEnd); k += 2) {
+					int x = ((k == -d) || ((k != d) && (backward[(offset + k) - 1] < backward[offset
+							+ k + 1]))) ? backward[offset + k + 1]
+							: backward[(offset + k) - 1] + 1;
+					int y = x - k;
+					while ((x < n)
+							&& (y < m)
+							&& (this.a[(aEnd - x) - 1] == this.b[(bEnd - y) - 1])) {
+						x++;
+						y++;
+					}
+					backward[offset + k] = x;
+					if (x > n) {
+						backwardEnd += 2;
+					} else if (y > m) {
+						backwardStart += 2;
+					} else if (!odd) {
+						final int reverse = (offset + delta) - k;
+						if ((reverse >= 0) && (reverse < forward.length)
+								&& (forward[reverse] != -1)) {
+							final int forwardX = forward[reverse];
+							final int forwardY = (offset + forwardX) - reverse;
+							if (forwardX >= (n - x))
+								return new int[] { aStart + forwardX,
+										bStart + forwardY };
+						}
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+}
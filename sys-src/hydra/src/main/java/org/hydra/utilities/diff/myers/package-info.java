@@ -0,0 +1,9 @@
+/**
+ * Differential Implementation based on the Myers O(ND) algorithm.
+ *
+ * @since 0.2
+ * @version 0.2
+ * @author Scott A. Hady
+ */
+package org.hydra.utilities.diff.myers;
+
@@ -21,8 +21,19 @@
 package org.hydra.core;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.ZipFile;
 
 import org.hydra.TH;
+import org.hydra.persistence.AdaptiveStorageStrategyImpl;
+import org.hydra.persistence.ChunkedStorageStrategyImpl;
+import org.hydra.persistence.DataAccessObject;
+import org.hydra.persistence.DeltaStorageStrategyImpl;
+import org.hydra.persistence.NIOStorageStrategyImpl;
+import org.hydra.persistence.ZipStorageStrategyImpl;
 import org.hydra.utilities.Logger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -195,6 +206,378 @@ public class ArtifactTest {
 		Assert.assertFalse("Deleted File Stored.", this.a1.store());
 	}
 
+	/**
+	 * A_store delta.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void a_storeDelta() throws InvalidElementException {
+		final Configuration config = Configuration.getInstance();
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				DeltaStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			final StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 2000; i++) {
+				sb.append("Line ").append(i).append(" of the artifact.\n");
+			}
+			final String content1 = sb.toString();
+			TH.writeFile(TH.w1File, content1);
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Version 1.", this.a1.store());
+			final String hash1 = this.a1.getHash();
+			final File full = this.a1.cloneRepositoryFile();
+			// Second Version Stored as Delta against First
+			sb.insert(sb.length() / 2, "An inserted line.\n");
+			final String content2 = sb.toString();
+			TH.writeFile(TH.w1File, content2);
+			Assert.assertTrue("Refresh Version 2.",
+					this.a1.refreshFingerprint());
+			Assert.assertEquals("Delta Base.", full, this.a1.cloneDeltaBase());
+			Assert.assertTrue("Store Version 2.", this.a1.store());
+			final File delta = this.a1.cloneRepositoryFile();
+			final DeltaStorageStrategyImpl strategy =
+					new DeltaStorageStrategyImpl();
+			Assert.assertFalse("Version 1 Full.", strategy.isDelta(full));
+			Assert.assertTrue("Version 2 Delta.", strategy.isDelta(delta));
+			Assert.assertTrue("Delta Smaller.",
+					delta.length() < (full.length() / 4));
+			// Third Version Stored as Delta against Second
+			sb.replace(0, 4, "LINE");
+			TH.writeFile(TH.w1File, sb.toString());
+			Assert.assertTrue("Refresh Version 3.",
+					this.a1.refreshFingerprint());
+			Assert.assertEquals("Delta Base.", delta, this.a1.cloneDeltaBase());
+			Assert.assertTrue("Store Version 3.", this.a1.store());
+			Assert.assertTrue("Version 3 Delta.",
+					strategy.isDelta(this.a1.cloneRepositoryFile()));
+			// Rebuild All Versions
+			Assert.assertTrue(TH.w1File.delete());
+			Assert.assertTrue("Retrieve Version 3.", this.a1.retrieve());
+			Assert.assertTrue("Version 3 Content.", new Fingerprint(
+					sb.toString()).checkFingerprint(TH.w1File));
+			this.a2 = new Artifact(TH.w1File,
+					new Fingerprint(content2).getHash());
+			Assert.assertTrue("Retrieve Version 2.", this.a2.retrieve());
+			Assert.assertTrue("Version 2 Content.", new Fingerprint(content2)
+					.checkFingerprint(TH.w1File));
+			this.a2 = new Artifact(TH.w1File, hash1);
+			Assert.assertTrue("Retrieve Version 1.", this.a2.retrieve());
+			Assert.assertTrue("Version 1 Content.", new Fingerprint(content1)
+					.checkFingerprint(TH.w1File));
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+	}
+
+	/**
+	 * A_store default.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_storeDefault() throws Exception {
+		final byte[] content =
+				new byte[(int) ChunkedStorageStrategyImpl.CHUNK_THRESHOLD + 1024];
+		new Random(1).nextBytes(content);
+		ArtifactTest.writeBytes(TH.w1File, content, false);
+		this.a1 = new Artifact(TH.w1File);
+		Assert.assertTrue("Store Version 1.", this.a1.store());
+		Assert.assertFalse("Version 1 Chunked.", new ChunkedStorageStrategyImpl(
+				null).isChunked(this.a1.cloneRepositoryFile()));
+		final ZipFile zip = new ZipFile(this.a1.cloneRepositoryFile());
+		try {
+			Assert.assertEquals("Version 1 Zipped.", 1, zip.size());
+		} finally {
+			zip.close();
+		}
+	}
+
+	/**
+	 * A_store chunked.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_storeChunked() throws Exception {
+		final Configuration config = Configuration.getInstance();
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				DeltaStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			final byte[] content =
+					new byte[(int) ChunkedStorageStrategyImpl.CHUNK_THRESHOLD + 1024];
+			new Random(1).nextBytes(content);
+			ArtifactTest.writeBytes(TH.w1File, content, false);
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Version 1.", this.a1.store());
+			final String hash1 = this.a1.getHash();
+			final ChunkedStorageStrategyImpl strategy =
+					new ChunkedStorageStrategyImpl(null);
+			Assert.assertTrue("Version 1 Chunked.",
+					strategy.isChunked(this.a1.cloneRepositoryFile()));
+			final int objects = TH.fpStore.list().length;
+			// Appended Record Only Adds Manifest and Last Chunk
+			ArtifactTest.writeBytes(TH.w1File, "Appended Record.".getBytes(),
+					true);
+			Assert.assertTrue("Refresh Version 2.",
+					this.a1.refreshFingerprint());
+			Assert.assertTrue("Store Version 2.", this.a1.store());
+			Assert.assertEquals("New Objects.", objects + 2,
+					TH.fpStore.list().length);
+			// Reassemble Both Versions
+			final String hash2 = this.a1.getHash();
+			Assert.assertTrue(TH.w1File.delete());
+			Assert.assertTrue("Retrieve Version 2.", this.a1.retrieve());
+			Assert.assertEquals("Version 2 Content.", hash2, new Fingerprint(
+					TH.w1File).getHash());
+			this.a2 = new Artifact(TH.w1File, hash1);
+			Assert.assertTrue("Retrieve Version 1.", this.a2.retrieve());
+			Assert.assertEquals("Version 1 Content.", hash1, new Fingerprint(
+					TH.w1File).getHash());
+			// Open Chunks Without Reassembling
+			Assert.assertEquals("Version 2 Opened.", hash2,
+					ArtifactTest.hashContents(this.a1));
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+	}
+
+	/**
+	 * A_open contents.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_openContents() throws Exception {
+		final Configuration config = Configuration.getInstance();
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				DeltaStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			final StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 2000; i++) {
+				sb.append("Line ").append(i).append(" of the artifact.\n");
+			}
+			TH.writeFile(TH.w1File, sb.toString());
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Version 1.", this.a1.store());
+			this.a2 = new Artifact(TH.w1File, this.a1.getHash());
+			// Second Version Stored as Delta
+			sb.insert(sb.length() / 2, "An inserted line.\n");
+			TH.writeFile(TH.w1File, sb.toString());
+			Assert.assertTrue("Refresh Version 2.",
+					this.a1.refreshFingerprint());
+			Assert.assertTrue("Store Version 2.", this.a1.store());
+			Assert.assertTrue("Version 2 Delta.", new DeltaStorageStrategyImpl()
+					.isDelta(this.a1.cloneRepositoryFile()));
+			// Both Versions Opened Decoded
+			Assert.assertTrue(TH.w1File.delete());
+			Assert.assertEquals("Version 2 Opened.", this.a1.getHash(),
+					ArtifactTest.hashContents(this.a1));
+			Assert.assertEquals("Version 1 Opened.", this.a2.getHash(),
+					ArtifactTest.hashContents(this.a2));
+			Assert.assertFalse("Not Restored.", TH.w1File.exists());
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+	}
+
+	/**
+	 * Hash the opened contents of the given artifact.
+	 * 
+	 * @param artifact
+	 *            the artifact
+	 * @return the hash
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String hashContents(final Artifact artifact)
+			throws IOException {
+		final InputStream is = artifact.openContents();
+		try {
+			return new Fingerprint().calculateHashValue(is).toString();
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * A_store adaptive.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_storeAdaptive() throws Exception {
+		final Configuration config = Configuration.getInstance();
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				AdaptiveStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			// Compressible Content is Zipped
+			final StringBuilder sb = new StringBuilder();
+			while (sb.length() < AdaptiveStorageStrategyImpl.SAMPLE_SIZE) {
+				sb.append(TH.f1String);
+			}
+			TH.writeFile(TH.w1File, sb.toString());
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Compressible.", this.a1.store());
+			Assert.assertTrue("Compressed.",
+					this.a1.cloneRepositoryFile().length() < TH.w1File.length());
+			// Incompressible Content is Stored Raw
+			final byte[] content = new byte[AdaptiveStorageStrategyImpl.SAMPLE_SIZE];
+			new Random(2).nextBytes(content);
+			ArtifactTest.writeBytes(TH.w2File, content, false);
+			this.a2 = new Artifact(TH.w2File);
+			Assert.assertTrue("Store Incompressible.", this.a2.store());
+			Assert.assertEquals("Stored Raw.", content.length
+					+ AdaptiveStorageStrategyImpl.RAW_MAGIC.length, this.a2
+					.cloneRepositoryFile().length());
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+		// Default Strategy Decodes Both
+		final String hash1 = this.a1.getHash();
+		final String hash2 = this.a2.getHash();
+		Assert.assertTrue(TH.w1File.delete() && TH.w2File.delete());
+		Assert.assertTrue("Retrieve Compressible.",
+				new Artifact(TH.w1File, hash1).retrieve());
+		Assert.assertEquals("Compressible Content.", hash1, new Fingerprint(
+				TH.w1File).getHash());
+		Assert.assertTrue("Retrieve Incompressible.", new Artifact(TH.w2File,
+				hash2).retrieve());
+		Assert.assertEquals("Incompressible Content.", hash2, new Fingerprint(
+				TH.w2File).getHash());
+	}
+
+	/**
+	 * A_read mixed, objects are decoded by their encoding rather than by the
+	 * configured strategy.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_readMixed() throws Exception {
+		final Configuration config = Configuration.getInstance();
+		final byte[] content = new byte[AdaptiveStorageStrategyImpl.SAMPLE_SIZE];
+		new Random(3).nextBytes(content);
+		ArtifactTest.writeBytes(TH.w1File, content, false);
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				AdaptiveStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Raw.", this.a1.store());
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+		final String hash = this.a1.getHash();
+		for (final String strategy : new String[] {
+				ZipStorageStrategyImpl.COMPRESSION_TYPE,
+				NIOStorageStrategyImpl.COMPRESSION_TYPE }) {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+					strategy);
+			try {
+				Assert.assertTrue(TH.w1File.delete());
+				final Artifact artifact = new Artifact(TH.w1File, hash);
+				Assert.assertTrue("Retrieve With " + strategy + ".",
+						artifact.retrieve());
+				Assert.assertEquals("Content With " + strategy + ".", hash,
+						new Fingerprint(TH.w1File).getHash());
+				Assert.assertEquals("Opened With " + strategy + ".", hash,
+						ArtifactTest.hashContents(artifact));
+			} finally {
+				config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+						null);
+			}
+		}
+	}
+
+	/**
+	 * A_store nio, raw objects are tagged so that content starting like a
+	 * compressed object is restored unchanged.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void a_storeNIO() throws Exception {
+		final Configuration config = Configuration.getInstance();
+		final byte[] content = new byte[1024];
+		new Random(4).nextBytes(content);
+		content[0] = 'P';
+		content[1] = 'K';
+		content[2] = 3;
+		content[3] = 4;
+		ArtifactTest.writeBytes(TH.w1File, content, false);
+		config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY,
+				NIOStorageStrategyImpl.COMPRESSION_TYPE);
+		try {
+			this.a1 = new Artifact(TH.w1File);
+			Assert.assertTrue("Store Raw.", this.a1.store());
+			Assert.assertEquals("Not Tagged.", content.length
+					+ AdaptiveStorageStrategyImpl.RAW_MAGIC.length, this.a1
+					.cloneRepositoryFile().length());
+			final String hash = this.a1.getHash();
+			Assert.assertTrue(TH.w1File.delete());
+			Assert.assertTrue("Retrieve Raw.",
+					new Artifact(TH.w1File, hash).retrieve());
+			Assert.assertEquals("Raw Content.", hash, new Fingerprint(
+					TH.w1File).getHash());
+		} finally {
+			config.setProperty(DataAccessObject.PROPERTY_STORAGE_STRATEGY, null);
+		}
+	}
+
+	/**
+	 * A_ingest.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void a_ingest() throws InvalidElementException {
+		this.a1 = new Artifact(TH.w1File);
+		Assert.assertTrue("Ingest Version 1.", this.a1.ingest());
+		Assert.assertEquals("Version 1 Hash.", TH.f1Hash, this.a1.getHash());
+		Assert.assertTrue("Version 1 Stored.", TH.r1File.exists());
+		TH.writeFile(TH.w1File, TH.f2String);
+		Assert.assertTrue("Ingest Version 2.", this.a1.ingest());
+		Assert.assertEquals("Version 2 Hash.", TH.f2Hash, this.a1.getHash());
+		Assert.assertEquals("Only Objects Remain.", 2,
+				TH.fpStore.list().length);
+		Assert.assertTrue(TH.w1File.delete());
+		Assert.assertTrue("Retrieve Version 2.", this.a1.retrieve());
+		Assert.assertEquals("Version 2 Content.", TH.f2Hash, new Fingerprint(
+				TH.w1File).getHash());
+		Assert.assertTrue(TH.w1File.delete());
+		Assert.assertFalse("Ingest Deleted.", this.a1.ingest());
+	}
+
+	/**
+	 * Write the given bytes to the file.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param bytes
+	 *            the bytes
+	 * @param append
+	 *            whether to append
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static void writeBytes(final File file, final byte[] bytes,
+			final boolean append) throws IOException {
+		final FileOutputStream fos = new FileOutputStream(file, append);
+		try {
+			fos.write(bytes);
+		} finally {
+			fos.close();
+		}
+	}
+
 	/**
 	 * A_retrieve un writeable.
 	 * 
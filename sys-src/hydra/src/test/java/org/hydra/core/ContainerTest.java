@@ -23,6 +23,7 @@ package org.hydra.core;
 import java.io.File;
 
 import org.hydra.TH;
+import org.hydra.persistence.WorkspaceIndex;
 import org.hydra.utilities.FilterOutHidden;
 import org.hydra.utilities.Logger;
 import org.junit.Assert;
@@ -227,6 +228,124 @@ public class ContainerTest {
 				TH.workspace.listFiles(new FilterOutHidden()).length);
 	}
 
+	/**
+	 * C_checkout.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void c_checkout() throws InvalidElementException {
+		Assert.assertTrue(this.c1.addContainerAndContents(new Container(
+				TH.w1Dir)));
+		Assert.assertTrue(this.c1.addElement(new Artifact(TH.w1File)));
+		Assert.assertTrue("Version 1 Not Stored.", this.c1.ingest());
+		final Container v1 = new Container(TH.workspace, this.c1.getHash());
+		TH.writeFile(TH.w1File, TH.f2String);
+		Assert.assertTrue("Version 2 Not Stored.", this.c1.ingest());
+		final Container v2 = new Container(TH.workspace, this.c1.getHash());
+		Assert.assertFalse("Versions Equal.", v1.getHash().equals(v2.getHash()));
+		// Unchanged Files are not Rewritten
+		final long modified = ((System.currentTimeMillis() / 1000) - 3600) * 1000;
+		Assert.assertTrue(TH.d1w1File.setLastModified(modified));
+		Assert.assertTrue("Checkout Failed.", v1.checkout(v2));
+		Assert.assertEquals("Unchanged File Rewritten.", modified,
+				TH.d1w1File.lastModified());
+		Assert.assertEquals("Changed File Not Restored.", TH.f1String,
+				TH.gatherContent(TH.w1File));
+		// Workspace Modifications of Unchanged Subtrees are Reverted
+		TH.writeFile(TH.d1w1File, TH.f3String);
+		Assert.assertTrue("Checkout Failed.", v2.checkout(v1));
+		Assert.assertEquals("Modified File Not Restored.", TH.f1String,
+				TH.gatherContent(TH.d1w1File));
+		Assert.assertEquals("Changed File Not Restored.", TH.f2String,
+				TH.gatherContent(TH.w1File));
+	}
+
+	/**
+	 * C_checkout nearby, a checkout between commits differing in a single
+	 * file writes only that file and only stats the unchanged subtree.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void c_checkoutNearby() throws InvalidElementException {
+		TH.writeFile(TH.d1w2File, TH.f2String);
+		TH.writeFile(TH.d1w3File, TH.f3String);
+		Assert.assertTrue(this.c1.addContainerAndContents(new Container(
+				TH.w1Dir)));
+		Assert.assertTrue(this.c1.addElement(new Artifact(TH.w1File)));
+		final File[] files = { TH.w1File, TH.d1w1File, TH.d1w2File,
+				TH.d1w3File };
+		// Age the Files, so the Index Records Them.
+		final long modified = ((System.currentTimeMillis() / 1000) - 3600) * 1000;
+		for (final File file : files) {
+			Assert.assertTrue(file.setLastModified(modified));
+		}
+		Assert.assertTrue("Version 1 Not Stored.", this.c1.ingest());
+		final Container v1 = new Container(TH.workspace, this.c1.getHash());
+		TH.writeFile(TH.w1File, TH.f2String);
+		Assert.assertTrue(TH.w1File.setLastModified(modified - 1000));
+		Assert.assertTrue("Version 2 Not Stored.", this.c1.ingest());
+		final Container v2 = new Container(TH.workspace, this.c1.getHash());
+		final long[] before = new long[files.length];
+		for (int i = 0; i < files.length; i++) {
+			before[i] = files[i].lastModified();
+		}
+		final WorkspaceIndex index = WorkspaceIndex.getInstance();
+		final long hits = index.getHits();
+		final long misses = index.getMisses();
+		Assert.assertTrue("Checkout Failed.", v1.checkout(v2));
+		int written = 0;
+		for (int i = 0; i < files.length; i++) {
+			if (files[i].lastModified() != before[i]) {
+				written++;
+			}
+		}
+		Assert.assertEquals("Incorrect Number of Files Written.", 1, written);
+		Assert.assertEquals("Changed File Not Restored.", TH.f1String,
+				TH.gatherContent(TH.w1File));
+		Assert.assertEquals("Files Hashed.", 0, index.getMisses() - misses);
+		Assert.assertEquals("Files Not Stat Checked Once.", files.length,
+				index.getHits() - hits);
+	}
+
+	/**
+	 * C_ingest failure, a failed artifact fails the container's ingest.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void c_ingestFailure() throws InvalidElementException {
+		Assert.assertTrue(this.c1.addElement(new Artifact(TH.w1File)));
+		Assert.assertTrue(this.c1.addElement(new Artifact(TH.w2File)));
+		Assert.assertTrue("Ingest Failed.", this.c1.ingest());
+		Assert.assertTrue(TH.w2File.delete());
+		Assert.assertFalse("Failed Artifact Ignored.", this.c1.ingest());
+	}
+
+	/**
+	 * C_lazy loading.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void c_lazyLoading() throws InvalidElementException {
+		TH.setupTestingEnvironment(false, true);
+		this.c1 = new Container(TH.workspace, TH.c123c1Hash);
+		Assert.assertNotNull("Artifact Not Found.",
+				this.c1.getElement("c2File.txt"));
+		// Subcontainers are Loaded on First Access
+		TH.writeFile(TH.r1Cont, TH.cHeader);
+		final Container w1Dir = (Container) this.c1.getElement("w1Dir");
+		Assert.assertEquals("Subcontainer Loaded Early.", 0,
+				w1Dir.countElements());
+		Assert.assertEquals("Incorrect Hash.", TH.c1Hash, w1Dir.getHash());
+	}
+
 	/**
 	 * C_status.
 	 * 
@@ -493,6 +612,44 @@ public class ContainerTest {
 		// System.out.println("\n"+c1.describe()+c2.describe());
 	}
 
+	/**
+	 * C_refresh parallel.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void c_refreshParallel() throws InvalidElementException {
+		this.c1 = new Container(TH.workspace);
+		for (int d = 0; d < 4; d++) {
+			final File dir = new File(TH.workspace, "dir" + d);
+			Assert.assertTrue(dir.mkdir());
+			for (int f = 0; f < FingerprintRefresher.PARALLEL_THRESHOLD / 2; f++) {
+				TH.writeFile(new File(dir, "file" + f + ".txt"), TH.f1String
+						+ d + f);
+			}
+			Assert.assertTrue(this.c1.addContainerAndContents(new Container(
+					dir)));
+		}
+		final Container c2 = new Container(this.c1);
+		// Serial Refresh
+		TH.config.setProperty(FingerprintRefresher.PROPERTY_PARALLEL, "false");
+		Assert.assertTrue("Serial Refresh Failed.",
+				this.c1.refreshFingerprint());
+		TH.config.setProperty(FingerprintRefresher.PROPERTY_PARALLEL, null);
+		// Parallel Refresh
+		Assert.assertTrue("Parallel Refresh Failed.",
+				new FingerprintRefresher(4).refresh(c2));
+		Assert.assertEquals("Parallel Hash Differs.", this.c1.getHash(),
+				c2.getHash());
+		// Removed Files are Dropped
+		TH.deleteFile(new File(new File(TH.workspace, "dir2"), "file0.txt"));
+		Assert.assertFalse("Should Report Missing File.",
+				new FingerprintRefresher(4).refresh(c2));
+		Assert.assertEquals("Missing File Not Removed.",
+				this.c1.countElements() - 1, c2.countElements());
+	}
+
 	/**
 	 * C_add ill formed element.
 	 * 
@@ -23,6 +23,7 @@ package org.hydra.core;
 import java.io.File;
 
 import org.hydra.TH;
+import org.hydra.persistence.WorkspaceIndex;
 import org.hydra.utilities.Logger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -91,6 +92,62 @@ public class FingerprintTest {
 		// System.out.println("\n\tF1: "+fp1.getHash()+" F2: "+fp2.getHash()+" F3: "+fp3.getHash());
 	}
 
+	/**
+	 * Fp_creation large file.
+	 */
+	@Test
+	public void fp_creationLargeFile() {
+		final StringBuilder sb = new StringBuilder();
+		while (sb.length() <= (4 * Fingerprint.BUFFER_SIZE)) {
+			sb.append(TH.f3String);
+		}
+		final File largeFile = new File(TH.workspace, "largeFile.txt");
+		TH.writeFile(largeFile, sb.toString());
+		this.fp1 = new Fingerprint(largeFile);
+		this.fp2 = new Fingerprint(sb.toString());
+		Assert.assertEquals("Streamed Hash.", this.fp2.getHash(),
+				this.fp1.getHash());
+		TH.writeFile(largeFile, sb.substring(0, Fingerprint.BUFFER_SIZE + 1));
+		this.fp1 = new Fingerprint(largeFile);
+		this.fp2 = new Fingerprint(sb.substring(0, Fingerprint.BUFFER_SIZE + 1));
+		Assert.assertEquals("Buffered Hash.", this.fp2.getHash(),
+				this.fp1.getHash());
+	}
+
+	/**
+	 * Fp_indexed file.
+	 */
+	@Test
+	public void fp_indexedFile() {
+		final long past = System.currentTimeMillis() - 60000;
+		Assert.assertTrue(TH.w1File.setLastModified(past));
+		Assert.assertEquals("File1 Hash.", TH.f1Hash,
+				new Fingerprint(TH.w1File).getHash());
+		// Same Size and Modification Time Trusts Index
+		final String sameSize = TH.f1String.replace('1', '2');
+		TH.writeFile(TH.w1File, sameSize);
+		Assert.assertTrue(TH.w1File.setLastModified(past));
+		Assert.assertEquals("Index Not Used.", TH.f1Hash, new Fingerprint(
+				TH.w1File).getHash());
+		// Changed Modification Time Forces Rehash
+		Assert.assertTrue(TH.w1File.setLastModified(past + 1000));
+		Assert.assertEquals("Index Not Refreshed.",
+				new Fingerprint(sameSize).getHash(),
+				new Fingerprint(TH.w1File).getHash());
+		// Racily Clean Files are Not Indexed
+		TH.writeFile(TH.w1File, TH.f1String);
+		Assert.assertEquals("File1 Hash.", TH.f1Hash,
+				new Fingerprint(TH.w1File).getHash());
+		TH.writeFile(TH.w1File, TH.f2String);
+		Assert.assertEquals("Racy File Indexed.", TH.f2Hash,
+				new Fingerprint(TH.w1File).getHash());
+		// Index is Persisted
+		Assert.assertTrue("Index Not Flushed.", WorkspaceIndex.getInstance()
+				.flush());
+		Assert.assertTrue("Index Not Found.", new File(TH.repository,
+				WorkspaceIndex.INDEX_FILE).exists());
+	}
+
 	/**
 	 * Fp_creation directory.
 	 */
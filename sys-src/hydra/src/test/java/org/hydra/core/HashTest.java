@@ -0,0 +1,99 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class HashTest.
+ */
+public class HashTest {
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		Logger.getInstance().info("HASH TEST");
+	}
+
+	/**
+	 * H_conversion.
+	 */
+	@Test
+	public void h_conversion() {
+		final Hash h1 = Hash.valueOf(TH.f1Hash);
+		Assert.assertNotNull("H1 is Null.", h1);
+		Assert.assertEquals("Incorrect Hex Form.", TH.f1Hash, h1.toString());
+		Assert.assertEquals("Incorrect Length.", Hash.LENGTH,
+				h1.toBytes().length);
+		Assert.assertSame("Bytes Not Interned.", h1,
+				Hash.valueOf(h1.toBytes()));
+	}
+
+	/**
+	 * H_interning.
+	 */
+	@Test
+	public void h_interning() {
+		final Hash h1 = Hash.valueOf(TH.f1Hash);
+		final Hash h2 = Hash.valueOf(new String(TH.f1Hash));
+		Assert.assertSame("Equal Hashes Not Shared.", h1, h2);
+		Assert.assertNotSame("Different Hashes Shared.", h1,
+				Hash.valueOf(TH.f2Hash));
+		Assert.assertSame("Fingerprints Not Shared.", h1, new Fingerprint(
+				TH.f1String).getHashValue());
+	}
+
+	/**
+	 * H_matching, fingerprints compare interned hashes.
+	 */
+	@Test
+	public void h_matching() {
+		final Fingerprint fp = new Fingerprint(TH.f1String);
+		Assert.assertTrue("Hash Not Matched.", fp.matchesHash(TH.f1Hash));
+		Assert.assertFalse("Other Hash Matched.", fp.matchesHash(TH.f2Hash));
+		Assert.assertFalse("Null Matched.", fp.matchesHash(null));
+		Assert.assertEquals("Incorrect Appended Form.", "x" + TH.f1Hash,
+				fp.appendHash(new StringBuilder("x")).toString());
+		Assert.assertTrue("Equal Fingerprints Differ.", fp
+				.equals(new Fingerprint(TH.f1String)));
+	}
+
+	/**
+	 * H_invalid.
+	 */
+	@Test
+	public void h_invalid() {
+		Assert.assertNull("Null Accepted.", Hash.valueOf((String) null));
+		Assert.assertNull("Short Hash Accepted.",
+				Hash.valueOf(TH.f1Hash.substring(1)));
+		Assert.assertNull("Upper Case Accepted.",
+				Hash.valueOf(TH.f1Hash.toUpperCase()));
+		Assert.assertNull("Non Hex Accepted.",
+				Hash.valueOf(TH.f1Hash.replace(TH.f1Hash.charAt(0), 'x')));
+	}
+
+}
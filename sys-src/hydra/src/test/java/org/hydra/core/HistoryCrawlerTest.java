@@ -20,9 +20,13 @@
  *************************************************************************/
 package org.hydra.core;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
 
 import org.hydra.TH;
+import org.hydra.persistence.CommitGraph;
 import org.hydra.utilities.Logger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -462,4 +466,300 @@ public class HistoryCrawlerTest {
 				this.hc.listFollowingCommits(TH.u1s1Hash).length);
 	}
 
+	/**
+	 * Hc_commit graph.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_commitGraph() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		final CommitGraph graph = this.lu.getCommitGraph();
+		// Graph Built on First Crawl.
+		Assert.assertEquals("1 U1S1Hash Not Found.", TH.u1s1Hash, this.hc
+				.findCommitHash(this.lu.getHead(), TH.u1s1Hash, null, true)
+				.getHash());
+		Assert.assertTrue("1 Graph File Not Written.", new File(Configuration
+				.getInstance().getRepository(), CommitGraph.GRAPH_STORE
+				+ File.separator + "luStore" + File.separator + "aCard1")
+				.exists());
+		Assert.assertEquals("1 Incorrect Generation.", 1,
+				graph.getGeneration(TH.u1s1Hash));
+		Assert.assertEquals("1 Incorrect Generation.", 2,
+				graph.getGeneration(TH.u1s2Hash));
+		Assert.assertArrayEquals("1 Incorrect Parents.",
+				new String[] { TH.u1s1Hash }, graph.listParents(TH.u1s2Hash));
+		final State s2 = new State(TH.u1s2Hash);
+		Assert.assertEquals("1 Incorrect Timestamp.", s2.getTimestamp()
+				.getTime(), graph.getTimestamp(TH.u1s2Hash));
+		Assert.assertEquals("1 Incorrect Contents.", s2.getContentsHash(),
+				graph.getContentsHash(TH.u1s2Hash));
+		// Commits Appended.
+		final String s3Hash = this.lu.commitValidPath("Scott",
+				"Testing Commit Graph.");
+		Assert.assertEquals("2 Commit Not Appended.", 3, graph.size());
+		Assert.assertEquals("2 Incorrect Generation.", 3,
+				graph.getGeneration(s3Hash));
+		Assert.assertArrayEquals("2 Incorrect Parents.", new String[] {
+				TH.u1s1Hash, TH.u1s2Hash }, graph.listParents(s3Hash));
+		Assert.assertEquals("2 U1S1Hash Not Found.", "*1+1", this.hc
+				.findCommitHash(this.lu.getHead(), TH.u1s1Hash, null, false)
+				.clonePath().toString());
+		Assert.assertNull("2 Unknown Hash Found.", this.hc.findCommitHash(
+				this.lu.getHead(), TH.u1s2Hash.replace('a', 'b'), null, true));
+		// Modified History Invalidates the Graph.
+		graph.invalidate();
+		Assert.assertEquals("3 Graph Not Invalidated.", 0, graph.size());
+		Assert.assertEquals("3 Incorrect Following Commits.", 2,
+				this.hc.listFollowingCommits(TH.u1s1Hash).length);
+		Assert.assertEquals("3 Graph Not Rebuilt.", 3, graph.size());
+	}
+
+	/**
+	 * Hc_commit graph undeletable.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_commitGraphUndeletable() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		final CommitGraph graph = this.lu.getCommitGraph();
+		final File graphFile = new File(Configuration.getInstance()
+				.getRepository(), CommitGraph.GRAPH_STORE + File.separator
+				+ "luStore" + File.separator + "aCard1");
+		graph.invalidate();
+		// A Non-Empty Directory Can Not be Deleted.
+		final File blocker = new File(graphFile, "blocker");
+		Assert.assertTrue(blocker.mkdirs());
+		graph.invalidate();
+		Assert.assertFalse("1 Discarded Graph Extended.",
+				graph.append(this.lu.getHead()));
+		Assert.assertEquals("1 Discarded Graph Used.", 0, graph.size());
+		Assert.assertEquals("1 Incorrect Following Commits.", 1,
+				this.hc.listFollowingCommits(TH.u1s1Hash).length);
+		// Graph Rebuilt Once the File is Deleted.
+		Assert.assertTrue(blocker.delete());
+		Assert.assertTrue("2 Graph Not Rebuilt.",
+				graph.append(this.lu.getHead()));
+		Assert.assertEquals("2 Graph Not Rebuilt.", 2, graph.size());
+		Assert.assertTrue("2 Graph File Not Written.", graphFile.isFile());
+	}
+
+	/**
+	 * Hc_commit graph maintained.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_commitGraphMaintained() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		final CommitGraph graph = this.lu.getCommitGraph();
+		final String s3Hash = this.lu.commit("Scott", "Third Commit.");
+		Assert.assertEquals("1 Commit Not Appended.", 3, graph.size());
+		// Inserted State Appended and Generations Raised.
+		final String insertedHash = this.lu.commitInsert("Scott",
+				"Inserted Commit.", TH.u1s1Hash, TH.u1s2Hash);
+		Assert.assertEquals("2 Graph Not Maintained.", 4, graph.size());
+		Assert.assertArrayEquals("2 Incorrect Parents.", new String[] {
+				TH.u1s1Hash, insertedHash }, graph.listParents(TH.u1s2Hash));
+		Assert.assertArrayEquals("2 Incorrect Children.",
+				new String[] { TH.u1s2Hash }, graph.listChildren(insertedHash));
+		Assert.assertEquals("2 Incorrect Generation.", 2,
+				graph.getGeneration(insertedHash));
+		Assert.assertEquals("2 Incorrect Generation.", 3,
+				graph.getGeneration(TH.u1s2Hash));
+		Assert.assertEquals("2 Incorrect Generation.", 4,
+				graph.getGeneration(s3Hash));
+		// Updated State Rewritten in Place.
+		Assert.assertTrue("3 Update Failed.",
+				this.lu.commitUpdate(insertedHash, "Scott", "Updated Commit."));
+		Assert.assertEquals("3 Graph Not Maintained.", 4, graph.size());
+		final State inserted = new State(insertedHash);
+		Assert.assertEquals("3 Incorrect Timestamp.", inserted.getTimestamp()
+				.getTime(), graph.getTimestamp(insertedHash));
+		Assert.assertEquals("3 Incorrect Contents.",
+				inserted.getContentsHash(), graph.getContentsHash(insertedHash));
+		// Graph File Indexes Equally.
+		final CommitGraph indexed = new CommitGraph(new File(
+				Configuration.getInstance().getRepository(),
+				CommitGraph.GRAPH_STORE + File.separator + "luStore"
+						+ File.separator + "aCard1")) {
+		};
+		Assert.assertEquals("4 Incorrect Size.", 4, indexed.size());
+		Assert.assertArrayEquals("4 Incorrect Parents.", new String[] {
+				TH.u1s1Hash, insertedHash }, indexed.listParents(TH.u1s2Hash));
+		Assert.assertEquals("4 Incorrect Generation.", 4,
+				indexed.getGeneration(s3Hash));
+		Assert.assertEquals("4 Incorrect Timestamp.", inserted.getTimestamp()
+				.getTime(), indexed.getTimestamp(insertedHash));
+	}
+
+	/**
+	 * Hc_merged history.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_mergedHistory() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		// S3 Follows S1 and S2, S4 Follows S2 and S3.
+		final String s3Hash = this.lu.commitValidPath("Scott", "Merge S3.");
+		Assert.assertTrue("1 Unable to Revert.",
+				this.lu.revertHash(TH.u1s2Hash, true));
+		final String s4Hash = this.lu.commitValidPath("Scott", "Merge S4.");
+		Assert.assertArrayEquals("1 Incorrect Previous.", new String[] {
+				TH.u1s2Hash, s3Hash }, this.lu.getHead().listPreviousHashes());
+		Assert.assertArrayEquals("1 Incorrect Children.", new String[] {
+				s3Hash, s4Hash }, this.lu.getCommitGraph().listChildren(
+				TH.u1s2Hash));
+		Assert.assertArrayEquals("1 Incorrect Children.", new String[0],
+				this.lu.getCommitGraph().listChildren(s4Hash));
+		// Each Following Commit is Listed Once.
+		final State[] following = this.hc.listFollowingCommits(TH.u1s2Hash);
+		Assert.assertEquals("2 Incorrect Following Commits.", 2,
+				following.length);
+		Assert.assertEquals("2 Incorrect Following Commits.", 2,
+				this.hc.listFollowingCommits(TH.u1s1Hash).length);
+		Assert.assertEquals("2 Incorrect Following Commit.", s4Hash,
+				following[0].getHash());
+		Assert.assertEquals("2 Incorrect Following Commit.", s3Hash,
+				following[1].getHash());
+		Assert.assertEquals("2 Incorrect Following Path.", "*2+1",
+				following[1].clonePath().toString());
+		Assert.assertEquals("2 No Commits Following HEAD.", 0,
+				this.hc.listFollowingCommits(s4Hash).length);
+		// Searches Find the Same States Along the Same Paths.
+		Assert.assertEquals("3 Incorrect Path.", "*1+2", this.hc
+				.findCommitHash(this.lu.getHead(), TH.u1s1Hash, null, true)
+				.clonePath().toString());
+		Assert.assertEquals("3 Incorrect Path.", "*2+1", this.hc
+				.findCommitHash(this.lu.getHead(), s3Hash, null, false)
+				.clonePath().toString());
+		final ArrayList<String> blackList = new ArrayList<String>();
+		blackList.add(TH.u1s2Hash);
+		Assert.assertEquals("3 Incorrect Path.", "*2+2", this.hc
+				.findCommitHash(this.lu.getHead(), TH.u1s1Hash, blackList,
+						false).clonePath().toString());
+	}
+
+	/**
+	 * Hc_path index.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_pathIndex() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		final CommitGraph graph = this.lu.getCommitGraph();
+		final String s3Hash = this.lu.commitValidPath("Scott",
+				"Testing Path Index.");
+		Assert.assertNull("1 Path Already Indexed.",
+				graph.lookupPath(s3Hash, "*1+0", "*2+2"));
+		// Resolved Steps are Indexed.
+		Assert.assertEquals("2 U1S1Hash Not Found.", TH.u1s1Hash, this.hc
+				.findCommitPath(this.lu.getHead(), new Path("*2+2"), null)
+				.getHash());
+		Assert.assertArrayEquals("2 Path Not Indexed.", new String[] {
+				TH.u1s1Hash, "*2+2" }, graph.lookupPath(s3Hash, "*1+0", "*2+2"));
+		// Indexed Steps Resolve Equally.
+		final State found = this.hc.findCommitPath(this.lu.getHead(),
+				new Path("*2+2*1+-1"), null);
+		Assert.assertEquals("3 U1S2Hash Not Found.", TH.u1s2Hash,
+				found.getHash());
+		Assert.assertEquals("3 Incorrect Path.", "*2+1", found.clonePath()
+				.toString());
+		Assert.assertTrue("3 Unable to Revert.",
+				this.lu.revertPath(new Path("*2+2")));
+		Assert.assertEquals("3 Incorrect Current.", TH.u1s1Hash,
+				this.lu.getCurrentHash());
+		// Black Listed Searches are Not Indexed.
+		final ArrayList<String> blackList = new ArrayList<String>();
+		blackList.add(TH.u1s2Hash);
+		Assert.assertNull("4 Black Listed State Passed.",
+				this.hc.findCommitPath(this.lu.getHead(), new Path("*2+2"),
+						blackList));
+		// Invalidated Graph Discards Index.
+		graph.invalidate();
+		Assert.assertNull("5 Path Index Not Discarded.",
+				graph.lookupPath(s3Hash, "*1+0", "*2+2"));
+	}
+
+	/**
+	 * Hc_iterate history log.
+	 *
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_iterateHistoryLog() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		// Complete Log.
+		Iterator<State> log = this.hc.iterateHistoryLog(true, 0, -1, null);
+		Assert.assertTrue("1 No Head.", log.hasNext());
+		final State head = log.next();
+		Assert.assertEquals("1 Incorrect Head.", TH.u1s2Hash, head.getHash());
+		Assert.assertEquals("1 Incorrect Previous.", TH.u1s1Hash, log.next()
+				.getHash());
+		Assert.assertFalse("1 Too Many States.", log.hasNext());
+		// Skip and Limit.
+		log = this.hc.iterateHistoryLog(true, 1, -1, null);
+		Assert.assertEquals("2 Incorrect Skip.", TH.u1s1Hash, log.next()
+				.getHash());
+		Assert.assertFalse("2 Too Many States.", log.hasNext());
+		log = this.hc.iterateHistoryLog(true, 0, 1, null);
+		Assert.assertEquals("2 Incorrect Limit.", TH.u1s2Hash, log.next()
+				.getHash());
+		Assert.assertFalse("2 Limit Exceeded.", log.hasNext());
+		Assert.assertFalse("2 Skipped Past Root.",
+				this.hc.iterateHistoryLog(true, 5, -1, null).hasNext());
+		// Since.
+		Assert.assertFalse("3 Future Since.",
+				this.hc.iterateHistoryLog(true, 0, -1,
+						new Date(System.currentTimeMillis() + 60000L))
+						.hasNext());
+		log = this.hc.iterateHistoryLog(true, 0, -1, head.getTimestamp());
+		Assert.assertEquals("3 Incorrect Since.", TH.u1s2Hash, log.next()
+				.getHash());
+		// Paginated Log.
+		Assert.assertEquals("4 Incorrect Log.", head.getLogEntry() + "\n",
+				this.hc.getHistoryLog(true, 0, 1, null));
+		Assert.assertEquals("4 Log Changed.", this.hc.getHistoryLog(true),
+				this.hc.getHistoryLog(true, 0, -1, new Date(0)));
+	}
+
+	/**
+	 * Hc_diff previous.
+	 *
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void hc_diffPrevious() throws InvalidElementException {
+		this.lu = new LogicalUnit("aCard1");
+		this.hc = this.lu.getHistoryCrawler();
+		final State root = new State(TH.u1s1Hash);
+		final TreeDiff rootDiff = this.hc.diffPrevious(root, true);
+		Assert.assertNotNull("1 No Root Diff.", rootDiff);
+		for (final TreeChange change : rootDiff) {
+			Assert.assertEquals("1 Incorrect Type.", TreeChange.Type.ADDED,
+					change.getType());
+		}
+		final TreeDiff headDiff = this.hc.diffPrevious(this.lu.getHead(),
+				true);
+		Assert.assertNotNull("2 No Head Diff.", headDiff);
+		Assert.assertEquals("2 Incorrect Diff.", new TreeDiff(root
+				.cloneContents(), this.lu.getHead().cloneContents())
+				.listChanges().size(), headDiff.listChanges().size());
+	}
+
 }
@@ -0,0 +1,120 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class MergeBaseTest.
+ */
+public class MergeBaseTest {
+
+	/** The lu. */
+	private LogicalUnit lu;
+
+	/** The mb. */
+	private MergeBase mb;
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		Logger.getInstance().info("MERGE BASE TEST");
+	}
+
+	/**
+	 * Before.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Before
+	public void before() throws InvalidElementException {
+		TH.setupTestingEnvironment(false, true);
+		this.lu = new LogicalUnit("aCard1");
+		this.mb = new MergeBase(this.lu);
+	}
+
+	/**
+	 * Mb_linear history.
+	 */
+	@Test
+	public void mb_linearHistory() {
+		Assert.assertArrayEquals("1 Incorrect Merge Base.",
+				new String[] { TH.u1s1Hash },
+				this.mb.findMergeBases(TH.u1s1Hash, TH.u1s2Hash));
+		Assert.assertEquals("1 Incorrect Merge Base.", TH.u1s1Hash,
+				this.mb.findMergeBase(TH.u1s2Hash, TH.u1s1Hash));
+		Assert.assertEquals("2 Incorrect Merge Base.", TH.u1s2Hash,
+				this.mb.findMergeBase(TH.u1s2Hash, TH.u1s2Hash));
+		Assert.assertTrue("3 Not Ancestor.",
+				this.mb.isAncestor(TH.u1s1Hash, TH.u1s2Hash));
+		Assert.assertTrue("3 Not Ancestor.",
+				this.mb.isAncestor(TH.u1s2Hash, TH.u1s2Hash));
+		Assert.assertFalse("3 Descendant is Ancestor.",
+				this.mb.isAncestor(TH.u1s2Hash, TH.u1s1Hash));
+		Assert.assertNull("4 Unknown State Found.",
+				this.mb.findMergeBases(TH.u1s1Hash,
+						"0000000000000000000000000000000000000000"));
+		Assert.assertNull("4 No States Accepted.", this.mb.findMergeBases());
+		// States Outside the History are Not Recorded.
+		Assert.assertNull("5 Foreign State Accepted.",
+				this.mb.findMergeBases(TH.u1s1Hash, TH.u1s0Hash));
+		Assert.assertFalse("5 Foreign State Accepted.",
+				this.mb.isAncestor(TH.u1s0Hash, TH.u1s2Hash));
+		Assert.assertFalse("5 Foreign State Recorded.", this.lu
+				.getCommitGraph().contains(TH.u1s0Hash));
+		Assert.assertEquals("5 Foreign State Recorded.", 2, this.lu
+				.getCommitGraph().size());
+	}
+
+	/**
+	 * Mb_branched history.
+	 */
+	@Test
+	public void mb_branchedHistory() {
+		// X and Y Both Follow S1 and Precede S2.
+		final String xHash = this.lu.commitInsert("Scott", "Insert X.",
+				TH.u1s1Hash, TH.u1s2Hash);
+		final String yHash = this.lu.commitInsert("Scott", "Insert Y.",
+				TH.u1s1Hash, TH.u1s2Hash);
+		Assert.assertFalse("1 Identical Inserts.", xHash.equals(yHash));
+		Assert.assertArrayEquals("1 Incorrect Merge Base.",
+				new String[] { TH.u1s1Hash },
+				this.mb.findMergeBases(xHash, yHash));
+		Assert.assertArrayEquals("1 Incorrect Merge Base.",
+				new String[] { TH.u1s1Hash },
+				this.mb.findMergeBases(xHash, yHash, TH.u1s2Hash));
+		Assert.assertEquals("2 Incorrect Merge Base.", xHash,
+				this.mb.findMergeBase(TH.u1s2Hash, xHash));
+		Assert.assertFalse("3 Sibling is Ancestor.",
+				this.mb.isAncestor(xHash, yHash));
+		Assert.assertTrue("3 Not Ancestor.",
+				this.mb.isAncestor(yHash, TH.u1s2Hash));
+	}
+
+}
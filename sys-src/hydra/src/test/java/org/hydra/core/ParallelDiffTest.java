@@ -0,0 +1,133 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.io.File;
+import java.util.Iterator;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.hydra.utilities.diff.myers.MyersDiff;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class ParallelDiffTest.
+ */
+public class ParallelDiffTest {
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		TH.setupLogging();
+		Logger.getInstance().info("PARALLEL DIFF TEST");
+	}
+
+	/**
+	 * Before.
+	 */
+	@Before
+	public void before() {
+		TH.setupTestingEnvironment(true, false);
+	}
+
+	/**
+	 * Pd_changed.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void pd_changed() throws InvalidElementException {
+		final Container oldTree = new Container(TH.workspace);
+		oldTree.addElement(new Artifact(TH.w1File));
+		oldTree.addElement(new Artifact(TH.w2File));
+		Assert.assertTrue("1 Old Tree Not Stored.", oldTree.store());
+		// Modify C2, Add C3 and Move C1 to W1Dir/C2.
+		TH.writeFile(TH.w2File, TH.f3String);
+		TH.writeFile(TH.d1w2File, TH.f1String);
+		final Container newTree = new Container(TH.workspace);
+		newTree.addElement(new Artifact(TH.w2File));
+		newTree.addElement(new Artifact(TH.w3File));
+		final Container dir = new Container(TH.w1Dir);
+		dir.addElement(new Artifact(TH.d1w2File));
+		newTree.addElement(dir);
+		final Iterator<ParallelDiff.ArtifactDiff> diffs = new ParallelDiff(2)
+				.iterateDiffs(new TreeDiff(new Container(TH.workspace,
+						oldTree.getHash()), newTree), TH.workspace);
+		// Modified Artifact Diffed Against Committed Content.
+		ParallelDiff.ArtifactDiff diff = diffs.next();
+		Assert.assertEquals("2 Incorrect Change.", "M  c2File.txt", diff
+				.getChange().toString());
+		Assert.assertEquals("2 Incorrect Diff.", new MyersDiff(
+				TH.f2String.split("\n"), TH.f3String.split("\n"))
+				.describeTransformation(), diff.getDiff()
+				.describeTransformation());
+		// Added Artifact Diffed Against Empty Content.
+		diff = diffs.next();
+		Assert.assertEquals("3 Incorrect Change.", "A  c3File.txt", diff
+				.getChange().toString());
+		Assert.assertEquals("3 Incorrect Diff.", 1, diff.getDiff()
+				.getChangeSet().listChanges().length);
+		// Moved Artifact Not Diffed.
+		diff = diffs.next();
+		Assert.assertEquals("4 Incorrect Change.",
+				"R  c1File.txt -> w1Dir/c2File.txt", diff.getChange()
+						.toString());
+		Assert.assertNull("4 Moved Diffed.", diff.getDiff());
+		Assert.assertFalse("5 Extra Diffs.", diffs.hasNext());
+	}
+
+	/**
+	 * Pd_ordered.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void pd_ordered() throws InvalidElementException {
+		final Container tree = new Container(TH.workspace);
+		for (int i = 39; i >= 0; i--) {
+			final File file = new File(TH.workspace, "p" + (100 + i) + ".txt");
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 0; j <= i; j++) {
+				sb.append("Line ").append(j).append("\n");
+			}
+			TH.writeFile(file, sb.toString());
+			tree.addElement(new Artifact(file));
+		}
+		final Iterator<ParallelDiff.ArtifactDiff> diffs = new ParallelDiff(3)
+				.iterateDiffs(new TreeDiff(null, tree), TH.workspace);
+		for (int i = 0; i < 40; i++) {
+			final ParallelDiff.ArtifactDiff diff = diffs.next();
+			Assert.assertEquals("Incorrect Order.", "p" + (100 + i) + ".txt",
+					diff.getChange().getPath());
+			Assert.assertEquals("Incorrect Diff.", i + 1, diff.getDiff()
+					.getChangeSet().listChanges()[0].getChangedLines().length);
+		}
+		Assert.assertFalse("Extra Diffs.", diffs.hasNext());
+	}
+
+}
@@ -230,6 +230,22 @@ public class PathTest {
 
 	}
 
+	/**
+	 * P_ clone.
+	 */
+	@Test
+	public void p_Clone() {
+		this.p1 = new Path("*1+1*2+5");
+		final Path clone = this.p1.clone();
+		Assert.assertEquals("1 Clone Incorrect.", "*1+1*2+5", clone.toString());
+		clone.move(1, 2);
+		Assert.assertEquals("2 Clone Not Moved.", "*1+1*2+7", clone.toString());
+		Assert.assertEquals("2 Original Moved.", "*1+1*2+5",
+				this.p1.toString());
+		Assert.assertFalse("3 Invalid Clone Valid.", new Path("+1").clone()
+				.isValid());
+	}
+
 	/**
 	 * EXCEPTIIONAL CASES ************************
 	 */
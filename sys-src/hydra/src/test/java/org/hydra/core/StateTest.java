@@ -20,9 +20,13 @@
  *************************************************************************/
 package org.hydra.core;
 
+import java.io.FileInputStream;
+import java.util.Arrays;
 import java.util.Date;
 
 import org.hydra.TH;
+import org.hydra.persistence.ObjectCache;
+import org.hydra.persistence.RecordReader;
 import org.hydra.utilities.Logger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -156,6 +160,42 @@ public class StateTest {
 		// Fingerprint().calculateHash(TH.r1r2State));
 	}
 
+	/**
+	 * S_store binary record.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void s_storeBinaryRecord() throws Exception {
+		TH.setupTestingEnvironment(true, true);
+		// Text Records Remain Readable
+		this.s2 = new State(TH.u1s2Hash);
+		this.s2.setMessage("Rewritten Commit.");
+		this.s2.setTimestamp(new Date(1304952368123L));
+		Assert.assertTrue("S2 Not Stored.", this.s2.store());
+		final byte[] prefix = new byte[64];
+		final FileInputStream fis = new FileInputStream(TH.r1r2State);
+		try {
+			Assert.assertEquals(prefix.length, fis.read(prefix));
+		} finally {
+			fis.close();
+		}
+		Assert.assertTrue("Not Stored as Binary Record.",
+				RecordReader.isBinary(prefix));
+		Assert.assertArrayEquals("Incorrect Header.", new String[] { "HH",
+				"State" }, RecordReader.decodeHeader(prefix));
+		Assert.assertNull("Truncated Header Decoded.", RecordReader
+				.decodeHeader(Arrays.copyOf(prefix, 8)));
+		final State s2X = new State(TH.u1s2Hash);
+		Assert.assertEquals("Different Descriptions.", this.s2.describe(),
+				s2X.describe());
+		Assert.assertEquals("Timestamp Not Exact.", 1304952368123L, s2X
+				.getTimestamp().getTime());
+		Assert.assertEquals("Incorrect Status.", "v",
+				s2X.getStatus(false, true));
+	}
+
 	/**
 	 * S_retrieve.
 	 * 
@@ -187,6 +227,33 @@ public class StateTest {
 		Assert.assertEquals("Not One Previous State.", 1, pstates.length);
 	}
 
+	/**
+	 * S_lazy previous.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void s_lazyPrevious() throws InvalidElementException {
+		TH.setupTestingEnvironment(false, true);
+		this.s2 = new State(TH.u1s2Hash);
+		// Previous States are Only Loaded When Traversed
+		TH.deleteFile(TH.r1r1State);
+		Assert.assertArrayEquals("Incorrect Previous Hashes.",
+				new String[] { TH.u1s1Hash }, this.s2.listPreviousHashes());
+		Assert.assertTrue("Previous Not Described.", this.s2.describe()
+				.contains("PS::>>" + TH.u1s1Hash + "\n"));
+		Assert.assertTrue("Valid Previous Not Described.", this.s2
+				.describe().contains("VP::>>" + TH.u1s1Hash + "\n"));
+		TH.writeFile(TH.r1r1State, TH.u1s1String);
+		final State[] pstates = this.s2.listPrevious();
+		Assert.assertEquals("Not One Previous State.", 1, pstates.length);
+		Assert.assertEquals("Incorrect Previous State.", TH.u1s1Hash,
+				pstates[0].getHash());
+		Assert.assertEquals("Incorrect Valid Previous.", TH.u1s1Hash,
+				this.s2.getValidPathPrevious().getHash());
+	}
+
 	/**
 	 * S_is temporary.
 	 * 
@@ -312,6 +379,37 @@ public class StateTest {
 				s2X.describe());
 	}
 
+	/**
+	 * S_object cache.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void s_objectCache() throws InvalidElementException {
+		TH.setupTestingEnvironment(true, true);
+		final ObjectCache cache = ObjectCache.getInstance();
+		cache.clear();
+		this.s2 = new State(TH.u1s2Hash);
+		Assert.assertEquals("Incorrect Misses.", 1, cache.getMisses());
+		Assert.assertEquals("Incorrect Message.", "Second Commit.",
+				new State(TH.u1s2Hash).getMessage());
+		Assert.assertEquals("Incorrect Hits.", 1, cache.getHits());
+		// States Rewritten in Place are Invalidated
+		this.s2.setMessage("Rewritten Commit.");
+		Assert.assertTrue("S2 Not Stored.", this.s2.store());
+		Assert.assertEquals("Stale State Read.", "Rewritten Commit.",
+				new State(TH.u1s2Hash).getMessage());
+		// Least Recently Used Objects are Evicted
+		cache.setCapacity(1);
+		try {
+			this.s1 = new State(TH.u1s1Hash);
+			Assert.assertEquals("Cache Not Bounded.", 1, cache.size());
+		} finally {
+			cache.setCapacity(ObjectCache.DEFAULT_SIZE);
+		}
+	}
+
 	/**
 	 * S_validity.
 	 * 
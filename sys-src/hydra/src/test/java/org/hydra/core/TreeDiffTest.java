@@ -0,0 +1,148 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.core;
+
+import java.util.List;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class TreeDiffTest.
+ */
+public class TreeDiffTest {
+
+	/** The old tree. */
+	private Container oldTree;
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		TH.setupLogging();
+		Logger.getInstance().info("TREE DIFF TEST");
+	}
+
+	/**
+	 * Before.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Before
+	public void before() throws InvalidElementException {
+		TH.setupTestingEnvironment(true, false);
+		this.oldTree = this.createTree();
+	}
+
+	/**
+	 * Td_unchanged.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void td_unchanged() throws InvalidElementException {
+		Assert.assertEquals("1 Changes Found.", 0,
+				new TreeDiff(this.oldTree, this.createTree()).listChanges()
+						.size());
+		Assert.assertTrue("2 Old Tree Not Stored.", this.oldTree.store());
+		Assert.assertEquals("2 Changes Found.", 0, new TreeDiff(new Container(
+				TH.workspace, this.oldTree.getHash()), this.createTree())
+				.listChanges().size());
+		final List<TreeChange> changes = new TreeDiff(null, this.oldTree)
+				.listChanges();
+		Assert.assertEquals("3 Incorrect Number Added.", 3, changes.size());
+		for (final TreeChange change : changes) {
+			Assert.assertEquals("3 Incorrect Type.", TreeChange.Type.ADDED,
+					change.getType());
+		}
+		Assert.assertEquals("3 Incorrect Path.", "w1Dir/c1File.txt", changes
+				.get(2).getPath());
+	}
+
+	/**
+	 * Td_changed.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void td_changed() throws InvalidElementException {
+		Assert.assertTrue("1 Old Tree Not Stored.", this.oldTree.store());
+		// Modify C2, Add C3 and Move C1 to W1Dir/C2.
+		TH.writeFile(TH.w2File, TH.f3String);
+		TH.writeFile(TH.d1w2File, TH.f1String);
+		final Container newTree = new Container(TH.workspace);
+		newTree.addElement(new Artifact(TH.w2File));
+		newTree.addElement(new Artifact(TH.w3File));
+		final Container dir = new Container(TH.w1Dir);
+		dir.addElement(new Artifact(TH.d1w1File));
+		dir.addElement(new Artifact(TH.d1w2File));
+		newTree.addElement(dir);
+		final List<TreeChange> changes = new TreeDiff(new Container(
+				TH.workspace, this.oldTree.getHash()), newTree).listChanges();
+		Assert.assertEquals("2 Incorrect Number of Changes.", 3,
+				changes.size());
+		Assert.assertEquals("2 Incorrect Change.", "M  c2File.txt", changes
+				.get(0).toString());
+		Assert.assertEquals("2 Incorrect Hash.", TH.f2Hash, changes.get(0)
+				.getOldHash());
+		Assert.assertEquals("2 Incorrect Hash.", TH.f3Hash, changes.get(0)
+				.getNewHash());
+		Assert.assertEquals("2 Incorrect Change.", "A  c3File.txt", changes
+				.get(1).toString());
+		Assert.assertEquals("2 Incorrect Change.",
+				"R  c1File.txt -> w1Dir/c2File.txt", changes.get(2).toString());
+		// Reversed Comparison.
+		final List<TreeChange> reversed = new TreeDiff(newTree, this.oldTree)
+				.listChanges();
+		Assert.assertEquals("3 Incorrect Number of Changes.", 3,
+				reversed.size());
+		Assert.assertEquals("3 Incorrect Change.",
+				"R  w1Dir/c2File.txt -> c1File.txt", reversed.get(1).toString());
+		Assert.assertEquals("3 Incorrect Change.", "D  c3File.txt", reversed
+				.get(2).toString());
+	}
+
+	/**
+	 * Create a tree of the loaded workspace's files.
+	 * 
+	 * @return tree - Container.
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	private Container createTree() throws InvalidElementException {
+		final Container tree = new Container(TH.workspace);
+		tree.addElement(new Artifact(TH.w1File));
+		tree.addElement(new Artifact(TH.w2File));
+		final Container dir = new Container(TH.w1Dir);
+		dir.addElement(new Artifact(TH.d1w1File));
+		tree.addElement(dir);
+		return tree;
+	}
+
+}
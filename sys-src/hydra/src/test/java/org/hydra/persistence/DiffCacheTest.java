@@ -0,0 +1,152 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.hydra.utilities.diff.ChangeReplace;
+import org.hydra.utilities.diff.ChangeSet;
+import org.hydra.utilities.diff.myers.MyersDiff;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class DiffCacheTest.
+ */
+public class DiffCacheTest {
+
+	/** The cached change set. */
+	private ChangeSet changeSet;
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		TH.setupLogging();
+		Logger.getInstance().info("DIFF CACHE TEST");
+	}
+
+	/**
+	 * Before.
+	 */
+	@Before
+	public void before() {
+		TH.setupTestingEnvironment(true, false);
+		this.changeSet = new ChangeSet();
+		this.changeSet.add(new ChangeReplace(2, new String[] { "L2: New.",
+				"L3: New." }, 1));
+	}
+
+	/**
+	 * Dc_memory, a stored change set is found in memory.
+	 */
+	@Test
+	public void dc_memory() {
+		final DiffCache cache = new DiffCache();
+		Assert.assertNull("1 Uncached Diff Found.", cache.lookup(TH.f1Hash,
+				TH.f2Hash));
+		cache.store(TH.f1Hash, TH.f2Hash, this.changeSet);
+		Assert.assertSame("2 Cached Diff Not Found.", this.changeSet, cache
+				.lookup(TH.f1Hash, TH.f2Hash));
+		Assert.assertNull("3 Reversed Diff Found.", cache.lookup(TH.f2Hash,
+				TH.f1Hash));
+		Assert.assertEquals("4 Incorrect Hits.", 1, cache.getHits());
+		Assert.assertEquals("4 Incorrect Misses.", 2, cache.getMisses());
+		// Invalid Hashes Never Cached.
+		cache.store(null, TH.f2Hash, this.changeSet);
+		Assert.assertNull("5 Invalid Hash Found.", cache.lookup(null,
+				TH.f2Hash));
+	}
+
+	/**
+	 * Dc_disk, a stored change set is read back from the cache directory.
+	 */
+	@Test
+	public void dc_disk() {
+		final DiffCache cache = new DiffCache();
+		cache.store(TH.f1Hash, TH.f2Hash, this.changeSet);
+		Assert.assertTrue("1 Diff Not Persisted.", new File(new File(
+				TH.repository, DiffCache.CACHE_DIR), TH.f1Hash + "-"
+				+ TH.f2Hash).isFile());
+		cache.clear();
+		Assert.assertEquals("2 Memory Not Cleared.", 0, cache.size());
+		final ChangeSet cached = new DiffCache().lookup(TH.f1Hash, TH.f2Hash);
+		Assert.assertNotNull("3 Persisted Diff Not Found.", cached);
+		Assert.assertEquals("3 Incorrect Diff.", this.changeSet.toString(),
+				cached.toString());
+		Assert.assertEquals("3 Incorrect Deleted Lines.", 1, cached
+				.listChanges()[0].countDeleted());
+	}
+
+	/**
+	 * Dc_evict, the least recently used change sets are evicted once the
+	 * cached lines exceed the cache size.
+	 */
+	@Test
+	public void dc_evict() {
+		TH.config.setProperty(DiffCache.PROPERTY_SIZE, "8");
+		TH.config.setProperty(DiffCache.PROPERTY_DISK_SIZE, "0");
+		try {
+			final DiffCache cache = new DiffCache();
+			cache.store(TH.f1Hash, TH.f2Hash, this.changeSet);
+			cache.store(TH.f2Hash, TH.f3Hash, this.changeSet);
+			Assert.assertEquals("1 Incorrect Size.", 2, cache.size());
+			cache.store(TH.f1Hash, TH.f3Hash, this.changeSet);
+			Assert.assertEquals("2 Eldest Not Evicted.", 2, cache.size());
+			Assert.assertNull("2 Eldest Diff Found.", cache.lookup(TH.f1Hash,
+					TH.f2Hash));
+			Assert.assertEquals("3 Cache Directory Not Evicted.", 0, new File(
+					TH.repository, DiffCache.CACHE_DIR).list().length);
+		} finally {
+			TH.config.setProperty(DiffCache.PROPERTY_SIZE, null);
+			TH.config.setProperty(DiffCache.PROPERTY_DISK_SIZE, null);
+		}
+	}
+
+	/**
+	 * Dc_myersDiff, a diff of hashed contents is calculated once and then
+	 * taken from the cache.
+	 */
+	@Test
+	public void dc_myersDiff() {
+		final DiffCache cache = DiffCache.getInstance();
+		cache.clear();
+		final MyersDiff calculated = new MyersDiff(new ByteArrayInputStream(
+				TH.f2String.getBytes()), new ByteArrayInputStream(TH.f3String
+				.getBytes()), TH.f2Hash, TH.f3Hash);
+		final MyersDiff cached = new MyersDiff(new ByteArrayInputStream(
+				TH.f2String.getBytes()), new ByteArrayInputStream(TH.f3String
+				.getBytes()), TH.f2Hash, TH.f3Hash);
+		Assert.assertEquals("1 Incorrect Hits.", 1, cache.getHits());
+		Assert.assertEquals("2 Incorrect Diff.", calculated
+				.describeTransformation(), cached.describeTransformation());
+		Assert.assertEquals("2 Incorrect Diff.", new MyersDiff(TH.f2String
+				.split("\n"), TH.f3String.split("\n")).describeTransformation(),
+				cached.describeTransformation());
+	}
+
+}
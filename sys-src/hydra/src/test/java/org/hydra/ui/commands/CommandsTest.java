@@ -20,14 +20,17 @@
  *************************************************************************/
 package org.hydra.ui.commands;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 
 import org.hydra.TH;
+import org.hydra.core.Artifact;
 import org.hydra.core.Configuration;
 import org.hydra.core.InvalidElementException;
 import org.hydra.core.Stage;
+import org.hydra.persistence.ObjectStore;
 import org.hydra.ui.UIWriter;
 import org.hydra.utilities.Logger;
 import org.junit.AfterClass;
@@ -230,6 +233,45 @@ public class CommandsTest {
 		Assert.assertTrue("Usage.", this.cmd.getUsage().startsWith("list(ls)"));
 	}
 
+	/**
+	 * Cmd_ repack.
+	 * 
+	 * @throws InvalidElementException
+	 *             the invalid element exception
+	 */
+	@Test
+	public void cmd_Repack() throws InvalidElementException {
+		final Artifact a1 = new Artifact(TH.w1File);
+		Assert.assertTrue("Store Failed.", a1.store());
+		final String sHash = this.stage.commit("Scott", "Repack Commit.");
+		this.cmd = new CmdRepack();
+		this.cmd.setVerbosity(1);
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		// Check Objects were Packed
+		final File packs = new File(TH.repository, ObjectStore.PACK_DIRECTORY);
+		Assert.assertTrue("No Pack Written.", packs.list().length > 0);
+		Assert.assertFalse("Loose Artifact Remains.",
+				a1.cloneRepositoryFile().exists());
+		Assert.assertTrue("Loose State Packed.",
+				new File(TH.config.getFPStore(), sHash).exists());
+		// Check Packed Objects are Retrieved
+		TH.deleteFile(TH.w1File);
+		Assert.assertTrue("Retrieve Failed.", new Artifact(TH.w1File, TH.f1Hash)
+				.retrieve());
+		Assert.assertEquals("Retrieved Content.", TH.f1String,
+				TH.gatherContent(TH.w1File));
+		Assert.assertTrue("Second Repack Should Succeed.", this.cmd.execute());
+		// Check Acceptance
+		Assert.assertTrue("Doesn't Accept 'repack'.",
+				this.cmd.accepts("repack"));
+		Assert.assertFalse("Accepts 'repack now'.",
+				this.cmd.accepts("repack now"));
+		Assert.assertFalse("Accepts 'repacks'.", this.cmd.accepts("repacks"));
+		// Check Exit & Usage
+		Assert.assertFalse("Exits.", this.cmd.exits());
+		Assert.assertTrue("Usage.", this.cmd.getUsage().startsWith("repack"));
+	}
+
 	/**
 	 * Cmd_ log.
 	 */
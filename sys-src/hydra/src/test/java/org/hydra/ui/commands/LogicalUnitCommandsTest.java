@@ -411,6 +411,34 @@ public class LogicalUnitCommandsTest {
 				this.cmd.getUsage().startsWith("luReset {<luName>} {-C|-H}"));
 	}
 
+	/**
+	 * Cmd_ lu merge base.
+	 */
+	@Test
+	public void cmd_LUMergeBase() {
+		this.cmd = new LUCmdMergeBase(this.stage, "aCard1", TH.u1s2Hash);
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		this.cmd = new LUCmdMergeBase(this.stage, "aCard1", TH.u1s1Hash,
+				TH.u1s2Hash);
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		this.cmd = new LUCmdMergeBase(this.stage, "NonExistent", TH.u1s1Hash);
+		Assert.assertFalse("Should Fail - Invalid LU.", this.cmd.execute());
+		// Check Acceptable
+		Assert.assertTrue("Doesn't Accept 'lumergebase aCard1 <hash>'.",
+				this.cmd.accepts("lumergebase aCard1 " + TH.u1s1Hash));
+		Assert.assertTrue("Doesn't Accept 'lumergebase a b c <hash> <hash>'.",
+				this.cmd.accepts("lumergebase a b c " + TH.u1s1Hash + " "
+						+ TH.u1s2Hash));
+		// Check Reject
+		Assert.assertFalse("Accepts 'lumergebase aCard1'.",
+				this.cmd.accepts("lumergebase aCard1"));
+		Assert.assertFalse("Accepts 'lumergebase aCard1 abc'.",
+				this.cmd.accepts("lumergebase aCard1 abc"));
+		Assert.assertFalse("Accepts 'other'.", this.cmd.accepts("other"));
+		Assert.assertTrue("Usage.",
+				this.cmd.getUsage().startsWith("luMergeBase {<luName>}"));
+	}
+
 	/**
 	 * Cmd_ lu log.
 	 */
@@ -434,6 +462,16 @@ public class LogicalUnitCommandsTest {
 		Assert.assertTrue("Doesn't Accept 'lulog -a -b -c -V'.",
 				this.cmd.accepts("lulog -a -b -c -V"));
 		Assert.assertTrue("Doesn't Accept 'lulog'.", this.cmd.accepts("lulog"));
+		Assert.assertTrue("Doesn't Accept 'lulog aCard1 -n 5 --since 2011-01-01 -V'.",
+				this.cmd.accepts("lulog aCard1 -n 5 --since 2011-01-01 -V"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'lulog aCard1 --stat -n 1'.",
+				this.cmd.accepts("lulog aCard1 --stat -n 1"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'lulog a b --since 2011-01-01T12:00:00'.",
+				this.cmd.accepts("lulog a b --since 2011-01-01T12:00:00"));
+		Assert.assertFalse("Accepts 'lulog aCard1 --since yesterday'.",
+				this.cmd.accepts("lulog aCard1 --since yesterday"));
 		// Check Reject
 		Assert.assertFalse("Accepts 'other'.", this.cmd.accepts("other"));
 		Assert.assertFalse("Accepts 'other two'.",
@@ -460,6 +498,16 @@ public class LogicalUnitCommandsTest {
 				"Line 1 Content.\nLine 2 Content.\n\nLine 4 Content.");
 		this.cmd = new LUCmdDiff(this.stage, "aCard1", "c1File.txt");
 		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		this.cmd = new LUCmdDiff(this.stage, "aCard1");
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'ludiff aCard1 --stat'.",
+				this.cmd.accepts("ludiff aCard1 --stat"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertFalse("Accepts 'ludiff --stats'.",
+				this.cmd.accepts("ludiff --stats"));
+		Assert.assertTrue("Doesn't Accept 'ludiff aCard1 --all'.",
+				this.cmd.accepts("ludiff aCard1 --all"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
 		this.cmd = new LUCmdDiff(this.stage);
 		Assert.assertFalse("Should Not Succeed.", this.cmd.execute());
 		// Check Acceptable
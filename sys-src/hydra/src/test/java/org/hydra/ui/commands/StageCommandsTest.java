@@ -527,6 +527,14 @@ public class StageCommandsTest {
 				this.cmd.accepts("slog -s"));
 		Assert.assertTrue("Doesn't Accept 'slog -V'.",
 				this.cmd.accepts("slog -V"));
+		Assert.assertTrue("Doesn't Accept 'slog -n 2 --since 2011-01-01 -s'.",
+				this.cmd.accepts("slog -n 2 --since 2011-01-01 -s"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'slog --stat'.",
+				this.cmd.accepts("slog --stat"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertFalse("Accepts 'slog --since 2011-13-01'.",
+				this.cmd.accepts("slog --since 2011-13-01"));
 		// Check Reject
 		Assert.assertFalse("Accepts 'slog aCard1 -s'.",
 				this.cmd.accepts("slog aCard1 -s"));
@@ -553,6 +561,12 @@ public class StageCommandsTest {
 				"Line 1 Content.\nLine 2 Content.\n\nLine 4 Content.");
 		this.cmd = new SCmdDiff(this.stage, "c1File.txt");
 		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'sdiff --stat'.",
+				this.cmd.accepts("sdiff --stat"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
+		Assert.assertTrue("Doesn't Accept 'sdiff --all'.",
+				this.cmd.accepts("sdiff --all"));
+		Assert.assertTrue("Should Succeed.", this.cmd.execute());
 		this.cmd = new SCmdDiff(this.stage);
 		Assert.assertFalse("Should Not Succeed.", this.cmd.execute());
 		// Check Acceptable
@@ -0,0 +1,277 @@
+/**************************************************************************
+ * Hydra: multi-headed version control system
+ * (originally for the alpha-Flow project)
+ * ==============================================
+ * Copyright (C) 2009-2012 by 
+ *   - Christoph P. Neumann (http://www.chr15t0ph.de)
+ *   - Scott Hady
+ **************************************************************************
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ **************************************************************************
+ * $Id$
+ *************************************************************************/
+package org.hydra.utilities.diff.myers;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hydra.TH;
+import org.hydra.utilities.Logger;
+import org.hydra.utilities.diff.Change;
+import org.hydra.utilities.diff.ChangeAdd;
+import org.hydra.utilities.diff.ChangeDelete;
+import org.hydra.utilities.diff.ChangeReplace;
+import org.hydra.utilities.diff.ChangeSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The Class MyersDiffTest.
+ */
+public class MyersDiffTest {
+
+	/** The from array. */
+	String[] fromArray;
+
+	/** The to array. */
+	String[] toArray;
+
+	/** The myers diff. */
+	MyersDiff myersDiff;
+
+	/** The change set. */
+	ChangeSet changeSet;
+
+	/**
+	 * Before class.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+		TH.setupLogging();
+		Logger.getInstance().info("MYERSDIFF TEST");
+	}
+
+	/**
+	 * Before.
+	 */
+	@Before
+	public void before() {
+		this.changeSet = new ChangeSet();
+	}
+
+	/**
+	 * Md same.
+	 */
+	@Test
+	public void mdSame() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "a b b c".split(" ");
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md_small add front.
+	 */
+	@Test
+	public void md_smallAddFront() {
+		this.fromArray = "".split(" ");
+		this.toArray = "a".split(" ");
+		this.changeSet.add(new ChangeReplace(1, " a".split(" "), 1));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md add front.
+	 */
+	@Test
+	public void mdAddFront() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "b a b b c".split(" ");
+		this.changeSet.add(new ChangeAdd(1, new String[] { "b" }));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md add end.
+	 */
+	@Test
+	public void mdAddEnd() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "a b b c b".split(" ");
+		this.changeSet.add(new ChangeAdd(5, new String[] { "b" }));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md remove front.
+	 */
+	@Test
+	public void mdRemoveFront() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "b b c".split(" ");
+		this.changeSet.add(new ChangeDelete(1, new String[] { "a" }));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md remove end.
+	 */
+	@Test
+	public void mdRemoveEnd() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "a b b".split(" ");
+		this.changeSet.add(new ChangeDelete(4, new String[] { "c" }));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md change front.
+	 */
+	@Test
+	public void mdChangeFront() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "c b b c".split(" ");
+		this.changeSet.add(new ChangeReplace(1, new String[] { "a", "c" }, 1));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md change multiple back.
+	 */
+	@Test
+	public void mdChangeMultipleBack() {
+		this.fromArray = "a b b c".split(" ");
+		this.toArray = "a b a a".split(" ");
+		this.changeSet.add(new ChangeReplace(3, "b c a a".split(" "), 2));
+		this.assertChangeSet();
+	}
+
+	/**
+	 * Md_ file test.
+	 */
+	@Test
+	public void md_FileTest() {
+		this.changeSet.add(new ChangeAdd(2,
+				new String[] { "L2: This is some more Content." }));
+		TH.writeFile(TH.w2File, "L1: Initial Content.");
+		TH.writeFile(TH.w3File,
+				"L1: Initial Content.\nL2: This is some more Content.");
+		this.myersDiff = new MyersDiff(TH.w2File, TH.w3File);
+		Assert.assertEquals(this.changeSet.toString(), this.myersDiff
+				.getChangeSet().toString());
+	}
+
+	/**
+	 * Md_ stream test.
+	 */
+	@Test
+	public void md_StreamTest() {
+		this.changeSet.add(new ChangeDelete(2, new String[] { "L2: Removed." }));
+		this.myersDiff = new MyersDiff(new ByteArrayInputStream(
+				"L1: Content.\nL2: Removed.\nL1: Content.".getBytes()),
+				new ByteArrayInputStream("L1: Content.\nL1: Content.\n"
+						.getBytes()));
+		Assert.assertEquals(this.changeSet.toString(), this.myersDiff
+				.getChangeSet().toString());
+	}
+
+	/**
+	 * Md_ minimal, the changes transform the from array with the fewest
+	 * changed lines.
+	 */
+	@Test
+	public void md_Minimal() {
+		this.fromArray = "a b c a b b a".split(" ");
+		this.toArray = "c b a b a c".split(" ");
+		this.myersDiff = new MyersDiff(this.fromArray, this.toArray);
+		Assert.assertEquals(5, this.countChangedLines());
+		Assert.assertArrayEquals("Should Transform Array.", this.toArray,
+				this.applyChangeSet());
+	}
+
+	/**
+	 * Md_ large, a large input with scattered changes.
+	 */
+	@Test
+	public void md_Large() {
+		final int size = 50000;
+		this.fromArray = new String[size];
+		this.toArray = new String[size];
+		for (int i = 0; i < size; i++) {
+			this.fromArray[i] = "Line " + (i % 100);
+			this.toArray[i] = ((i % 1000) == 0) ? "Changed " + i
+					: this.fromArray[i];
+		}
+		this.myersDiff = new MyersDiff(this.fromArray, this.toArray);
+		Assert.assertEquals(size / 1000,
+				this.myersDiff.getChangeSet().listChanges().length);
+		Assert.assertArrayEquals("Should Transform Array.", this.toArray,
+				this.applyChangeSet());
+	}
+
+	/**
+	 * TEST HELPERS ***********************************************************.
+	 */
+
+	/**
+	 * Calculate the difference and assert the expected change set.
+	 */
+	private void assertChangeSet() {
+		this.myersDiff = new MyersDiff(this.fromArray, this.toArray);
+		Assert.assertEquals(this.changeSet.toString(), this.myersDiff
+				.getChangeSet().toString());
+		Assert.assertArrayEquals("Should Transform Array.", this.toArray,
+				this.applyChangeSet());
+	}
+
+	/**
+	 * Count the deleted and added lines of the calculated change set.
+	 *
+	 * @return count - int.
+	 */
+	private int countChangedLines() {
+		int count = 0;
+		for (final Change change : this.myersDiff.getChangeSet()
+				.listChanges()) {
+			count += change.getChangedLines().length;
+		}
+		return count;
+	}
+
+	/**
+	 * Apply the calculated change set to the from array.
+	 *
+	 * @return transformedArray - String[].
+	 */
+	private String[] applyChangeSet() {
+		final List<String> transformed = new ArrayList<String>();
+		int line = 1;
+		for (final Change change : this.myersDiff.getChangeSet()
+				.listChanges()) {
+			while (line < change.getLineNumber()) {
+				transformed.add(this.fromArray[line++ - 1]);
+			}
+			final String[] changedLines = change.getChangedLines();
+			line += change.countDeleted();
+			for (int i = change.countDeleted(); i < changedLines.length; i++) {
+				transformed.add(changedLines[i]);
+			}
+		}
+		while (line <= this.fromArray.length) {
+			transformed.add(this.fromArray[line++ - 1]);
+		}
+		return transformed.toArray(new String[transformed.size()]);
+	}
+
+}